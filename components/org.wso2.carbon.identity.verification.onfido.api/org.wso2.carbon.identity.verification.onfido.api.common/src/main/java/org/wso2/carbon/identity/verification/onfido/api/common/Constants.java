@@ -28,7 +28,7 @@ public class Constants {
     public static final String ERROR_PREFIX = "OIDV-";
     public static final String RESOURCE_WORKFLOW_RUN = "workflow_run";
     public static final String ACTION_WORKFLOW_RUN_COMPLETED = "workflow_run.completed";
-    public static final String HMAC_SHA256_ALGORITHM = "HmacSHA256";
+    public static final String X_SHA2_SIGNATURE_HEADER = "X-SHA2-Signature";
 
     /**
      * Enum for identity verification related errors.
@@ -91,7 +91,10 @@ public class Constants {
                         "for assistance."),
         CLIENT_ERROR_INVALID_REQUEST("60007",
                 "Invalid request payload.",
-                "The request payload contains invalid input, such as an invalid workflow run ID.");
+                "The request payload contains invalid input, such as an invalid workflow run ID."),
+        CLIENT_ERROR_REQUEST_BODY_TOO_LARGE("60008",
+                "Request payload too large.",
+                "The request payload exceeds the maximum size accepted for an Onfido webhook request.");
 
         private final String code;
         private final String message;
@@ -18,26 +18,46 @@
 
 package org.wso2.carbon.identity.verification.onfido.api.v1.interceptors;
 
+import org.apache.cxf.common.util.CastUtils;
 import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.phase.AbstractPhaseInterceptor;
 import org.apache.cxf.phase.Phase;
+import org.wso2.carbon.identity.verification.onfido.api.common.error.APIError;
+import org.wso2.carbon.identity.verification.onfido.api.common.error.ErrorResponse;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import static org.wso2.carbon.identity.verification.onfido.api.common.Constants.ErrorMessage.CLIENT_ERROR_REQUEST_BODY_TOO_LARGE;
 
 /**
  * An interceptor that reads and stores the raw request body of incoming HTTP requests in a ThreadLocal variable.
  * This allows the raw request body to be accessed later in the processing chain, even after it has been consumed.
+ * <p>
+ * The body is kept exactly as the bytes received, without decoding it, so that the webhook signatures are computed
+ * over the exact bytes signed by Onfido. The same bytes are read by CXF for the rest of the processing, without
+ * copying them.
+ * <p>
+ * Onfido webhook payloads are a few kilobytes, hence a request body larger than {@link #MAX_REQUEST_BODY_SIZE} is
+ * rejected with 413 Payload Too Large. A request declaring a larger Content-Length is rejected before any of its body
+ * is read, and a body without a Content-Length is rejected as soon as it is read beyond the limit.
  */
 public class RawRequestBodyInterceptor extends AbstractPhaseInterceptor<Message> {
 
+    private static final int BUFFER_SIZE = 1024;
+    static final int MAX_REQUEST_BODY_SIZE = 1024 * 1024;
+
     // ThreadLocal variable to store the raw request body for each thread.
-    private static final ThreadLocal<String> threadLocalRawRequestBody = new ThreadLocal<>();
+    private static final ThreadLocal<ByteBuffer> threadLocalRawRequestBody = new ThreadLocal<>();
 
     public RawRequestBodyInterceptor() {
 
@@ -49,21 +69,24 @@ public class RawRequestBodyInterceptor extends AbstractPhaseInterceptor<Message>
      * storing it in a ThreadLocal variable, and resetting the InputStream for further processing.
      *
      * @param message The CXF message containing the HTTP request.
-     * @throws Fault If an error occurs while reading the InputStream or processing the message.
+     * @throws Fault If an error occurs while reading the InputStream or processing the message, or if the request
+     *               body is larger than the maximum size accepted.
      */
     @Override
     public void handleMessage(Message message) throws Fault {
 
         InputStream is = message.getContent(InputStream.class);
         if (is != null) {
+            if (getContentLength(message) > MAX_REQUEST_BODY_SIZE) {
+                throw createRequestBodyTooLargeFault();
+            }
             try {
-                // Convert the InputStream to a String and store it in ThreadLocal.
-                String rawRequestBody = readInputStream(is);
-                threadLocalRawRequestBody.set(rawRequestBody);
+                // Read the raw bytes of the InputStream once and store them in ThreadLocal.
+                RawRequestBody rawRequestBody = readInputStream(is);
+                threadLocalRawRequestBody.set(rawRequestBody.toByteBuffer());
 
-                // Reset the InputStream for CXF to process it again.
-                message.setContent(InputStream.class,
-                        new ByteArrayInputStream(rawRequestBody.getBytes(StandardCharsets.UTF_8)));
+                // Reset the InputStream for CXF to process the same bytes again.
+                message.setContent(InputStream.class, rawRequestBody.toInputStream());
             } catch (IOException e) {
                 throw new Fault(e);
             }
@@ -71,34 +94,78 @@ public class RawRequestBodyInterceptor extends AbstractPhaseInterceptor<Message>
     }
 
     /**
-     * Reads the content of an InputStream and converts it to a String.
+     * Reads the content of an InputStream.
      *
      * @param is The InputStream to be read.
-     * @return The content of the InputStream as a String.
+     * @return The raw bytes of the InputStream.
      * @throws IOException If an error occurs while reading the InputStream.
      */
-    private String readInputStream(InputStream is) throws IOException {
+    private RawRequestBody readInputStream(InputStream is) throws IOException {
 
-        StringBuilder sb = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-            char[] buffer = new char[1024];
+        RawRequestBody rawRequestBody = new RawRequestBody();
+        try (InputStream inputStream = is) {
+            byte[] buffer = new byte[BUFFER_SIZE];
             int length;
-            while ((length = reader.read(buffer)) != -1) {
-                sb.append(buffer, 0, length);
+            while ((length = inputStream.read(buffer)) != -1) {
+                if (rawRequestBody.size() + length > MAX_REQUEST_BODY_SIZE) {
+                    throw createRequestBodyTooLargeFault();
+                }
+                rawRequestBody.write(buffer, 0, length);
             }
         }
-        return sb.toString();
+        return rawRequestBody;
+    }
+
+    /**
+     * Gets the Content-Length declared by a request.
+     *
+     * @param message The CXF message containing the HTTP request.
+     * @return The Content-Length of the request, or -1 if it is not declared or invalid.
+     */
+    private long getContentLength(Message message) {
+
+        Map<String, List<String>> headers = CastUtils.cast((Map<?, ?>) message.get(Message.PROTOCOL_HEADERS));
+        if (headers == null) {
+            return -1;
+        }
+        List<String> contentLengths = headers.get(HttpHeaders.CONTENT_LENGTH);
+        if (contentLengths == null || contentLengths.isEmpty()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLengths.get(0).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Creates the fault rejecting a request whose body is larger than the maximum size accepted.
+     *
+     * @return The fault with the 413 status code, and the APIError describing the error as the cause.
+     */
+    private Fault createRequestBodyTooLargeFault() {
+
+        ErrorResponse errorResponse = new ErrorResponse.Builder()
+                .withCode(CLIENT_ERROR_REQUEST_BODY_TOO_LARGE.getCode())
+                .withMessage(CLIENT_ERROR_REQUEST_BODY_TOO_LARGE.getMessage())
+                .withDescription(CLIENT_ERROR_REQUEST_BODY_TOO_LARGE.getDescription())
+                .build();
+        Fault fault = new Fault(new APIError(Response.Status.REQUEST_ENTITY_TOO_LARGE, errorResponse));
+        fault.setStatusCode(Response.Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode());
+        return fault;
     }
 
     /**
      * Retrieves the raw request body stored in the ThreadLocal variable.
      * This method should be called to access the raw request body during processing.
      *
-     * @return The raw request body as a String, or null if not set.
+     * @return A read only buffer of the raw bytes of the request body, or null if not set.
      */
-    public static String getRawRequestBody() {
+    public static ByteBuffer getRawRequestBody() {
 
-        return threadLocalRawRequestBody.get();
+        ByteBuffer rawRequestBody = threadLocalRawRequestBody.get();
+        return rawRequestBody == null ? null : rawRequestBody.duplicate();
     }
 
     /**
@@ -109,4 +176,26 @@ public class RawRequestBodyInterceptor extends AbstractPhaseInterceptor<Message>
 
         threadLocalRawRequestBody.remove();
     }
+
+    /**
+     * The raw bytes of a request body, shared by the ThreadLocal variable and the InputStream read by CXF rather
+     * than copied for each of them.
+     */
+    private static class RawRequestBody extends ByteArrayOutputStream {
+
+        private RawRequestBody() {
+
+            super(BUFFER_SIZE);
+        }
+
+        private ByteBuffer toByteBuffer() {
+
+            return ByteBuffer.wrap(buf, 0, count).asReadOnlyBuffer();
+        }
+
+        private InputStream toInputStream() {
+
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.verification.onfido.api.v1.interceptors;
+
+import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.jaxrs.utils.HttpUtils;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+import org.wso2.carbon.identity.verification.onfido.api.common.error.APIError;
+import org.wso2.carbon.identity.verification.onfido.api.v1.core.OnfidoIdvService;
+import org.wso2.carbon.identity.verification.onfido.api.v1.factories.OnfidoIdvServiceFactory;
+import org.wso2.carbon.identity.verification.onfido.connector.OnfidoIdVProviderSnapshot;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.ws.rs.HttpMethod;
+
+import static org.wso2.carbon.identity.verification.onfido.api.common.Constants.X_SHA2_SIGNATURE_HEADER;
+
+/**
+ * An interceptor that validates the signatures of the Onfido webhook requests against the raw request body read by
+ * the RawRequestBodyInterceptor. It runs before the request payload is deserialized and bean validated, so that
+ * unsigned or badly signed requests are rejected without the cost of parsing them.
+ * <p>
+ * The identity verification provider is resolved from the idvp-id segment of the request path, as the resource method
+ * is not matched yet at this phase, ignoring any matrix parameters of the path segments. The snapshot of the provider
+ * the signature is validated with is kept in the CXF exchange of the request along with the provider ID, so that the
+ * request is processed without resolving the provider again. A request which reaches the resource without a
+ * validated snapshot for its provider has its signature validated by the OnfidoIdvService instead.
+ */
+public class SignatureValidationInterceptor extends AbstractPhaseInterceptor<Message> {
+
+    private static final Pattern VERIFY_PATH_PATTERN = Pattern.compile("/([^/]+)/verify/?$");
+    private static final Pattern MATRIX_PARAMS_PATTERN = Pattern.compile(";[^/]*");
+
+    private final Supplier<OnfidoIdvService> onfidoIdvServiceSupplier;
+
+    public SignatureValidationInterceptor() {
+
+        this(OnfidoIdvServiceFactory::getOnfidoIdvService);
+    }
+
+    SignatureValidationInterceptor(Supplier<OnfidoIdvService> onfidoIdvServiceSupplier) {
+
+        super(Phase.READ);
+        addAfter(RawRequestBodyInterceptor.class.getName());
+        this.onfidoIdvServiceSupplier = onfidoIdvServiceSupplier;
+    }
+
+    /**
+     * Handles the incoming message by validating the signature of the webhook request, and clears the raw request body
+     * which is not needed once the signature is validated, or for the requests which are not webhook requests.
+     *
+     * @param message The CXF message containing the HTTP request.
+     * @throws Fault If the signature of the request is missing or invalid, or cannot be validated, with the APIError
+     *               describing the error as the cause.
+     */
+    @Override
+    public void handleMessage(Message message) throws Fault {
+
+        try {
+            String idvpId = getIdVProviderId(message);
+            if (idvpId == null) {
+                return;
+            }
+            OnfidoIdVProviderSnapshot idVProviderSnapshot = onfidoIdvServiceSupplier.get()
+                    .validateSignature(getSignature(message), idvpId, RawRequestBodyInterceptor.getRawRequestBody());
+            Exchange exchange = message.getExchange();
+            if (exchange != null && idVProviderSnapshot != null) {
+                exchange.put(ValidatedIdVProvider.class, new ValidatedIdVProvider(idvpId, idVProviderSnapshot));
+            }
+        } catch (APIError e) {
+            Fault fault = new Fault(e);
+            fault.setStatusCode(e.getStatus().getStatusCode());
+            throw fault;
+        } finally {
+            RawRequestBodyInterceptor.clear();
+        }
+    }
+
+    /**
+     * Gets the snapshot of the identity verification provider the signature of the current webhook request was
+     * validated with.
+     *
+     * @param idvpId The identity verification provider ID the request is processed for.
+     * @return The snapshot of the identity verification provider, or null if the signature of the current request
+     * was not validated by this interceptor for the given provider.
+     */
+    public static OnfidoIdVProviderSnapshot getValidatedIdVProviderSnapshot(String idvpId) {
+
+        return getValidatedIdVProviderSnapshot(PhaseInterceptorChain.getCurrentMessage(), idvpId);
+    }
+
+    /**
+     * Gets the snapshot of the identity verification provider the signature of a webhook request was validated with.
+     *
+     * @param message The CXF message containing the HTTP request.
+     * @param idvpId  The identity verification provider ID the request is processed for.
+     * @return The snapshot of the identity verification provider, or null if the signature of the request was not
+     * validated by this interceptor for the given provider.
+     */
+    static OnfidoIdVProviderSnapshot getValidatedIdVProviderSnapshot(Message message, String idvpId) {
+
+        if (message == null || message.getExchange() == null) {
+            return null;
+        }
+        ValidatedIdVProvider validatedIdVProvider = message.getExchange().get(ValidatedIdVProvider.class);
+        if (validatedIdVProvider == null || !validatedIdVProvider.idvpId.equals(idvpId)) {
+            return null;
+        }
+        return validatedIdVProvider.idVProviderSnapshot;
+    }
+
+    /**
+     * Gets the identity verification provider ID from the path of a webhook request.
+     *
+     * @param message The CXF message containing the HTTP request.
+     * @return The identity verification provider ID, or null if the message is not a webhook request.
+     */
+    private String getIdVProviderId(Message message) {
+
+        String path = (String) message.get(Message.PATH_INFO);
+        if (path == null || !HttpMethod.POST.equals(message.get(Message.HTTP_REQUEST_METHOD))) {
+            return null;
+        }
+        Matcher matcher = VERIFY_PATH_PATTERN.matcher(MATRIX_PARAMS_PATTERN.matcher(path).replaceAll(""));
+        return matcher.find() ? HttpUtils.pathDecode(matcher.group(1)) : null;
+    }
+
+    /**
+     * Gets the signature header of a webhook request.
+     *
+     * @param message The CXF message containing the HTTP request.
+     * @return The signature of the request, or null if the header is not present.
+     */
+    private String getSignature(Message message) {
+
+        Map<String, List<String>> headers = CastUtils.cast((Map<?, ?>) message.get(Message.PROTOCOL_HEADERS));
+        if (headers == null) {
+            return null;
+        }
+        List<String> signatures = headers.get(X_SHA2_SIGNATURE_HEADER);
+        return signatures == null || signatures.isEmpty() ? null : signatures.get(0);
+    }
+
+    /**
+     * The identity verification provider the signature of a webhook request is validated with.
+     */
+    private static class ValidatedIdVProvider {
+
+        private final String idvpId;
+        private final OnfidoIdVProviderSnapshot idVProviderSnapshot;
+
+        private ValidatedIdVProvider(String idvpId, OnfidoIdVProviderSnapshot idVProviderSnapshot) {
+
+            this.idvpId = idvpId;
+            this.idVProviderSnapshot = idVProviderSnapshot;
+        }
+    }
+}
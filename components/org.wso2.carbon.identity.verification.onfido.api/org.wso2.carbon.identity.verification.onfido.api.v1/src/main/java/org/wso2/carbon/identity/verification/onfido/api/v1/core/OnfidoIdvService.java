@@ -27,7 +27,6 @@ import org.wso2.carbon.extension.identity.verification.mgt.exception.IdentityVer
 import org.wso2.carbon.extension.identity.verification.mgt.model.IdVClaim;
 import org.wso2.carbon.extension.identity.verification.provider.IdVProviderManager;
 import org.wso2.carbon.extension.identity.verification.provider.exception.IdVProviderMgtException;
-import org.wso2.carbon.extension.identity.verification.provider.model.IdVConfigProperty;
 import org.wso2.carbon.extension.identity.verification.provider.model.IdVProvider;
 import org.wso2.carbon.identity.base.IdentityException;
 import org.wso2.carbon.identity.verification.onfido.api.common.Constants;
@@ -36,19 +35,23 @@ import org.wso2.carbon.identity.verification.onfido.api.common.error.ErrorRespon
 import org.wso2.carbon.identity.verification.onfido.api.v1.interceptors.RawRequestBodyInterceptor;
 import org.wso2.carbon.identity.verification.onfido.api.v1.model.VerifyRequest;
 import org.wso2.carbon.identity.verification.onfido.api.v1.model.VerifyRequestPayload;
+import org.wso2.carbon.identity.verification.onfido.connector.OnfidoIdVClaimTracker;
+import org.wso2.carbon.identity.verification.onfido.connector.OnfidoIdVProviderSnapshot;
+import org.wso2.carbon.identity.verification.onfido.connector.OnfidoIdVProviderSnapshotCache;
+import org.wso2.carbon.identity.verification.onfido.connector.OnfidoWebhookDeduplicator;
+import org.wso2.carbon.identity.verification.onfido.connector.OnfidoWorkflowRunIndex;
+import org.wso2.carbon.identity.verification.onfido.connector.OnfidoWorkflowRunRecord;
 import org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants;
 import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoClientException;
 import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoWorkflowRun;
+import org.wso2.carbon.identity.verification.onfido.connector.web.OnfidoWorkflowRunCache;
 
-import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import javax.ws.rs.core.Response;
 
 import static org.wso2.carbon.identity.verification.onfido.api.common.Constants.ACTION_WORKFLOW_RUN_COMPLETED;
@@ -65,10 +68,8 @@ import static org.wso2.carbon.identity.verification.onfido.api.common.Constants.
 import static org.wso2.carbon.identity.verification.onfido.api.common.Constants.ErrorMessage.SERVER_ERROR_RESOLVING_IDVP;
 import static org.wso2.carbon.identity.verification.onfido.api.common.Constants.ErrorMessage.SERVER_ERROR_SIGNATURE_VALIDATION_FAILURE;
 import static org.wso2.carbon.identity.verification.onfido.api.common.Constants.ErrorMessage.SERVER_ERROR_UPDATING_IDV_CLAIM_VERIFICATION_STATUS;
-import static org.wso2.carbon.identity.verification.onfido.api.common.Constants.HMAC_SHA256_ALGORITHM;
 import static org.wso2.carbon.identity.verification.onfido.api.common.Constants.RESOURCE_WORKFLOW_RUN;
 import static org.wso2.carbon.identity.verification.onfido.api.common.Util.getTenantId;
-import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.BASE_URL;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.DATA_COMPARISON;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_DATA_COMPARISON_BREAKDOWN_CLAIM_NOT_FOUND;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_DATA_COMPARISON_BREAKDOWN_CLAIM_VERIFICATION_RESULT_NULL;
@@ -84,15 +85,10 @@ import static org.wso2.carbon.identity.verification.onfido.connector.constants.O
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_SIGNATURE_VALIDATION_PROCESSING;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_UNSUPPORTED_RESOURCE_TYPE_OR_ACTION;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_UPDATING_IDV_CLAIM_VERIFICATION_STATUS;
-import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ONFIDO_COMPLETED_AT;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ONFIDO_VERIFICATION_STATUS;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ONFIDO_WORKFLOW_RUN_ID;
-import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ONFIDO_WORKFLOW_STATUS;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.OUTPUT;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.RESULT;
-import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.TOKEN;
-import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.WEBHOOK_TOKEN;
-import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.WORKFLOW_ID;
 
 /**
  * Onfido Identity Verification Service implementation to be notified when the verification is completed.
@@ -112,29 +108,79 @@ public class OnfidoIdvService {
     }
 
     /**
-     * Handles the Onfido webhook verification status update.
-     * This method is invoked when Onfido sends a verification status update via webhook.
-     * It validates the request verifying the signature, and updates the verification claims of the user
-     * based on the status.
+     * Validates the signature of an Onfido webhook request.
+     * This method is invoked by the SignatureValidationInterceptor with the raw request body, before the request
+     * payload is deserialized and validated, so that unsigned or badly signed requests are rejected early.
+     *
+     * The snapshot of the identity verification provider resolved to validate the signature is returned, so that the
+     * request can be processed without resolving the provider again.
      *
      * @param xSHA2Signature The SHA-2 signature from the Onfido webhook header for validation.
      * @param idvpId         The identity verification provider ID.
-     * @param verifyRequest  The verification request payload from Onfido.
+     * @param rawRequestBody The raw bytes of the verification request payload from Onfido.
+     * @return The snapshot of the configuration of the identity verification provider.
      */
-    public void verify(String xSHA2Signature, String idvpId, VerifyRequest verifyRequest) {
+    public OnfidoIdVProviderSnapshot validateSignature(String xSHA2Signature, String idvpId,
+                                                       ByteBuffer rawRequestBody) {
 
         int tenantId = getTenantId();
+        OnfidoIdVProviderSnapshot idVProviderSnapshot = null;
         try {
-            String rawRequestBody = RawRequestBodyInterceptor.getRawRequestBody();
+            IdVProvider idVProvider = getIdVProvider(idvpId, tenantId);
+            idVProviderSnapshot = getIdVProviderSnapshot(idVProvider, tenantId);
 
-            validateResourceTypeAndAction(verifyRequest);
+            validateSignature(xSHA2Signature, idVProviderSnapshot, rawRequestBody);
+        } catch (OnfidoClientException e) {
+            handleClientException(e);
+        } catch (OnfidoServerException e) {
+            handleServerException(e);
+        }
+        return idVProviderSnapshot;
+    }
 
-            IdVProvider idVProvider = getIdVProvider(idvpId, tenantId);
-            Map<String, String> idVProviderConfigProperties = getIdVConfigPropertyMap(idVProvider);
+    /**
+     * Handles the Onfido webhook verification status update.
+     * This method is invoked when Onfido sends a verification status update via webhook. It updates the verification
+     * claims of the user based on the status.
+     * <p>
+     * The signature of the request is normally validated by the SignatureValidationInterceptor, which hands over the
+     * snapshot of the identity verification provider it validated the signature with. Otherwise, the signature is
+     * validated here against the raw request body, and the request is rejected if the raw request body is not
+     * available, so that the claims are never updated by a request without a valid signature.
+     * <p>
+     * The claims are updated before the webhook is acknowledged, so that Onfido delivers the webhook again if they
+     * cannot be updated. A webhook which Onfido redelivers after it is processed, or while it is being processed, is
+     * acknowledged without updating the claims again.
+     *
+     * @param xSHA2Signature               The SHA-2 signature from the Onfido webhook header.
+     * @param idvpId                       The identity verification provider ID.
+     * @param verifyRequest                The verification request payload from Onfido.
+     * @param validatedIdVProviderSnapshot The snapshot of the identity verification provider the signature was
+     *                                     validated with by the SignatureValidationInterceptor, or null if the
+     *                                     signature is not validated yet.
+     */
+    public void verify(String xSHA2Signature, String idvpId, VerifyRequest verifyRequest,
+                       OnfidoIdVProviderSnapshot validatedIdVProviderSnapshot) {
 
-            validateSignature(xSHA2Signature, idVProviderConfigProperties, rawRequestBody);
+        int tenantId = getTenantId();
+        try {
+            OnfidoIdVProviderSnapshot idVProviderSnapshot = validatedIdVProviderSnapshot;
+            if (idVProviderSnapshot == null) {
+                IdVProvider idVProvider = getIdVProvider(idvpId, tenantId);
+                idVProviderSnapshot = getIdVProviderSnapshot(idVProvider, tenantId);
+                validateSignature(xSHA2Signature, idVProviderSnapshot, getRequiredRawRequestBody());
+            }
 
-            updateIdVClaims(verifyRequest, idvpId, tenantId, idVProvider);
+            validateResourceTypeAndAction(verifyRequest);
+            if (!reserveWebhook(verifyRequest, idvpId, tenantId)) {
+                return;
+            }
+            try {
+                processWebhook(verifyRequest, idvpId, tenantId, idVProviderSnapshot);
+            } catch (Throwable e) {
+                releaseWebhook(verifyRequest, idvpId, tenantId);
+                throw e;
+            }
         } catch (OnfidoClientException e) {
             handleClientException(e);
         } catch (OnfidoServerException e) {
@@ -144,6 +190,89 @@ public class OnfidoIdvService {
         }
     }
 
+    /**
+     * Gets the raw request body of a webhook request whose signature was not validated by the
+     * SignatureValidationInterceptor.
+     *
+     * @return The raw bytes of the request body.
+     * @throws OnfidoClientException If the raw request body is not available to validate the signature against.
+     */
+    private ByteBuffer getRequiredRawRequestBody() throws OnfidoClientException {
+
+        ByteBuffer rawRequestBody = RawRequestBodyInterceptor.getRawRequestBody();
+        if (rawRequestBody == null) {
+            log.warn("The signature of the Onfido webhook request cannot be validated as its raw request body is not " +
+                    "available. Check the interceptors registered for the Onfido webhook endpoint.");
+            throw new OnfidoClientException(ERROR_SIGNATURE_VALIDATION.getCode(),
+                    ERROR_SIGNATURE_VALIDATION.getMessage());
+        }
+        return rawRequestBody;
+    }
+
+    /**
+     * Processes a reserved webhook request, updating the identity verification claims of its workflow run.
+     *
+     * @param verifyRequest       The verification request payload from Onfido.
+     * @param idvpId              The identity verification provider ID.
+     * @param tenantId            The tenant ID.
+     * @param idVProviderSnapshot The snapshot of the configuration of the identity verification provider.
+     * @throws OnfidoClientException If the payload is invalid, or the claims of the workflow run are not found.
+     * @throws OnfidoServerException If a server-side error occurs while updating the claims.
+     */
+    private void processWebhook(VerifyRequest verifyRequest, String idvpId, int tenantId,
+                                OnfidoIdVProviderSnapshot idVProviderSnapshot)
+            throws OnfidoClientException, OnfidoServerException {
+
+        VerifyRequestPayload payload = verifyRequest.getPayload();
+        OnfidoConstants.WorkflowRunStatus workflowRunStatus =
+                OnfidoConstants.WorkflowRunStatus.fromString(payload.getObject().getStatus());
+        Map<String, Object> dataComparisonResults = null;
+        if (workflowRunStatus == OnfidoConstants.WorkflowRunStatus.APPROVED) {
+            dataComparisonResults = extractDataComparisonResults(payload.getResource());
+        }
+        updateIdVClaims(verifyRequest, workflowRunStatus, dataComparisonResults, idvpId, tenantId,
+                idVProviderSnapshot);
+    }
+
+    /**
+     * Reserves the webhook request for processing, identified by the ID, status and completion time of its workflow
+     * run, unless it is a redelivery of a webhook which is already processed or being processed.
+     *
+     * @param verifyRequest The verification request payload from Onfido.
+     * @param idvpId        The identity verification provider ID.
+     * @param tenantId      The tenant ID.
+     * @return True if the webhook is reserved, and false if it is already processed or being processed.
+     */
+    private boolean reserveWebhook(VerifyRequest verifyRequest, String idvpId, int tenantId) {
+
+        VerifyRequestPayload payload = verifyRequest.getPayload();
+        String workflowRunId = payload.getObject().getId();
+        if (OnfidoWebhookDeduplicator.getInstance().reserve(tenantId, idvpId, workflowRunId,
+                payload.getObject().getStatus(), payload.getObject().getCompletedAtIso8601())) {
+            return true;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Skipped the redelivered Onfido webhook of the workflow run: %s as it is " +
+                    "already processed or being processed.", workflowRunId));
+        }
+        return false;
+    }
+
+    /**
+     * Releases the reservation of a webhook request which failed to be processed, so that it is processed again when
+     * Onfido redelivers it.
+     *
+     * @param verifyRequest The verification request payload from Onfido.
+     * @param idvpId        The identity verification provider ID.
+     * @param tenantId      The tenant ID.
+     */
+    private void releaseWebhook(VerifyRequest verifyRequest, String idvpId, int tenantId) {
+
+        VerifyRequestPayload payload = verifyRequest.getPayload();
+        OnfidoWebhookDeduplicator.getInstance().release(tenantId, idvpId, payload.getObject().getId(),
+                payload.getObject().getStatus(), payload.getObject().getCompletedAtIso8601());
+    }
+
     /**
      * Retrieves the Identity Verification Provider (IdVProvider) for the given tenant.
      *
@@ -169,112 +298,49 @@ public class OnfidoIdvService {
     }
 
     /**
-     * Retrieves and validates the configuration properties of the Identity Verification Provider.
+     * Retrieves the validated snapshot of the configuration of the Identity Verification Provider. The snapshot is
+     * only compiled and validated again once the configuration of the provider is updated.
      *
      * @param idVProvider Identity Verification Provider.
-     * @return Config property map of Identity Verification Provider.
-     */
-    private Map<String, String> getIdVConfigPropertyMap(IdVProvider idVProvider) throws OnfidoServerException {
-
-        Map<String, String> configPropertyMap = new HashMap<>();
-        for (IdVConfigProperty idVConfigProperty : idVProvider.getIdVConfigProperties()) {
-            configPropertyMap.put(idVConfigProperty.getName(), idVConfigProperty.getValue());
-        }
-        validateIdVProviderConfigProperties(configPropertyMap);
-        return configPropertyMap;
-    }
-
-    /**
-     * Validates the configuration properties of the Identity Verification Provider.
-     *
-     * @param idVProviderConfigProperties The configuration properties of the Identity Verification Provider.
+     * @param tenantId    The tenant ID.
+     * @return The snapshot of the configuration of the Identity Verification Provider.
      * @throws OnfidoServerException If any required configuration property is missing or invalid.
      */
-    private void validateIdVProviderConfigProperties(Map<String, String> idVProviderConfigProperties)
+    private OnfidoIdVProviderSnapshot getIdVProviderSnapshot(IdVProvider idVProvider, int tenantId)
             throws OnfidoServerException {
 
-        if (idVProviderConfigProperties == null || idVProviderConfigProperties.isEmpty() ||
-                StringUtils.isBlank(idVProviderConfigProperties.get(TOKEN)) ||
-                StringUtils.isBlank(idVProviderConfigProperties.get(BASE_URL)) ||
-                StringUtils.isBlank(idVProviderConfigProperties.get(WEBHOOK_TOKEN)) ||
-                StringUtils.isBlank(idVProviderConfigProperties.get(WORKFLOW_ID))) {
-
+        OnfidoIdVProviderSnapshot idVProviderSnapshot =
+                OnfidoIdVProviderSnapshotCache.getInstance().getSnapshot(idVProvider, tenantId);
+        if (!idVProviderSnapshot.hasValidConfigProperties()) {
             throw new OnfidoServerException(ERROR_IDV_PROVIDER_CONFIG_PROPERTIES_EMPTY.getCode(),
                     ERROR_IDV_PROVIDER_CONFIG_PROPERTIES_EMPTY.getMessage());
         }
+        return idVProviderSnapshot;
     }
 
     /**
      * Validates the signature provided in the webhook request against the expected signature.
-     * Implementation logic extracted from
-     * https://github.com/onfido/onfido-java/blob/master/src/main/java/com/onfido/WebhookEventVerifier.java#L81
      *
-     * @param xSHA2Signature              The SHA-2 signature from the Onfido webhook.
-     * @param idVProviderConfigProperties The configuration properties of the Identity Verification Provider.
-     * @param rawRequestBody              The raw verification request payload from Onfido.
+     * @param xSHA2Signature      The SHA-2 signature from the Onfido webhook.
+     * @param idVProviderSnapshot The snapshot of the configuration of the Identity Verification Provider.
+     * @param rawRequestBody      The raw bytes of the verification request payload from Onfido.
      * @throws OnfidoClientException If the signature validation fails.
      * @throws OnfidoServerException If a server-side error occurs during validation.
      */
-    private void validateSignature(String xSHA2Signature, Map<String, String> idVProviderConfigProperties,
-                                   String rawRequestBody) throws OnfidoClientException, OnfidoServerException {
+    private void validateSignature(String xSHA2Signature, OnfidoIdVProviderSnapshot idVProviderSnapshot,
+                                   ByteBuffer rawRequestBody) throws OnfidoClientException, OnfidoServerException {
 
         if (StringUtils.isBlank(xSHA2Signature)) {
             throw new OnfidoClientException(ERROR_SIGNATURE.getCode(), ERROR_SIGNATURE.getMessage());
         }
 
-        String webhookToken = idVProviderConfigProperties.get(WEBHOOK_TOKEN);
-
-        Mac sha256Hmac;
-        SecretKeySpec secretKey;
-        try {
-            sha256Hmac = Mac.getInstance(HMAC_SHA256_ALGORITHM);
-            secretKey = new SecretKeySpec(webhookToken.getBytes(StandardCharsets.UTF_8), HMAC_SHA256_ALGORITHM);
-            sha256Hmac.init(secretKey);
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-            throw new OnfidoServerException(ERROR_SIGNATURE_VALIDATION_PROCESSING.getCode(),
-                    ERROR_SIGNATURE_VALIDATION_PROCESSING.getMessage(), e);
-        }
-
-        // Compute the HMAC SHA-256 of the raw request body.
-        String expectedSignature = encodeHexString(sha256Hmac.doFinal(rawRequestBody.getBytes(StandardCharsets.UTF_8)));
-
-        // Perform a time-safe comparison of the signatures.
-        if (!MessageDigest.isEqual(expectedSignature.getBytes(StandardCharsets.UTF_8),
-                xSHA2Signature.getBytes(StandardCharsets.UTF_8))) {
+        // Compute the HMAC SHA-256 of the raw request body and compare it with the signature in constant time.
+        if (!idVProviderSnapshot.getWebhookSignatureVerifier().verify(xSHA2Signature, rawRequestBody)) {
             throw new OnfidoClientException(ERROR_SIGNATURE_VALIDATION.getCode(),
                     ERROR_SIGNATURE_VALIDATION.getMessage());
         }
     }
 
-    /**
-     * Encodes a byte array into a hexadecimal string.
-     *
-     * @param byteArray The byte array to encode.
-     * @return The hexadecimal string representation of the byte array.
-     */
-    private String encodeHexString(byte[] byteArray) {
-
-        StringBuilder hexStringBuffer = new StringBuilder();
-        for (byte b : byteArray) {
-            hexStringBuffer.append(byteToHex(b));
-        }
-        return hexStringBuffer.toString();
-    }
-
-    /**
-     * Converts a byte into a hexadecimal string.
-     *
-     * @param num The byte to convert.
-     * @return The hexadecimal string representation of the byte.
-     */
-    private String byteToHex(byte num) {
-
-        char[] hexDigits = new char[2];
-        hexDigits[0] = Character.forDigit((num >> 4) & 0xF, 16);
-        hexDigits[1] = Character.forDigit((num & 0xF), 16);
-        return new String(hexDigits);
-    }
-
     /**
      * Validates the resource type and action from the verification request.
      *
@@ -293,24 +359,27 @@ public class OnfidoIdvService {
     }
 
     /**
-     * Updates the identity verification claims based on the provided Onfido verification request.
+     * Updates the identity verification claims based on the provided Onfido verification request. Once they are
+     * updated, the workflow run status is cached and the webhook is recorded as processed.
      *
-     * @param verifyRequest The Onfido verification request containing the workflow run details and attribute
-     *                      verification results.
-     * @param idvpId        The identity verification provider ID.
-     * @param tenantId      The tenant ID.
-     * @param idVProvider   The identity verification provider.
-     * @throws OnfidoClientException If the payload structure is invalid or required data is missing.
+     * @param verifyRequest         The Onfido verification request containing the workflow run details and
+     *                              attribute verification results.
+     * @param workflowRunStatus     The status of the workflow run.
+     * @param dataComparisonResults The data comparison results of an approved workflow run, or null otherwise.
+     * @param idvpId                The identity verification provider ID.
+     * @param tenantId              The tenant ID.
+     * @param idVProviderSnapshot   The snapshot of the configuration of the identity verification provider.
+     * @throws OnfidoClientException If the claims of the workflow run or their verification results are not found.
      * @throws OnfidoServerException If a server-side error occurs while updating the claims.
      */
-    private void updateIdVClaims(VerifyRequest verifyRequest, String idvpId, int tenantId, IdVProvider idVProvider)
+    private void updateIdVClaims(VerifyRequest verifyRequest, OnfidoConstants.WorkflowRunStatus workflowRunStatus,
+                                 Map<String, Object> dataComparisonResults, String idvpId, int tenantId,
+                                 OnfidoIdVProviderSnapshot idVProviderSnapshot)
             throws OnfidoClientException, OnfidoServerException {
 
         VerifyRequestPayload payload = verifyRequest.getPayload();
         String workflowRunId = payload.getObject().getId();
         String completedAt = payload.getObject().getCompletedAtIso8601();
-        OnfidoConstants.WorkflowRunStatus workflowRunStatus =
-                OnfidoConstants.WorkflowRunStatus.fromString(payload.getObject().getStatus());
         try {
             /*
              * Retrieve the WSO2 identity verification claims associated with the given workflow run ID
@@ -318,6 +387,8 @@ public class OnfidoIdvService {
              * Note: The workflow run ID is unique per user, so this should return claims for a single user.
              */
             IdVClaim[] idVClaims = getIdVClaimsByWorkflowRunId(workflowRunId, idvpId, tenantId);
+            OnfidoIdVClaimTracker.TrackedIdVClaims trackedIdVClaims =
+                    OnfidoIdVClaimTracker.track(Arrays.asList(idVClaims));
             updateIdvClaimsWorkflowStatus(idVClaims, workflowRunStatus, completedAt);
 
             /*
@@ -334,21 +405,43 @@ public class OnfidoIdvService {
              *  separately as we are focusing on the verification of exact claim value.
              */
             if (workflowRunStatus == OnfidoConstants.WorkflowRunStatus.APPROVED) {
-                Map<String, Object> dataComparisonResults = extractDataComparisonResults(payload.getResource());
-                updateIdvClaimsVerificationResults(dataComparisonResults, idVClaims, idVProvider);
+                updateIdvClaimsVerificationResults(dataComparisonResults, idVClaims, idvpId, idVProviderSnapshot);
             }
 
-            // Persist the updated claim information in the database.
-            persistUpdatedClaims(idVClaims, tenantId);
+            /*
+             * Persist the updated claim information in the database. Only the claims which actually changed are
+             * written, hence a redelivered webhook does not rewrite the claims.
+             */
+            persistUpdatedClaims(trackedIdVClaims.getChangedIdVClaims(), tenantId);
 
         } catch (IdentityVerificationException e) {
             throw new OnfidoServerException(ERROR_UPDATING_IDV_CLAIM_VERIFICATION_STATUS.getCode(),
                     ERROR_UPDATING_IDV_CLAIM_VERIFICATION_STATUS.getMessage(), e);
         }
+        cacheWorkflowRun(verifyRequest, idVProviderSnapshot.getConfigProperties());
+        OnfidoWebhookDeduplicator.getInstance().setProcessed(tenantId, idvpId, workflowRunId,
+                payload.getObject().getStatus(), completedAt);
+    }
+
+    /**
+     * Adds the workflow run status received through the webhook to the workflow run cache, so that the verification
+     * requests completing the workflow run afterwards do not need to retrieve it from Onfido.
+     *
+     * @param verifyRequest               The verification request payload from Onfido.
+     * @param idVProviderConfigProperties The configuration properties of the Identity Verification Provider.
+     */
+    private void cacheWorkflowRun(VerifyRequest verifyRequest, Map<String, String> idVProviderConfigProperties) {
+
+        OnfidoWorkflowRun workflowRun = new OnfidoWorkflowRun();
+        workflowRun.setId(verifyRequest.getPayload().getObject().getId());
+        workflowRun.setStatus(verifyRequest.getPayload().getObject().getStatus());
+        OnfidoWorkflowRunCache.getInstance().put(idVProviderConfigProperties, workflowRun);
     }
 
     /**
      * Retrieves the identity verification claims associated with a specific workflow run ID.
+     * The claims are looked up among the claims of the user of the workflow run if the workflow run is indexed, and
+     * searched by the workflow run ID in their metadata otherwise.
      *
      * @param workflowRunId The ID of the workflow run.
      * @param idvpId        The identity verification provider ID.
@@ -360,6 +453,16 @@ public class OnfidoIdvService {
     private IdVClaim[] getIdVClaimsByWorkflowRunId(String workflowRunId, String idvpId, int tenantId)
             throws OnfidoClientException, IdentityVerificationException {
 
+        OnfidoWorkflowRunIndex workflowRunIndex = OnfidoWorkflowRunIndex.getInstance();
+        String userId = workflowRunIndex.getUserId(tenantId, idvpId, workflowRunId);
+        if (userId != null) {
+            IdVClaim[] idVClaims = getUserIdVClaimsByWorkflowRunId(userId, workflowRunId, idvpId, tenantId);
+            if (idVClaims.length > 0) {
+                return idVClaims;
+            }
+            workflowRunIndex.remove(tenantId, idvpId, workflowRunId);
+        }
+
         IdVClaim[] idVClaims =
                 identityVerificationManager.getIdVClaimsByMetadata(ONFIDO_WORKFLOW_RUN_ID, workflowRunId, idvpId,
                         tenantId);
@@ -367,11 +470,37 @@ public class OnfidoIdvService {
             throw new OnfidoClientException(ERROR_RETRIEVING_CLAIMS_AGAINST_WORKFLOW_RUN_ID.getCode(),
                     ERROR_RETRIEVING_CLAIMS_AGAINST_WORKFLOW_RUN_ID.getMessage());
         }
+        workflowRunIndex.put(tenantId, idvpId, workflowRunId, idVClaims[0].getUserId());
         return idVClaims;
     }
 
     /**
-     * Updates the workflow status and completion time for a set of identity verification claims.
+     * Retrieves the identity verification claims of a user associated with a specific workflow run ID.
+     *
+     * @param userId        The unique identifier of the user.
+     * @param workflowRunId The ID of the workflow run.
+     * @param idvpId        The identity verification provider ID.
+     * @param tenantId      The tenant ID.
+     * @return An array of IdVClaim objects of the user associated with the workflow run, which is empty if there
+     * are none.
+     * @throws IdentityVerificationException If there's an error retrieving the claims.
+     */
+    private IdVClaim[] getUserIdVClaimsByWorkflowRunId(String userId, String workflowRunId, String idvpId,
+                                                       int tenantId) throws IdentityVerificationException {
+
+        IdVClaim[] userIdVClaims = identityVerificationManager.getIdVClaims(userId, idvpId, null, tenantId);
+        if (userIdVClaims == null) {
+            return new IdVClaim[0];
+        }
+        return Arrays.stream(userIdVClaims)
+                .filter(idVClaim -> idVClaim != null && idVClaim.getMetadata() != null &&
+                        workflowRunId.equals(idVClaim.getMetadata().get(ONFIDO_WORKFLOW_RUN_ID)))
+                .toArray(IdVClaim[]::new);
+    }
+
+    /**
+     * Updates the workflow status and completion time for a set of identity verification claims. The status and the
+     * completion time are updated once on the record of the workflow run, which is kept by a single claim of the run.
      *
      * @param idVClaims         The array of identity verification claims to update.
      * @param workflowRunStatus The new workflow run status.
@@ -382,16 +511,18 @@ public class OnfidoIdvService {
                                                String completedAt) {
 
         for (IdVClaim idVClaim : idVClaims) {
-            Map<String, Object> metadata = idVClaim.getMetadata();
-            if (metadata != null) {
-                metadata.put(ONFIDO_WORKFLOW_STATUS, workflowRunStatus.getStatus());
-                metadata.put(ONFIDO_COMPLETED_AT, completedAt);
-                idVClaim.setMetadata(metadata);
-            } else {
+            if (idVClaim.getMetadata() == null) {
                 log.error(String.format("Metadata for the claim URI: %s of user: %s is null", idVClaim.getClaimUri(),
                         idVClaim.getUserId()));
             }
         }
+        OnfidoWorkflowRunRecord workflowRunRecord = OnfidoWorkflowRunRecord.fromIdVClaims(Arrays.asList(idVClaims));
+        if (workflowRunRecord == null) {
+            return;
+        }
+        workflowRunRecord.setStatus(workflowRunStatus);
+        workflowRunRecord.setCompletedAt(completedAt);
+        workflowRunRecord.applyTo(Arrays.asList(idVClaims));
     }
 
     /**
@@ -426,24 +557,25 @@ public class OnfidoIdvService {
      *
      * @param dataComparisonResults The data comparison results from Onfido.
      * @param idVClaims             The array of identity verification claims to update.
-     * @param idVProvider           The identity verification provider.
+     * @param idvpId                The identity verification provider ID.
+     * @param idVProviderSnapshot   The snapshot of the configuration of the identity verification provider.
      * @throws OnfidoClientException If there's an error processing the verification results.
      */
     @SuppressWarnings("unchecked")
     private void updateIdvClaimsVerificationResults(Map<String, Object> dataComparisonResults, IdVClaim[] idVClaims,
-                                                    IdVProvider idVProvider) throws OnfidoClientException {
-        /*
-         * Get the mapping of WSO2 claim URIs to Onfido claim names
-         * (e.g., "http://wso2.org/claims/lastname" maps to "last_name").
-         */
-        Map<String, String> claimMappings = idVProvider.getClaimMappings();
+                                                    String idvpId, OnfidoIdVProviderSnapshot idVProviderSnapshot)
+            throws OnfidoClientException {
 
         for (IdVClaim idVClaim : idVClaims) {
             String wso2ClaimUri = idVClaim.getClaimUri();
-            String onfidoClaimName = getOnfidoClaimName(wso2ClaimUri, claimMappings);
+            /*
+             * Get the Onfido claim name of the WSO2 claim URI in the data comparison results
+             * (e.g., "http://wso2.org/claims/lastname" maps to "last_name").
+             */
+            String onfidoClaimName = idVProviderSnapshot.getOnfidoClaimName(wso2ClaimUri);
             if (onfidoClaimName == null) {
                 log.error(String.format("No mapped Onfido claim name identified for the claim URI: %s for the " +
-                        "IDV provider: %s.", wso2ClaimUri, idVProvider.getIdVProviderUuid()));
+                        "IDV provider: %s.", wso2ClaimUri, idvpId));
                 continue;
             }
             Map<String, Object> metadata = idVClaim.getMetadata();
@@ -461,28 +593,6 @@ public class OnfidoIdvService {
         }
     }
 
-    /**
-     * Retrieves the Onfido claim name corresponding to a WSO2 claim URI.
-     *
-     * This method performs a two-step mapping process:
-     * 1. It first maps the WSO2 claim URI to an initial Onfido claim name.
-     * 2. It then applies a second mapping to handle differences between attribute names
-     *    used during applicant creation and those used in the final data comparison results.
-     *
-     * This second mapping is necessary because some attribute names differ between these two stages.
-     * For example, "dob" used during applicant creation might be referred to as "date_of_birth"
-     * in the final attribute value comparison results.
-     *
-     * @param wso2ClaimUri   The WSO2 claim URI.
-     * @param claimMappings  The map of WSO2 claim URIs to initial Onfido claim names.
-     * @return The corresponding final Onfido claim name, or null if not found.
-     */
-    private String getOnfidoClaimName(String wso2ClaimUri, Map<String, String> claimMappings) {
-
-        String onfidoClaimName = claimMappings.get(wso2ClaimUri);
-        return OnfidoConstants.ONFIDO_CLAIM_NAME_MAPPING.getOrDefault(onfidoClaimName, onfidoClaimName);
-    }
-
     /**
      * Validates the verification result for a single claim.
      *
@@ -509,11 +619,11 @@ public class OnfidoIdvService {
     /**
      * Persists the updated identity verification claims to the database.
      *
-     * @param idVClaims The array of updated identity verification claims.
+     * @param idVClaims The updated identity verification claims.
      * @param tenantId  The tenant ID.
      * @throws IdentityVerificationException If there's an error updating the claims in the database.
      */
-    private void persistUpdatedClaims(IdVClaim[] idVClaims, int tenantId) throws IdentityVerificationException {
+    private void persistUpdatedClaims(List<IdVClaim> idVClaims, int tenantId) throws IdentityVerificationException {
 
         for (IdVClaim idVClaim : idVClaims) {
             identityVerificationManager.updateIdVClaim(idVClaim.getUserId(), idVClaim, tenantId);
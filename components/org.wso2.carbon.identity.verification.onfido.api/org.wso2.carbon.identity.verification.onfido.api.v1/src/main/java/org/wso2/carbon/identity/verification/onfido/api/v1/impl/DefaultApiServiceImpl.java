@@ -21,6 +21,7 @@ package org.wso2.carbon.identity.verification.onfido.api.v1.impl;
 import org.wso2.carbon.identity.verification.onfido.api.v1.DefaultApiService;
 import org.wso2.carbon.identity.verification.onfido.api.v1.core.OnfidoIdvService;
 import org.wso2.carbon.identity.verification.onfido.api.v1.factories.OnfidoIdvServiceFactory;
+import org.wso2.carbon.identity.verification.onfido.api.v1.interceptors.SignatureValidationInterceptor;
 import org.wso2.carbon.identity.verification.onfido.api.v1.model.VerifyRequest;
 
 import javax.ws.rs.core.Response;
@@ -44,7 +45,8 @@ public class DefaultApiServiceImpl implements DefaultApiService {
     @Override
     public Response verify(String xSHA2Signature, String idvpId, VerifyRequest verifyRequest) {
 
-        onfidoIdvService.verify(xSHA2Signature, idvpId, verifyRequest);
+        onfidoIdvService.verify(xSHA2Signature, idvpId, verifyRequest,
+                SignatureValidationInterceptor.getValidatedIdVProviderSnapshot(idvpId));
         return Response.ok().build();
     }
 }
@@ -23,12 +23,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 import org.wso2.carbon.extension.identity.verification.mgt.IdentityVerificationManager;
+import org.wso2.carbon.extension.identity.verification.mgt.exception.IdentityVerificationServerException;
 import org.wso2.carbon.extension.identity.verification.mgt.model.IdVClaim;
 import org.wso2.carbon.extension.identity.verification.provider.IdVProviderManager;
 import org.wso2.carbon.extension.identity.verification.provider.exception.IdVProviderMgtException;
@@ -41,23 +44,38 @@ import org.wso2.carbon.identity.verification.onfido.api.v1.interceptors.RawReque
 import org.wso2.carbon.identity.verification.onfido.api.v1.model.VerifyRequest;
 import org.wso2.carbon.identity.verification.onfido.api.v1.model.VerifyRequestPayload;
 import org.wso2.carbon.identity.verification.onfido.api.v1.model.VerifyRequestPayloadObject;
+import org.wso2.carbon.identity.verification.onfido.connector.OnfidoIdVProviderSnapshot;
+import org.wso2.carbon.identity.verification.onfido.connector.OnfidoWebhookDeduplicator;
 import org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import javax.ws.rs.core.Response;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.fail;
 import static org.wso2.carbon.identity.verification.onfido.api.common.Constants.ErrorMessage.CLIENT_ERROR_RESOLVING_IDVP;
 import static org.wso2.carbon.identity.verification.onfido.api.common.Constants.ErrorMessage.CLIENT_ERROR_SIGNATURE_MISMATCH;
@@ -75,6 +93,9 @@ public class OnfidoIdvServiceTest {
     @Mock
     private IdVProvider idVProvider;
 
+    @Mock
+    private OnfidoWebhookDeduplicator webhookDeduplicator;
+
     @InjectMocks
     private OnfidoIdvService onfidoIdvService;
 
@@ -101,6 +122,8 @@ public class OnfidoIdvServiceTest {
     private static final String TEST_USER_ID = "test-user-id";
     private static final String TEST_APPLICANT_ID = "test_applicant_id";
     private static final String TEST_SUCCESS_VERIFICATION_STATUS = "clear";
+    private static final String TEST_ERROR_CODE = "test_error_code";
+    private static final String TEST_ERROR_MESSAGE = "test_error_message";
 
     private static final String FIELD_DATE_OF_BIRTH = "date_of_birth";
     private static final String FIELD_FIRST_NAME = "first_name";
@@ -142,20 +165,20 @@ public class OnfidoIdvServiceTest {
             "\"properties\":{}}}}}}}";
 
     private static MockedStatic<Util> mockedUtil;
-    private static MockedStatic<RawRequestBodyInterceptor> mockedInterceptor;
+    private static MockedStatic<OnfidoWebhookDeduplicator> mockedWebhookDeduplicator;
 
     @BeforeClass
     public static void setUpClass() {
 
         mockedUtil = mockStatic(Util.class);
-        mockedInterceptor = mockStatic(RawRequestBodyInterceptor.class);
+        mockedWebhookDeduplicator = mockStatic(OnfidoWebhookDeduplicator.class);
     }
 
     @AfterClass
     public static void tearDownClass() {
 
         mockedUtil.close();
-        mockedInterceptor.close();
+        mockedWebhookDeduplicator.close();
     }
 
     @BeforeMethod
@@ -170,7 +193,9 @@ public class OnfidoIdvServiceTest {
         onfidoIdvService = new OnfidoIdvService(idVProviderManager, identityVerificationManager);
 
         mockedUtil.when(Util::getTenantId).thenReturn(TEST_TENANT_ID);
-        mockedInterceptor.when(RawRequestBodyInterceptor::getRawRequestBody).thenReturn(RAW_REQUEST_BODY);
+        mockedWebhookDeduplicator.when(OnfidoWebhookDeduplicator::getInstance).thenReturn(webhookDeduplicator);
+        when(webhookDeduplicator.reserve(anyInt(), anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(true);
 
         when(idVProviderManager.getIdVProvider(eq(TEST_IDVP_ID), eq(TEST_TENANT_ID))).thenReturn(idVProvider);
         when(idVProvider.isEnabled()).thenReturn(true);
@@ -248,6 +273,26 @@ public class OnfidoIdvServiceTest {
         return verifyRequest;
     }
 
+    private ByteBuffer createRawRequestBody() {
+
+        return ByteBuffer.wrap(RAW_REQUEST_BODY.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void readRawRequestBody() {
+
+        Message message = new MessageImpl();
+        message.setContent(InputStream.class,
+                new ByteArrayInputStream(RAW_REQUEST_BODY.getBytes(StandardCharsets.UTF_8)));
+        new RawRequestBodyInterceptor().handleMessage(message);
+    }
+
+    private void verifyWebhook(VerifyRequest verifyRequest) {
+
+        // The signature of the request is validated by the service as it was not validated by the interceptor.
+        readRawRequestBody();
+        onfidoIdvService.verify(TEST_VALID_SIGNATURE, TEST_IDVP_ID, verifyRequest, null);
+    }
+
     private IdVClaim[] createMockIdVClaimsBeforeVerificationStatusUpdate() {
         
         String[] claimUris = {CLAIM_URI_FIRSTNAME, CLAIM_URI_LASTNAME, CLAIM_URI_DOB};
@@ -265,6 +310,10 @@ public class OnfidoIdvServiceTest {
             claims[i].setIsVerified(false);
             claims[i].setMetadata(new HashMap<>(metadata));
         }
+        // The workflow run status is kept by the first claim of the workflow run, and referenced by the others.
+        for (int i = 1; i < claims.length; i++) {
+            claims[i].getMetadata().remove(METADATA_ONFIDO_WORKFLOW_STATUS);
+        }
 
         return claims;
     }
@@ -289,7 +338,7 @@ public class OnfidoIdvServiceTest {
         verifyRequest.setPayload(payload);
 
         try {
-            onfidoIdvService.verify(TEST_VALID_SIGNATURE, TEST_IDVP_ID, verifyRequest);
+            verifyWebhook(verifyRequest);
             fail("Should have thrown an APIError for invalid resource type or action");
         } catch (APIError e) {
             assertEquals(e.getStatus().getStatusCode(), Response.Status.BAD_REQUEST.getStatusCode());
@@ -308,7 +357,7 @@ public class OnfidoIdvServiceTest {
         VerifyRequest verifyRequest = createVerifyRequest(OnfidoConstants.WorkflowRunStatus.APPROVED);
 
         try {
-            onfidoIdvService.verify(TEST_VALID_SIGNATURE, TEST_IDVP_ID, verifyRequest);
+            verifyWebhook(verifyRequest);
             fail("Expected APIError to be thrown");
         } catch (APIError e) {
             assertEquals(Response.Status.NOT_FOUND.getStatusCode(), e.getStatus().getStatusCode());
@@ -357,7 +406,7 @@ public class OnfidoIdvServiceTest {
         VerifyRequest verifyRequest = createVerifyRequest(OnfidoConstants.WorkflowRunStatus.APPROVED);
 
         try {
-            onfidoIdvService.verify(TEST_VALID_SIGNATURE, TEST_IDVP_ID, verifyRequest);
+            verifyWebhook(verifyRequest);
             fail("Expected APIError to be thrown for invalid config properties");
         } catch (APIError e) {
             assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), e.getStatus().getStatusCode());
@@ -381,10 +430,9 @@ public class OnfidoIdvServiceTest {
     @Test(dataProvider = "invalidSignatureDataProvider")
     public void testInvalidSignature(String signature) {
 
-        VerifyRequest verifyRequest = createVerifyRequest(OnfidoConstants.WorkflowRunStatus.APPROVED);
         APIError receivedApiError = null;
         try {
-            onfidoIdvService.verify(signature, TEST_IDVP_ID, verifyRequest);
+            onfidoIdvService.validateSignature(signature, TEST_IDVP_ID, createRawRequestBody());
         } catch (APIError e) {
             receivedApiError = e;
         }
@@ -399,12 +447,144 @@ public class OnfidoIdvServiceTest {
         assertEquals(CLIENT_ERROR_SIGNATURE_MISMATCH.getDescription(), errorDTO.getDescription());
     }
 
+    @Test
+    public void testValidSignature() {
+
+        onfidoIdvService.validateSignature(TEST_VALID_SIGNATURE, TEST_IDVP_ID, createRawRequestBody());
+        onfidoIdvService.validateSignature(TEST_VALID_SIGNATURE.toUpperCase(), TEST_IDVP_ID, createRawRequestBody());
+    }
+
+    @Test
+    public void testVerifyReusesValidatedIdVProviderSnapshot() throws Exception {
+
+        VerifyRequest verifyRequest = createVerifyRequest(OnfidoConstants.WorkflowRunStatus.APPROVED);
+        when(identityVerificationManager.getIdVClaimsByMetadata(eq(METADATA_ONFIDO_WORKFLOW_RUN_ID),
+                eq(TEST_WORKFLOW_RUN_ID), eq(TEST_IDVP_ID), eq(TEST_TENANT_ID)))
+                .thenReturn(createMockIdVClaimsBeforeVerificationStatusUpdate());
+        doReturn(null).when(identityVerificationManager).updateIdVClaim(anyString(), any(), anyInt());
+
+        OnfidoIdVProviderSnapshot idVProviderSnapshot =
+                onfidoIdvService.validateSignature(TEST_VALID_SIGNATURE, TEST_IDVP_ID, createRawRequestBody());
+        assertNotNull(idVProviderSnapshot);
+        onfidoIdvService.verify(TEST_VALID_SIGNATURE, TEST_IDVP_ID, verifyRequest, idVProviderSnapshot);
+
+        // The provider is only resolved once per webhook, to validate its signature.
+        verify(idVProviderManager, times(1)).getIdVProvider(anyString(), anyInt());
+        verify(identityVerificationManager, times(3)).updateIdVClaim(anyString(), any(), anyInt());
+    }
+
+    @DataProvider(name = "unvalidatedWebhookDataProvider")
+    public Object[][] unvalidatedWebhookDataProvider() {
+
+        return new Object[][]{
+                {TEST_VALID_SIGNATURE, false},
+                {TEST_INVALID_SIGNATURE, true},
+                {null, true}
+        };
+    }
+
+    @Test(dataProvider = "unvalidatedWebhookDataProvider")
+    public void testUnvalidatedWebhookIsRejected(String signature, boolean isRawRequestBodyRead) {
+
+        VerifyRequest verifyRequest = createVerifyRequest(OnfidoConstants.WorkflowRunStatus.APPROVED);
+        if (isRawRequestBodyRead) {
+            readRawRequestBody();
+        }
+
+        try {
+            onfidoIdvService.verify(signature, TEST_IDVP_ID, verifyRequest, null);
+            fail("Expected APIError to be thrown for a webhook with an unvalidated signature");
+        } catch (APIError e) {
+            assertEquals(e.getStatus().getStatusCode(), Response.Status.UNAUTHORIZED.getStatusCode());
+            assertEquals(e.getResponseEntity().getCode(), CLIENT_ERROR_SIGNATURE_MISMATCH.getCode());
+        }
+        verifyNoInteractions(identityVerificationManager);
+        assertNull(RawRequestBodyInterceptor.getRawRequestBody());
+    }
+
     @Test
     public void testVerifySuccessWithWorkflowRunStatusApproved() throws Exception {
 
         testVerifyWithWorkflowStatus(OnfidoConstants.WorkflowRunStatus.APPROVED, true);
     }
 
+    @Test
+    public void testRedeliveredWebhookDoesNotRewriteClaims() throws Exception {
+
+        VerifyRequest verifyRequest = createVerifyRequest(OnfidoConstants.WorkflowRunStatus.APPROVED);
+        when(identityVerificationManager.getIdVClaimsByMetadata(eq(METADATA_ONFIDO_WORKFLOW_RUN_ID),
+                eq(TEST_WORKFLOW_RUN_ID), eq(TEST_IDVP_ID), eq(TEST_TENANT_ID)))
+                .thenReturn(createMockIdVClaimsBeforeVerificationStatusUpdate());
+        doReturn(null).when(identityVerificationManager).updateIdVClaim(anyString(), any(), anyInt());
+
+        verifyWebhook(verifyRequest);
+        verify(identityVerificationManager, times(3)).updateIdVClaim(anyString(), any(), anyInt());
+
+        // The claims already reflect the redelivered webhook, hence none of them is written again.
+        verifyWebhook(verifyRequest);
+        verify(identityVerificationManager, times(3)).updateIdVClaim(anyString(), any(), anyInt());
+    }
+
+    @Test
+    public void testProcessedWebhookIsAcknowledgedWithoutUpdatingClaims() {
+
+        VerifyRequest verifyRequest = createVerifyRequest(OnfidoConstants.WorkflowRunStatus.APPROVED);
+        // The webhook is already processed, or is being processed for a concurrent delivery.
+        when(webhookDeduplicator.reserve(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID,
+                OnfidoConstants.WorkflowRunStatus.APPROVED.getStatus(), TEST_COMPLETED_AT)).thenReturn(false);
+
+        verifyWebhook(verifyRequest);
+        verifyNoInteractions(identityVerificationManager);
+        verify(webhookDeduplicator, never()).setProcessed(anyInt(), anyString(), anyString(), anyString(),
+                anyString());
+        verify(webhookDeduplicator, never()).release(anyInt(), anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void testFailedWebhookIsReleased() throws Exception {
+
+        VerifyRequest verifyRequest = createVerifyRequest(OnfidoConstants.WorkflowRunStatus.APPROVED);
+        when(identityVerificationManager.getIdVClaimsByMetadata(eq(METADATA_ONFIDO_WORKFLOW_RUN_ID),
+                eq(TEST_WORKFLOW_RUN_ID), eq(TEST_IDVP_ID), eq(TEST_TENANT_ID)))
+                .thenThrow(new IdentityVerificationServerException(TEST_ERROR_CODE, TEST_ERROR_MESSAGE));
+
+        try {
+            verifyWebhook(verifyRequest);
+            fail("Expected APIError to be thrown when the claims cannot be updated");
+        } catch (APIError e) {
+            assertEquals(e.getStatus().getStatusCode(), Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+        }
+
+        // The reservation is released, so that the webhook is processed again when Onfido redelivers it.
+        verify(webhookDeduplicator).reserve(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID,
+                OnfidoConstants.WorkflowRunStatus.APPROVED.getStatus(), TEST_COMPLETED_AT);
+        verify(webhookDeduplicator).release(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID,
+                OnfidoConstants.WorkflowRunStatus.APPROVED.getStatus(), TEST_COMPLETED_AT);
+        verify(webhookDeduplicator, never()).setProcessed(anyInt(), anyString(), anyString(), anyString(),
+                anyString());
+    }
+
+    @Test
+    public void testIndexedWorkflowRunClaimsAreRetrievedWithTheirUser() throws Exception {
+
+        VerifyRequest verifyRequest = createVerifyRequest(OnfidoConstants.WorkflowRunStatus.APPROVED);
+        IdVClaim[] idVClaims = createMockIdVClaimsBeforeVerificationStatusUpdate();
+        when(identityVerificationManager.getIdVClaimsByMetadata(eq(METADATA_ONFIDO_WORKFLOW_RUN_ID),
+                eq(TEST_WORKFLOW_RUN_ID), eq(TEST_IDVP_ID), eq(TEST_TENANT_ID))).thenReturn(idVClaims);
+        when(identityVerificationManager.getIdVClaims(eq(TEST_USER_ID), eq(TEST_IDVP_ID), isNull(),
+                eq(TEST_TENANT_ID))).thenReturn(idVClaims);
+        doReturn(null).when(identityVerificationManager).updateIdVClaim(anyString(), any(), anyInt());
+
+        verifyWebhook(verifyRequest);
+        verifyWebhook(verifyRequest);
+
+        // Once the workflow run is indexed, its claims are not searched by their metadata anymore.
+        verify(identityVerificationManager, atMost(1)).getIdVClaimsByMetadata(anyString(), anyString(),
+                anyString(), anyInt());
+        verify(identityVerificationManager, atLeastOnce()).getIdVClaims(eq(TEST_USER_ID), eq(TEST_IDVP_ID),
+                isNull(), eq(TEST_TENANT_ID));
+    }
+
     @DataProvider(name = "unApprovedWorkflowStatusProvider")
     public Object[][] unApprovedWorkflowStatusProvider() {
 
@@ -442,10 +622,11 @@ public class OnfidoIdvServiceTest {
         doReturn(null).when(identityVerificationManager)
                 .updateIdVClaim(anyString(), idVClaimCaptor.capture(), anyInt());
 
-        onfidoIdvService.verify(TEST_VALID_SIGNATURE, TEST_IDVP_ID, verifyRequest);
+        verifyWebhook(verifyRequest);
 
+        // The workflow run status is only written to the claim keeping it, unless the claims are verified.
         List<IdVClaim> capturedClaims = idVClaimCaptor.getAllValues();
-        assertEquals(capturedClaims.size(), 3, "Expected 3 IdVClaim updates");
+        assertEquals(capturedClaims.size(), isApproved ? 3 : 1, "Unexpected number of IdVClaim updates");
 
         for (IdVClaim claim : capturedClaims) {
             assertNotNull(claim, "Captured IdVClaim should not be null");
@@ -453,8 +634,14 @@ public class OnfidoIdvServiceTest {
 
             Map<String, Object> metadata = claim.getMetadata();
             assertNotNull(metadata, "Metadata should not be null");
-            assertEquals(workflowStatus.getStatus(), metadata.get(METADATA_ONFIDO_WORKFLOW_STATUS),
-                    "Incorrect workflow status being set.");
+            assertEquals(metadata.get(METADATA_ONFIDO_WORKFLOW_RUN_ID), TEST_WORKFLOW_RUN_ID);
+            if (CLAIM_URI_FIRSTNAME.equals(claim.getClaimUri())) {
+                assertEquals(workflowStatus.getStatus(), metadata.get(METADATA_ONFIDO_WORKFLOW_STATUS),
+                        "Incorrect workflow status being set.");
+            } else {
+                assertFalse(metadata.containsKey(METADATA_ONFIDO_WORKFLOW_STATUS),
+                        "The workflow run status should not be copied to each claim");
+            }
 
             if (isApproved) {
                 assertEquals(TEST_SUCCESS_VERIFICATION_STATUS, metadata.get(METADATA_ONFIDO_VERIFICATION_STATUS),
@@ -43,9 +43,11 @@ import org.wso2.carbon.identity.verification.onfido.api.common.error.ErrorDTO;
 import org.wso2.carbon.identity.verification.onfido.api.common.error.ErrorResponse;
 import org.wso2.carbon.identity.verification.onfido.api.v1.core.OnfidoIdvService;
 import org.wso2.carbon.identity.verification.onfido.api.v1.factories.OnfidoIdvServiceFactory;
+import org.wso2.carbon.identity.verification.onfido.api.v1.interceptors.SignatureValidationInterceptor;
 import org.wso2.carbon.identity.verification.onfido.api.v1.model.VerifyRequest;
 import org.wso2.carbon.identity.verification.onfido.api.v1.model.VerifyRequestPayload;
 import org.wso2.carbon.identity.verification.onfido.api.v1.model.VerifyRequestPayloadObject;
+import org.wso2.carbon.identity.verification.onfido.connector.OnfidoIdVProviderSnapshot;
 
 import java.nio.file.Paths;
 
@@ -56,6 +58,7 @@ import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockConstruction;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.times;
@@ -140,14 +143,33 @@ public class DefaultApiServiceImplTest {
     @Test
     public void testVerifySuccess() {
 
-        doNothing().when(onfidoIdvService).verify(any(), any(), any());
+        doNothing().when(onfidoIdvService).verify(any(), any(), any(), any());
 
         Response response = defaultApiService.verify(TEST_X_SHA2_SIGNATURE, TEST_IDVP_ID, testVerifyRequest);
 
-        verify(onfidoIdvService, times(1)).verify(TEST_X_SHA2_SIGNATURE, TEST_IDVP_ID, testVerifyRequest);
+        verify(onfidoIdvService, times(1)).verify(TEST_X_SHA2_SIGNATURE, TEST_IDVP_ID, testVerifyRequest, null);
         assertEquals(response.getStatus(), Response.Status.OK.getStatusCode(), "Response status should be OK");
     }
 
+    @Test
+    public void testVerifyWithValidatedIdVProviderSnapshot() {
+
+        OnfidoIdVProviderSnapshot idVProviderSnapshot = mock(OnfidoIdVProviderSnapshot.class);
+        try (MockedStatic<SignatureValidationInterceptor> signatureValidationInterceptor =
+                     mockStatic(SignatureValidationInterceptor.class)) {
+            signatureValidationInterceptor.when(
+                    () -> SignatureValidationInterceptor.getValidatedIdVProviderSnapshot(TEST_IDVP_ID))
+                    .thenReturn(idVProviderSnapshot);
+
+            Response response = defaultApiService.verify(TEST_X_SHA2_SIGNATURE, TEST_IDVP_ID, testVerifyRequest);
+
+            // The provider resolved while validating the signature is reused to process the request.
+            verify(onfidoIdvService, times(1)).verify(TEST_X_SHA2_SIGNATURE, TEST_IDVP_ID, testVerifyRequest,
+                    idVProviderSnapshot);
+            assertEquals(response.getStatus(), Response.Status.OK.getStatusCode(), "Response status should be OK");
+        }
+    }
+
     @DataProvider(name = "serverErrorDataProvider")
     public Object[][] serverErrorDataProvider() {
 
@@ -172,7 +194,8 @@ public class DefaultApiServiceImplTest {
 
         APIError apiError = new APIError(Response.Status.INTERNAL_SERVER_ERROR, errorResponse);
 
-        doThrow(apiError).when(onfidoIdvService).verify(anyString(), anyString(), any(VerifyRequest.class));
+        doThrow(apiError).when(onfidoIdvService)
+                .verify(any(), anyString(), any(VerifyRequest.class), any());
 
         APIError receivedApiError = null;
         try {
@@ -216,7 +239,8 @@ public class DefaultApiServiceImplTest {
 
         APIError apiError = new APIError(expectedStatus, errorResponse);
 
-        doThrow(apiError).when(onfidoIdvService).verify(anyString(), anyString(), any(VerifyRequest.class));
+        doThrow(apiError).when(onfidoIdvService)
+                .verify(any(), anyString(), any(VerifyRequest.class), any());
 
         APIError receivedApiError = null;
         try {
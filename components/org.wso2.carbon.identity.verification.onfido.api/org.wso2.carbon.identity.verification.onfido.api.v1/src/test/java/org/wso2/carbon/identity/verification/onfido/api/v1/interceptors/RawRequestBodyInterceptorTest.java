@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.api.v1.interceptors;
+
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.verification.onfido.api.common.error.APIError;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+import static org.wso2.carbon.identity.verification.onfido.api.common.Constants.ErrorMessage.CLIENT_ERROR_REQUEST_BODY_TOO_LARGE;
+
+public class RawRequestBodyInterceptorTest {
+
+    private static final String TEST_REQUEST_BODY = "{\"payload\":{\"resource_type\":\"workflow_run\"}}";
+
+    private final RawRequestBodyInterceptor rawRequestBodyInterceptor = new RawRequestBodyInterceptor();
+
+    @AfterMethod
+    public void tearDown() {
+
+        RawRequestBodyInterceptor.clear();
+    }
+
+    @Test
+    public void testRawRequestBodyIsStored() throws IOException {
+
+        byte[] requestBody = TEST_REQUEST_BODY.getBytes(StandardCharsets.UTF_8);
+        Message message = createMessage(new ByteArrayInputStream(requestBody), String.valueOf(requestBody.length));
+
+        rawRequestBodyInterceptor.handleMessage(message);
+
+        assertEquals(RawRequestBodyInterceptor.getRawRequestBody(), ByteBuffer.wrap(requestBody));
+        // The same bytes are read by CXF for the rest of the processing.
+        InputStream inputStream = message.getContent(InputStream.class);
+        byte[] readRequestBody = new byte[requestBody.length];
+        assertEquals(inputStream.read(readRequestBody), requestBody.length);
+        assertEquals(readRequestBody, requestBody);
+    }
+
+    @Test
+    public void testRequestBodyDeclaredTooLargeIsRejectedBeforeReading() {
+
+        InputStream inputStream = mock(InputStream.class);
+        Message message = createMessage(inputStream,
+                String.valueOf(RawRequestBodyInterceptor.MAX_REQUEST_BODY_SIZE + 1));
+
+        assertRequestBodyTooLarge(message);
+        verifyNoInteractions(inputStream);
+    }
+
+    @Test
+    public void testRequestBodyReadTooLargeIsRejected() {
+
+        // The Content-Length is not declared for a chunked request body.
+        byte[] requestBody = new byte[RawRequestBodyInterceptor.MAX_REQUEST_BODY_SIZE + 1];
+        Message message = createMessage(new ByteArrayInputStream(requestBody), null);
+
+        assertRequestBodyTooLarge(message);
+    }
+
+    private void assertRequestBodyTooLarge(Message message) {
+
+        try {
+            rawRequestBodyInterceptor.handleMessage(message);
+            fail("Expected Fault to be thrown when the request body is too large");
+        } catch (Fault e) {
+            assertEquals(e.getStatusCode(), Response.Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode());
+            assertTrue(e.getCause() instanceof APIError);
+            assertEquals(((APIError) e.getCause()).getResponseEntity().getCode(),
+                    CLIENT_ERROR_REQUEST_BODY_TOO_LARGE.getCode());
+        }
+        assertNull(RawRequestBodyInterceptor.getRawRequestBody());
+    }
+
+    private Message createMessage(InputStream inputStream, String contentLength) {
+
+        Message message = new MessageImpl();
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (contentLength != null) {
+            headers.put(HttpHeaders.CONTENT_LENGTH, Collections.singletonList(contentLength));
+        }
+        message.put(Message.PROTOCOL_HEADERS, headers);
+        message.setContent(InputStream.class, inputStream);
+        return message;
+    }
+}
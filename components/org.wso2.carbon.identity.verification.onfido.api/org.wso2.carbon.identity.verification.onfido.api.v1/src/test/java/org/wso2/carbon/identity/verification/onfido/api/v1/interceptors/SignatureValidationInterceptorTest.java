@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.api.v1.interceptors;
+
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.verification.onfido.api.common.error.APIError;
+import org.wso2.carbon.identity.verification.onfido.api.common.error.ErrorResponse;
+import org.wso2.carbon.identity.verification.onfido.api.v1.core.OnfidoIdvService;
+import org.wso2.carbon.identity.verification.onfido.connector.OnfidoIdVProviderSnapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.Response;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+import static org.wso2.carbon.identity.verification.onfido.api.common.Constants.ErrorMessage.CLIENT_ERROR_SIGNATURE_MISMATCH;
+import static org.wso2.carbon.identity.verification.onfido.api.common.Constants.X_SHA2_SIGNATURE_HEADER;
+
+public class SignatureValidationInterceptorTest {
+
+    private static final String TEST_IDVP_ID = "test-idvp-id";
+    private static final String TEST_SIGNATURE = "test-signature";
+    private static final String TEST_REQUEST_BODY = "{\"payload\":{\"resource_type\":\"workflow_run\"}}";
+
+    @Mock
+    private OnfidoIdvService onfidoIdvService;
+
+    private SignatureValidationInterceptor signatureValidationInterceptor;
+
+    @BeforeMethod
+    public void setUp() {
+
+        MockitoAnnotations.openMocks(this);
+        signatureValidationInterceptor = new SignatureValidationInterceptor(() -> onfidoIdvService);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        RawRequestBodyInterceptor.clear();
+    }
+
+    @DataProvider(name = "webhookPathDataProvider")
+    public Object[][] webhookPathDataProvider() {
+
+        return new Object[][]{
+                {"/" + TEST_IDVP_ID + "/verify"},
+                {"/" + TEST_IDVP_ID + "/verify/"},
+                {"/" + TEST_IDVP_ID + "/verify;x=1"},
+                {"/" + TEST_IDVP_ID + ";x=1/verify/;y=2"}
+        };
+    }
+
+    @Test(dataProvider = "webhookPathDataProvider")
+    public void testWebhookSignatureIsValidated(String path) {
+
+        OnfidoIdVProviderSnapshot idVProviderSnapshot = mock(OnfidoIdVProviderSnapshot.class);
+        when(onfidoIdvService.validateSignature(eq(TEST_SIGNATURE), eq(TEST_IDVP_ID), any()))
+                .thenReturn(idVProviderSnapshot);
+        Message message = createMessage(HttpMethod.POST, path, TEST_SIGNATURE);
+
+        signatureValidationInterceptor.handleMessage(message);
+
+        // The signature is validated against the raw request body.
+        ArgumentCaptor<ByteBuffer> rawRequestBodyCaptor = ArgumentCaptor.forClass(ByteBuffer.class);
+        verify(onfidoIdvService).validateSignature(eq(TEST_SIGNATURE), eq(TEST_IDVP_ID),
+                rawRequestBodyCaptor.capture());
+        assertEquals(rawRequestBodyCaptor.getValue(),
+                ByteBuffer.wrap(TEST_REQUEST_BODY.getBytes(StandardCharsets.UTF_8)));
+
+        // The provider the signature is validated with is kept for processing the request of that provider only.
+        assertSame(SignatureValidationInterceptor.getValidatedIdVProviderSnapshot(message, TEST_IDVP_ID),
+                idVProviderSnapshot);
+        assertNull(SignatureValidationInterceptor.getValidatedIdVProviderSnapshot(message, "other-idvp-id"));
+        assertNull(RawRequestBodyInterceptor.getRawRequestBody());
+    }
+
+    @DataProvider(name = "otherRequestDataProvider")
+    public Object[][] otherRequestDataProvider() {
+
+        return new Object[][]{
+                {HttpMethod.GET, "/" + TEST_IDVP_ID + "/verify"},
+                {HttpMethod.POST, "/" + TEST_IDVP_ID + "/other"},
+                {HttpMethod.POST, "/" + TEST_IDVP_ID + "/verify/other"},
+                {HttpMethod.POST, "/verify"}
+        };
+    }
+
+    @Test(dataProvider = "otherRequestDataProvider")
+    public void testOtherRequestsAreIgnored(String httpMethod, String path) {
+
+        Message message = createMessage(httpMethod, path, TEST_SIGNATURE);
+
+        signatureValidationInterceptor.handleMessage(message);
+
+        verifyNoInteractions(onfidoIdvService);
+        assertNull(SignatureValidationInterceptor.getValidatedIdVProviderSnapshot(message, TEST_IDVP_ID));
+        assertNull(RawRequestBodyInterceptor.getRawRequestBody());
+    }
+
+    @Test
+    public void testMissingSignatureHeaderIsRejected() {
+
+        when(onfidoIdvService.validateSignature(isNull(), eq(TEST_IDVP_ID), any()))
+                .thenThrow(createAPIError(Response.Status.UNAUTHORIZED));
+        Message message = createMessage(HttpMethod.POST, "/" + TEST_IDVP_ID + "/verify", null);
+
+        try {
+            signatureValidationInterceptor.handleMessage(message);
+            fail("Expected Fault to be thrown when the signature header is missing");
+        } catch (Fault e) {
+            assertEquals(e.getStatusCode(), Response.Status.UNAUTHORIZED.getStatusCode());
+        }
+        verify(onfidoIdvService).validateSignature(isNull(), eq(TEST_IDVP_ID), any());
+        assertNull(RawRequestBodyInterceptor.getRawRequestBody());
+    }
+
+    @DataProvider(name = "invalidSignatureDataProvider")
+    public Object[][] invalidSignatureDataProvider() {
+
+        return new Object[][]{
+                {Response.Status.UNAUTHORIZED},
+                {Response.Status.NOT_FOUND},
+                {Response.Status.INTERNAL_SERVER_ERROR}
+        };
+    }
+
+    @Test(dataProvider = "invalidSignatureDataProvider")
+    public void testInvalidSignatureIsRejected(Response.Status status) {
+
+        APIError apiError = createAPIError(status);
+        when(onfidoIdvService.validateSignature(eq(TEST_SIGNATURE), eq(TEST_IDVP_ID), any())).thenThrow(apiError);
+        Message message = createMessage(HttpMethod.POST, "/" + TEST_IDVP_ID + "/verify", TEST_SIGNATURE);
+
+        try {
+            signatureValidationInterceptor.handleMessage(message);
+            fail("Expected Fault to be thrown when the signature is invalid");
+        } catch (Fault e) {
+            // The status code of the APIError is returned to Onfido.
+            assertEquals(e.getStatusCode(), status.getStatusCode());
+            assertSame(e.getCause(), apiError);
+        }
+        assertNull(SignatureValidationInterceptor.getValidatedIdVProviderSnapshot(message, TEST_IDVP_ID));
+        assertNull(RawRequestBodyInterceptor.getRawRequestBody());
+    }
+
+    private Message createMessage(String httpMethod, String path, String signature) {
+
+        Message message = new MessageImpl();
+        message.setExchange(new ExchangeImpl());
+        message.put(Message.HTTP_REQUEST_METHOD, httpMethod);
+        message.put(Message.PATH_INFO, path);
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (signature != null) {
+            headers.put(X_SHA2_SIGNATURE_HEADER, Collections.singletonList(signature));
+        }
+        message.put(Message.PROTOCOL_HEADERS, headers);
+        message.setContent(InputStream.class,
+                new ByteArrayInputStream(TEST_REQUEST_BODY.getBytes(StandardCharsets.UTF_8)));
+
+        // Read the raw request body as the RawRequestBodyInterceptor does before the signature is validated.
+        new RawRequestBodyInterceptor().handleMessage(message);
+        return message;
+    }
+
+    private APIError createAPIError(Response.Status status) {
+
+        ErrorResponse errorResponse = new ErrorResponse.Builder()
+                .withCode(CLIENT_ERROR_SIGNATURE_MISMATCH.getCode())
+                .withMessage(CLIENT_ERROR_SIGNATURE_MISMATCH.getMessage())
+                .withDescription(CLIENT_ERROR_SIGNATURE_MISMATCH.getDescription())
+                .build();
+        return new APIError(status, errorResponse);
+    }
+}
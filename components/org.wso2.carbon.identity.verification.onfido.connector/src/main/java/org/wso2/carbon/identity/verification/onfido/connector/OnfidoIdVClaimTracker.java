@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector;
+
+import org.wso2.carbon.extension.identity.verification.mgt.model.IdVClaim;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Tracks the IdV claims modified by a step of the Onfido verification, both for the identity verifier and for the
+ * Onfido webhook.
+ * <p>
+ * A step tracks the state of the claims before modifying them, so that only the claims it actually changed are
+ * written. Most verification completion polls and webhook redeliveries change nothing, and write nothing.
+ * Each claim touched by a step is reported once, however many times the step modified it.
+ */
+public class OnfidoIdVClaimTracker {
+
+    private OnfidoIdVClaimTracker() {
+
+    }
+
+    /**
+     * Tracks the state of IdV claims, which is their verification status and metadata, before a step modifies them.
+     *
+     * @param idVClaims The IdV claims to be tracked.
+     * @return The tracked IdV claims.
+     */
+    public static TrackedIdVClaims track(Collection<IdVClaim> idVClaims) {
+
+        return new TrackedIdVClaims(idVClaims);
+    }
+
+    /**
+     * IdV claims along with their state when they started being tracked.
+     */
+    public static class TrackedIdVClaims {
+
+        private final Map<IdVClaim, IdVClaimState> initialStates = new IdentityHashMap<>();
+        private final List<IdVClaim> idVClaims = new ArrayList<>();
+
+        private TrackedIdVClaims(Collection<IdVClaim> idVClaims) {
+
+            for (IdVClaim idVClaim : idVClaims) {
+                if (initialStates.put(idVClaim, new IdVClaimState(idVClaim)) == null) {
+                    this.idVClaims.add(idVClaim);
+                }
+            }
+        }
+
+        /**
+         * Gets the tracked IdV claims whose verification status or metadata changed since they started being tracked.
+         *
+         * @return The changed IdV claims.
+         */
+        public List<IdVClaim> getChangedIdVClaims() {
+
+            List<IdVClaim> changedIdVClaims = new ArrayList<>();
+            for (IdVClaim idVClaim : idVClaims) {
+                if (!initialStates.get(idVClaim).equals(new IdVClaimState(idVClaim))) {
+                    changedIdVClaims.add(idVClaim);
+                }
+            }
+            return changedIdVClaims;
+        }
+    }
+
+    /**
+     * The persisted state of an IdV claim. The metadata is copied, as the steps modify the metadata map in place.
+     */
+    private static class IdVClaimState {
+
+        private final boolean verified;
+        private final Map<String, Object> metadata;
+
+        private IdVClaimState(IdVClaim idVClaim) {
+
+            this.verified = idVClaim.isVerified();
+            this.metadata = idVClaim.getMetadata() != null ? new HashMap<>(idVClaim.getMetadata()) : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof IdVClaimState)) {
+                return false;
+            }
+            IdVClaimState that = (IdVClaimState) o;
+            return verified == that.verified && Objects.equals(metadata, that.metadata);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(verified, metadata);
+        }
+    }
+
+}
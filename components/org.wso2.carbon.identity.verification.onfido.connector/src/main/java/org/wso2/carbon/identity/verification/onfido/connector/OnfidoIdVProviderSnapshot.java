@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector;
+
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.extension.identity.verification.provider.model.IdVConfigProperty;
+import org.wso2.carbon.extension.identity.verification.provider.model.IdVProvider;
+import org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.BASE_URL;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.HMAC_SHA256_ALGORITHM;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.TOKEN;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.WEBHOOK_TOKEN;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.WORKFLOW_ID;
+
+/**
+ * An immutable snapshot of the configuration of an Onfido identity verification provider, compiled into the forms
+ * used by the identity verifier and the Onfido webhook: the configuration property map, whether it has all the
+ * required properties, the key and the verifier of the webhook signatures, and the Onfido claim names of the WSO2
+ * claims.
+ */
+public class OnfidoIdVProviderSnapshot {
+
+    private final int configPropertyCount;
+    private final Map<String, String> configProperties;
+    private final boolean validConfigProperties;
+    private final SecretKeySpec webhookKey;
+    private final OnfidoWebhookSignatureVerifier webhookSignatureVerifier;
+    private final Map<String, String> claimMappings;
+    private final Map<String, String> onfidoClaimNames;
+
+    /**
+     * Compiles a snapshot of the configuration of an identity verification provider.
+     *
+     * @param idVProvider The identity verification provider.
+     */
+    OnfidoIdVProviderSnapshot(IdVProvider idVProvider) {
+
+        IdVConfigProperty[] idVConfigProperties = idVProvider.getIdVConfigProperties();
+        Map<String, String> configPropertyMap = new HashMap<>();
+        if (idVConfigProperties != null) {
+            for (IdVConfigProperty idVConfigProperty : idVConfigProperties) {
+                configPropertyMap.put(idVConfigProperty.getName(), idVConfigProperty.getValue());
+            }
+        }
+        this.configPropertyCount = idVConfigProperties == null ? 0 : idVConfigProperties.length;
+        this.configProperties = Collections.unmodifiableMap(configPropertyMap);
+        this.validConfigProperties = StringUtils.isNotBlank(configPropertyMap.get(TOKEN)) &&
+                StringUtils.isNotBlank(configPropertyMap.get(BASE_URL)) &&
+                StringUtils.isNotBlank(configPropertyMap.get(WEBHOOK_TOKEN)) &&
+                StringUtils.isNotBlank(configPropertyMap.get(WORKFLOW_ID));
+        String webhookToken = configPropertyMap.get(WEBHOOK_TOKEN);
+        this.webhookKey = StringUtils.isEmpty(webhookToken) ? null :
+                new SecretKeySpec(webhookToken.getBytes(StandardCharsets.UTF_8), HMAC_SHA256_ALGORITHM);
+        this.webhookSignatureVerifier = webhookKey == null ? null : new OnfidoWebhookSignatureVerifier(webhookKey);
+
+        Map<String, String> claimMappingMap = idVProvider.getClaimMappings() == null ? new HashMap<>() :
+                new HashMap<>(idVProvider.getClaimMappings());
+        Map<String, String> onfidoClaimNameMap = new HashMap<>();
+        for (Map.Entry<String, String> claimMapping : claimMappingMap.entrySet()) {
+            if (claimMapping.getValue() != null) {
+                onfidoClaimNameMap.put(claimMapping.getKey(), OnfidoConstants.ONFIDO_CLAIM_NAME_MAPPING
+                        .getOrDefault(claimMapping.getValue(), claimMapping.getValue()));
+            }
+        }
+        this.claimMappings = Collections.unmodifiableMap(claimMappingMap);
+        this.onfidoClaimNames = Collections.unmodifiableMap(onfidoClaimNameMap);
+    }
+
+    /**
+     * Checks whether the snapshot is up to date with the configuration of an identity verification provider.
+     *
+     * @param idVProvider The identity verification provider.
+     * @return True if the configuration properties and the claim mappings of the provider are the ones compiled in the
+     * snapshot.
+     */
+    boolean isSnapshotOf(IdVProvider idVProvider) {
+
+        IdVConfigProperty[] idVConfigProperties = idVProvider.getIdVConfigProperties();
+        if ((idVConfigProperties == null ? 0 : idVConfigProperties.length) != configPropertyCount) {
+            return false;
+        }
+        if (idVConfigProperties != null) {
+            for (IdVConfigProperty idVConfigProperty : idVConfigProperties) {
+                if (!configProperties.containsKey(idVConfigProperty.getName()) ||
+                        !StringUtils.equals(configProperties.get(idVConfigProperty.getName()),
+                                idVConfigProperty.getValue())) {
+                    return false;
+                }
+            }
+        }
+        Map<String, String> providerClaimMappings = idVProvider.getClaimMappings();
+        return providerClaimMappings == null ? claimMappings.isEmpty() : claimMappings.equals(providerClaimMappings);
+    }
+
+    /**
+     * Gets the configuration properties of the identity verification provider.
+     *
+     * @return An unmodifiable map of the configuration property names to their values.
+     */
+    public Map<String, String> getConfigProperties() {
+
+        return configProperties;
+    }
+
+    /**
+     * Checks whether the identity verification provider has all the configuration properties required by the Onfido
+     * verification.
+     *
+     * @return True if the API token, the base URL, the webhook token and the workflow ID are all configured.
+     */
+    public boolean hasValidConfigProperties() {
+
+        return validConfigProperties;
+    }
+
+    /**
+     * Gets the key of the HMAC SHA-256 signatures of the Onfido webhook requests.
+     *
+     * @return The webhook signature key, or null if the webhook token is not configured.
+     */
+    public SecretKeySpec getWebhookKey() {
+
+        return webhookKey;
+    }
+
+    /**
+     * Gets the verifier of the signatures of the Onfido webhook requests, which is shared by all the webhook requests
+     * of the identity verification provider until its configuration is updated.
+     *
+     * @return The webhook signature verifier, or null if the webhook token is not configured.
+     */
+    public OnfidoWebhookSignatureVerifier getWebhookSignatureVerifier() {
+
+        return webhookSignatureVerifier;
+    }
+
+    /**
+     * Gets the mapping of the WSO2 claim URIs to the Onfido applicant attribute names.
+     *
+     * @return An unmodifiable map of the WSO2 claim URIs to the Onfido applicant attribute names.
+     */
+    public Map<String, String> getClaimMappings() {
+
+        return claimMappings;
+    }
+
+    /**
+     * Gets the Onfido claim name of a WSO2 claim URI in the data comparison results of the workflow runs, which can
+     * differ from the attribute name used for the applicant.
+     *
+     * @param claimUri The WSO2 claim URI.
+     * @return The Onfido claim name, or null if the claim URI is not mapped.
+     */
+    public String getOnfidoClaimName(String claimUri) {
+
+        return onfidoClaimNames.get(claimUri);
+    }
+}
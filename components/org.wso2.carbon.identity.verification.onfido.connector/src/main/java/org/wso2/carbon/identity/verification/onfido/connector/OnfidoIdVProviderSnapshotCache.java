@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector;
+
+import org.wso2.carbon.extension.identity.verification.provider.model.IdVProvider;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the compiled snapshots of the Onfido identity verification providers, per tenant.
+ * <p>
+ * The identity verifier and the Onfido webhook both retrieve the identity verification provider on every request.
+ * Rather than rebuilding and revalidating its configuration property map, the webhook signature key and the claim
+ * name mappings each time, they reuse the snapshot compiled from the same configuration. A snapshot is compiled again
+ * once the configuration properties or the claim mappings of the provider are updated.
+ */
+public class OnfidoIdVProviderSnapshotCache {
+
+    static final int MAX_CACHED_SNAPSHOTS = 10000;
+
+    private static final OnfidoIdVProviderSnapshotCache onfidoIdVProviderSnapshotCacheInstance =
+            new OnfidoIdVProviderSnapshotCache();
+    private final Map<String, OnfidoIdVProviderSnapshot> snapshots = Collections.synchronizedMap(
+            new LinkedHashMap<String, OnfidoIdVProviderSnapshot>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, OnfidoIdVProviderSnapshot> eldest) {
+
+                    return size() > MAX_CACHED_SNAPSHOTS;
+                }
+            });
+
+    private OnfidoIdVProviderSnapshotCache() {
+
+    }
+
+    /**
+     * Gets the singleton instance of OnfidoIdVProviderSnapshotCache.
+     *
+     * @return The singleton instance of OnfidoIdVProviderSnapshotCache.
+     */
+    public static OnfidoIdVProviderSnapshotCache getInstance() {
+
+        return onfidoIdVProviderSnapshotCacheInstance;
+    }
+
+    /**
+     * Gets the snapshot of the current configuration of an identity verification provider.
+     *
+     * @param idVProvider The identity verification provider.
+     * @param tenantId    The ID of the tenant.
+     * @return The snapshot of the identity verification provider.
+     */
+    public OnfidoIdVProviderSnapshot getSnapshot(IdVProvider idVProvider, int tenantId) {
+
+        String key = tenantId + ":" + idVProvider.getIdVProviderUuid();
+        OnfidoIdVProviderSnapshot snapshot = snapshots.get(key);
+        if (snapshot == null || !snapshot.isSnapshotOf(idVProvider)) {
+            snapshot = new OnfidoIdVProviderSnapshot(idVProvider);
+            snapshots.put(key, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Removes all the cached snapshots.
+     */
+    void clear() {
+
+        snapshots.clear();
+    }
+}
@@ -35,23 +35,30 @@ import org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoCo
 import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoClientException;
 import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
 import org.wso2.carbon.identity.verification.onfido.connector.internal.OnfidoIDVDataHolder;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoWorkflowRun;
 import org.wso2.carbon.identity.verification.onfido.connector.web.OnfidoAPIClient;
+import org.wso2.carbon.identity.verification.onfido.connector.web.OnfidoAsyncAPIClient;
+import org.wso2.carbon.identity.verification.onfido.connector.web.OnfidoExecutorManager;
+import org.wso2.carbon.identity.verification.onfido.connector.web.OnfidoSdkTokenCache;
+import org.wso2.carbon.identity.verification.onfido.connector.web.OnfidoWorkflowRunCache;
 import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.user.api.UserStoreManager;
 import org.wso2.carbon.user.core.UniqueIDUserStoreManager;
 import org.wso2.carbon.user.core.service.RealmService;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static org.wso2.carbon.extension.identity.verification.mgt.utils.IdentityVerificationConstants.ErrorMessage.ERROR_GETTING_USER_STORE;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.APPLICANT_ID;
-import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.BASE_URL;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_APPLICANT_ID_NOT_FOUND;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_CLAIM_MAPPING_NOT_FOUND;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_CLAIM_VALUE_NOT_EXIST;
@@ -70,14 +77,10 @@ import static org.wso2.carbon.identity.verification.onfido.connector.constants.O
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_VERIFICATION_ALREADY_INITIATED;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_VERIFICATION_FLOW_STATUS_NOT_FOUND;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_VERIFICATION_REQUIRED_CLAIMS_NOT_FOUND;
-import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ID;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ONFIDO_APPLICANT_ID;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ONFIDO_WORKFLOW_RUN_ID;
-import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ONFIDO_WORKFLOW_STATUS;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.SDK_TOKEN;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.STATUS;
-import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.TOKEN;
-import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.WEBHOOK_TOKEN;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.WORKFLOW_ID;
 import static org.wso2.carbon.user.core.constants.UserCoreErrorConstants.ErrorMessages.ERROR_CODE_NON_EXISTING_USER;
 
@@ -88,6 +91,23 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
 
     private static final Log log = LogFactory.getLog(OnfidoIdentityVerifier.class);
 
+    private final Executor executor;
+
+    public OnfidoIdentityVerifier() {
+
+        this(null);
+    }
+
+    /**
+     * Creates a verifier which runs the independent steps of the verification flows on the given executor.
+     *
+     * @param executor The executor to run the independent steps on. If null, the connector's shared executor is used.
+     */
+    OnfidoIdentityVerifier(Executor executor) {
+
+        this.executor = executor;
+    }
+
     @Override
     public IdentityVerifierData verifyIdentity(String userId, IdentityVerifierData identityVerifierData, int tenantId)
             throws IdentityVerificationException {
@@ -96,7 +116,7 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
         IdVProvider idVProvider = getValidatedIdVProvider(identityVerifierData, tenantId);
 
         // Retrieve identity verification provider's configurations.
-        Map<String, String> idVProviderConfigProperties = getValidatedIdVConfigProperties(idVProvider);
+        Map<String, String> idVProviderConfigProperties = getValidatedIdVConfigProperties(idVProvider, tenantId);
 
         // Extract the verification flow status sent via the verification request.
         OnfidoConstants.VerificationFlowStatus verificationFlowStatus = getVerificationFlowStatus(identityVerifierData);
@@ -150,14 +170,17 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
 
         List<IdVClaim> claimsToUpdate = new ArrayList<>();
 
+        // Load the existing IdV claims of the user once, as each of the following steps reads them.
+        UserIdVClaims userIdVClaims = UserIdVClaims.load(userId, tenantId, idVProvider);
+
         // The applicant need to be created per user. Hence, if there is already an applicant ID
         // associated with the user, retrieve it. This ID is unique per user in the Onfido system.
-        String applicantId = getApplicantId(userId, tenantId, idVProvider);
+        String applicantId = userIdVClaims.getApplicantId();
 
         // Get the map of Onfido claim names and values for the wso2 claims that haven't initiated verification yet.
         Map<String, String> unverifiedOnfidoClaimsWithValueMap =
-                getUnverifiedOnfidoClaimsWithValueMap(userId, tenantId, idVProvider, verificationRequiredClaims,
-                        claimsToUpdate);
+                getUnverifiedOnfidoClaimsWithValueMap(userId, tenantId, idVProvider, userIdVClaims,
+                        verificationRequiredClaims, claimsToUpdate);
         if (unverifiedOnfidoClaimsWithValueMap.isEmpty()) {
             throw new IdentityVerificationClientException(ERROR_VERIFICATION_ALREADY_INITIATED.getCode(),
                     ERROR_VERIFICATION_ALREADY_INITIATED.getMessage());
@@ -168,18 +191,28 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
             applicantId = createOrUpdateApplicant(idVProviderConfigProperties, unverifiedOnfidoClaimsWithValueMap,
                     applicantId);
 
-            // Create a new workflow run and generate an SDK token for the applicant.
-            String workflowRunId = createWorkflowRun(idVProviderConfigProperties, applicantId);
-            String sdkToken = createSdkToken(idVProviderConfigProperties, applicantId);
+            // Create a new workflow run and generate an SDK token for the applicant. Both only depend on the
+            // applicant ID, hence they are requested from Onfido concurrently.
+            OnfidoAsyncAPIClient asyncAPIClient = new OnfidoAsyncAPIClient(getExecutor());
+            CompletableFuture<String> workflowRunIdFuture =
+                    createWorkflowRun(asyncAPIClient, idVProviderConfigProperties, applicantId);
+            CompletableFuture<String> sdkTokenFuture =
+                    createSdkToken(asyncAPIClient, idVProviderConfigProperties, applicantId);
+            String workflowRunId = OnfidoAsyncAPIClient.join(workflowRunIdFuture);
+            String sdkToken = OnfidoAsyncAPIClient.join(sdkTokenFuture);
 
             // Update the metadata of each claim to include the Onfido verification process information and
             // persist the changes in the database.
-            Map<String, Object> metadata = getInitiatedVerificationMetadata(applicantId, workflowRunId);
-            updateAndStoreClaims(userId, tenantId, idVProvider, verificationRequiredClaims, claimsToUpdate, metadata);
+            OnfidoWorkflowRunRecord workflowRunRecord = new OnfidoWorkflowRunRecord(applicantId, workflowRunId);
+            updateAndStoreClaims(userId, tenantId, idVProvider, verificationRequiredClaims, claimsToUpdate,
+                    workflowRunRecord);
+            OnfidoWorkflowRunIndex.getInstance().put(tenantId, idVProvider.getIdVProviderUuid(), workflowRunId,
+                    userId);
 
             /* Since storing the SDK token in the database, is not required, it will be added after storing the IDV
             claims. The SDK token will be returned for the verification initiation response in order to render the
             Onfido SDK. */
+            Map<String, Object> metadata = workflowRunRecord.toMetadata();
             metadata.put(SDK_TOKEN, sdkToken);
             for (IdVClaim idVClaim : verificationRequiredClaims) {
                 idVClaim.setMetadata(metadata);
@@ -219,23 +252,29 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
                                                       Map<String, String> idVProviderConfigProperties, int tenantId)
             throws IdentityVerificationException {
 
+        // Load the existing IdV claims of the user once, as each of the following steps reads them.
+        UserIdVClaims userIdVClaims = UserIdVClaims.load(userId, tenantId, idVProvider);
+
         // Extract workflow run ID and check the status.
-        String workflowRunId = getWorkflowRunId(userId, tenantId, idVProvider, identityVerifierData);
+        String workflowRunId = getWorkflowRunId(userIdVClaims, identityVerifierData);
         OnfidoConstants.WorkflowRunStatus
                 workflowRunStatus = getWorkflowRunStatusFromAPI(workflowRunId, idVProviderConfigProperties);
 
         // Retrieve IdVClaims associated with the workflow run ID.
-        List<IdVClaim> idVClaims = getIdVClaimsByWorkflowRunId(workflowRunId, idVProvider.getIdVProviderUuid(),
-                tenantId);
-
-        // Update the workflow run status.
-        for (IdVClaim idVClaim : idVClaims) {
-            if (!idVClaim.isVerified()) {
-                updateMetadataWithWorkflowStatus(idVClaim, workflowRunStatus);
-                // Persist the updated claim information in the database.
-                updateIdVClaim(userId, idVClaim, tenantId);
-            }
+        List<IdVClaim> idVClaims = getIdVClaimsByWorkflowRunId(userIdVClaims, workflowRunId);
+
+        // Update the workflow run status once on the record of the workflow run, which is kept by its record claim.
+        OnfidoIdVClaimTracker.TrackedIdVClaims trackedIdVClaims = OnfidoIdVClaimTracker.track(idVClaims);
+        OnfidoWorkflowRunRecord workflowRunRecord = getWorkflowRunRecord(idVClaims);
+        updateWorkflowRunRecordStatus(workflowRunRecord, workflowRunStatus);
+        workflowRunRecord.applyTo(idVClaims);
+        // Persist the claims whose metadata changed in the database.
+        for (IdVClaim idVClaim : trackedIdVClaims.getChangedIdVClaims()) {
+            updateIdVClaim(userId, idVClaim, tenantId);
         }
+
+        // Return the workflow run status with each claim, without persisting it on each of them.
+        idVClaims.forEach(workflowRunRecord::copyTo);
         return idVClaims;
     }
 
@@ -258,30 +297,38 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
                                                         Map<String, String> idVProviderConfigProperties, int tenantId)
             throws IdentityVerificationException {
 
+        // Load the existing IdV claims of the user once, as each of the following steps reads them.
+        UserIdVClaims userIdVClaims = UserIdVClaims.load(userId, tenantId, idVProvider);
+
         // Extract workflow run ID.
-        String workflowRunId = getWorkflowRunId(userId, tenantId, idVProvider, identityVerifierData);
+        String workflowRunId = getWorkflowRunId(userIdVClaims, identityVerifierData);
 
         // Retrieve IdVClaims associated with the workflow run ID.
-        List<IdVClaim> idVClaims = getIdVClaimsByWorkflowRunId(workflowRunId, idVProvider.getIdVProviderUuid(),
-                tenantId);
+        List<IdVClaim> idVClaims = getIdVClaimsByWorkflowRunId(userIdVClaims, workflowRunId);
 
+        OnfidoWorkflowRunRecord workflowRunRecord = getWorkflowRunRecord(idVClaims);
         try {
-            // Extract the workflow run status from claim metadata.
-            OnfidoConstants.WorkflowRunStatus workflowRunStatus = getWorkflowRunStatusFromClaims(idVClaims);
+            // Extract the workflow run status from the workflow run record.
+            OnfidoConstants.WorkflowRunStatus workflowRunStatus =
+                    OnfidoConstants.WorkflowRunStatus.fromString(workflowRunRecord.getStatus());
 
             if (workflowRunStatus != OnfidoConstants.WorkflowRunStatus.AWAITING_INPUT) {
                 throw new IdentityVerificationClientException(ERROR_REINITIATION_NOT_ALLOWED.getCode(),
                         ERROR_REINITIATION_NOT_ALLOWED.getMessage());
             }
 
-            // Extract applicant ID from claim metadata.
-            String applicantId = getApplicantIdFromClaims(idVClaims);
+            // Extract applicant ID from the workflow run record.
+            String applicantId = getApplicantId(workflowRunRecord);
 
-            // Create a new SDK token.
-            String sdkToken = createSdkToken(idVProviderConfigProperties, applicantId);
+            // Get an SDK token, reusing the one created earlier for the applicant if it is still valid.
+            String sdkToken = getSdkToken(idVProviderConfigProperties, applicantId);
 
-            // Update all claims with the new SDK token.
-            idVClaims.forEach(claim -> claim.getMetadata().put(SDK_TOKEN, sdkToken));
+            /* Update all claims with the workflow run status and the SDK token. The claims are not persisted
+            afterwards, hence they are only returned in the reinitiation response in order to render the Onfido SDK. */
+            for (IdVClaim idVClaim : idVClaims) {
+                workflowRunRecord.copyTo(idVClaim);
+                idVClaim.getMetadata().put(SDK_TOKEN, sdkToken);
+            }
         } catch (OnfidoServerException e) {
             throw new IdentityVerificationServerException(ERROR_REINITIATING_ONFIDO_VERIFICATION.getCode(),
                     ERROR_REINITIATING_ONFIDO_VERIFICATION.getMessage(), e);
@@ -317,26 +364,26 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
     }
 
     /**
-     * Retrieves and validates the configuration properties for the Identity Verification Provider.
+     * Retrieves and validates the configuration properties for the Identity Verification Provider. The properties
+     * are taken from the snapshot of the provider's configuration, which is only compiled and validated again once
+     * the configuration is updated.
      *
      * @param idVProvider The Identity Verification Provider object.
+     * @param tenantId    The ID of the tenant.
      * @return A map of validated configuration properties.
      * @throws IdentityVerificationClientException If the configuration properties are null, empty,
      *                                       or missing required fields.
      */
-    private Map<String, String> getValidatedIdVConfigProperties(IdVProvider idVProvider)
+    private Map<String, String> getValidatedIdVConfigProperties(IdVProvider idVProvider, int tenantId)
             throws IdentityVerificationClientException {
 
-        Map<String, String> idVProviderConfigProperties = getIdVConfigPropertyMap(idVProvider);
-        if (idVProviderConfigProperties == null || idVProviderConfigProperties.isEmpty() ||
-                StringUtils.isBlank(idVProviderConfigProperties.get(TOKEN)) ||
-                StringUtils.isBlank(idVProviderConfigProperties.get(BASE_URL)) ||
-                StringUtils.isBlank(idVProviderConfigProperties.get(WEBHOOK_TOKEN)) ||
-                StringUtils.isBlank(idVProviderConfigProperties.get(WORKFLOW_ID))) {
+        OnfidoIdVProviderSnapshot idVProviderSnapshot =
+                OnfidoIdVProviderSnapshotCache.getInstance().getSnapshot(idVProvider, tenantId);
+        if (!idVProviderSnapshot.hasValidConfigProperties()) {
             throw new IdentityVerificationClientException(ERROR_IDV_PROVIDER_CONFIG_PROPERTIES_EMPTY.getCode(),
                     ERROR_IDV_PROVIDER_CONFIG_PROPERTIES_EMPTY.getMessage());
         }
-        return idVProviderConfigProperties;
+        return idVProviderSnapshot.getConfigProperties();
     }
 
     /**
@@ -374,9 +421,7 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
         JSONObject applicantRequestBody = getApplicantRequestBody(idVProviderClaimWithValueMap);
 
         if (StringUtils.isEmpty(applicantId)) {
-            JSONObject createdApplicantJsonObject =
-                    OnfidoAPIClient.createApplicant(idVProviderConfigProperties, applicantRequestBody);
-            return createdApplicantJsonObject.getString(ID);
+            return OnfidoAPIClient.createApplicant(idVProviderConfigProperties, applicantRequestBody).getId();
         } else {
             OnfidoAPIClient.updateApplicant(idVProviderConfigProperties, applicantRequestBody, applicantId);
             return applicantId;
@@ -384,39 +429,58 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
     }
 
     /**
-     * Creates a new workflow run in the Onfido system for the given applicant.
+     * Gets an SDK token for a specific applicant, reusing a cached SDK token of the applicant while it is still valid
+     * and creating one in the Onfido system otherwise.
      *
      * @param idVProviderConfigProperties A map containing configuration properties for the IDV provider.
      * @param applicantId                 The unique identifier of the applicant in the Onfido system.
-     * @return The ID of the newly created workflow run.
-     * @throws OnfidoServerException If there's an error in creating the workflow run or processing the response.
+     * @return The value of the SDK token.
+     * @throws OnfidoServerException If there's an error in creating the SDK token or processing the response.
      */
-    private String createWorkflowRun(Map<String, String> idVProviderConfigProperties, String applicantId)
+    private String getSdkToken(Map<String, String> idVProviderConfigProperties, String applicantId)
             throws OnfidoServerException, OnfidoClientException {
 
+        return OnfidoSdkTokenCache.getInstance().getSdkToken(idVProviderConfigProperties, applicantId).getToken();
+    }
+
+    /**
+     * Requests a new workflow run from the Onfido system for the given applicant, without waiting for the response.
+     *
+     * @param asyncAPIClient              The client used to call the Onfido API concurrently.
+     * @param idVProviderConfigProperties A map containing configuration properties for the IDV provider.
+     * @param applicantId                 The unique identifier of the applicant in the Onfido system.
+     * @return A future of the ID of the newly created workflow run.
+     */
+    private CompletableFuture<String> createWorkflowRun(OnfidoAsyncAPIClient asyncAPIClient,
+                                                        Map<String, String> idVProviderConfigProperties,
+                                                        String applicantId) {
+
         JSONObject workflowRunRequestBody = new JSONObject()
                 .put(WORKFLOW_ID, idVProviderConfigProperties.get(WORKFLOW_ID))
                 .put(APPLICANT_ID, applicantId);
-        JSONObject workflowRunJsonObject =
-                OnfidoAPIClient.createWorkflowRun(idVProviderConfigProperties, workflowRunRequestBody);
-        return workflowRunJsonObject.getString(ID);
+        return asyncAPIClient.createWorkflowRun(idVProviderConfigProperties, workflowRunRequestBody)
+                .thenApply(OnfidoWorkflowRun::getId);
     }
 
     /**
-     * Creates an SDK token in the Onfido system for a specific applicant.
+     * Requests an SDK token from the Onfido system for a specific applicant, without waiting for the response.
      *
+     * @param asyncAPIClient              The client used to call the Onfido API concurrently.
      * @param idVProviderConfigProperties A map containing configuration properties for the IDV provider.
      * @param applicantId                 The unique identifier of the applicant in the Onfido system.
-     * @return The value of the created SDK token.
-     * @throws OnfidoServerException If there's an error in creating the SDK token or processing the response.
+     * @return A future of the value of the created SDK token.
      */
-    private String createSdkToken(Map<String, String> idVProviderConfigProperties, String applicantId)
-            throws OnfidoServerException, OnfidoClientException {
+    private CompletableFuture<String> createSdkToken(OnfidoAsyncAPIClient asyncAPIClient,
+                                                     Map<String, String> idVProviderConfigProperties,
+                                                     String applicantId) {
 
         JSONObject sdkTokenRequestBody = new JSONObject().put(APPLICANT_ID, applicantId);
-        JSONObject sdkTokenJsonObject =
-                OnfidoAPIClient.createSDKToken(idVProviderConfigProperties, sdkTokenRequestBody);
-        return sdkTokenJsonObject.getString(TOKEN);
+        return asyncAPIClient.createSDKToken(idVProviderConfigProperties, sdkTokenRequestBody)
+                .thenApply(sdkToken -> {
+                    // Cache the SDK token, so that it can be reused if the user reinitiates the verification.
+                    OnfidoSdkTokenCache.getInstance().put(idVProviderConfigProperties, applicantId, sdkToken);
+                    return sdkToken.getToken();
+                });
     }
 
     /**
@@ -432,9 +496,10 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
             throws IdentityVerificationException {
 
         try {
-            JSONObject workflowRunStatusJsonObject =
-                    OnfidoAPIClient.getWorkflowRunStatus(idVProviderConfigProperties, workFlowRunId);
-            return OnfidoConstants.WorkflowRunStatus.fromString(workflowRunStatusJsonObject.getString(STATUS));
+            // Concurrent completion requests of the same workflow run share a single call to Onfido.
+            OnfidoWorkflowRun workflowRun =
+                    OnfidoWorkflowRunCache.getInstance().getWorkflowRun(idVProviderConfigProperties, workFlowRunId);
+            return OnfidoConstants.WorkflowRunStatus.fromString(workflowRun.getStatus());
         } catch (OnfidoClientException e) {
             if (ERROR_INVALID_TOKEN.getCode().equals(e.getErrorCode())) {
                 throw new IdentityVerificationClientException(ERROR_INVALID_TOKEN.getCode(),
@@ -454,19 +519,15 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
     /**
      * Retrieves a list of IdVClaims associated with a specific workflow run ID.
      *
-     * @param workflowRunId   The unique identifier of the Onfido workflow run.
-     * @param idVProviderUuid The UUID of the identity verification provider.
-     * @param tenantId        The ID of the tenant.
+     * @param userIdVClaims The existing IdV claims of the user.
+     * @param workflowRunId The unique identifier of the Onfido workflow run.
      * @return A list of IdVClaims associated with the given workflow run ID.
      * @throws IdentityVerificationClientException If no claims are found for the given workflow run ID.
-     * @throws IdentityVerificationException       If there's an error during the retrieval process.
      */
-    private List<IdVClaim> getIdVClaimsByWorkflowRunId(String workflowRunId, String idVProviderUuid, int tenantId)
-            throws IdentityVerificationException {
+    private List<IdVClaim> getIdVClaimsByWorkflowRunId(UserIdVClaims userIdVClaims, String workflowRunId)
+            throws IdentityVerificationClientException {
 
-        IdVClaim[] idVClaimArray = OnfidoIDVDataHolder.getIdentityVerificationManager()
-                .getIdVClaimsByMetadata(ONFIDO_WORKFLOW_RUN_ID, workflowRunId, idVProviderUuid, tenantId);
-        List<IdVClaim> idVClaims = new ArrayList<>(Arrays.asList(idVClaimArray));
+        List<IdVClaim> idVClaims = userIdVClaims.getIdVClaimsByWorkflowRunId(workflowRunId);
         if (idVClaims.isEmpty()) {
             throw new IdentityVerificationClientException(ERROR_RETRIEVING_CLAIMS_AGAINST_WORKFLOW_RUN_ID.getCode(),
                     ERROR_RETRIEVING_CLAIMS_AGAINST_WORKFLOW_RUN_ID.getMessage());
@@ -475,29 +536,33 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
     }
 
     /**
-     * Retrieves the workflow run status from the metadata of the IdVClaim.
+     * Retrieves the record of a workflow run from the metadata of its IdVClaims.
      *
      * @param idVClaims A list of IdVClaims associated with a specific workflow run.
-     * @return The WorkflowRunStatus extracted from the claim's metadata.
-     * @throws OnfidoServerException If there's an error parsing the workflow status string.
+     * @return The record of the workflow run.
+     * @throws IdentityVerificationServerException If none of the claims has metadata.
      */
-    private OnfidoConstants.WorkflowRunStatus getWorkflowRunStatusFromClaims(List<IdVClaim> idVClaims)
-            throws OnfidoServerException {
+    private OnfidoWorkflowRunRecord getWorkflowRunRecord(List<IdVClaim> idVClaims)
+            throws IdentityVerificationServerException {
 
-        return OnfidoConstants.WorkflowRunStatus.fromString(
-                (String) idVClaims.get(0).getMetadata().get(ONFIDO_WORKFLOW_STATUS));
+        OnfidoWorkflowRunRecord workflowRunRecord = OnfidoWorkflowRunRecord.fromIdVClaims(idVClaims);
+        if (workflowRunRecord == null) {
+            throw new IdentityVerificationServerException(ERROR_GETTING_ONFIDO_WORKFLOW_STATUS.getCode(),
+                    ERROR_GETTING_ONFIDO_WORKFLOW_STATUS.getMessage());
+        }
+        return workflowRunRecord;
     }
 
     /**
-     * Extracts the Onfido applicant ID from the metadata of the IdVClaim.
+     * Extracts the Onfido applicant ID from the record of a workflow run.
      *
-     * @param idVClaims A list of IdVClaims associated with a specific applicant.
-     * @return The Onfido applicant ID extracted from the claim's metadata.
+     * @param workflowRunRecord The record of a workflow run of the applicant.
+     * @return The Onfido applicant ID of the workflow run.
      * @throws OnfidoServerException If the applicant ID is not found or is empty.
      */
-    private String getApplicantIdFromClaims(List<IdVClaim> idVClaims) throws OnfidoServerException {
+    private String getApplicantId(OnfidoWorkflowRunRecord workflowRunRecord) throws OnfidoServerException {
 
-        String applicantId = (String) idVClaims.get(0).getMetadata().get(ONFIDO_APPLICANT_ID);
+        String applicantId = workflowRunRecord.getApplicantId();
         if (StringUtils.isEmpty(applicantId)) {
             throw new OnfidoServerException(ERROR_APPLICANT_ID_NOT_FOUND.getCode(),
                     ERROR_APPLICANT_ID_NOT_FOUND.getMessage());
@@ -506,27 +571,45 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
     }
 
     /**
-     * Updates the metadata of an identity verification claim based on the given workflow run status.
-     * This method ensures that the workflow status in the metadata is not prematurely set to an ending status.
+     * Updates the record of a workflow run based on the given workflow run status.
+     * This method ensures that the workflow status of the record is not prematurely set to an ending status.
      * Instead, ending statuses are managed through a webhook to ensure they accurately reflect the actual
      * completion of the verification process.
      *
-     * The method modifies the claim's metadata directly, setting the workflow status to 'PROCESSING' if
-     * the current status is an ending one. Otherwise, it updates the metadata with the actual current workflow status.
+     * The method sets the workflow status to 'PROCESSING' if the current status is an ending one. Otherwise, it
+     * updates the record with the actual current workflow status. An ending status already set on the record by the
+     * webhook is kept.
      *
-     * @param idVClaim          The identity verification claim whose metadata is being updated.
-     * @param workflowRunStatus The current status of the workflow which dictates how the metadata is updated.
+     * @param workflowRunRecord The record of the workflow run being updated.
+     * @param workflowRunStatus The current status of the workflow which dictates how the record is updated.
      */
-    private static void updateMetadataWithWorkflowStatus(IdVClaim idVClaim,
-                                                         OnfidoConstants.WorkflowRunStatus workflowRunStatus) {
+    private static void updateWorkflowRunRecordStatus(OnfidoWorkflowRunRecord workflowRunRecord,
+                                                      OnfidoConstants.WorkflowRunStatus workflowRunStatus) {
 
-        Map<String, Object> metadata = idVClaim.getMetadata();
+        if (isEndingStatus(workflowRunRecord.getStatus())) {
+            return;
+        }
         if (workflowRunStatus.isEndingStatus()) {
-            metadata.put(ONFIDO_WORKFLOW_STATUS, OnfidoConstants.WorkflowRunStatus.PROCESSING.getStatus());
+            workflowRunRecord.setStatus(OnfidoConstants.WorkflowRunStatus.PROCESSING);
         } else {
-            metadata.put(ONFIDO_WORKFLOW_STATUS, workflowRunStatus.getStatus());
+            workflowRunRecord.setStatus(workflowRunStatus);
+        }
+    }
+
+    /**
+     * Checks whether a workflow run status read from a workflow run record is an ending status.
+     *
+     * @param status The workflow run status.
+     * @return True if the status is an ending status, false otherwise or if it is not a known status.
+     */
+    private static boolean isEndingStatus(String status) {
+
+        for (OnfidoConstants.WorkflowRunStatus workflowRunStatus : OnfidoConstants.WorkflowRunStatus.values()) {
+            if (workflowRunStatus.getStatus().equalsIgnoreCase(status)) {
+                return workflowRunStatus.isEndingStatus();
+            }
         }
-        idVClaim.setMetadata(metadata);
+        return false;
     }
 
     /**
@@ -541,6 +624,7 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
      * @param userId                     The unique identifier of the user.
      * @param tenantId                   The ID of the tenant.
      * @param idVProvider                The identity verification provider.
+     * @param userIdVClaims              The existing IdV claims of the user.
      * @param verificationRequiredClaims List of claims that require verification.
      * @param claimsToUpdate             Output parameter: List to be populated with claims that need updating.
      * @return A map where keys are Onfido claim names and values are the corresponding claim values
@@ -550,6 +634,7 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
      */
     private Map<String, String> getUnverifiedOnfidoClaimsWithValueMap(String userId, int tenantId,
                                                                       IdVProvider idVProvider,
+                                                                      UserIdVClaims userIdVClaims,
                                                                       List<IdVClaim> verificationRequiredClaims,
                                                                       List<IdVClaim> claimsToUpdate)
             throws IdentityVerificationException {
@@ -557,30 +642,40 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
         Map<String, String> idVProviderClaimWithValueMap = new HashMap<>();
         try {
             Map<String, String> idVClaimMap = idVProvider.getClaimMappings();
-            UniqueIDUserStoreManager uniqueIDUserStoreManager = getUniqueIdEnabledUserStoreManager(tenantId);
 
+            List<String> unverifiedClaimUris = new ArrayList<>();
             for (IdVClaim idVClaim : verificationRequiredClaims) {
-                String claimUri = idVClaim.getClaimUri();
-                IdVClaim existingIdVClaim = OnfidoIDVDataHolder.getIdentityVerificationManager()
-                        .getIdVClaim(userId, idVClaim.getClaimUri(), idVProvider.getIdVProviderUuid(), tenantId);
-
+                IdVClaim existingIdVClaim = userIdVClaims.getIdVClaim(idVClaim.getClaimUri());
                 if (existingIdVClaim == null || existingIdVClaim.getMetadata() == null ||
                         existingIdVClaim.getMetadata().get(ONFIDO_APPLICANT_ID) == null) {
-                    String claimValue = uniqueIDUserStoreManager.getUserClaimValueWithID(userId, claimUri, null);
-                    if (StringUtils.isEmpty(claimValue)) {
-                        throw new IdentityVerificationClientException(ERROR_CLAIM_VALUE_NOT_EXIST.getCode(),
-                                String.format(ERROR_CLAIM_VALUE_NOT_EXIST.getMessage(), claimUri));
-                    }
-                    if (!idVClaimMap.containsKey(claimUri)) {
-                        throw new IdentityVerificationClientException(ERROR_CLAIM_MAPPING_NOT_FOUND.getCode(),
-                                String.format(ERROR_CLAIM_MAPPING_NOT_FOUND.getMessage(), claimUri));
-                    }
-                    idVProviderClaimWithValueMap.put(idVClaimMap.get(claimUri), claimValue);
+                    unverifiedClaimUris.add(idVClaim.getClaimUri());
                 }
                 if (existingIdVClaim != null) {
                     claimsToUpdate.add(existingIdVClaim);
                 }
             }
+            if (unverifiedClaimUris.isEmpty()) {
+                return idVProviderClaimWithValueMap;
+            }
+
+            // Retrieve the values of all the unverified claims at once, as each user store read can be a round trip
+            // to a remote directory such as LDAP.
+            UniqueIDUserStoreManager uniqueIDUserStoreManager = getUniqueIdEnabledUserStoreManager(tenantId);
+            Map<String, String> claimValues = uniqueIDUserStoreManager.getUserClaimValuesWithID(userId,
+                    unverifiedClaimUris.toArray(new String[0]), null);
+
+            for (String claimUri : unverifiedClaimUris) {
+                String claimValue = claimValues == null ? null : claimValues.get(claimUri);
+                if (StringUtils.isEmpty(claimValue)) {
+                    throw new IdentityVerificationClientException(ERROR_CLAIM_VALUE_NOT_EXIST.getCode(),
+                            String.format(ERROR_CLAIM_VALUE_NOT_EXIST.getMessage(), claimUri));
+                }
+                if (!idVClaimMap.containsKey(claimUri)) {
+                    throw new IdentityVerificationClientException(ERROR_CLAIM_MAPPING_NOT_FOUND.getCode(),
+                            String.format(ERROR_CLAIM_MAPPING_NOT_FOUND.getMessage(), claimUri));
+                }
+                idVProviderClaimWithValueMap.put(idVClaimMap.get(claimUri), claimValue);
+            }
         } catch (UserStoreException e) {
             if (StringUtils.isNotBlank(e.getMessage()) &&
                     e.getMessage().contains(ERROR_CODE_NON_EXISTING_USER.getCode())) {
@@ -594,23 +689,6 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
         return idVProviderClaimWithValueMap;
     }
 
-    /**
-     * Creates a metadata map for tracking the Onfido verification process. The metadata is used to monitor
-     * the status and progression of identity verification claims within the system.
-     *
-     * @param applicantId   The unique identifier of the applicant in the Onfido system.
-     * @param workflowRunId The identifier of the workflow run associated with the applicant's verification process.
-     * @return A map containing key-value pairs of metadata related to the Onfido verification process.
-     */
-    private Map<String, Object> getInitiatedVerificationMetadata(String applicantId, String workflowRunId) {
-
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put(ONFIDO_APPLICANT_ID, applicantId);
-        metadata.put(ONFIDO_WORKFLOW_RUN_ID, workflowRunId);
-        metadata.put(ONFIDO_WORKFLOW_STATUS, OnfidoConstants.WorkflowRunStatus.AWAITING_INPUT.getStatus());
-        return metadata;
-    }
-
     /**
      * Updates existing claims and stores new claims for identity verification.
      *
@@ -619,12 +697,16 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
      * @param idVProvider                The identity verification provider.
      * @param verificationRequiredClaims List of all claims that require verification.
      * @param claimsToUpdate             List of existing claims that need to be updated.
-     * @param metadata                   Additional metadata to be associated with the claims specific to Onfido.
+     * @param workflowRunRecord          The record of the workflow run the claims are verified through. It is kept by
+     *                                   the first claim that requires verification, and referenced by the others.
      * @throws IdentityVerificationException if there's an error updating or storing claims.
      */
     private void updateAndStoreClaims(String userId, int tenantId, IdVProvider idVProvider,
                                       List<IdVClaim> verificationRequiredClaims, List<IdVClaim> claimsToUpdate,
-                                      Map<String, Object> metadata) throws IdentityVerificationException {
+                                      OnfidoWorkflowRunRecord workflowRunRecord)
+            throws IdentityVerificationException {
+
+        String recordClaimUri = verificationRequiredClaims.get(0).getClaimUri();
 
         // Create a set of claim URIs of the IdV claims that already existing in the DB.
         Set<String> updateClaimUris = claimsToUpdate.stream()
@@ -634,7 +716,7 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
         // Update metadata for existing IdV claims
         for (IdVClaim claim : claimsToUpdate) {
             claim.setIsVerified(false);
-            claim.setMetadata(metadata);
+            claim.setMetadata(getWorkflowRunMetadata(workflowRunRecord, claim, recordClaimUri));
             updateIdVClaim(userId, claim, tenantId);
         }
 
@@ -645,7 +727,7 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
                 claim.setIsVerified(false);
                 claim.setUserId(userId);
                 claim.setIdVPId(idVProvider.getIdVProviderUuid());
-                claim.setMetadata(metadata);
+                claim.setMetadata(getWorkflowRunMetadata(workflowRunRecord, claim, recordClaimUri));
                 claimsToStore.add(claim);
             }
         }
@@ -657,44 +739,32 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
     }
 
     /**
-     * Retrieves the applicant ID from the metadata of an existing identity verification claim associated
-     * with the given user and identity verification provider.
+     * Builds the metadata of an IdV claim verified through a workflow run.
      *
-     * @param userId      The unique identifier of the user whose applicant ID is being retrieved.
-     * @param tenantId    The ID of the tenant.
-     * @param idVProvider The identity verification provider.
-     * @return The applicant ID if found, otherwise returns null.
-     * @throws IdentityVerificationException If there is an error accessing the claims.
+     * @param workflowRunRecord The record of the workflow run.
+     * @param idVClaim          The IdV claim verified through the workflow run.
+     * @param recordClaimUri    The claim URI of the claim keeping the record of the workflow run.
+     * @return The record of the workflow run for the record claim, or a reference to it for the other claims.
      */
-    private static String getApplicantId(String userId, int tenantId, IdVProvider idVProvider)
-            throws IdentityVerificationException {
+    private static Map<String, Object> getWorkflowRunMetadata(OnfidoWorkflowRunRecord workflowRunRecord,
+                                                              IdVClaim idVClaim, String recordClaimUri) {
 
-        String applicantId = null;
-        IdVClaim[] idVClaims = OnfidoIDVDataHolder.getIdentityVerificationManager()
-                .getIdVClaims(userId, idVProvider.getIdVProviderUuid(), null, tenantId);
-        for (IdVClaim idVClaim : idVClaims) {
-            if (idVClaim != null && idVClaim.getMetadata() != null &&
-                    idVClaim.getMetadata().get(ONFIDO_APPLICANT_ID) != null) {
-                applicantId = (String) idVClaim.getMetadata().get(ONFIDO_APPLICANT_ID);
-                break;
-            }
+        if (StringUtils.equals(idVClaim.getClaimUri(), recordClaimUri)) {
+            return workflowRunRecord.toMetadata();
         }
-        return applicantId;
+        return workflowRunRecord.toReferenceMetadata();
     }
 
     /**
-     * Retrieves the workflow run ID from the metadata of an existing identity verification claim associated
-     * with the given user and identity verification provider.
+     * Retrieves the workflow run ID from the metadata of an existing identity verification claim of the user, among
+     * the claims that need to be verified.
      *
-     * @param userId               The unique identifier of the user whose applicant ID is being retrieved.
-     * @param tenantId             The ID of the tenant.
-     * @param idVProvider          The identity verification provider.
+     * @param userIdVClaims        The existing IdV claims of the user.
      * @param identityVerifierData Data required for identity verification that was passed via the verification request.
-     * @return The applicant ID if found, otherwise returns null.
-     * @throws IdentityVerificationException If there is an error accessing the claims.
+     * @return The workflow run ID.
+     * @throws IdentityVerificationException If the workflow run ID is not found.
      */
-    private static String getWorkflowRunId(String userId, int tenantId, IdVProvider idVProvider,
-                                           IdentityVerifierData identityVerifierData)
+    private static String getWorkflowRunId(UserIdVClaims userIdVClaims, IdentityVerifierData identityVerifierData)
             throws IdentityVerificationException {
 
         // Retrieve the claim URIs of the wso2 claims that need to be verified.
@@ -703,19 +773,7 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
                 .map(IdVClaim::getClaimUri)
                 .collect(Collectors.toSet());
 
-        String workflowRunId = null;
-        IdVClaim[] idVClaims = OnfidoIDVDataHolder.getIdentityVerificationManager()
-                .getIdVClaims(userId, idVProvider.getIdVProviderUuid(), null, tenantId);
-        for (IdVClaim idVClaim : idVClaims) {
-            if (idVClaim != null && idVClaim.getMetadata() != null &&
-                    idVClaim.getMetadata().get(ONFIDO_WORKFLOW_RUN_ID) != null &&
-                            verificationRequiredClaimsUri.contains(idVClaim.getClaimUri())) {
-
-                workflowRunId = (String) idVClaim.getMetadata().get(ONFIDO_WORKFLOW_RUN_ID);
-                break;
-            }
-        }
-
+        String workflowRunId = userIdVClaims.getWorkflowRunId(verificationRequiredClaimsUri);
         if (workflowRunId == null) {
             throw new IdentityVerificationClientException(ERROR_ONFIDO_WORKFLOW_RUN_ID_NOT_FOUND.getCode(),
                     ERROR_ONFIDO_WORKFLOW_RUN_ID_NOT_FOUND.getMessage());
@@ -803,4 +861,120 @@ public class OnfidoIdentityVerifier extends AbstractIdentityVerifier {
         }
         return (UniqueIDUserStoreManager) userStoreManager;
     }
+
+    /**
+     * Gets the executor to run the independent steps of the verification flows on.
+     *
+     * @return The executor given at construction, or the connector's shared executor.
+     */
+    private Executor getExecutor() {
+
+        return executor != null ? executor : OnfidoExecutorManager.getInstance().getExecutor();
+    }
+
+    /**
+     * A snapshot of the existing IdV claims of a user for an identity verification provider. It is loaded once per
+     * verification request and indexed by claim URI and by workflow run ID, so that each step of the verification
+     * flow reads from it instead of querying the IdV claims again.
+     */
+    private static class UserIdVClaims {
+
+        private final Map<String, IdVClaim> idVClaimsByClaimUri = new LinkedHashMap<>();
+        private final Map<String, List<IdVClaim>> idVClaimsByWorkflowRunId = new HashMap<>();
+        private String applicantId;
+
+        /**
+         * Loads the existing IdV claims of a user for an identity verification provider.
+         *
+         * @param userId      The unique identifier of the user.
+         * @param tenantId    The ID of the tenant.
+         * @param idVProvider The identity verification provider.
+         * @return The existing IdV claims of the user.
+         * @throws IdentityVerificationException If there is an error accessing the claims.
+         */
+        private static UserIdVClaims load(String userId, int tenantId, IdVProvider idVProvider)
+                throws IdentityVerificationException {
+
+            IdVClaim[] idVClaims = OnfidoIDVDataHolder.getIdentityVerificationManager()
+                    .getIdVClaims(userId, idVProvider.getIdVProviderUuid(), null, tenantId);
+            UserIdVClaims userIdVClaims = new UserIdVClaims();
+            if (idVClaims != null) {
+                for (IdVClaim idVClaim : idVClaims) {
+                    if (idVClaim != null) {
+                        userIdVClaims.add(idVClaim);
+                    }
+                }
+            }
+            // Backfill the workflow run index with the workflow runs of the user it misses.
+            for (String workflowRunId : userIdVClaims.idVClaimsByWorkflowRunId.keySet()) {
+                OnfidoWorkflowRunIndex.getInstance().putIfAbsent(tenantId, idVProvider.getIdVProviderUuid(),
+                        workflowRunId, userId);
+            }
+            return userIdVClaims;
+        }
+
+        private void add(IdVClaim idVClaim) {
+
+            idVClaimsByClaimUri.putIfAbsent(idVClaim.getClaimUri(), idVClaim);
+            if (idVClaim.getMetadata() == null) {
+                return;
+            }
+            if (applicantId == null) {
+                applicantId = (String) idVClaim.getMetadata().get(ONFIDO_APPLICANT_ID);
+            }
+            String workflowRunId = (String) idVClaim.getMetadata().get(ONFIDO_WORKFLOW_RUN_ID);
+            if (workflowRunId != null) {
+                idVClaimsByWorkflowRunId.computeIfAbsent(workflowRunId, key -> new ArrayList<>()).add(idVClaim);
+            }
+        }
+
+        /**
+         * Gets the existing IdV claim of a claim URI.
+         *
+         * @param claimUri The claim URI.
+         * @return The IdV claim, or null if the user has none for the claim URI.
+         */
+        private IdVClaim getIdVClaim(String claimUri) {
+
+            return idVClaimsByClaimUri.get(claimUri);
+        }
+
+        /**
+         * Gets the Onfido applicant ID of the user, which is unique per user in the Onfido system.
+         *
+         * @return The applicant ID, or null if the user has not been an Onfido applicant yet.
+         */
+        private String getApplicantId() {
+
+            return applicantId;
+        }
+
+        /**
+         * Gets the ID of the workflow run verifying any of the given claims.
+         *
+         * @param claimUris The claim URIs.
+         * @return The workflow run ID, or null if none of the claims has a workflow run.
+         */
+        private String getWorkflowRunId(Set<String> claimUris) {
+
+            for (IdVClaim idVClaim : idVClaimsByClaimUri.values()) {
+                if (claimUris.contains(idVClaim.getClaimUri()) && idVClaim.getMetadata() != null &&
+                        idVClaim.getMetadata().get(ONFIDO_WORKFLOW_RUN_ID) != null) {
+                    return (String) idVClaim.getMetadata().get(ONFIDO_WORKFLOW_RUN_ID);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Gets the IdV claims verified by a workflow run.
+         *
+         * @param workflowRunId The workflow run ID.
+         * @return The IdV claims verified by the workflow run, which is empty if there are none.
+         */
+        private List<IdVClaim> getIdVClaimsByWorkflowRunId(String workflowRunId) {
+
+            return new ArrayList<>(idVClaimsByWorkflowRunId.getOrDefault(workflowRunId, Collections.emptyList()));
+        }
+    }
 }
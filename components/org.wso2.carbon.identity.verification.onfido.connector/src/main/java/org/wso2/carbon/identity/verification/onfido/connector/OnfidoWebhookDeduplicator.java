@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detects the Onfido webhook deliveries which are already processed, so that the webhooks Onfido redelivers, for
+ * example after a timeout, are acknowledged without loading and updating the IdV claims again.
+ * <p>
+ * A webhook delivery is identified by the tenant, the identity verification provider, and the ID, status and
+ * completion time of its workflow run. A delivery is reserved before it is processed, so that the same delivery
+ * arriving concurrently is not processed twice, and the reservation is released if the processing fails, so that a
+ * redelivery is processed again. The processed deliveries are kept in a bounded in-memory tier, and in the shared
+ * tier of the cluster when an OnfidoWebhookDeliveryStore is registered. The shared tier is only consulted when the
+ * in-memory tier misses, and its errors fall back to processing the delivery, which is safe as only the IdV claims
+ * changed by a webhook are written.
+ */
+public class OnfidoWebhookDeduplicator {
+
+    private static final Log log = LogFactory.getLog(OnfidoWebhookDeduplicator.class);
+
+    static final int MAX_PROCESSED_DELIVERIES = 10000;
+
+    private static final OnfidoWebhookDeduplicator onfidoWebhookDeduplicatorInstance =
+            new OnfidoWebhookDeduplicator();
+    private final Map<String, Boolean> processedDeliveries = Collections.synchronizedMap(
+            new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+
+                    return size() > MAX_PROCESSED_DELIVERIES;
+                }
+            });
+    private final Set<String> reservedDeliveries = ConcurrentHashMap.newKeySet();
+    private volatile OnfidoWebhookDeliveryStore sharedDeliveryStore;
+
+    private OnfidoWebhookDeduplicator() {
+
+    }
+
+    /**
+     * Gets the singleton instance of OnfidoWebhookDeduplicator.
+     *
+     * @return The singleton instance of OnfidoWebhookDeduplicator.
+     */
+    public static OnfidoWebhookDeduplicator getInstance() {
+
+        return onfidoWebhookDeduplicatorInstance;
+    }
+
+    /**
+     * Sets the store sharing the processed webhook deliveries across the cluster.
+     *
+     * @param sharedDeliveryStore The shared webhook delivery store, or null to only keep the deliveries in memory.
+     */
+    public void setSharedDeliveryStore(OnfidoWebhookDeliveryStore sharedDeliveryStore) {
+
+        this.sharedDeliveryStore = sharedDeliveryStore;
+    }
+
+    /**
+     * Gets the store sharing the processed webhook deliveries across the cluster.
+     *
+     * @return The shared webhook delivery store, or null if the deliveries are only kept in memory.
+     */
+    public OnfidoWebhookDeliveryStore getSharedDeliveryStore() {
+
+        return sharedDeliveryStore;
+    }
+
+    /**
+     * Reserves a webhook delivery for processing, unless it is already processed or being processed. A reserved
+     * delivery must either be recorded as processed or be released.
+     *
+     * @param tenantId      The ID of the tenant.
+     * @param idvpId        The ID of the identity verification provider.
+     * @param workflowRunId The ID of the workflow run.
+     * @param status        The status of the workflow run.
+     * @param completedAt   The completion time of the workflow run.
+     * @return True if the webhook delivery is reserved, and false if it is already processed or being processed.
+     */
+    public boolean reserve(int tenantId, String idvpId, String workflowRunId, String status, String completedAt) {
+
+        String deliveryKey = getKey(tenantId, idvpId, workflowRunId, status, completedAt);
+        // The delivery is reserved before checking whether it is processed, as a delivery is recorded as processed
+        // before its reservation is released.
+        if (!reservedDeliveries.add(deliveryKey)) {
+            return false;
+        }
+        if (isProcessed(deliveryKey)) {
+            reservedDeliveries.remove(deliveryKey);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Releases the reservation of a webhook delivery which failed to be processed, so that it is processed again
+     * when Onfido redelivers it.
+     *
+     * @param tenantId      The ID of the tenant.
+     * @param idvpId        The ID of the identity verification provider.
+     * @param workflowRunId The ID of the workflow run.
+     * @param status        The status of the workflow run.
+     * @param completedAt   The completion time of the workflow run.
+     */
+    public void release(int tenantId, String idvpId, String workflowRunId, String status, String completedAt) {
+
+        reservedDeliveries.remove(getKey(tenantId, idvpId, workflowRunId, status, completedAt));
+    }
+
+    /**
+     * Records a webhook delivery as processed, once the IdV claims of its workflow run are updated, and releases its
+     * reservation.
+     *
+     * @param tenantId      The ID of the tenant.
+     * @param idvpId        The ID of the identity verification provider.
+     * @param workflowRunId The ID of the workflow run.
+     * @param status        The status of the workflow run.
+     * @param completedAt   The completion time of the workflow run.
+     */
+    public void setProcessed(int tenantId, String idvpId, String workflowRunId, String status, String completedAt) {
+
+        String deliveryKey = getKey(tenantId, idvpId, workflowRunId, status, completedAt);
+        processedDeliveries.put(deliveryKey, Boolean.TRUE);
+        reservedDeliveries.remove(deliveryKey);
+        OnfidoWebhookDeliveryStore deliveryStore = sharedDeliveryStore;
+        if (deliveryStore == null) {
+            return;
+        }
+        try {
+            deliveryStore.setProcessed(deliveryKey);
+        } catch (RuntimeException e) {
+            log.warn("Error while recording the Onfido webhook delivery: " + deliveryKey + " in the shared webhook " +
+                    "delivery store.", e);
+        }
+    }
+
+    /**
+     * Removes all the webhook deliveries kept in memory.
+     */
+    void clear() {
+
+        processedDeliveries.clear();
+        reservedDeliveries.clear();
+    }
+
+    private boolean isProcessed(String deliveryKey) {
+
+        if (processedDeliveries.containsKey(deliveryKey)) {
+            return true;
+        }
+        OnfidoWebhookDeliveryStore deliveryStore = sharedDeliveryStore;
+        if (deliveryStore == null) {
+            return false;
+        }
+        try {
+            if (deliveryStore.isProcessed(deliveryKey)) {
+                processedDeliveries.put(deliveryKey, Boolean.TRUE);
+                return true;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Error while checking the Onfido webhook delivery: " + deliveryKey + " in the shared webhook " +
+                    "delivery store. The delivery will be processed.", e);
+        }
+        return false;
+    }
+
+    private static String getKey(int tenantId, String idvpId, String workflowRunId, String status,
+                                 String completedAt) {
+
+        return tenantId + ":" + idvpId + ":" + workflowRunId + ":" + status + ":" + completedAt;
+    }
+}
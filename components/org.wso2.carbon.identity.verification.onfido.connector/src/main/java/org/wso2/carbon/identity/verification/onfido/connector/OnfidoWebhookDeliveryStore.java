@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector;
+
+/**
+ * A store of the Onfido webhook deliveries processed by the nodes of a cluster, shared between them so that a webhook
+ * redelivered to another node is not processed again.
+ * <p>
+ * The Onfido connector keeps the deliveries processed by each node in memory. An implementation of this interface can
+ * be registered as an OSGi service, for example backed by a distributed cache, to share them across the cluster. The
+ * store may evict deliveries once they are unlikely to be redelivered, and its errors are not propagated to Onfido.
+ */
+public interface OnfidoWebhookDeliveryStore {
+
+    /**
+     * Checks whether a webhook delivery is processed.
+     *
+     * @param deliveryKey The key identifying the webhook delivery.
+     * @return True if the webhook delivery is recorded as processed.
+     */
+    boolean isProcessed(String deliveryKey);
+
+    /**
+     * Records a webhook delivery as processed.
+     *
+     * @param deliveryKey The key identifying the webhook delivery.
+     */
+    void setProcessed(String deliveryKey);
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.verification.onfido.connector;
+
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_SIGNATURE_VALIDATION_PROCESSING;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.HMAC_SHA256_ALGORITHM;
+
+/**
+ * Verifies the HMAC SHA-256 signatures of the Onfido webhook requests signed with a webhook token.
+ * Implementation logic extracted from
+ * https://github.com/onfido/onfido-java/blob/master/src/main/java/com/onfido/WebhookEventVerifier.java#L81
+ * <p>
+ * Each thread keeps a single Mac along with the buffers of the signatures, shared by all the verifiers, and only
+ * initializes the Mac again when it verifies a request with a different webhook key than the previous one. The
+ * signatures are compared as raw bytes, in constant time, rather than as hex strings.
+ */
+public class OnfidoWebhookSignatureVerifier {
+
+    private static final ThreadLocal<KeyedMac> threadLocalKeyedMac = new ThreadLocal<>();
+    private final SecretKeySpec webhookKey;
+
+    /**
+     * Creates a verifier of the signatures made with a webhook key.
+     *
+     * @param webhookKey The key of the HMAC SHA-256 signatures of the webhook requests.
+     */
+    OnfidoWebhookSignatureVerifier(SecretKeySpec webhookKey) {
+
+        this.webhookKey = webhookKey;
+    }
+
+    /**
+     * Verifies the signature of a webhook request.
+     *
+     * @param signature      The hex encoded signature of the request, as received in the X-SHA2-Signature header.
+     * @param rawRequestBody The raw bytes of the request body. The buffer is consumed by the verification.
+     * @return True if the signature is the HMAC SHA-256 of the request body made with the webhook key.
+     * @throws OnfidoServerException If an error occurs while computing the signature of the request body.
+     */
+    public boolean verify(String signature, ByteBuffer rawRequestBody) throws OnfidoServerException {
+
+        KeyedMac keyedMac = getKeyedMac();
+        if (!decodeHex(signature, keyedMac.receivedSignature)) {
+            return false;
+        }
+        try {
+            if (rawRequestBody != null) {
+                keyedMac.mac.update(rawRequestBody);
+            }
+            keyedMac.mac.doFinal(keyedMac.expectedSignature, 0);
+        } catch (GeneralSecurityException e) {
+            keyedMac.mac.reset();
+            throw new OnfidoServerException(ERROR_SIGNATURE_VALIDATION_PROCESSING.getCode(),
+                    ERROR_SIGNATURE_VALIDATION_PROCESSING.getMessage(), e);
+        }
+
+        // Perform a time-safe comparison of the signatures.
+        return MessageDigest.isEqual(keyedMac.expectedSignature, keyedMac.receivedSignature);
+    }
+
+    /**
+     * Gets the Mac of the current thread initialized with the webhook key, initializing it on the first use, and
+     * when it was last initialized with another webhook key.
+     *
+     * @return The keyed Mac of the current thread.
+     * @throws OnfidoServerException If the Mac cannot be initialized with the webhook key.
+     */
+    private KeyedMac getKeyedMac() throws OnfidoServerException {
+
+        KeyedMac keyedMac = threadLocalKeyedMac.get();
+        if (keyedMac != null && webhookKey.equals(keyedMac.webhookKey)) {
+            return keyedMac;
+        }
+        try {
+            Mac mac = keyedMac == null ? Mac.getInstance(HMAC_SHA256_ALGORITHM) : keyedMac.mac;
+            mac.init(webhookKey);
+            keyedMac = new KeyedMac(mac, webhookKey);
+        } catch (GeneralSecurityException e) {
+            // Discard the Mac, which may be left without a key.
+            threadLocalKeyedMac.remove();
+            throw new OnfidoServerException(ERROR_SIGNATURE_VALIDATION_PROCESSING.getCode(),
+                    ERROR_SIGNATURE_VALIDATION_PROCESSING.getMessage(), e);
+        }
+        threadLocalKeyedMac.set(keyedMac);
+        return keyedMac;
+    }
+
+    /**
+     * Decodes a hex encoded signature into a buffer.
+     *
+     * @param signature The hex encoded signature.
+     * @param decoded   The buffer to decode the signature into, of the length of the signatures.
+     * @return True if the signature is a valid hex string of the length of the signatures.
+     */
+    private static boolean decodeHex(String signature, byte[] decoded) {
+
+        if (signature == null || signature.length() != decoded.length * 2) {
+            return false;
+        }
+        for (int i = 0; i < decoded.length; i++) {
+            int high = Character.digit(signature.charAt(i * 2), 16);
+            int low = Character.digit(signature.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            decoded[i] = (byte) ((high << 4) | low);
+        }
+        return true;
+    }
+
+    /**
+     * A Mac initialized with a webhook key, along with the buffers of the signatures computed and received by a
+     * thread.
+     */
+    private static class KeyedMac {
+
+        private final Mac mac;
+        private final SecretKeySpec webhookKey;
+        private final byte[] expectedSignature;
+        private final byte[] receivedSignature;
+
+        private KeyedMac(Mac mac, SecretKeySpec webhookKey) {
+
+            this.mac = mac;
+            this.webhookKey = webhookKey;
+            this.expectedSignature = new byte[mac.getMacLength()];
+            this.receivedSignature = new byte[mac.getMacLength()];
+        }
+    }
+}
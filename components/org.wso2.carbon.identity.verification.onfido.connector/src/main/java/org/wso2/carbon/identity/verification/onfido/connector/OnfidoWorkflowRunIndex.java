@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Indexes the users of the Onfido workflow runs, by tenant, identity verification provider and workflow run ID.
+ * <p>
+ * The IdV claims of a workflow run can only be searched by the workflow run ID stored in their metadata, which scans
+ * the serialized metadata of the IdV claims of the identity verification provider. With the user of a workflow run at
+ * hand, the IdV claims of the workflow run are found among the IdV claims of that user instead. The index is kept up
+ * to date as the IdV claims of workflow runs are stored and loaded, and is backfilled with the result of the metadata
+ * search for the workflow runs it misses, such as those initiated on another node or before a restart.
+ * <p>
+ * The index is read on every verification request and webhook without locking. Once it is full, the earliest indexed
+ * workflow runs are evicted first.
+ */
+public class OnfidoWorkflowRunIndex {
+
+    static final int MAX_INDEXED_WORKFLOW_RUNS = 10000;
+
+    private static final OnfidoWorkflowRunIndex onfidoWorkflowRunIndexInstance = new OnfidoWorkflowRunIndex();
+    private final Map<String, String> userIdsByWorkflowRun = new ConcurrentHashMap<>();
+    private final Queue<String> indexedWorkflowRuns = new ConcurrentLinkedQueue<>();
+
+    private OnfidoWorkflowRunIndex() {
+
+    }
+
+    /**
+     * Gets the singleton instance of OnfidoWorkflowRunIndex.
+     *
+     * @return The singleton instance of OnfidoWorkflowRunIndex.
+     */
+    public static OnfidoWorkflowRunIndex getInstance() {
+
+        return onfidoWorkflowRunIndexInstance;
+    }
+
+    /**
+     * Gets the user of a workflow run.
+     *
+     * @param tenantId      The ID of the tenant.
+     * @param idvpId        The ID of the identity verification provider.
+     * @param workflowRunId The ID of the workflow run.
+     * @return The unique identifier of the user, or null if the workflow run is not indexed.
+     */
+    public String getUserId(int tenantId, String idvpId, String workflowRunId) {
+
+        return userIdsByWorkflowRun.get(getKey(tenantId, idvpId, workflowRunId));
+    }
+
+    /**
+     * Indexes the user of a workflow run.
+     *
+     * @param tenantId      The ID of the tenant.
+     * @param idvpId        The ID of the identity verification provider.
+     * @param workflowRunId The ID of the workflow run.
+     * @param userId        The unique identifier of the user.
+     */
+    public void put(int tenantId, String idvpId, String workflowRunId, String userId) {
+
+        if (workflowRunId == null || userId == null) {
+            return;
+        }
+        String key = getKey(tenantId, idvpId, workflowRunId);
+        if (userIdsByWorkflowRun.put(key, userId) == null) {
+            addIndexedWorkflowRun(key);
+        }
+    }
+
+    /**
+     * Indexes the user of a workflow run, unless the workflow run is already indexed. The user of a workflow run does
+     * not change, hence the workflow runs of the users loaded by the verification requests are only indexed once.
+     *
+     * @param tenantId      The ID of the tenant.
+     * @param idvpId        The ID of the identity verification provider.
+     * @param workflowRunId The ID of the workflow run.
+     * @param userId        The unique identifier of the user.
+     */
+    public void putIfAbsent(int tenantId, String idvpId, String workflowRunId, String userId) {
+
+        if (workflowRunId == null || userId == null) {
+            return;
+        }
+        String key = getKey(tenantId, idvpId, workflowRunId);
+        if (!userIdsByWorkflowRun.containsKey(key) && userIdsByWorkflowRun.putIfAbsent(key, userId) == null) {
+            addIndexedWorkflowRun(key);
+        }
+    }
+
+    /**
+     * Removes a workflow run from the index, when the IdV claims of the workflow run are no longer found with its
+     * user.
+     *
+     * @param tenantId      The ID of the tenant.
+     * @param idvpId        The ID of the identity verification provider.
+     * @param workflowRunId The ID of the workflow run.
+     */
+    public void remove(int tenantId, String idvpId, String workflowRunId) {
+
+        String key = getKey(tenantId, idvpId, workflowRunId);
+        if (userIdsByWorkflowRun.remove(key) != null) {
+            indexedWorkflowRuns.remove(key);
+        }
+    }
+
+    /**
+     * Removes all the indexed workflow runs.
+     */
+    void clear() {
+
+        userIdsByWorkflowRun.clear();
+        indexedWorkflowRuns.clear();
+    }
+
+    /**
+     * Records a newly indexed workflow run, and evicts the earliest indexed workflow runs while the index is full.
+     *
+     * @param key The key of the newly indexed workflow run.
+     */
+    private void addIndexedWorkflowRun(String key) {
+
+        indexedWorkflowRuns.add(key);
+        while (userIdsByWorkflowRun.size() > MAX_INDEXED_WORKFLOW_RUNS) {
+            String evictedKey = indexedWorkflowRuns.poll();
+            if (evictedKey == null) {
+                return;
+            }
+            userIdsByWorkflowRun.remove(evictedKey);
+        }
+    }
+
+    private static String getKey(int tenantId, String idvpId, String workflowRunId) {
+
+        return tenantId + ":" + idvpId + ":" + workflowRunId;
+    }
+}
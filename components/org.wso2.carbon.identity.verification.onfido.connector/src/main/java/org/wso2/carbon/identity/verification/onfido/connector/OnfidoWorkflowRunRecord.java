@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector;
+
+import org.wso2.carbon.extension.identity.verification.mgt.model.IdVClaim;
+import org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ONFIDO_APPLICANT_ID;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ONFIDO_COMPLETED_AT;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ONFIDO_WORKFLOW_RUN_ID;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ONFIDO_WORKFLOW_STATUS;
+
+/**
+ * The state of an Onfido workflow run, shared by all the IdV claims verified through it.
+ * <p>
+ * The applicant, the status and the completion time are properties of the workflow run rather than of the individual
+ * claims. As the identity verification management component only stores metadata per IdV claim, the record is kept
+ * in the metadata of a single claim of the workflow run, the record claim, which is the claim holding the workflow run
+ * status. The metadata of the other claims only references the workflow run by its applicant ID and workflow run ID,
+ * hence a status or completion time update writes the record claim alone.
+ */
+public class OnfidoWorkflowRunRecord {
+
+    private final String applicantId;
+    private final String workflowRunId;
+    private String status;
+    private String completedAt;
+
+    /**
+     * Creates the record of a newly created workflow run, awaiting the input of the user.
+     *
+     * @param applicantId   The unique identifier of the applicant in the Onfido system.
+     * @param workflowRunId The unique identifier of the workflow run.
+     */
+    public OnfidoWorkflowRunRecord(String applicantId, String workflowRunId) {
+
+        this(applicantId, workflowRunId, OnfidoConstants.WorkflowRunStatus.AWAITING_INPUT.getStatus(), null);
+    }
+
+    private OnfidoWorkflowRunRecord(String applicantId, String workflowRunId, String status, String completedAt) {
+
+        this.applicantId = applicantId;
+        this.workflowRunId = workflowRunId;
+        this.status = status;
+        this.completedAt = completedAt;
+    }
+
+    /**
+     * Reads the record of a workflow run from the metadata of its record claim.
+     *
+     * @param idVClaims The IdV claims of the workflow run.
+     * @return The record of the workflow run, or null if none of the claims has metadata.
+     */
+    public static OnfidoWorkflowRunRecord fromIdVClaims(Collection<IdVClaim> idVClaims) {
+
+        IdVClaim recordClaim = getRecordClaim(idVClaims);
+        if (recordClaim == null) {
+            return null;
+        }
+        Map<String, Object> metadata = recordClaim.getMetadata();
+        return new OnfidoWorkflowRunRecord((String) metadata.get(ONFIDO_APPLICANT_ID),
+                (String) metadata.get(ONFIDO_WORKFLOW_RUN_ID), (String) metadata.get(ONFIDO_WORKFLOW_STATUS),
+                (String) metadata.get(ONFIDO_COMPLETED_AT));
+    }
+
+    public String getApplicantId() {
+
+        return applicantId;
+    }
+
+    public String getWorkflowRunId() {
+
+        return workflowRunId;
+    }
+
+    public String getStatus() {
+
+        return status;
+    }
+
+    public void setStatus(OnfidoConstants.WorkflowRunStatus workflowRunStatus) {
+
+        this.status = workflowRunStatus.getStatus();
+    }
+
+    public String getCompletedAt() {
+
+        return completedAt;
+    }
+
+    public void setCompletedAt(String completedAt) {
+
+        this.completedAt = completedAt;
+    }
+
+    /**
+     * Builds the metadata of the record claim of the workflow run.
+     *
+     * @return A new map containing the properties of the workflow run.
+     */
+    public Map<String, Object> toMetadata() {
+
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put(ONFIDO_APPLICANT_ID, applicantId);
+        metadata.put(ONFIDO_WORKFLOW_RUN_ID, workflowRunId);
+        metadata.put(ONFIDO_WORKFLOW_STATUS, status);
+        if (completedAt != null) {
+            metadata.put(ONFIDO_COMPLETED_AT, completedAt);
+        }
+        return metadata;
+    }
+
+    /**
+     * Builds the metadata of the other IdV claims verified through the workflow run, referencing the workflow run.
+     *
+     * @return A new map containing the applicant ID and the workflow run ID.
+     */
+    public Map<String, Object> toReferenceMetadata() {
+
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put(ONFIDO_APPLICANT_ID, applicantId);
+        metadata.put(ONFIDO_WORKFLOW_RUN_ID, workflowRunId);
+        return metadata;
+    }
+
+    /**
+     * Applies the workflow run status and completion time of the record to the metadata of the record claim of the
+     * workflow run, keeping the rest of its metadata. Copies of the status and the completion time found on the other
+     * claims, which each claim kept before, are removed from them.
+     *
+     * @param idVClaims The IdV claims of the workflow run.
+     */
+    public void applyTo(Collection<IdVClaim> idVClaims) {
+
+        IdVClaim recordClaim = getRecordClaim(idVClaims);
+        for (IdVClaim idVClaim : idVClaims) {
+            Map<String, Object> metadata = idVClaim.getMetadata();
+            if (metadata == null) {
+                continue;
+            }
+            if (idVClaim == recordClaim) {
+                metadata.put(ONFIDO_WORKFLOW_STATUS, status);
+                if (completedAt != null) {
+                    metadata.put(ONFIDO_COMPLETED_AT, completedAt);
+                }
+            } else {
+                metadata.remove(ONFIDO_WORKFLOW_STATUS);
+                metadata.remove(ONFIDO_COMPLETED_AT);
+            }
+            idVClaim.setMetadata(metadata);
+        }
+    }
+
+    /**
+     * Copies the record to the metadata of an IdV claim returned in a verification response, keeping the rest of its
+     * metadata. The claim is not persisted afterwards, so that its stored metadata keeps referencing the record.
+     *
+     * @param idVClaim The IdV claim verified through the workflow run.
+     */
+    public void copyTo(IdVClaim idVClaim) {
+
+        Map<String, Object> metadata = idVClaim.getMetadata();
+        if (metadata == null) {
+            idVClaim.setMetadata(toMetadata());
+            return;
+        }
+        metadata.putAll(toMetadata());
+        idVClaim.setMetadata(metadata);
+    }
+
+    /**
+     * Finds the record claim of a workflow run, which is the first claim holding the workflow run status. If none of
+     * the claims holds it, the first claim with metadata takes the record.
+     *
+     * @param idVClaims The IdV claims of the workflow run.
+     * @return The record claim, or null if none of the claims has metadata.
+     */
+    private static IdVClaim getRecordClaim(Collection<IdVClaim> idVClaims) {
+
+        IdVClaim recordClaim = null;
+        for (IdVClaim idVClaim : idVClaims) {
+            Map<String, Object> metadata = idVClaim.getMetadata();
+            if (metadata == null) {
+                continue;
+            }
+            if (metadata.containsKey(ONFIDO_WORKFLOW_STATUS)) {
+                return idVClaim;
+            }
+            if (recordClaim == null) {
+                recordClaim = idVClaim;
+            }
+        }
+        return recordClaim;
+    }
+}
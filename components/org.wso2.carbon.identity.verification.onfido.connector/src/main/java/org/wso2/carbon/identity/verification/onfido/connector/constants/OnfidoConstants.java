@@ -42,12 +42,15 @@ public class OnfidoConstants {
     public static final String ONFIDO = "ONFIDO";
     public static final String TOKEN = "token";
     public static final String WEBHOOK_TOKEN = "webhook_token";
+    public static final String HMAC_SHA256_ALGORITHM = "HmacSHA256";
     public static final String WORKFLOW_ID = "workflow_id";
     public static final String BASE_URL = "base_url";
     public static final String STATUS = "status";
     public static final String APPLICANT_ID = "applicant_id";
     public static final String SDK_TOKEN = "sdk_token";
     public static final String ID = "id";
+    public static final String FIRST_NAME = "first_name";
+    public static final String LAST_NAME = "last_name";
     public static final String RESULT = "result";
     public static final String OUTPUT = "output";
     public static final String DATA_COMPARISON = "data_comparison";
@@ -59,6 +62,58 @@ public class OnfidoConstants {
      */
     public static final String TOKEN_HEADER = "Token token=";
     public static final String APPLICATION_JSON = "application/json";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Optional IdV provider configuration properties for tuning the HTTP connection pool used for Onfido API calls.
+     */
+    public static final String HTTP_MAX_CONNECTIONS = "http_max_connections";
+    public static final String HTTP_MAX_CONNECTIONS_PER_ROUTE = "http_max_connections_per_route";
+    public static final String HTTP_CONNECTION_TIMEOUT = "http_connection_timeout";
+    public static final String HTTP_READ_TIMEOUT = "http_read_timeout";
+    public static final String HTTP_CONNECTION_REQUEST_TIMEOUT = "http_connection_request_timeout";
+
+    /**
+     * Optional IdV provider configuration properties for retrying failed Onfido API calls.
+     */
+    public static final String HTTP_MAX_RETRIES = "http_max_retries";
+    public static final String HTTP_RETRY_BASE_DELAY = "http_retry_base_delay";
+    public static final String HTTP_RETRY_MAX_DELAY = "http_retry_max_delay";
+
+    /**
+     * Optional IdV provider configuration properties for the client side rate limit of Onfido API calls.
+     */
+    public static final String RATE_LIMIT_REQUESTS_PER_MINUTE = "rate_limit_requests_per_minute";
+    public static final String RATE_LIMIT_BURST = "rate_limit_burst";
+    public static final String RATE_LIMIT_MAX_WAITING_REQUESTS = "rate_limit_max_waiting_requests";
+    public static final String RATE_LIMIT_MAX_WAIT = "rate_limit_max_wait";
+
+    /**
+     * Optional IdV provider configuration properties for the circuit breakers of Onfido API calls.
+     */
+    public static final String CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD = "circuit_breaker_failure_rate_threshold";
+    public static final String CIRCUIT_BREAKER_SLOW_CALL_DURATION = "circuit_breaker_slow_call_duration";
+    public static final String CIRCUIT_BREAKER_WINDOW_SIZE = "circuit_breaker_window_size";
+    public static final String CIRCUIT_BREAKER_MINIMUM_CALLS = "circuit_breaker_minimum_calls";
+    public static final String CIRCUIT_BREAKER_OPEN_DURATION = "circuit_breaker_open_duration";
+    public static final String CIRCUIT_BREAKER_HALF_OPEN_PROBES = "circuit_breaker_half_open_probes";
+
+    /**
+     * Optional IdV provider configuration property for the time a retrieved workflow run status is reused.
+     */
+    public static final String WORKFLOW_RUN_STATUS_FRESHNESS = "workflow_run_status_freshness";
+
+    /**
+     * Optional IdV provider configuration properties for the per tenant bulkheads of outbound Onfido work.
+     */
+    public static final String TENANT_BULKHEAD_SHARE = "tenant_bulkhead_share";
+    public static final String TENANT_BULKHEAD_MAX_WAIT = "tenant_bulkhead_max_wait";
+
+    /**
+     * Optional IdV provider configuration property for how long before its expiry a cached SDK token stops being
+     * reused.
+     */
+    public static final String SDK_TOKEN_EXPIRY_MARGIN = "sdk_token_expiry_margin";
 
     /**
      * Onfido API endpoint paths.
@@ -170,7 +225,17 @@ public class OnfidoConstants {
                 "No Onfido user found associated with the provided applicant ID: %s."),
         ERROR_WORKFLOW_RUN_ID_NOT_FOUND_IN_ONFIDO("10041",
                 "No Onfido workflow run found for the provided workflow run ID: %s."),
-        ERROR_INVALID_WORKFLOW_ID("10042", "Invalid Onfido workflow ID : %s provided.");
+        ERROR_INVALID_WORKFLOW_ID("10042", "Invalid Onfido workflow ID : %s provided."),
+        ERROR_ONFIDO_REQUEST_REJECTED("10043", "The Onfido request was rejected as the connector has reached " +
+                "its outbound request capacity."),
+        ERROR_HTTP_CONNECTION_POOL_EXHAUSTED("10044",
+                "No connection available in the Onfido HTTP connection pool for %s within the configured timeout."),
+        ERROR_ONFIDO_RATE_LIMIT_EXCEEDED("10045", "The rate limit of Onfido API calls was exceeded. " +
+                "Please try again later."),
+        ERROR_ONFIDO_CIRCUIT_OPEN("10046", "Onfido API calls to %s are temporarily suspended as Onfido is " +
+                "failing or responding slowly. Please try again later."),
+        ERROR_TENANT_ONFIDO_CAPACITY_EXCEEDED("10047", "The Onfido verification capacity of the tenant: %d is " +
+                "exhausted. Please try again later.");
 
         private final String code;
         private final String message;
@@ -306,6 +371,8 @@ public class OnfidoConstants {
         private static final Set<WorkflowRunStatus> ENDING_STATUSES = Collections.unmodifiableSet(
                 EnumSet.of(APPROVED, DECLINED, REVIEW)
                                                                                                  );
+        private static final Set<WorkflowRunStatus> TERMINAL_STATUSES = Collections.unmodifiableSet(
+                EnumSet.of(APPROVED, DECLINED, ABANDONED, ERROR));
         WorkflowRunStatus(String status) {
             this.status = status;
         }
@@ -345,6 +412,16 @@ public class OnfidoConstants {
         public boolean isEndingStatus() {
             return ENDING_STATUSES.contains(this);
         }
+
+        /**
+         * Checks if the current status is final, and hence can no longer change. Unlike the other ending statuses,
+         * a workflow run under review is approved or declined once reviewed.
+         *
+         * @return true if it is one of the terminal statuses, false otherwise.
+         */
+        public boolean isTerminalStatus() {
+            return TERMINAL_STATUSES.contains(this);
+        }
     }
 
 
@@ -32,6 +32,11 @@ import org.wso2.carbon.extension.identity.verification.mgt.IdentityVerifier;
 import org.wso2.carbon.extension.identity.verification.mgt.IdentityVerifierFactory;
 import org.wso2.carbon.identity.verification.onfido.connector.OnfidoIdentityVerifier;
 import org.wso2.carbon.identity.verification.onfido.connector.OnfidoIdentityVerifierFactory;
+import org.wso2.carbon.identity.verification.onfido.connector.OnfidoWebhookDeduplicator;
+import org.wso2.carbon.identity.verification.onfido.connector.OnfidoWebhookDeliveryStore;
+import org.wso2.carbon.identity.verification.onfido.connector.web.HTTPClientManager;
+import org.wso2.carbon.identity.verification.onfido.connector.web.OnfidoConnectorMetrics;
+import org.wso2.carbon.identity.verification.onfido.connector.web.OnfidoExecutorManager;
 import org.wso2.carbon.user.core.service.RealmService;
 
 /**
@@ -55,6 +60,7 @@ public class OnfidoIdVServiceComponent {
             IdentityVerifier onfidoIdentityVerifier = new OnfidoIdentityVerifier();
             ctxt.getBundleContext().registerService(IdentityVerifier.class.getName(),
                     onfidoIdentityVerifier, null);
+            OnfidoConnectorMetrics.register();
             if (log.isDebugEnabled()) {
                 log.debug("OnfidoIdVService bundle activated successfully.");
             }
@@ -66,6 +72,9 @@ public class OnfidoIdVServiceComponent {
     @Deactivate
     protected void deactivate(ComponentContext ctxt) {
 
+        OnfidoConnectorMetrics.unregister();
+        OnfidoExecutorManager.shutdown();
+        HTTPClientManager.shutdown();
         if (log.isDebugEnabled()) {
             log.debug("OnfidoIdVService bundle is deactivated.");
         }
@@ -102,4 +111,26 @@ public class OnfidoIdVServiceComponent {
 
         OnfidoIDVDataHolder.setRealmService(null);
     }
+
+    @Reference(
+            name = "OnfidoWebhookDeliveryStore",
+            service = org.wso2.carbon.identity.verification.onfido.connector.OnfidoWebhookDeliveryStore.class,
+            cardinality = ReferenceCardinality.OPTIONAL,
+            policy = ReferencePolicy.DYNAMIC,
+            unbind = "unsetWebhookDeliveryStore")
+    protected void setWebhookDeliveryStore(OnfidoWebhookDeliveryStore webhookDeliveryStore) {
+
+        OnfidoWebhookDeduplicator.getInstance().setSharedDeliveryStore(webhookDeliveryStore);
+        if (log.isDebugEnabled()) {
+            log.debug("Onfido webhook deliveries will be shared through: " + webhookDeliveryStore.getClass().getName());
+        }
+    }
+
+    protected void unsetWebhookDeliveryStore(OnfidoWebhookDeliveryStore webhookDeliveryStore) {
+
+        OnfidoWebhookDeduplicator webhookDeduplicator = OnfidoWebhookDeduplicator.getInstance();
+        if (webhookDeduplicator.getSharedDeliveryStore() == webhookDeliveryStore) {
+            webhookDeduplicator.setSharedDeliveryStore(null);
+        }
+    }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.verification.onfido.connector.model;
+
+/**
+ * An Onfido SDK token, as returned by the Onfido SDK token API.
+ */
+public class OnfidoSdkToken {
+
+    private String token;
+    private long expiryTime;
+
+    public String getToken() {
+
+        return token;
+    }
+
+    public void setToken(String token) {
+
+        this.token = token;
+    }
+
+    /**
+     * Gets the expiry time of the SDK token, as stated in the token itself.
+     *
+     * @return The expiry time in milliseconds since the epoch, or 0 if it is unknown.
+     */
+    public long getExpiryTime() {
+
+        return expiryTime;
+    }
+
+    public void setExpiryTime(long expiryTime) {
+
+        this.expiryTime = expiryTime;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.verification.onfido.connector.model;
+
+/**
+ * An Onfido workflow run, as returned by the Onfido workflow runs API.
+ * Only the fields used by the connector are populated. The workflow run output is not retained.
+ */
+public class OnfidoWorkflowRun {
+
+    private String id;
+    private String applicantId;
+    private String workflowId;
+    private String status;
+    private String eTag;
+
+    public String getId() {
+
+        return id;
+    }
+
+    public void setId(String id) {
+
+        this.id = id;
+    }
+
+    public String getApplicantId() {
+
+        return applicantId;
+    }
+
+    public void setApplicantId(String applicantId) {
+
+        this.applicantId = applicantId;
+    }
+
+    public String getWorkflowId() {
+
+        return workflowId;
+    }
+
+    public void setWorkflowId(String workflowId) {
+
+        this.workflowId = workflowId;
+    }
+
+    public String getStatus() {
+
+        return status;
+    }
+
+    public void setStatus(String status) {
+
+        this.status = status;
+    }
+
+    /**
+     * Gets the entity tag Onfido returned along with the workflow run, used to revalidate it with a conditional
+     * request.
+     *
+     * @return The entity tag, or null if Onfido did not return one.
+     */
+    public String getETag() {
+
+        return eTag;
+    }
+
+    public void setETag(String eTag) {
+
+        this.eTag = eTag;
+    }
+}
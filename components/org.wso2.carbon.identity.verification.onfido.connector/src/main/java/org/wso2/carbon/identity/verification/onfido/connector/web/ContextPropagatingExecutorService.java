@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.slf4j.MDC;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An executor service which runs tasks on a delegate executor service, with the log MDC and the tenant of the
+ * submitting thread's carbon context, so that the logs and the tenant aware calls made by the tasks behave as if
+ * they were made on the submitting thread.
+ */
+class ContextPropagatingExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+
+    /**
+     * Creates an executor service propagating the context of the submitting threads to the given delegate.
+     *
+     * @param delegate The executor service to run the tasks on.
+     */
+    ContextPropagatingExecutorService(ExecutorService delegate) {
+
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+
+        delegate.execute(new ContextPropagatingTask(command));
+    }
+
+    @Override
+    public void shutdown() {
+
+        delegate.shutdown();
+    }
+
+    /**
+     * Attempts to stop the running tasks and returns the tasks that were never run, as they were submitted.
+     *
+     * @return The tasks that were never run.
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+
+        List<Runnable> tasks = new ArrayList<>();
+        for (Runnable task : delegate.shutdownNow()) {
+            tasks.add(task instanceof ContextPropagatingTask ? ((ContextPropagatingTask) task).command : task);
+        }
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * A submitted task, run with the log MDC and the tenant of the thread which submitted it.
+     */
+    private static class ContextPropagatingTask implements Runnable {
+
+        private final Runnable command;
+        private final Map<String, String> contextMap;
+        private final String tenantDomain;
+        private final int tenantId;
+        private final String username;
+
+        private ContextPropagatingTask(Runnable command) {
+
+            this.command = command;
+            this.contextMap = MDC.getCopyOfContextMap();
+            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+            this.tenantDomain = carbonContext.getTenantDomain();
+            this.tenantId = carbonContext.getTenantId();
+            this.username = carbonContext.getUsername();
+        }
+
+        @Override
+        public void run() {
+
+            Map<String, String> previousContextMap = MDC.getCopyOfContextMap();
+            setContextMap(contextMap);
+            PrivilegedCarbonContext.startTenantFlow();
+            try {
+                PrivilegedCarbonContext tenantFlowContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+                tenantFlowContext.setTenantDomain(tenantDomain);
+                tenantFlowContext.setTenantId(tenantId);
+                tenantFlowContext.setUsername(username);
+                command.run();
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+                setContextMap(previousContextMap);
+            }
+        }
+    }
+
+    private static void setContextMap(Map<String, String> contextMap) {
+
+        if (contextMap == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(contextMap);
+        }
+    }
+}
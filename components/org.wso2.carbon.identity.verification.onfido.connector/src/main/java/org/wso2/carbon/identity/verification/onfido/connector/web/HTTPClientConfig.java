@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.BASE_URL;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.HTTP_CONNECTION_REQUEST_TIMEOUT;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.HTTP_CONNECTION_TIMEOUT;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.HTTP_MAX_CONNECTIONS;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.HTTP_MAX_CONNECTIONS_PER_ROUTE;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.HTTP_READ_TIMEOUT;
+
+/**
+ * Settings of an HTTP connection pool used for Onfido API calls.
+ * A separate pool is maintained for each distinct Onfido base URL origin, and IdV providers pointing to the same origin
+ * share its pool. The connection limits last applied to a pool are in effect for all the providers sharing it, while
+ * the timeouts of each provider are applied to its own requests.
+ */
+public class HTTPClientConfig {
+
+    private static final Log log = LogFactory.getLog(HTTPClientConfig.class);
+
+    static final int DEFAULT_CONNECTION_TIMEOUT = 3000;
+    static final int DEFAULT_READ_TIMEOUT = 3000;
+    static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT = 3000;
+    static final int DEFAULT_MAX_CONNECTIONS = 20;
+    private static final String DEFAULT_ORIGIN = "default";
+
+    private final String origin;
+    private final int maxConnections;
+    private final int maxConnectionsPerRoute;
+    private final int connectionTimeout;
+    private final int readTimeout;
+    private final int connectionRequestTimeout;
+
+    private HTTPClientConfig(String origin, int maxConnections, int maxConnectionsPerRoute, int connectionTimeout,
+                             int readTimeout, int connectionRequestTimeout) {
+
+        this.origin = origin;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.connectionTimeout = connectionTimeout;
+        this.readTimeout = readTimeout;
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    /**
+     * Gets the configuration used when no IdV provider specific settings are available.
+     *
+     * @return The default HTTP client configuration.
+     */
+    public static HTTPClientConfig getDefault() {
+
+        return new HTTPClientConfig(DEFAULT_ORIGIN, DEFAULT_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS,
+                DEFAULT_CONNECTION_TIMEOUT, DEFAULT_READ_TIMEOUT, DEFAULT_CONNECTION_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * Builds the HTTP client configuration from the configuration properties of an IdV provider.
+     * Settings which are not configured, or are not valid positive integers, fall back to the defaults.
+     *
+     * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
+     * @return The HTTP client configuration of the IdV provider.
+     */
+    public static HTTPClientConfig fromConfigProperties(Map<String, String> idVConfigPropertyMap) {
+
+        if (idVConfigPropertyMap == null) {
+            return getDefault();
+        }
+        int maxConnections = getPositiveInt(idVConfigPropertyMap, HTTP_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS);
+        // The per route limit defaults to the pool size as all Onfido calls of a pool go to the same origin.
+        int maxConnectionsPerRoute = getPositiveInt(idVConfigPropertyMap, HTTP_MAX_CONNECTIONS_PER_ROUTE,
+                maxConnections);
+        return new HTTPClientConfig(getOrigin(idVConfigPropertyMap.get(BASE_URL)), maxConnections,
+                Math.min(maxConnectionsPerRoute, maxConnections),
+                getPositiveInt(idVConfigPropertyMap, HTTP_CONNECTION_TIMEOUT, DEFAULT_CONNECTION_TIMEOUT),
+                getPositiveInt(idVConfigPropertyMap, HTTP_READ_TIMEOUT, DEFAULT_READ_TIMEOUT),
+                getPositiveInt(idVConfigPropertyMap, HTTP_CONNECTION_REQUEST_TIMEOUT,
+                        DEFAULT_CONNECTION_REQUEST_TIMEOUT));
+    }
+
+    public String getOrigin() {
+
+        return origin;
+    }
+
+    public int getMaxConnections() {
+
+        return maxConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+
+        return maxConnectionsPerRoute;
+    }
+
+    public int getConnectionTimeout() {
+
+        return connectionTimeout;
+    }
+
+    public int getReadTimeout() {
+
+        return readTimeout;
+    }
+
+    public int getConnectionRequestTimeout() {
+
+        return connectionRequestTimeout;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        HTTPClientConfig that = (HTTPClientConfig) o;
+        return maxConnections == that.maxConnections && maxConnectionsPerRoute == that.maxConnectionsPerRoute &&
+                connectionTimeout == that.connectionTimeout && readTimeout == that.readTimeout &&
+                connectionRequestTimeout == that.connectionRequestTimeout && origin.equals(that.origin);
+    }
+
+    @Override
+    public int hashCode() {
+
+        return Objects.hash(origin, maxConnections, maxConnectionsPerRoute, connectionTimeout, readTimeout,
+                connectionRequestTimeout);
+    }
+
+    @Override
+    public String toString() {
+
+        return origin + " [maxConnections=" + maxConnections + ", maxConnectionsPerRoute=" + maxConnectionsPerRoute +
+                ", connectionTimeout=" + connectionTimeout + ", readTimeout=" + readTimeout +
+                ", connectionRequestTimeout=" + connectionRequestTimeout + "]";
+    }
+
+    /**
+     * Extracts the scheme, host and port of the base URL, which identifies the pool the calls are made through.
+     *
+     * @param baseUrl The Onfido base URL.
+     * @return The origin of the base URL, or the base URL itself if it cannot be parsed.
+     */
+    private static String getOrigin(String baseUrl) {
+
+        if (StringUtils.isBlank(baseUrl)) {
+            return DEFAULT_ORIGIN;
+        }
+        try {
+            URI uri = new URI(baseUrl.trim());
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return baseUrl.trim();
+            }
+            String scheme = uri.getScheme().toLowerCase(Locale.ENGLISH);
+            int port = uri.getPort();
+            if (port == -1) {
+                port = "https".equals(scheme) ? 443 : 80;
+            }
+            return scheme + "://" + uri.getHost().toLowerCase(Locale.ENGLISH) + ":" + port;
+        } catch (URISyntaxException e) {
+            // The invalid base URL is reported when the request URI is built.
+            return baseUrl.trim();
+        }
+    }
+
+    private static int getPositiveInt(Map<String, String> idVConfigPropertyMap, String key, int defaultValue) {
+
+        return getIntProperty(idVConfigPropertyMap, key, defaultValue, 1);
+    }
+
+    /**
+     * Reads an integer configuration property of an IdV provider.
+     *
+     * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
+     * @param key                  The name of the property.
+     * @param defaultValue         The value used when the property is not configured or is not valid.
+     * @param minValue             The minimum valid value of the property.
+     * @return The configured value, or the default value.
+     */
+    static int getIntProperty(Map<String, String> idVConfigPropertyMap, String key, int defaultValue,
+                              int minValue) {
+
+        String value = idVConfigPropertyMap.get(key);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            int intValue = Integer.parseInt(value.trim());
+            if (intValue >= minValue) {
+                return intValue;
+            }
+        } catch (NumberFormatException e) {
+            // Falls through to the default value below.
+        }
+        log.warn("Invalid value: " + value + " configured for the Onfido property: " + key +
+                ". Using the default value: " + defaultValue);
+        return defaultValue;
+    }
+}
@@ -18,36 +18,43 @@
 
 package org.wso2.carbon.identity.verification.onfido.connector.web;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_CREATING_HTTP_CLIENT;
 
 /**
  * Manages HTTP client connections for the Onfido connector.
- * This class implements the singleton pattern to ensure only one instance of the HTTP client is created.
+ * This class implements the singleton pattern to ensure only one instance of the manager is created. The manager
+ * maintains a separate connection pool for each Onfido base URL origin, so that IdV providers pointing to different
+ * Onfido regions do not compete for the same connections. The pool of an origin takes the highest connection limits
+ * of the IdV providers using it, which are applied to the existing pool as they grow, and the timeouts are applied to
+ * each request, hence a pool is never replaced while the server is running.
  */
 public class HTTPClientManager {
 
-    private static final int HTTP_CONNECTION_TIMEOUT = 3000;
-    private static final int HTTP_READ_TIMEOUT = 3000;
-    private static final int HTTP_CONNECTION_REQUEST_TIMEOUT = 3000;
-    private static final int DEFAULT_MAX_CONNECTIONS = 20;
+    private static final Log log = LogFactory.getLog(HTTPClientManager.class);
+
     private static volatile HTTPClientManager httpClientManagerInstance;
-    private final CloseableHttpClient httpClient;
+    private final Map<String, PooledHttpClient> httpClients = new ConcurrentHashMap<>();
 
     /**
      * Private constructor to prevent direct instantiation.
-     *
-     * @param httpClient The CloseableHttpClient instance to be managed.
      */
-    private HTTPClientManager(CloseableHttpClient httpClient) {
-        this.httpClient = httpClient;
+    private HTTPClientManager() {
+
     }
 
     /**
@@ -61,7 +68,7 @@ public class HTTPClientManager {
         if (httpClientManagerInstance == null) {
             synchronized (HTTPClientManager.class) {
                 if (httpClientManagerInstance == null) {
-                    httpClientManagerInstance = createInstance();
+                    httpClientManagerInstance = new HTTPClientManager();
                 }
             }
         }
@@ -69,20 +76,117 @@ public class HTTPClientManager {
     }
 
     /**
-     * Creates a new instance of HTTPClientManager.
+     * Gets the HTTP client of the default connection pool.
      *
-     * @return A new instance of HTTPClientManager.
+     * @return The CloseableHttpClient instance.
      * @throws OnfidoServerException If there's an error creating the HTTP client.
      */
-    private static HTTPClientManager createInstance() throws OnfidoServerException {
+    public CloseableHttpClient getHttpClient() throws OnfidoServerException {
+        return getHttpClient(HTTPClientConfig.getDefault());
+    }
+
+    /**
+     * Gets the HTTP client of the connection pool of the origin of the given configuration, creating the pool on first
+     * use. The connection limits of the configuration are applied to the pool if they exceed its current limits.
+     * The timeouts of the configuration are not applied to the pool, and are to be set on each request with
+     * {@link #getRequestConfig(HTTPClientConfig)}.
+     *
+     * @param httpClientConfig The configuration of the connection pool.
+     * @return The CloseableHttpClient instance.
+     * @throws OnfidoServerException If there's an error creating the HTTP client.
+     */
+    public CloseableHttpClient getHttpClient(HTTPClientConfig httpClientConfig) throws OnfidoServerException {
+
+        String origin = httpClientConfig.getOrigin();
+        PooledHttpClient pooledHttpClient = httpClients.get(origin);
+        if (pooledHttpClient == null) {
+            synchronized (httpClients) {
+                pooledHttpClient = httpClients.get(origin);
+                if (pooledHttpClient == null) {
+                    pooledHttpClient = createPooledHttpClient(httpClientConfig);
+                    httpClients.put(origin, pooledHttpClient);
+                    if (log.isDebugEnabled()) {
+                        log.debug("Created Onfido HTTP connection pool for: " + httpClientConfig);
+                    }
+                }
+            }
+        }
+        pooledHttpClient.applyLimits(httpClientConfig);
+        return pooledHttpClient.httpClient;
+    }
+
+    /**
+     * Gets the statistics of the connection pool of the origin of the given configuration.
+     *
+     * @param httpClientConfig The configuration of the connection pool.
+     * @return The leased, available, pending and maximum connection counts of the pool, or null if no pool has been
+     * created for the origin yet.
+     */
+    public PoolStats getPoolStats(HTTPClientConfig httpClientConfig) {
+
+        PooledHttpClient pooledHttpClient = httpClients.get(httpClientConfig.getOrigin());
+        return pooledHttpClient == null ? null : pooledHttpClient.connectionManager.getTotalStats();
+    }
+
+    /**
+     * Gets the statistics of all the connection pools created so far.
+     *
+     * @return A map of the pool origins to the leased, available, pending and maximum connection counts of each pool.
+     */
+    public Map<String, PoolStats> getPoolStats() {
+
+        Map<String, PoolStats> poolStats = new HashMap<>();
+        for (Map.Entry<String, PooledHttpClient> entry : httpClients.entrySet()) {
+            poolStats.put(entry.getKey(), entry.getValue().connectionManager.getTotalStats());
+        }
+        return Collections.unmodifiableMap(poolStats);
+    }
+
+    /**
+     * Closes all the connection pools of the manager, if one was created.
+     * A subsequent call to getInstance() creates a new manager.
+     */
+    public static void shutdown() {
+
+        HTTPClientManager instance;
+        synchronized (HTTPClientManager.class) {
+            instance = httpClientManagerInstance;
+            httpClientManagerInstance = null;
+        }
+        if (instance == null) {
+            return;
+        }
+        synchronized (instance.httpClients) {
+            for (Map.Entry<String, PooledHttpClient> entry : instance.httpClients.entrySet()) {
+                try {
+                    entry.getValue().httpClient.close();
+                } catch (IOException e) {
+                    log.warn("Error while closing the Onfido HTTP connection pool for: " + entry.getKey(), e);
+                }
+            }
+            instance.httpClients.clear();
+        }
+    }
+
+    /**
+     * Creates a new HTTP client backed by its own connection pool.
+     *
+     * @param httpClientConfig The configuration of the connection pool.
+     * @return The HTTP client along with its connection manager.
+     * @throws OnfidoServerException If there's an error creating the HTTP client.
+     */
+    private static PooledHttpClient createPooledHttpClient(HTTPClientConfig httpClientConfig)
+            throws OnfidoServerException {
         try {
-            PoolingHttpClientConnectionManager connectionManager = createPoolingConnectionManager();
-            RequestConfig config = createRequestConfig();
+            PoolingHttpClientConnectionManager connectionManager = createPoolingConnectionManager(httpClientConfig);
+            RequestConfig config = getRequestConfig(httpClientConfig);
             CloseableHttpClient httpClient = HttpClients.custom()
                     .setDefaultRequestConfig(config)
                     .setConnectionManager(connectionManager)
+                    // Retries are made by OnfidoWebUtils according to the HTTPRetryPolicy of the IdV provider.
+                    .disableAutomaticRetries()
                     .build();
-            return new HTTPClientManager(httpClient);
+            return new PooledHttpClient(httpClient, connectionManager, httpClientConfig);
         } catch (IOException e) {
             throw new OnfidoServerException(ERROR_CREATING_HTTP_CLIENT.getCode(),
                     ERROR_CREATING_HTTP_CLIENT.getMessage(), e);
@@ -90,48 +194,80 @@ public class HTTPClientManager {
     }
 
     /**
-     * Gets the managed HTTP client instance.
-     *
-     * The httpClient is initialized in the private constructor and marked as final,
-     * ensuring it's always set when an HTTPClientManager instance is created. The only way to instantiate
-     * HTTPClientManager is through the getInstance() method, which internally calls createInstance().
-     * If createInstance() fails to create a CloseableHttpClient, it throws an OnfidoServerException,
-     * and no HTTPClientManager instance is created. Thus, if an HTTPClientManager instance exists,
-     * httpClient is guaranteed to be non-null.
-     *
-     * @return The CloseableHttpClient instance.
-     */
-    public CloseableHttpClient getHttpClient() throws OnfidoServerException {
-        return httpClient;
-    }
-
-    /**
-     * Creates a RequestConfig instance with predefined timeout settings.
+     * Creates a RequestConfig instance with the timeout settings of the given configuration.
      *
+     * @param httpClientConfig The configuration of the connection pool.
      * @return A configured RequestConfig instance.
      */
-    private static RequestConfig createRequestConfig() {
+    public static RequestConfig getRequestConfig(HTTPClientConfig httpClientConfig) {
         return RequestConfig.custom()
-                .setConnectTimeout(HTTP_CONNECTION_TIMEOUT)
-                .setConnectionRequestTimeout(HTTP_CONNECTION_REQUEST_TIMEOUT)
-                .setSocketTimeout(HTTP_READ_TIMEOUT)
+                .setConnectTimeout(httpClientConfig.getConnectionTimeout())
+                .setConnectionRequestTimeout(httpClientConfig.getConnectionRequestTimeout())
+                .setSocketTimeout(httpClientConfig.getReadTimeout())
                 .setRedirectsEnabled(false)
                 .setRelativeRedirectsAllowed(false)
                 .build();
     }
 
     /**
-     * Creates a PoolingHttpClientConnectionManager with predefined connection limits.
+     * Creates a PoolingHttpClientConnectionManager with the connection limits of the given configuration.
      *
+     * @param httpClientConfig The configuration of the connection pool.
      * @return A configured PoolingHttpClientConnectionManager instance.
      * @throws IOException If there's an error creating the connection manager.
      */
-    private static PoolingHttpClientConnectionManager createPoolingConnectionManager() throws IOException {
+    private static PoolingHttpClientConnectionManager createPoolingConnectionManager(HTTPClientConfig httpClientConfig)
+            throws IOException {
         PoolingHttpClientConnectionManager poolingHttpClientConnectionMgr = new PoolingHttpClientConnectionManager();
-        // Increase max total connection to 20.
-        poolingHttpClientConnectionMgr.setMaxTotal(DEFAULT_MAX_CONNECTIONS);
-        // Increase default max connection per route to 20.
-        poolingHttpClientConnectionMgr.setDefaultMaxPerRoute(DEFAULT_MAX_CONNECTIONS);
+        poolingHttpClientConnectionMgr.setMaxTotal(httpClientConfig.getMaxConnections());
+        poolingHttpClientConnectionMgr.setDefaultMaxPerRoute(httpClientConfig.getMaxConnectionsPerRoute());
         return poolingHttpClientConnectionMgr;
     }
+
+    /**
+     * An HTTP client along with the connection manager of its pool, and the connection limits applied to it.
+     */
+    private static class PooledHttpClient {
+
+        private final CloseableHttpClient httpClient;
+        private final PoolingHttpClientConnectionManager connectionManager;
+        private volatile int maxConnections;
+        private volatile int maxConnectionsPerRoute;
+
+        private PooledHttpClient(CloseableHttpClient httpClient, PoolingHttpClientConnectionManager connectionManager,
+                                 HTTPClientConfig httpClientConfig) {
+
+            this.httpClient = httpClient;
+            this.connectionManager = connectionManager;
+            this.maxConnections = httpClientConfig.getMaxConnections();
+            this.maxConnectionsPerRoute = httpClientConfig.getMaxConnectionsPerRoute();
+        }
+
+        /**
+         * Raises the connection limits of the pool to those of the given configuration where they are higher, keeping
+         * its connections. The limits of the pool are never lowered, so that IdV providers sharing the pool with
+         * different limits do not resize it back and forth.
+         *
+         * @param httpClientConfig The configuration of the connection pool.
+         */
+        private void applyLimits(HTTPClientConfig httpClientConfig) {
+
+            if (maxConnections >= httpClientConfig.getMaxConnections() &&
+                    maxConnectionsPerRoute >= httpClientConfig.getMaxConnectionsPerRoute()) {
+                return;
+            }
+            synchronized (this) {
+                maxConnections = Math.max(maxConnections, httpClientConfig.getMaxConnections());
+                maxConnectionsPerRoute = Math.max(maxConnectionsPerRoute,
+                        httpClientConfig.getMaxConnectionsPerRoute());
+                connectionManager.setMaxTotal(maxConnections);
+                connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Resized Onfido HTTP connection pool of: %s to %d connections, and %d " +
+                        "connections per route.", httpClientConfig.getOrigin(), maxConnections,
+                        maxConnectionsPerRoute));
+            }
+        }
+    }
 }
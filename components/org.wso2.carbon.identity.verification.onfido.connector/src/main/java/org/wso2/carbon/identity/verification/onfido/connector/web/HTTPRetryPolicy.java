@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpStatus;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.conn.ConnectTimeoutException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.HTTP_MAX_RETRIES;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.HTTP_RETRY_BASE_DELAY;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.HTTP_RETRY_MAX_DELAY;
+
+/**
+ * Decides whether a failed Onfido API call is retried, and how long to wait before retrying it.
+ * <p>
+ * Rate limited (429) and server error (5xx) responses, as well as connection failures, are retried with an
+ * exponential backoff with full jitter, bounded by the maximum delay. A Retry-After header sent by Onfido is honoured,
+ * unless it asks for a longer wait than the maximum delay, in which case the call is not retried.
+ * <p>
+ * POST requests create resources in Onfido, hence they are only retried when Onfido has certainly not processed
+ * them: when the connection could not be established, or when Onfido rejected the request with 429 or 503.
+ */
+public class HTTPRetryPolicy {
+
+    static final int DEFAULT_MAX_RETRIES = 2;
+    static final int DEFAULT_RETRY_BASE_DELAY = 200;
+    static final int DEFAULT_RETRY_MAX_DELAY = 2000;
+    private static final int MAX_BACKOFF_SHIFT = 20;
+
+    private final int maxRetries;
+    private final long baseDelay;
+    private final long maxDelay;
+
+    private HTTPRetryPolicy(int maxRetries, long baseDelay, long maxDelay) {
+
+        this.maxRetries = maxRetries;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * Gets the retry policy used when no IdV provider specific settings are available.
+     *
+     * @return The default retry policy.
+     */
+    public static HTTPRetryPolicy getDefault() {
+
+        return new HTTPRetryPolicy(DEFAULT_MAX_RETRIES, DEFAULT_RETRY_BASE_DELAY, DEFAULT_RETRY_MAX_DELAY);
+    }
+
+    /**
+     * Builds the retry policy from the configuration properties of an IdV provider.
+     * Settings which are not configured, or are not valid, fall back to the defaults. Setting the maximum number of
+     * retries to 0 disables retrying.
+     *
+     * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
+     * @return The retry policy of the IdV provider.
+     */
+    public static HTTPRetryPolicy fromConfigProperties(Map<String, String> idVConfigPropertyMap) {
+
+        if (idVConfigPropertyMap == null) {
+            return getDefault();
+        }
+        int maxRetries = HTTPClientConfig.getIntProperty(idVConfigPropertyMap, HTTP_MAX_RETRIES,
+                DEFAULT_MAX_RETRIES, 0);
+        int baseDelay = HTTPClientConfig.getIntProperty(idVConfigPropertyMap, HTTP_RETRY_BASE_DELAY,
+                DEFAULT_RETRY_BASE_DELAY, 1);
+        int maxDelay = HTTPClientConfig.getIntProperty(idVConfigPropertyMap, HTTP_RETRY_MAX_DELAY,
+                DEFAULT_RETRY_MAX_DELAY, 1);
+        return new HTTPRetryPolicy(maxRetries, baseDelay, Math.max(baseDelay, maxDelay));
+    }
+
+    public int getMaxRetries() {
+
+        return maxRetries;
+    }
+
+    public long getBaseDelay() {
+
+        return baseDelay;
+    }
+
+    public long getMaxDelay() {
+
+        return maxDelay;
+    }
+
+    /**
+     * Checks whether a request which received the given response status should be retried.
+     *
+     * @param request    The request sent to Onfido.
+     * @param statusCode The status code of the response.
+     * @return True if the request can be safely retried.
+     */
+    public boolean isRetryable(HttpRequest request, int statusCode) {
+
+        if (statusCode == HttpStatus.SC_TOO_MANY_REQUESTS || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE) {
+            return true;
+        }
+        return statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR && isIdempotent(request);
+    }
+
+    /**
+     * Checks whether a request which failed with the given I/O error should be retried.
+     *
+     * @param request   The request sent to Onfido.
+     * @param exception The I/O error the request failed with.
+     * @return True if the request can be safely retried.
+     */
+    public boolean isRetryable(HttpRequest request, IOException exception) {
+
+        // The connection was never established, hence the request did not reach Onfido.
+        if (exception instanceof ConnectException || exception instanceof ConnectTimeoutException ||
+                exception instanceof NoRouteToHostException) {
+            return true;
+        }
+        // The request may have been processed by Onfido before the connection was reset or timed out.
+        return isIdempotent(request) && (exception instanceof NoHttpResponseException ||
+                exception instanceof SocketTimeoutException || exception instanceof SocketException);
+    }
+
+    /**
+     * Gets the time to wait before the given retry. The delay is a random value between zero and the exponential
+     * backoff of the retry, and is never shorter than the wait requested by Onfido through the Retry-After header.
+     *
+     * @param retryCount The number of retries already made for the request.
+     * @param retryAfter The value of the Retry-After header of the response, if any.
+     * @return The delay in milliseconds, or -1 if Onfido asked for a longer wait than the maximum delay.
+     */
+    public long getRetryDelay(int retryCount, String retryAfter) {
+
+        long retryAfterDelay = parseRetryAfter(retryAfter);
+        if (retryAfterDelay > maxDelay) {
+            return -1;
+        }
+        long backoff = Math.min(maxDelay, baseDelay << Math.min(retryCount, MAX_BACKOFF_SHIFT));
+        long delay = ThreadLocalRandom.current().nextLong(backoff + 1);
+        return Math.max(delay, retryAfterDelay);
+    }
+
+    @Override
+    public String toString() {
+
+        return "[maxRetries=" + maxRetries + ", baseDelay=" + baseDelay + ", maxDelay=" + maxDelay + "]";
+    }
+
+    /**
+     * Checks whether repeating the request has the same effect as sending it once. Onfido POST requests create a new
+     * resource on each call, while PUT requests overwrite the resource with the same data.
+     *
+     * @param request The request sent to Onfido.
+     * @return True if the request is idempotent.
+     */
+    private static boolean isIdempotent(HttpRequest request) {
+
+        return !"POST".equalsIgnoreCase(request.getRequestLine().getMethod());
+    }
+
+    /**
+     * Parses a Retry-After header value, given either in seconds or as an HTTP date.
+     *
+     * @param retryAfter The value of the Retry-After header.
+     * @return The requested wait in milliseconds, or 0 if the value is missing or invalid.
+     */
+    private static long parseRetryAfter(String retryAfter) {
+
+        if (StringUtils.isBlank(retryAfter)) {
+            return 0;
+        }
+        String value = retryAfter.trim();
+        if (StringUtils.isNumeric(value)) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                return Long.MAX_VALUE;
+            }
+        }
+        Date retryAfterDate = DateUtils.parseDate(value);
+        if (retryAfterDate == null) {
+            return 0;
+        }
+        return Math.max(0, retryAfterDate.getTime() - System.currentTimeMillis());
+    }
+}
@@ -18,18 +18,23 @@
 
 package org.wso2.carbon.identity.verification.onfido.connector.web;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.util.EntityUtils;
 import org.json.JSONObject;
 import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoClientException;
 import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoApplicant;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoSdkToken;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoWorkflowRun;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.HashMap;
 import java.util.Map;
 
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.APPLICANTS_ENDPOINT;
@@ -41,7 +46,6 @@ import static org.wso2.carbon.identity.verification.onfido.connector.constants.O
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_BUILDING_WORKFLOW_RUN_GET_URI;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_BUILDING_WORKFLOW_RUN_URI;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_CREATING_ONFIDO_APPLICANT;
-import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_CREATING_RESPONSE;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_CREATING_WORKFLOW_RUN;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_GETTING_ONFIDO_SDK_TOKEN;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_GETTING_ONFIDO_WORKFLOW_STATUS;
@@ -50,12 +54,12 @@ import static org.wso2.carbon.identity.verification.onfido.connector.constants.O
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_UPDATING_ONFIDO_APPLICANT;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_WORKFLOW_RUN_ID_NOT_FOUND_IN_ONFIDO;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.SDK_TOKEN_ENDPOINT;
-import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.TOKEN;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.WORKFLOW_ID;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.WORKFLOW_RUN_ENDPOINT;
 
 /**
  * This class contains the implementation of OnfidoAPIClient.
+ * Responses are parsed straight from the connection stream into the connector's models, without buffering them.
  */
 public class OnfidoAPIClient {
 
@@ -64,30 +68,30 @@ public class OnfidoAPIClient {
      *
      * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
      * @param idvClaimsWithValues  A JSONObject containing the user's claim data to be sent to Onfido.
-     * @return A JSONObject containing the created applicant's details as returned by Onfido.
+     * @return The created applicant as returned by Onfido.
      * @throws OnfidoServerException If an error occurs during the applicant creation process, including
      *                               URI building errors or unexpected responses from the Onfido API.
      */
-    public static JSONObject createApplicant(Map<String, String> idVConfigPropertyMap,
-                                             JSONObject idvClaimsWithValues)
+    public static OnfidoApplicant createApplicant(Map<String, String> idVConfigPropertyMap,
+                                                  JSONObject idvClaimsWithValues)
             throws OnfidoServerException, OnfidoClientException {
 
-        String apiToken = idVConfigPropertyMap.get(TOKEN);
         String baseUrl = idVConfigPropertyMap.get(BASE_URL);
 
         try {
             URI uri = buildUri(baseUrl, APPLICANTS_ENDPOINT);
-            HttpResponse response = OnfidoWebUtils.httpPost(apiToken, uri.toString(), idvClaimsWithValues.toString());
-
-            int statusCode = response.getStatusLine().getStatusCode();
-            if (statusCode == HttpStatus.SC_CREATED) {
-                return getJsonObject(response);
-            } else if (statusCode == HttpStatus.SC_UNAUTHORIZED) {
-                throw new OnfidoClientException(ERROR_INVALID_TOKEN.getCode(), ERROR_INVALID_TOKEN.getMessage());
-            } else {
-                throw new OnfidoServerException(ERROR_CREATING_ONFIDO_APPLICANT.getCode(),
-                        String.format(ERROR_CREATING_ONFIDO_APPLICANT.getMessage(), statusCode));
-            }
+            return OnfidoWebUtils.httpPost(idVConfigPropertyMap, uri.toString(), idvClaimsWithValues.toString(),
+                    (statusCode, entity) -> {
+                        if (statusCode == HttpStatus.SC_CREATED) {
+                            return OnfidoResponseParser.parseApplicant(entity);
+                        } else if (statusCode == HttpStatus.SC_UNAUTHORIZED) {
+                            throw new OnfidoClientException(ERROR_INVALID_TOKEN.getCode(),
+                                    ERROR_INVALID_TOKEN.getMessage());
+                        } else {
+                            throw new OnfidoServerException(ERROR_CREATING_ONFIDO_APPLICANT.getCode(),
+                                    String.format(ERROR_CREATING_ONFIDO_APPLICANT.getMessage(), statusCode));
+                        }
+                    });
         } catch (URISyntaxException e) {
             throw new OnfidoServerException(ERROR_BUILDING_ONFIDO_APPLICANT_URI.getCode(),
                     ERROR_BUILDING_ONFIDO_APPLICANT_URI.getMessage(), e);
@@ -100,34 +104,34 @@ public class OnfidoAPIClient {
      * @param idVConfigPropertyMap   The map containing the configuration properties of the IdV Provider.
      * @param workflowRunRequestBody A JSONObject containing the necessary data to create a workflow run,
      *                               typically including the workflow ID and applicant ID.
-     * @return A JSONObject containing the details of the created workflow run as returned by Onfido.
+     * @return The created workflow run as returned by Onfido.
      * @throws OnfidoServerException If an error occurs during the workflow run creation process, including
      *                               URI building errors, network issues, or unexpected responses from the Onfido API.
      */
-    public static JSONObject createWorkflowRun(Map<String, String> idVConfigPropertyMap,
-                                               JSONObject workflowRunRequestBody)
+    public static OnfidoWorkflowRun createWorkflowRun(Map<String, String> idVConfigPropertyMap,
+                                                      JSONObject workflowRunRequestBody)
             throws OnfidoServerException, OnfidoClientException {
 
-        String apiToken = idVConfigPropertyMap.get(TOKEN);
         String baseUrl = idVConfigPropertyMap.get(BASE_URL);
 
         try {
             URI uri = buildUri(baseUrl, WORKFLOW_RUN_ENDPOINT);
-            HttpResponse response =
-                    OnfidoWebUtils.httpPost(apiToken, uri.toString(), workflowRunRequestBody.toString());
-
-            int statusCode = response.getStatusLine().getStatusCode();
-            if (statusCode == HttpStatus.SC_CREATED) {
-                return getJsonObject(response);
-            } else if (statusCode == HttpStatus.SC_UNAUTHORIZED) {
-                throw new OnfidoClientException(ERROR_INVALID_TOKEN.getCode(), ERROR_INVALID_TOKEN.getMessage());
-            } else if (statusCode == HttpStatus.SC_UNPROCESSABLE_ENTITY) {
-                throw new OnfidoClientException(ERROR_INVALID_WORKFLOW_ID.getCode(),
-                        String.format(ERROR_INVALID_WORKFLOW_ID.getMessage(), workflowRunRequestBody.get(WORKFLOW_ID)));
-            } else {
-                throw new OnfidoServerException(ERROR_CREATING_WORKFLOW_RUN.getCode(),
-                        String.format(ERROR_CREATING_WORKFLOW_RUN.getMessage(), statusCode));
-            }
+            return OnfidoWebUtils.httpPost(idVConfigPropertyMap, uri.toString(), workflowRunRequestBody.toString(),
+                    (statusCode, entity) -> {
+                        if (statusCode == HttpStatus.SC_CREATED) {
+                            return OnfidoResponseParser.parseWorkflowRun(entity);
+                        } else if (statusCode == HttpStatus.SC_UNAUTHORIZED) {
+                            throw new OnfidoClientException(ERROR_INVALID_TOKEN.getCode(),
+                                    ERROR_INVALID_TOKEN.getMessage());
+                        } else if (statusCode == HttpStatus.SC_UNPROCESSABLE_ENTITY) {
+                            throw new OnfidoClientException(ERROR_INVALID_WORKFLOW_ID.getCode(),
+                                    String.format(ERROR_INVALID_WORKFLOW_ID.getMessage(),
+                                            workflowRunRequestBody.get(WORKFLOW_ID)));
+                        } else {
+                            throw new OnfidoServerException(ERROR_CREATING_WORKFLOW_RUN.getCode(),
+                                    String.format(ERROR_CREATING_WORKFLOW_RUN.getMessage(), statusCode));
+                        }
+                    });
         } catch (URISyntaxException e) {
             throw new OnfidoServerException(ERROR_BUILDING_WORKFLOW_RUN_URI.getCode(),
                     ERROR_BUILDING_WORKFLOW_RUN_URI.getMessage(), e);
@@ -139,29 +143,30 @@ public class OnfidoAPIClient {
      *
      * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
      * @param sdkTokenRequestBody  A JSONObject containing the necessary data to request an SDK token.
-     * @return A JSONObject containing the SDK token as returned by Onfido.
+     * @return The SDK token as returned by Onfido.
      * @throws OnfidoServerException If an error occurs during the SDK token request process, including
      *                               URI building errors or unexpected responses from the Onfido API.
      */
-    public static JSONObject createSDKToken(Map<String, String> idVConfigPropertyMap, JSONObject sdkTokenRequestBody)
+    public static OnfidoSdkToken createSDKToken(Map<String, String> idVConfigPropertyMap,
+                                                JSONObject sdkTokenRequestBody)
             throws OnfidoServerException, OnfidoClientException {
 
-        String apiToken = idVConfigPropertyMap.get(TOKEN);
         String baseUrl = idVConfigPropertyMap.get(BASE_URL);
 
         try {
             URI uri = buildUri(baseUrl, SDK_TOKEN_ENDPOINT);
-            HttpResponse response = OnfidoWebUtils.httpPost(apiToken, uri.toString(), sdkTokenRequestBody.toString());
-
-            int statusCode = response.getStatusLine().getStatusCode();
-            if (statusCode == HttpStatus.SC_OK) {
-                return getJsonObject(response);
-            } else if (statusCode == HttpStatus.SC_UNAUTHORIZED) {
-                throw new OnfidoClientException(ERROR_INVALID_TOKEN.getCode(), ERROR_INVALID_TOKEN.getMessage());
-            } else {
-                throw new OnfidoServerException(ERROR_GETTING_ONFIDO_SDK_TOKEN.getCode(),
-                        String.format(ERROR_GETTING_ONFIDO_SDK_TOKEN.getMessage(), statusCode));
-            }
+            return OnfidoWebUtils.httpPost(idVConfigPropertyMap, uri.toString(), sdkTokenRequestBody.toString(),
+                    (statusCode, entity) -> {
+                        if (statusCode == HttpStatus.SC_OK) {
+                            return OnfidoResponseParser.parseSdkToken(entity);
+                        } else if (statusCode == HttpStatus.SC_UNAUTHORIZED) {
+                            throw new OnfidoClientException(ERROR_INVALID_TOKEN.getCode(),
+                                    ERROR_INVALID_TOKEN.getMessage());
+                        } else {
+                            throw new OnfidoServerException(ERROR_GETTING_ONFIDO_SDK_TOKEN.getCode(),
+                                    String.format(ERROR_GETTING_ONFIDO_SDK_TOKEN.getMessage(), statusCode));
+                        }
+                    });
         } catch (URISyntaxException e) {
             throw new OnfidoServerException(ERROR_BUILDING_ONFIDO_SDK_TOKEN_URI.getCode(),
                     ERROR_BUILDING_ONFIDO_SDK_TOKEN_URI.getMessage(), e);
@@ -174,33 +179,33 @@ public class OnfidoAPIClient {
      * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
      * @param idvClaimsWithValues  A JSONObject containing the user's claim data to be updated in Onfido.
      * @param applicantId          The unique identifier of the applicant to be updated in Onfido.
-     * @return A JSONObject containing the response from Onfido after the update request.
+     * @return The updated applicant as returned by Onfido.
      * @throws OnfidoServerException If an error occurs during the applicant update process, including
      *                               URI building errors or unexpected responses from the Onfido API.
      */
-    public static JSONObject updateApplicant(Map<String, String> idVConfigPropertyMap,
-                                             JSONObject idvClaimsWithValues, String applicantId)
+    public static OnfidoApplicant updateApplicant(Map<String, String> idVConfigPropertyMap,
+                                                  JSONObject idvClaimsWithValues, String applicantId)
             throws OnfidoServerException, OnfidoClientException {
 
-        String apiToken = idVConfigPropertyMap.get(TOKEN);
         String baseUrl = idVConfigPropertyMap.get(BASE_URL);
 
         try {
             URI uri = buildUri(baseUrl, APPLICANTS_ENDPOINT + "/" + applicantId);
-            HttpResponse response = OnfidoWebUtils.httpPut(apiToken, uri.toString(), idvClaimsWithValues.toString());
-
-            int statusCode = response.getStatusLine().getStatusCode();
-            if (statusCode == HttpStatus.SC_OK) {
-                return getJsonObject(response);
-            } else if (statusCode == HttpStatus.SC_UNAUTHORIZED) {
-                throw new OnfidoClientException(ERROR_INVALID_TOKEN.getCode(), ERROR_INVALID_TOKEN.getMessage());
-            } else if (statusCode == HttpStatus.SC_NOT_FOUND) {
-                throw new OnfidoServerException(ERROR_APPLICANT_ID_NOT_FOUND_IN_ONFIDO.getCode(),
-                        String.format(ERROR_APPLICANT_ID_NOT_FOUND_IN_ONFIDO.getMessage(), applicantId));
-            } else {
-                throw new OnfidoServerException(ERROR_UPDATING_ONFIDO_APPLICANT.getCode(),
-                        String.format(ERROR_UPDATING_ONFIDO_APPLICANT.getMessage(), statusCode));
-            }
+            return OnfidoWebUtils.httpPut(idVConfigPropertyMap, uri.toString(), idvClaimsWithValues.toString(),
+                    (statusCode, entity) -> {
+                        if (statusCode == HttpStatus.SC_OK) {
+                            return OnfidoResponseParser.parseApplicant(entity);
+                        } else if (statusCode == HttpStatus.SC_UNAUTHORIZED) {
+                            throw new OnfidoClientException(ERROR_INVALID_TOKEN.getCode(),
+                                    ERROR_INVALID_TOKEN.getMessage());
+                        } else if (statusCode == HttpStatus.SC_NOT_FOUND) {
+                            throw new OnfidoServerException(ERROR_APPLICANT_ID_NOT_FOUND_IN_ONFIDO.getCode(),
+                                    String.format(ERROR_APPLICANT_ID_NOT_FOUND_IN_ONFIDO.getMessage(), applicantId));
+                        } else {
+                            throw new OnfidoServerException(ERROR_UPDATING_ONFIDO_APPLICANT.getCode(),
+                                    String.format(ERROR_UPDATING_ONFIDO_APPLICANT.getMessage(), statusCode));
+                        }
+                    });
         } catch (URISyntaxException e) {
             throw new OnfidoServerException(ERROR_BUILDING_ONFIDO_APPLICANT_UPDATE_URI.getCode(),
                     ERROR_BUILDING_ONFIDO_APPLICANT_UPDATE_URI.getMessage(), e);
@@ -212,50 +217,49 @@ public class OnfidoAPIClient {
      *
      * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
      * @param workflowRunId        The ID of the workflow run whose status is to be retrieved.
-     * @return A JSONObject containing the status of the workflow run as returned by Onfido.
+     * @return The workflow run, including its status, as returned by Onfido.
      * @throws OnfidoServerException If an error occurs while retrieving the workflow run status, including
      *                               URI building errors, encoding issues, or unexpected responses from the Onfido API.
      */
-    public static JSONObject getWorkflowRunStatus(Map<String, String> idVConfigPropertyMap, String workflowRunId)
+    public static OnfidoWorkflowRun getWorkflowRunStatus(Map<String, String> idVConfigPropertyMap,
+                                                         String workflowRunId)
+            throws OnfidoServerException, OnfidoClientException {
+
+        return getWorkflowRunStatus(idVConfigPropertyMap, workflowRunId, null);
+    }
+
+    /**
+     * Retrieves the status of a workflow run in Onfido, revalidating a previously retrieved workflow run with a
+     * conditional request when Onfido returned an entity tag along with it.
+     *
+     * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
+     * @param workflowRunId        The ID of the workflow run whose status is to be retrieved.
+     * @param cachedWorkflowRun    The previously retrieved workflow run, or null if there is none.
+     * @return The workflow run, including its status, as returned by Onfido, or the given cached workflow run if
+     * Onfido confirmed that it has not changed.
+     * @throws OnfidoServerException If an error occurs while retrieving the workflow run status, including
+     *                               URI building errors, encoding issues, or unexpected responses from the Onfido API.
+     */
+    public static OnfidoWorkflowRun getWorkflowRunStatus(Map<String, String> idVConfigPropertyMap,
+                                                         String workflowRunId, OnfidoWorkflowRun cachedWorkflowRun)
             throws OnfidoServerException, OnfidoClientException {
 
-        String apiToken = idVConfigPropertyMap.get(TOKEN);
         String baseUrl = idVConfigPropertyMap.get(BASE_URL);
+        Map<String, String> requestHeaders = new HashMap<>();
+        if (cachedWorkflowRun != null && cachedWorkflowRun.getETag() != null) {
+            requestHeaders.put(HttpHeaders.IF_NONE_MATCH, cachedWorkflowRun.getETag());
+        }
 
         try {
             URI uri = buildUri(baseUrl, WORKFLOW_RUN_ENDPOINT + "/" + workflowRunId);
-            HttpResponse response = OnfidoWebUtils.httpGet(apiToken, uri.toString());
-
-            int statusCode = response.getStatusLine().getStatusCode();
-            if (statusCode == HttpStatus.SC_OK) {
-                return getJsonObject(response);
-            } else if (statusCode == HttpStatus.SC_UNAUTHORIZED) {
-                throw new OnfidoClientException(ERROR_INVALID_TOKEN.getCode(), ERROR_INVALID_TOKEN.getMessage());
-            } else if (statusCode == HttpStatus.SC_NOT_FOUND) {
-                throw new OnfidoServerException(ERROR_WORKFLOW_RUN_ID_NOT_FOUND_IN_ONFIDO.getCode(),
-                        String.format(ERROR_WORKFLOW_RUN_ID_NOT_FOUND_IN_ONFIDO.getMessage(), workflowRunId));
-            } else {
-                throw new OnfidoServerException(ERROR_GETTING_ONFIDO_WORKFLOW_STATUS.getCode(),
-                        String.format(ERROR_GETTING_ONFIDO_WORKFLOW_STATUS.getMessage(), statusCode));
-            }
+            return OnfidoWebUtils.httpGet(idVConfigPropertyMap, uri.toString(), requestHeaders,
+                    new WorkflowRunResponseHandler(workflowRunId, cachedWorkflowRun));
         } catch (URISyntaxException e) {
             throw new OnfidoServerException(ERROR_BUILDING_WORKFLOW_RUN_GET_URI.getCode(),
                     ERROR_BUILDING_WORKFLOW_RUN_GET_URI.getMessage(), e);
         }
     }
 
-    private static JSONObject getJsonObject(HttpResponse response) throws OnfidoServerException {
-
-        try {
-            HttpEntity entity = response.getEntity();
-            String jsonResponse = EntityUtils.toString(entity);
-            return new JSONObject(jsonResponse);
-        } catch (IOException e) {
-            throw new OnfidoServerException(ERROR_CREATING_RESPONSE.getCode(),
-                    ERROR_CREATING_RESPONSE.getMessage());
-        }
-    }
-
     /**
      * Constructs a URI by combining the base URL with the given endpoint.
      *
@@ -280,4 +284,51 @@ public class OnfidoAPIClient {
         URIBuilder builder = new URIBuilder(baseUrl);
         return builder.setPath(builder.getPath() + endpoint).build();
     }
+
+    /**
+     * Handles the response of a workflow run retrieval, keeping the entity tag Onfido returned along with the
+     * workflow run so that it can be revalidated later.
+     */
+    private static class WorkflowRunResponseHandler implements OnfidoResponseHandler<OnfidoWorkflowRun> {
+
+        private final String workflowRunId;
+        private final OnfidoWorkflowRun cachedWorkflowRun;
+
+        private WorkflowRunResponseHandler(String workflowRunId, OnfidoWorkflowRun cachedWorkflowRun) {
+
+            this.workflowRunId = workflowRunId;
+            this.cachedWorkflowRun = cachedWorkflowRun;
+        }
+
+        @Override
+        public OnfidoWorkflowRun handleResponse(HttpResponse response)
+                throws IOException, OnfidoServerException, OnfidoClientException {
+
+            OnfidoWorkflowRun workflowRun = OnfidoResponseHandler.super.handleResponse(response);
+            Header eTag = response.getFirstHeader(HttpHeaders.ETAG);
+            if (workflowRun != cachedWorkflowRun && eTag != null) {
+                workflowRun.setETag(eTag.getValue());
+            }
+            return workflowRun;
+        }
+
+        @Override
+        public OnfidoWorkflowRun handleResponse(int statusCode, HttpEntity entity)
+                throws IOException, OnfidoServerException, OnfidoClientException {
+
+            if (statusCode == HttpStatus.SC_OK) {
+                return OnfidoResponseParser.parseWorkflowRun(entity);
+            } else if (statusCode == HttpStatus.SC_NOT_MODIFIED && cachedWorkflowRun != null) {
+                return cachedWorkflowRun;
+            } else if (statusCode == HttpStatus.SC_UNAUTHORIZED) {
+                throw new OnfidoClientException(ERROR_INVALID_TOKEN.getCode(), ERROR_INVALID_TOKEN.getMessage());
+            } else if (statusCode == HttpStatus.SC_NOT_FOUND) {
+                throw new OnfidoServerException(ERROR_WORKFLOW_RUN_ID_NOT_FOUND_IN_ONFIDO.getCode(),
+                        String.format(ERROR_WORKFLOW_RUN_ID_NOT_FOUND_IN_ONFIDO.getMessage(), workflowRunId));
+            } else {
+                throw new OnfidoServerException(ERROR_GETTING_ONFIDO_WORKFLOW_STATUS.getCode(),
+                        String.format(ERROR_GETTING_ONFIDO_WORKFLOW_STATUS.getMessage(), statusCode));
+            }
+        }
+    }
 }
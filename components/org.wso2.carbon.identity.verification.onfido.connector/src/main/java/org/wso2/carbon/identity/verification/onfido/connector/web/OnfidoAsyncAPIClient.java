@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.json.JSONObject;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoClientException;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoSdkToken;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoWorkflowRun;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_IDENTITY_VERIFICATION;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_ONFIDO_REQUEST_REJECTED;
+
+/**
+ * Runs independent {@link OnfidoAPIClient} calls concurrently on the given executor, so that a verification request
+ * which needs several of them waits for the slowest call rather than for the sum of all of them.
+ * <p>
+ * This does not make the calls non-blocking. Each call still holds a thread of the executor for its whole HTTP
+ * exchange, and the request thread waits in {@link #join(CompletableFuture)} for the results, as the identity
+ * verification flow has to return them to its caller. Only the calls that can be overlapped are offered here.
+ * <p>
+ * Futures returned by this class complete exceptionally with the same {@link OnfidoServerException} or
+ * {@link OnfidoClientException} that the synchronous client would have thrown. Use {@link #join(CompletableFuture)}
+ * to wait for a result and get those exceptions back unwrapped.
+ */
+public class OnfidoAsyncAPIClient {
+
+    private final Executor executor;
+
+    /**
+     * Creates a client that runs Onfido calls on the connector's shared executor.
+     */
+    public OnfidoAsyncAPIClient() {
+
+        this(OnfidoExecutorManager.getInstance().getExecutor());
+    }
+
+    /**
+     * Creates a client that runs Onfido calls on the given executor.
+     *
+     * @param executor The executor to run the Onfido calls on.
+     */
+    public OnfidoAsyncAPIClient(Executor executor) {
+
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a workflow run in Onfido for a specific applicant.
+     *
+     * @param idVConfigPropertyMap   The map containing the configuration properties of the IdV Provider.
+     * @param workflowRunRequestBody A JSONObject containing the workflow ID and applicant ID.
+     * @return A future of the created workflow run as returned by Onfido.
+     * @see OnfidoAPIClient#createWorkflowRun(Map, JSONObject)
+     */
+    public CompletableFuture<OnfidoWorkflowRun> createWorkflowRun(Map<String, String> idVConfigPropertyMap,
+                                                                  JSONObject workflowRunRequestBody) {
+
+        return submit(() -> OnfidoAPIClient.createWorkflowRun(idVConfigPropertyMap, workflowRunRequestBody));
+    }
+
+    /**
+     * Retrieves a SDK token from Onfido for an already created applicant.
+     *
+     * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
+     * @param sdkTokenRequestBody  A JSONObject containing the necessary data to request an SDK token.
+     * @return A future of the SDK token as returned by Onfido.
+     * @see OnfidoAPIClient#createSDKToken(Map, JSONObject)
+     */
+    public CompletableFuture<OnfidoSdkToken> createSDKToken(Map<String, String> idVConfigPropertyMap,
+                                                            JSONObject sdkTokenRequestBody) {
+
+        return submit(() -> OnfidoAPIClient.createSDKToken(idVConfigPropertyMap, sdkTokenRequestBody));
+    }
+
+    /**
+     * Waits for the given future to complete and returns its result. Onfido exceptions the future completed with
+     * are rethrown as they are, rather than wrapped in a CompletionException.
+     *
+     * @param future The future to wait for.
+     * @param <T>    The type of the future's result.
+     * @return The result of the future.
+     * @throws OnfidoServerException If the call failed with a server error, or was interrupted.
+     * @throws OnfidoClientException If the call failed with a client error.
+     */
+    public static <T> T join(CompletableFuture<T> future) throws OnfidoServerException, OnfidoClientException {
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OnfidoServerException(ERROR_IDENTITY_VERIFICATION.getCode(),
+                    ERROR_IDENTITY_VERIFICATION.getMessage(), e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    /**
+     * Waits at most the given time for a future completed by the connector to complete, and gets its result.
+     *
+     * @param future  The future to wait for.
+     * @param timeout The maximum time to wait.
+     * @param unit    The time unit of the timeout.
+     * @param <T>     The type of the result.
+     * @return The result of the future.
+     * @throws OnfidoServerException If the future completed with a server error, the waiting thread was interrupted,
+     *                               or the future did not complete in time.
+     * @throws OnfidoClientException If the future completed with a client error.
+     */
+    public static <T> T join(CompletableFuture<T> future, long timeout, TimeUnit unit)
+            throws OnfidoServerException, OnfidoClientException {
+
+        try {
+            return future.get(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OnfidoServerException(ERROR_IDENTITY_VERIFICATION.getCode(),
+                    ERROR_IDENTITY_VERIFICATION.getMessage(), e);
+        } catch (TimeoutException e) {
+            throw new OnfidoServerException(ERROR_IDENTITY_VERIFICATION.getCode(),
+                    ERROR_IDENTITY_VERIFICATION.getMessage(), e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    /**
+     * Unwraps the cause of a failed future into the Onfido exception it completed with. Unchecked exceptions are
+     * rethrown as they are, and any other failure is reported as a server error.
+     *
+     * @param throwable The cause of the failure.
+     * @return The client exception the future completed with.
+     * @throws OnfidoServerException If the future completed with a server error, or an unexpected checked error.
+     */
+    private static OnfidoClientException unwrap(Throwable throwable) throws OnfidoServerException {
+
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof OnfidoClientException) {
+            return (OnfidoClientException) cause;
+        }
+        if (cause instanceof OnfidoServerException) {
+            throw (OnfidoServerException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new OnfidoServerException(ERROR_IDENTITY_VERIFICATION.getCode(),
+                ERROR_IDENTITY_VERIFICATION.getMessage(), cause);
+    }
+
+    /**
+     * Submits an Onfido call to the executor. If the executor is saturated, the returned future fails immediately
+     * instead of the call being queued without bound.
+     *
+     * @param call The Onfido call to run.
+     * @param <T>  The type of the call's result.
+     * @return A future completed with the call's result, or with the exception it threw.
+     */
+    private <T> CompletableFuture<T> submit(OnfidoCall<T> call) {
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.call());
+                } catch (Throwable e) {
+                    // Complete the future on any failure, so that a caller waiting for it is never left blocked.
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new OnfidoServerException(ERROR_ONFIDO_REQUEST_REJECTED.getCode(),
+                    ERROR_ONFIDO_REQUEST_REJECTED.getMessage(), e));
+        }
+        return future;
+    }
+
+    /**
+     * A call to the Onfido API that may fail with an Onfido exception.
+     *
+     * @param <T> The type of the call's result.
+     */
+    @FunctionalInterface
+    private interface OnfidoCall<T> {
+
+        T call() throws OnfidoServerException, OnfidoClientException;
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.APPLICANTS_ENDPOINT;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.CIRCUIT_BREAKER_HALF_OPEN_PROBES;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.CIRCUIT_BREAKER_MINIMUM_CALLS;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.CIRCUIT_BREAKER_OPEN_DURATION;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.CIRCUIT_BREAKER_SLOW_CALL_DURATION;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.CIRCUIT_BREAKER_WINDOW_SIZE;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_ONFIDO_CIRCUIT_OPEN;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.SDK_TOKEN_ENDPOINT;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.WORKFLOW_RUN_ENDPOINT;
+
+/**
+ * Circuit breakers of the Onfido API calls, kept per Onfido base URL origin and endpoint.
+ * <p>
+ * A circuit breaker tracks the outcome of the most recent calls. A call is considered failed when it fails with an
+ * I/O error or a 5xx response, or when it is slower than the configured duration. When the rate of failed calls
+ * reaches the configured threshold, the circuit opens, and calls fail fast without waiting on Onfido. Once the open
+ * duration passes, the circuit half opens, and lets a few probe calls through. If all the probes succeed, the circuit
+ * closes again, otherwise it opens for another open duration.
+ * <p>
+ * All the IdV providers pointing to the same Onfido origin share its circuit breakers. When the circuit breaker
+ * settings of a provider differ from the settings of a circuit breaker, the circuit breaker takes the new settings
+ * while keeping its state and the outcomes of the most recent calls, hence such providers should configure the same
+ * settings.
+ */
+public class OnfidoCircuitBreaker {
+
+    private static final Log log = LogFactory.getLog(OnfidoCircuitBreaker.class);
+
+    static final int DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+    static final int DEFAULT_SLOW_CALL_DURATION = 2000;
+    static final int DEFAULT_WINDOW_SIZE = 20;
+    static final int DEFAULT_MINIMUM_CALLS = 10;
+    static final int DEFAULT_OPEN_DURATION = 30000;
+    static final int DEFAULT_HALF_OPEN_PROBES = 3;
+    private static final String OTHER_ENDPOINT = "other";
+
+    /**
+     * States of a circuit breaker.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final OnfidoCircuitBreaker onfidoCircuitBreakerInstance =
+            new OnfidoCircuitBreaker(System::nanoTime);
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+
+    /**
+     * Creates circuit breakers timing their open duration by the given clock.
+     *
+     * @param nanoClock The source of the current time in nanoseconds.
+     */
+    OnfidoCircuitBreaker(LongSupplier nanoClock) {
+
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Gets the singleton instance of OnfidoCircuitBreaker.
+     *
+     * @return The singleton instance of OnfidoCircuitBreaker.
+     */
+    public static OnfidoCircuitBreaker getInstance() {
+
+        return onfidoCircuitBreakerInstance;
+    }
+
+    /**
+     * Gets the circuit breaker of the endpoint the given request URI belongs to.
+     *
+     * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
+     * @param origin               The origin of the Onfido base URL.
+     * @param requestUri           The URI of the request.
+     * @return The circuit breaker of the endpoint, or null if circuit breaking is disabled for the IdV provider.
+     */
+    CircuitBreaker getCircuitBreaker(Map<String, String> idVConfigPropertyMap, String origin, URI requestUri) {
+
+        Settings settings = Settings.fromConfigProperties(idVConfigPropertyMap);
+        if (settings.windowSize == 0) {
+            return null;
+        }
+        String name = origin + " " + getEndpoint(requestUri);
+        CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(name,
+                key -> new CircuitBreaker(key, settings, nanoClock));
+        circuitBreaker.applySettings(settings);
+        return circuitBreaker;
+    }
+
+    /**
+     * Gets the state of all the circuit breakers created so far.
+     *
+     * @return A map of the circuit breaker names, made of the Onfido origin and endpoint, to their state.
+     */
+    public Map<String, State> getStates() {
+
+        Map<String, State> states = new HashMap<>();
+        for (CircuitBreaker circuitBreaker : circuitBreakers.values()) {
+            states.put(circuitBreaker.name, circuitBreaker.getState());
+        }
+        return Collections.unmodifiableMap(states);
+    }
+
+    private static String getEndpoint(URI requestUri) {
+
+        String path = requestUri == null ? null : requestUri.getPath();
+        if (path != null) {
+            for (String endpoint : new String[]{APPLICANTS_ENDPOINT, WORKFLOW_RUN_ENDPOINT, SDK_TOKEN_ENDPOINT}) {
+                if (path.contains(endpoint)) {
+                    return endpoint.substring(1);
+                }
+            }
+        }
+        return OTHER_ENDPOINT;
+    }
+
+    /**
+     * The circuit breaker of an Onfido endpoint.
+     */
+    static class CircuitBreaker {
+
+        private final String name;
+        private final LongSupplier nanoClock;
+        private Settings settings;
+        private boolean[] failedCalls;
+        private int windowIndex;
+        private int windowCount;
+        private int failedCount;
+        private State state = State.CLOSED;
+        private long openedTime;
+        private int availableProbes;
+        private int successfulProbes;
+
+        private CircuitBreaker(String name, Settings settings, LongSupplier nanoClock) {
+
+            this.name = name;
+            this.nanoClock = nanoClock;
+            this.settings = settings;
+            this.failedCalls = new boolean[settings.windowSize];
+        }
+
+        /**
+         * Applies the given settings to the circuit breaker if they differ from its settings. The state of the
+         * circuit breaker is kept, along with the outcomes of the most recent calls that fit in the new window.
+         *
+         * @param settings The settings of the IdV provider making the call.
+         */
+        private synchronized void applySettings(Settings settings) {
+
+            if (this.settings.equals(settings)) {
+                return;
+            }
+            if (settings.windowSize != failedCalls.length) {
+                boolean[] resizedFailedCalls = new boolean[settings.windowSize];
+                int resizedWindowCount = Math.min(windowCount, settings.windowSize);
+                // The oldest outcome is at the window index once the window is full, and at 0 before that.
+                int oldestIndex = windowCount == failedCalls.length ? windowIndex : 0;
+                failedCount = 0;
+                for (int i = 0; i < resizedWindowCount; i++) {
+                    int index = (oldestIndex + windowCount - resizedWindowCount + i) % failedCalls.length;
+                    resizedFailedCalls[i] = failedCalls[index];
+                    if (resizedFailedCalls[i]) {
+                        failedCount++;
+                    }
+                }
+                failedCalls = resizedFailedCalls;
+                windowCount = resizedWindowCount;
+                windowIndex = resizedWindowCount % settings.windowSize;
+            }
+            availableProbes = Math.min(availableProbes, settings.halfOpenProbes);
+            this.settings = settings;
+            if (log.isDebugEnabled()) {
+                log.debug("Updated the settings of the Onfido circuit breaker: " + name + ".");
+            }
+        }
+
+        /**
+         * Checks whether a call may be made through the circuit breaker.
+         *
+         * @throws OnfidoServerException If the circuit is open, or all the probes of the half open circuit are
+         *                               in progress.
+         */
+        synchronized void acquirePermission() throws OnfidoServerException {
+
+            if (state == State.OPEN) {
+                if (nanoClock.getAsLong() - openedTime < TimeUnit.MILLISECONDS.toNanos(settings.openDuration)) {
+                    throw new OnfidoServerException(ERROR_ONFIDO_CIRCUIT_OPEN.getCode(),
+                            String.format(ERROR_ONFIDO_CIRCUIT_OPEN.getMessage(), name));
+                }
+                state = State.HALF_OPEN;
+                availableProbes = settings.halfOpenProbes;
+                successfulProbes = 0;
+                if (log.isDebugEnabled()) {
+                    log.debug("Onfido circuit breaker: " + name + " is half open.");
+                }
+            }
+            if (state == State.HALF_OPEN) {
+                if (availableProbes == 0) {
+                    throw new OnfidoServerException(ERROR_ONFIDO_CIRCUIT_OPEN.getCode(),
+                            String.format(ERROR_ONFIDO_CIRCUIT_OPEN.getMessage(), name));
+                }
+                availableProbes--;
+            }
+        }
+
+        /**
+         * Releases the permission of a call whose outcome says nothing about the health of Onfido.
+         */
+        synchronized void releasePermission() {
+
+            if (state == State.HALF_OPEN && availableProbes < settings.halfOpenProbes) {
+                availableProbes++;
+            }
+        }
+
+        /**
+         * Records the outcome of a call made through the circuit breaker.
+         *
+         * @param successful    Whether Onfido responded without a server error.
+         * @param durationNanos The duration of the call in nanoseconds.
+         */
+        synchronized void onResult(boolean successful, long durationNanos) {
+
+            boolean failed = !successful || durationNanos >= TimeUnit.MILLISECONDS.toNanos(
+                    settings.slowCallDuration);
+            if (state == State.HALF_OPEN) {
+                if (failed) {
+                    open();
+                } else if (++successfulProbes >= settings.halfOpenProbes) {
+                    close();
+                }
+                return;
+            }
+            if (state == State.OPEN) {
+                // The call was made before the circuit opened.
+                return;
+            }
+            if (windowCount == failedCalls.length) {
+                if (failedCalls[windowIndex]) {
+                    failedCount--;
+                }
+            } else {
+                windowCount++;
+            }
+            failedCalls[windowIndex] = failed;
+            if (failed) {
+                failedCount++;
+            }
+            windowIndex = (windowIndex + 1) % failedCalls.length;
+            if (windowCount >= settings.minimumCalls &&
+                    failedCount * 100 >= settings.failureRateThreshold * windowCount) {
+                open();
+            }
+        }
+
+        synchronized State getState() {
+
+            return state;
+        }
+
+        private void open() {
+
+            log.warn("Onfido circuit breaker: " + name + " is open. Calls will fail fast for " +
+                    settings.openDuration + " ms.");
+            state = State.OPEN;
+            openedTime = nanoClock.getAsLong();
+        }
+
+        private void close() {
+
+            log.info("Onfido circuit breaker: " + name + " is closed.");
+            state = State.CLOSED;
+            windowIndex = 0;
+            windowCount = 0;
+            failedCount = 0;
+        }
+    }
+
+    /**
+     * Settings of the circuit breakers of an IdV provider.
+     */
+    private static class Settings {
+
+        private final int failureRateThreshold;
+        private final int slowCallDuration;
+        private final int windowSize;
+        private final int minimumCalls;
+        private final int openDuration;
+        private final int halfOpenProbes;
+
+        private Settings(int failureRateThreshold, int slowCallDuration, int windowSize, int minimumCalls,
+                         int openDuration, int halfOpenProbes) {
+
+            this.failureRateThreshold = failureRateThreshold;
+            this.slowCallDuration = slowCallDuration;
+            this.windowSize = windowSize;
+            this.minimumCalls = minimumCalls;
+            this.openDuration = openDuration;
+            this.halfOpenProbes = halfOpenProbes;
+        }
+
+        private static Settings fromConfigProperties(Map<String, String> idVConfigPropertyMap) {
+
+            int windowSize = HTTPClientConfig.getIntProperty(idVConfigPropertyMap, CIRCUIT_BREAKER_WINDOW_SIZE,
+                    DEFAULT_WINDOW_SIZE, 0);
+            int minimumCalls = HTTPClientConfig.getIntProperty(idVConfigPropertyMap, CIRCUIT_BREAKER_MINIMUM_CALLS,
+                    DEFAULT_MINIMUM_CALLS, 1);
+            int failureRateThreshold = HTTPClientConfig.getIntProperty(idVConfigPropertyMap,
+                    CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD, DEFAULT_FAILURE_RATE_THRESHOLD, 1);
+            return new Settings(Math.min(failureRateThreshold, 100),
+                    HTTPClientConfig.getIntProperty(idVConfigPropertyMap, CIRCUIT_BREAKER_SLOW_CALL_DURATION,
+                            DEFAULT_SLOW_CALL_DURATION, 1),
+                    windowSize, Math.min(minimumCalls, Math.max(windowSize, 1)),
+                    HTTPClientConfig.getIntProperty(idVConfigPropertyMap, CIRCUIT_BREAKER_OPEN_DURATION,
+                            DEFAULT_OPEN_DURATION, 1),
+                    HTTPClientConfig.getIntProperty(idVConfigPropertyMap, CIRCUIT_BREAKER_HALF_OPEN_PROBES,
+                            DEFAULT_HALF_OPEN_PROBES, 1));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Settings that = (Settings) o;
+            return failureRateThreshold == that.failureRateThreshold && slowCallDuration == that.slowCallDuration &&
+                    windowSize == that.windowSize && minimumCalls == that.minimumCalls &&
+                    openDuration == that.openDuration && halfOpenProbes == that.halfOpenProbes;
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(failureRateThreshold, slowCallDuration, windowSize, minimumCalls, openDuration,
+                    halfOpenProbes);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Exposes the state of the protections of the outbound Onfido calls through JMX, so that it can be monitored with any
+ * JMX client while the connector is running. The MBean is registered when the connector is activated, under the
+ * {@link #OBJECT_NAME} name.
+ */
+public class OnfidoConnectorMetrics implements OnfidoConnectorMetricsMBean {
+
+    private static final Log log = LogFactory.getLog(OnfidoConnectorMetrics.class);
+
+    static final String OBJECT_NAME = "org.wso2.carbon.identity.verification.onfido:type=OnfidoConnectorMetrics";
+
+    private final OnfidoRateLimiter rateLimiter;
+    private final OnfidoCircuitBreaker circuitBreaker;
+    private final OnfidoTenantBulkhead tenantBulkhead;
+    private final HTTPClientManager httpClientManager;
+
+    /**
+     * Creates the metrics of the connector's shared rate limiter, circuit breakers, tenant bulkheads and HTTP
+     * connection pools.
+     *
+     * @throws OnfidoServerException If there's an error getting the HTTP client manager.
+     */
+    public OnfidoConnectorMetrics() throws OnfidoServerException {
+
+        this(OnfidoRateLimiter.getInstance(), OnfidoCircuitBreaker.getInstance(), OnfidoTenantBulkhead.getInstance(),
+                HTTPClientManager.getInstance());
+    }
+
+    /**
+     * Creates the metrics of the given rate limiter, circuit breakers, tenant bulkheads and HTTP connection pools.
+     *
+     * @param rateLimiter       The rate limiter of the Onfido API calls.
+     * @param circuitBreaker    The circuit breakers of the Onfido endpoints.
+     * @param tenantBulkhead    The bulkheads of the tenants calling Onfido.
+     * @param httpClientManager The manager of the HTTP connection pools of the Onfido origins.
+     */
+    OnfidoConnectorMetrics(OnfidoRateLimiter rateLimiter, OnfidoCircuitBreaker circuitBreaker,
+                           OnfidoTenantBulkhead tenantBulkhead, HTTPClientManager httpClientManager) {
+
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.tenantBulkhead = tenantBulkhead;
+        this.httpClientManager = httpClientManager;
+    }
+
+    /**
+     * Registers the metrics of the connector in the platform MBean server.
+     */
+    public static void register() {
+
+        try {
+            register(ManagementFactory.getPlatformMBeanServer(), new OnfidoConnectorMetrics());
+        } catch (OnfidoServerException e) {
+            log.warn("Error while creating the Onfido connector metrics MBean: " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Unregisters the metrics of the connector from the platform MBean server.
+     */
+    public static void unregister() {
+
+        unregister(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Registers the given metrics in an MBean server, replacing the ones registered before, if any. A failure to
+     * register the metrics is logged rather than failing the activation of the connector.
+     *
+     * @param mBeanServer The MBean server to register the metrics in.
+     * @param metrics     The metrics to register.
+     */
+    static void register(MBeanServer mBeanServer, OnfidoConnectorMetrics metrics) {
+
+        try {
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(metrics, objectName);
+        } catch (JMException e) {
+            log.warn("Error while registering the Onfido connector metrics MBean: " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Unregisters the metrics of the connector from an MBean server, if they are registered.
+     *
+     * @param mBeanServer The MBean server to unregister the metrics from.
+     */
+    static void unregister(MBeanServer mBeanServer) {
+
+        try {
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            log.warn("Error while unregistering the Onfido connector metrics MBean: " + OBJECT_NAME, e);
+        }
+    }
+
+    @Override
+    public String[] getRateLimiters() {
+
+        return toEntries(rateLimiter.getStats());
+    }
+
+    @Override
+    public String[] getCircuitBreakers() {
+
+        return toEntries(circuitBreaker.getStates());
+    }
+
+    @Override
+    public String[] getTenantBulkheads() {
+
+        return toEntries(tenantBulkhead.getStats());
+    }
+
+    @Override
+    public String[] getHttpConnectionPools() {
+
+        return toEntries(httpClientManager.getPoolStats());
+    }
+
+    /**
+     * Lists the given states, ordered by their names.
+     *
+     * @param states The states, mapped by the names of their instances.
+     * @return An entry for each state, made of the name of its instance followed by the state.
+     */
+    private static String[] toEntries(Map<String, ?> states) {
+
+        List<String> entries = new ArrayList<>();
+        for (Map.Entry<String, ?> state : new TreeMap<>(states).entrySet()) {
+            entries.add(state.getKey() + " " + state.getValue());
+        }
+        return entries.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+/**
+ * Management interface of the {@link OnfidoConnectorMetrics} MBean. Each attribute lists one entry per instance, made
+ * of its name followed by a snapshot of its state.
+ */
+public interface OnfidoConnectorMetricsMBean {
+
+    /**
+     * Gets the state of the rate limiters of the Onfido API tokens used so far.
+     *
+     * @return The state of each rate limiter, named by the hash of its API token.
+     */
+    String[] getRateLimiters();
+
+    /**
+     * Gets the state of the circuit breakers of the Onfido endpoints called so far.
+     *
+     * @return The state of each circuit breaker, named by its Onfido origin and endpoint.
+     */
+    String[] getCircuitBreakers();
+
+    /**
+     * Gets the state of the bulkheads of the tenants calling Onfido so far.
+     *
+     * @return The state of each bulkhead, named by its tenant ID and the origin of its connection pool.
+     */
+    String[] getTenantBulkheads();
+
+    /**
+     * Gets the statistics of the HTTP connection pools of the Onfido origins called so far.
+     *
+     * @return The leased, pending, available and maximum connections of each pool, named by its Onfido origin.
+     */
+    String[] getHttpConnectionPools();
+}
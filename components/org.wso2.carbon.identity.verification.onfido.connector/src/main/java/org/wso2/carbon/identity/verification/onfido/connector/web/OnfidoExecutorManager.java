@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Manages the executor used to run Onfido API calls off the calling thread.
+ * This class implements the singleton pattern to ensure only one executor is created for the connector.
+ * <p>
+ * The executor is a bounded pool of platform threads, and the calls run with the log MDC and the tenant of the thread
+ * submitting them. The submitting request thread still waits for the calls to complete.
+ */
+public class OnfidoExecutorManager {
+
+    private static final Log log = LogFactory.getLog(OnfidoExecutorManager.class);
+
+    private static final String THREAD_NAME_PREFIX = "onfido-async-worker-";
+    private static final int DEFAULT_POOL_SIZE = 20;
+    private static final int DEFAULT_QUEUE_CAPACITY = 200;
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5L;
+    private static volatile OnfidoExecutorManager executorManagerInstance;
+    private final ExecutorService executor;
+
+    /**
+     * Private constructor to prevent direct instantiation.
+     *
+     * @param executor The ExecutorService instance to be managed.
+     */
+    private OnfidoExecutorManager(ExecutorService executor) {
+
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the singleton instance of OnfidoExecutorManager.
+     * If the instance doesn't exist, it creates one.
+     *
+     * @return The singleton instance of OnfidoExecutorManager.
+     */
+    public static OnfidoExecutorManager getInstance() {
+
+        if (executorManagerInstance == null) {
+            synchronized (OnfidoExecutorManager.class) {
+                if (executorManagerInstance == null) {
+                    executorManagerInstance = new OnfidoExecutorManager(createExecutor());
+                }
+            }
+        }
+        return executorManagerInstance;
+    }
+
+    /**
+     * Gets the managed executor.
+     *
+     * @return The ExecutorService instance.
+     */
+    public ExecutorService getExecutor() {
+
+        return executor;
+    }
+
+    /**
+     * Shuts down the managed executor, if one was created, waiting briefly for in-flight calls to complete.
+     * A subsequent call to getInstance() creates a new executor.
+     */
+    public static void shutdown() {
+
+        OnfidoExecutorManager instance;
+        synchronized (OnfidoExecutorManager.class) {
+            instance = executorManagerInstance;
+            executorManagerInstance = null;
+        }
+        if (instance == null) {
+            return;
+        }
+        instance.executor.shutdown();
+        awaitTermination(instance.executor);
+        if (log.isDebugEnabled()) {
+            log.debug("Onfido async executor is shut down.");
+        }
+    }
+
+    /**
+     * Waits briefly for the tasks of an executor being shut down to complete, and then stops the remaining ones.
+     * The tasks which are stopped before they run are logged, as their work is lost.
+     *
+     * @param executorService The executor being shut down.
+     */
+    private static void awaitTermination(ExecutorService executorService) {
+
+        try {
+            if (!executorService.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logDroppedTasks(executorService.shutdownNow());
+            }
+        } catch (InterruptedException e) {
+            logDroppedTasks(executorService.shutdownNow());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Logs the tasks which were never run as the executor was shut down.
+     *
+     * @param droppedTasks The tasks which were never run.
+     */
+    private static void logDroppedTasks(List<Runnable> droppedTasks) {
+
+        if (droppedTasks.isEmpty()) {
+            return;
+        }
+        log.warn(String.format("%d Onfido API call tasks were not run as the executor was shut down: %s",
+                droppedTasks.size(), droppedTasks));
+    }
+
+    /**
+     * Creates a bounded thread pool for Onfido API calls, propagating the context of the submitting threads to the
+     * calls. The pool size matches the default HTTP connection pool
+     * size, so the executor never holds more in-flight calls than there are connections to serve them. Work beyond
+     * the queue capacity is rejected instead of queueing without bound.
+     *
+     * @return A configured ExecutorService instance.
+     */
+    private static ExecutorService createExecutor() {
+
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(DEFAULT_POOL_SIZE, DEFAULT_POOL_SIZE,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new ArrayBlockingQueue<>(DEFAULT_QUEUE_CAPACITY),
+                new OnfidoThreadFactory(THREAD_NAME_PREFIX), new ThreadPoolExecutor.AbortPolicy());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return new ContextPropagatingExecutorService(threadPoolExecutor);
+    }
+
+    /**
+     * Thread factory creating named daemon threads for the Onfido async executor.
+     */
+    private static class OnfidoThreadFactory implements ThreadFactory {
+
+        private final String threadNamePrefix;
+        private final AtomicInteger threadCount = new AtomicInteger(1);
+
+        private OnfidoThreadFactory(String threadNamePrefix) {
+
+            this.threadNamePrefix = threadNamePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            Thread thread = new Thread(runnable, threadNamePrefix + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_IDENTITY_VERIFICATION;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_ONFIDO_RATE_LIMIT_EXCEEDED;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.RATE_LIMIT_BURST;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.RATE_LIMIT_MAX_WAIT;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.RATE_LIMIT_MAX_WAITING_REQUESTS;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.RATE_LIMIT_REQUESTS_PER_MINUTE;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.TOKEN;
+
+/**
+ * Client side rate limiter of the Onfido API calls, keyed by the Onfido API token.
+ * <p>
+ * Onfido enforces its rate limits per account, hence all the calls made with the same API token share a token bucket.
+ * The bucket holds up to the configured burst of permits, and is refilled at the configured rate. When no permit is
+ * available, a call waits for the next one, but only if fewer than the configured number of calls are already waiting
+ * and the permit becomes available within the configured maximum wait. Otherwise, the call fails fast instead of
+ * being sent to Onfido only to be rejected with a 429 response.
+ * <p>
+ * IdV providers using the same API token share its bucket. When the rate limit settings of a provider differ from the
+ * settings of the bucket, the bucket takes the new settings without being refilled, hence providers sharing an API
+ * token should configure the same rate limit.
+ */
+public class OnfidoRateLimiter {
+
+    private static final Log log = LogFactory.getLog(OnfidoRateLimiter.class);
+
+    static final int DEFAULT_REQUESTS_PER_MINUTE = 400;
+    static final int DEFAULT_BURST = 10;
+    static final int DEFAULT_MAX_WAITING_REQUESTS = 50;
+    static final int DEFAULT_MAX_WAIT = 3000;
+    private static final int TOKEN_ID_LENGTH = 8;
+
+    private static final OnfidoRateLimiter onfidoRateLimiterInstance = new OnfidoRateLimiter(System::nanoTime);
+    private final Map<String, TokenBucket> tokenBuckets = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+
+    /**
+     * Creates a rate limiter refilling its token buckets by the given clock.
+     *
+     * @param nanoClock The source of the current time in nanoseconds.
+     */
+    OnfidoRateLimiter(LongSupplier nanoClock) {
+
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Gets the singleton instance of OnfidoRateLimiter.
+     *
+     * @return The singleton instance of OnfidoRateLimiter.
+     */
+    public static OnfidoRateLimiter getInstance() {
+
+        return onfidoRateLimiterInstance;
+    }
+
+    /**
+     * Acquires a permit to call the Onfido API with the API token of the IdV provider, waiting for it if needed.
+     * Rate limiting is disabled when the requests per minute property is set to 0.
+     *
+     * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
+     * @throws OnfidoServerException If the rate limit is exceeded and the call cannot wait for a permit, or if the
+     *                               thread is interrupted while waiting.
+     */
+    public void acquire(Map<String, String> idVConfigPropertyMap) throws OnfidoServerException {
+
+        long waitNanos = reserve(idVConfigPropertyMap);
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OnfidoServerException(ERROR_IDENTITY_VERIFICATION.getCode(),
+                        ERROR_IDENTITY_VERIFICATION.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Reserves a permit to call the Onfido API with the API token of the IdV provider.
+     *
+     * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
+     * @return The time in nanoseconds to wait before the reserved permit can be used.
+     * @throws OnfidoServerException If the rate limit is exceeded and the call cannot wait for a permit.
+     */
+    long reserve(Map<String, String> idVConfigPropertyMap) throws OnfidoServerException {
+
+        int requestsPerMinute = HTTPClientConfig.getIntProperty(idVConfigPropertyMap, RATE_LIMIT_REQUESTS_PER_MINUTE,
+                DEFAULT_REQUESTS_PER_MINUTE, 0);
+        if (requestsPerMinute == 0) {
+            return 0;
+        }
+        int burst = HTTPClientConfig.getIntProperty(idVConfigPropertyMap, RATE_LIMIT_BURST, DEFAULT_BURST, 1);
+        int maxWaitingRequests = HTTPClientConfig.getIntProperty(idVConfigPropertyMap,
+                RATE_LIMIT_MAX_WAITING_REQUESTS, DEFAULT_MAX_WAITING_REQUESTS, 0);
+        int maxWait = HTTPClientConfig.getIntProperty(idVConfigPropertyMap, RATE_LIMIT_MAX_WAIT, DEFAULT_MAX_WAIT, 0);
+
+        String apiToken = StringUtils.defaultString(idVConfigPropertyMap.get(TOKEN));
+        TokenBucket tokenBucket = tokenBuckets.computeIfAbsent(apiToken, key ->
+                new TokenBucket(getTokenId(key), nanoClock, requestsPerMinute, burst, maxWaitingRequests, maxWait));
+
+        long waitNanos = tokenBucket.reserve(requestsPerMinute, burst, maxWaitingRequests, maxWait);
+        if (waitNanos < 0) {
+            if (log.isDebugEnabled()) {
+                log.debug("Onfido rate limit exceeded for the API token: " + tokenBucket.tokenId + ". Stats: " +
+                        tokenBucket.getStats());
+            }
+            throw new OnfidoServerException(ERROR_ONFIDO_RATE_LIMIT_EXCEEDED.getCode(),
+                    ERROR_ONFIDO_RATE_LIMIT_EXCEEDED.getMessage());
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Gets the statistics of the rate limiters of all the API tokens used so far.
+     *
+     * @return A map of the API token identifiers to the statistics of their rate limiters. The identifiers are
+     * derived from a hash of the API tokens, so that the tokens themselves are not exposed.
+     */
+    public Map<String, RateLimiterStats> getStats() {
+
+        Map<String, RateLimiterStats> stats = new HashMap<>();
+        for (TokenBucket tokenBucket : tokenBuckets.values()) {
+            stats.put(tokenBucket.tokenId, tokenBucket.getStats());
+        }
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private static String getTokenId(String apiToken) {
+
+        return hashApiToken(apiToken).substring(0, TOKEN_ID_LENGTH);
+    }
+
+    /**
+     * Hashes an API token, so that it can be used to tell the API tokens apart without keeping them in memory, or
+     * exposing them, as they are.
+     *
+     * @param apiToken The API token.
+     * @return The hex encoded SHA-256 hash of the API token.
+     */
+    static String hashApiToken(String apiToken) {
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(apiToken.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hash = new StringBuilder();
+            for (byte b : digest) {
+                hash.append(String.format("%02x", b));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available in every Java runtime.
+            return String.format("%08x", apiToken.hashCode());
+        }
+    }
+
+    /**
+     * A token bucket of an API token. Permits may be reserved ahead of time, in which case the available permits
+     * go negative, and their absolute value is the number of calls waiting for a permit.
+     */
+    private static class TokenBucket {
+
+        private final String tokenId;
+        private final LongSupplier nanoClock;
+        private int requestsPerMinute;
+        private int burst;
+        private int maxWaitingRequests;
+        private int maxWait;
+        private double permitsPerNano;
+        private double availablePermits;
+        private long lastRefillTime;
+        private long acquiredRequests;
+        private long rejectedRequests;
+
+        private TokenBucket(String tokenId, LongSupplier nanoClock, int requestsPerMinute, int burst,
+                            int maxWaitingRequests, int maxWait) {
+
+            this.tokenId = tokenId;
+            this.nanoClock = nanoClock;
+            this.requestsPerMinute = requestsPerMinute;
+            this.burst = burst;
+            this.maxWaitingRequests = maxWaitingRequests;
+            this.maxWait = maxWait;
+            this.permitsPerNano = requestsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.availablePermits = burst;
+            this.lastRefillTime = nanoClock.getAsLong();
+        }
+
+        /**
+         * Reserves a permit, applying the given settings to the bucket first if they differ from its settings.
+         *
+         * @param requestsPerMinute  The rate at which the bucket is refilled.
+         * @param burst              The maximum number of permits the bucket holds.
+         * @param maxWaitingRequests The maximum number of calls waiting for a permit.
+         * @param maxWait            The maximum time in milliseconds a call waits for a permit.
+         * @return The time in nanoseconds to wait before the reserved permit can be used, or -1 if the permit
+         * cannot be reserved.
+         */
+        private synchronized long reserve(int requestsPerMinute, int burst, int maxWaitingRequests, int maxWait) {
+
+            refill();
+            if (this.requestsPerMinute != requestsPerMinute || this.burst != burst ||
+                    this.maxWaitingRequests != maxWaitingRequests || this.maxWait != maxWait) {
+                updateSettings(requestsPerMinute, burst, maxWaitingRequests, maxWait);
+            }
+            if (availablePermits >= 1) {
+                availablePermits--;
+                acquiredRequests++;
+                return 0;
+            }
+            long waitNanos = (long) Math.ceil((1 - availablePermits) / permitsPerNano);
+            if (getWaitingRequests() >= maxWaitingRequests || waitNanos > TimeUnit.MILLISECONDS.toNanos(maxWait)) {
+                rejectedRequests++;
+                return -1;
+            }
+            availablePermits--;
+            acquiredRequests++;
+            return waitNanos;
+        }
+
+        private synchronized RateLimiterStats getStats() {
+
+            refill();
+            return new RateLimiterStats(requestsPerMinute, (int) Math.max(0, Math.floor(availablePermits)),
+                    getWaitingRequests(), acquiredRequests, rejectedRequests);
+        }
+
+        /**
+         * Updates the settings of the bucket in place. The permits already accumulated are kept up to the new burst,
+         * and the reserved permits stay reserved.
+         */
+        private void updateSettings(int requestsPerMinute, int burst, int maxWaitingRequests, int maxWait) {
+
+            this.requestsPerMinute = requestsPerMinute;
+            this.burst = burst;
+            this.maxWaitingRequests = maxWaitingRequests;
+            this.maxWait = maxWait;
+            this.permitsPerNano = requestsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.availablePermits = Math.min(burst, availablePermits);
+            if (log.isDebugEnabled()) {
+                log.debug("Updated the Onfido rate limit of the API token: " + tokenId + " to " + requestsPerMinute +
+                        " requests per minute with a burst of " + burst + ".");
+            }
+        }
+
+        private void refill() {
+
+            long now = nanoClock.getAsLong();
+            availablePermits = Math.min(burst, availablePermits + (now - lastRefillTime) * permitsPerNano);
+            lastRefillTime = now;
+        }
+
+        private int getWaitingRequests() {
+
+            return availablePermits < 0 ? (int) Math.ceil(-availablePermits) : 0;
+        }
+    }
+
+    /**
+     * A snapshot of the state of the rate limiter of an API token.
+     */
+    public static class RateLimiterStats {
+
+        private final int requestsPerMinute;
+        private final int availablePermits;
+        private final int waitingRequests;
+        private final long acquiredRequests;
+        private final long rejectedRequests;
+
+        private RateLimiterStats(int requestsPerMinute, int availablePermits, int waitingRequests,
+                                 long acquiredRequests, long rejectedRequests) {
+
+            this.requestsPerMinute = requestsPerMinute;
+            this.availablePermits = availablePermits;
+            this.waitingRequests = waitingRequests;
+            this.acquiredRequests = acquiredRequests;
+            this.rejectedRequests = rejectedRequests;
+        }
+
+        public int getRequestsPerMinute() {
+
+            return requestsPerMinute;
+        }
+
+        public int getAvailablePermits() {
+
+            return availablePermits;
+        }
+
+        public int getWaitingRequests() {
+
+            return waitingRequests;
+        }
+
+        public long getAcquiredRequests() {
+
+            return acquiredRequests;
+        }
+
+        public long getRejectedRequests() {
+
+            return rejectedRequests;
+        }
+
+        @Override
+        public String toString() {
+
+            return "[requestsPerMinute=" + requestsPerMinute + ", availablePermits=" + availablePermits +
+                    ", waitingRequests=" + waitingRequests + ", acquiredRequests=" + acquiredRequests +
+                    ", rejectedRequests=" + rejectedRequests + "]";
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoClientException;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+
+import java.io.IOException;
+
+/**
+ * Handles the response of an Onfido API call while its connection is still open.
+ * The handler reads the response entity straight from the connection. Any content it does not read is discarded
+ * once it returns, and the connection is released back to the pool.
+ *
+ * @param <T> The type of the result produced from the response.
+ */
+@FunctionalInterface
+public interface OnfidoResponseHandler<T> {
+
+    /**
+     * Produces the result of an Onfido API call from its response.
+     *
+     * @param statusCode The HTTP status code of the response.
+     * @param entity     The response entity, or null if the response has no content.
+     * @return The result of the call.
+     * @throws IOException           If an error occurs while reading the response entity.
+     * @throws OnfidoServerException If the response indicates a server error or cannot be processed.
+     * @throws OnfidoClientException If the response indicates a client error.
+     */
+    T handleResponse(int statusCode, HttpEntity entity)
+            throws IOException, OnfidoServerException, OnfidoClientException;
+
+    /**
+     * Produces the result of an Onfido API call from its full response. Handlers which need the response headers
+     * override this method. By default, the result is produced from the status code and the entity of the response.
+     *
+     * @param response The response of the call.
+     * @return The result of the call.
+     * @throws IOException           If an error occurs while reading the response entity.
+     * @throws OnfidoServerException If the response indicates a server error or cannot be processed.
+     * @throws OnfidoClientException If the response indicates a client error.
+     */
+    default T handleResponse(HttpResponse response) throws IOException, OnfidoServerException, OnfidoClientException {
+
+        return handleResponse(response.getStatusLine().getStatusCode(), response.getEntity());
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.HttpEntity;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoApplicant;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoSdkToken;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoWorkflowRun;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.APPLICANT_ID;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_CREATING_RESPONSE;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.FIRST_NAME;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ID;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.LAST_NAME;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.STATUS;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.TOKEN;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.WORKFLOW_ID;
+
+/**
+ * Parses Onfido API responses straight from the response stream into the connector's models.
+ * Only the top level fields used by the connector are read. Nested objects and arrays, such as the output of a
+ * workflow run, are skipped over without being materialized.
+ */
+public class OnfidoResponseParser {
+
+    private static final String EXPIRY_TIME_CLAIM = "exp";
+
+    // JsonFactory is thread safe and expensive to create, hence a single instance is shared.
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private OnfidoResponseParser() {
+
+    }
+
+    /**
+     * Parses an applicant from the response entity.
+     *
+     * @param entity The response entity of an applicants API call.
+     * @return The parsed applicant.
+     * @throws IOException           If an error occurs while reading the response entity.
+     * @throws OnfidoServerException If the response is not a valid applicant.
+     */
+    public static OnfidoApplicant parseApplicant(HttpEntity entity) throws IOException, OnfidoServerException {
+
+        OnfidoApplicant applicant = new OnfidoApplicant();
+        parse(entity, (field, value) -> {
+            switch (field) {
+                case ID:
+                    applicant.setId(value);
+                    break;
+                case FIRST_NAME:
+                    applicant.setFirstName(value);
+                    break;
+                case LAST_NAME:
+                    applicant.setLastName(value);
+                    break;
+                default:
+                    break;
+            }
+        });
+        requireField(applicant.getId());
+        return applicant;
+    }
+
+    /**
+     * Parses a workflow run from the response entity.
+     *
+     * @param entity The response entity of a workflow runs API call.
+     * @return The parsed workflow run.
+     * @throws IOException           If an error occurs while reading the response entity.
+     * @throws OnfidoServerException If the response is not a valid workflow run.
+     */
+    public static OnfidoWorkflowRun parseWorkflowRun(HttpEntity entity) throws IOException, OnfidoServerException {
+
+        OnfidoWorkflowRun workflowRun = new OnfidoWorkflowRun();
+        parse(entity, (field, value) -> {
+            switch (field) {
+                case ID:
+                    workflowRun.setId(value);
+                    break;
+                case APPLICANT_ID:
+                    workflowRun.setApplicantId(value);
+                    break;
+                case WORKFLOW_ID:
+                    workflowRun.setWorkflowId(value);
+                    break;
+                case STATUS:
+                    workflowRun.setStatus(value);
+                    break;
+                default:
+                    break;
+            }
+        });
+        requireField(workflowRun.getId());
+        return workflowRun;
+    }
+
+    /**
+     * Parses an SDK token from the response entity.
+     *
+     * @param entity The response entity of an SDK token API call.
+     * @return The parsed SDK token.
+     * @throws IOException           If an error occurs while reading the response entity.
+     * @throws OnfidoServerException If the response is not a valid SDK token.
+     */
+    public static OnfidoSdkToken parseSdkToken(HttpEntity entity) throws IOException, OnfidoServerException {
+
+        OnfidoSdkToken sdkToken = new OnfidoSdkToken();
+        parse(entity, (field, value) -> {
+            if (TOKEN.equals(field)) {
+                sdkToken.setToken(value);
+            }
+        });
+        requireField(sdkToken.getToken());
+        sdkToken.setExpiryTime(parseTokenExpiryTime(sdkToken.getToken()));
+        return sdkToken;
+    }
+
+    /**
+     * Reads the expiry time from the claims of an SDK token, which Onfido issues as a JSON web token.
+     *
+     * @param token The SDK token.
+     * @return The expiry time of the token in milliseconds since the epoch, or 0 if it cannot be read.
+     * @throws IOException If an error occurs while reading the claims of the token.
+     */
+    private static long parseTokenExpiryTime(String token) throws IOException {
+
+        String[] tokenParts = token.split("\\.");
+        if (tokenParts.length != 3) {
+            return 0;
+        }
+        AtomicLong expiryTime = new AtomicLong();
+        try {
+            byte[] claims = Base64.getUrlDecoder().decode(tokenParts[1]);
+            parse(new ByteArrayInputStream(claims), (field, value) -> {
+                if (EXPIRY_TIME_CLAIM.equals(field)) {
+                    expiryTime.set(TimeUnit.SECONDS.toMillis(Long.parseLong(value)));
+                }
+            });
+        } catch (IllegalArgumentException | OnfidoServerException e) {
+            // The claims are not valid JSON in base64url, or the expiry time is not a number.
+            return 0;
+        }
+        return expiryTime.get();
+    }
+
+    /**
+     * Streams through the top level JSON object of the response entity, passing each scalar field to the consumer.
+     *
+     * @param entity        The response entity.
+     * @param fieldConsumer The consumer accepting the name and the textual value of each top level scalar field.
+     * @throws IOException           If an error occurs while reading the response entity.
+     * @throws OnfidoServerException If the response entity is missing or is not a JSON object.
+     */
+    private static void parse(HttpEntity entity, BiConsumer<String, String> fieldConsumer)
+            throws IOException, OnfidoServerException {
+
+        if (entity == null) {
+            throw new OnfidoServerException(ERROR_CREATING_RESPONSE.getCode(), ERROR_CREATING_RESPONSE.getMessage());
+        }
+        parse(entity.getContent(), fieldConsumer);
+    }
+
+    /**
+     * Streams through the top level JSON object of the given content, passing each scalar field to the consumer.
+     *
+     * @param content       The JSON content.
+     * @param fieldConsumer The consumer accepting the name and the textual value of each top level scalar field.
+     * @throws IOException           If an error occurs while reading the content.
+     * @throws OnfidoServerException If the content is not a JSON object.
+     */
+    private static void parse(InputStream content, BiConsumer<String, String> fieldConsumer)
+            throws IOException, OnfidoServerException {
+
+        try (JsonParser parser = JSON_FACTORY.createParser(content)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new OnfidoServerException(ERROR_CREATING_RESPONSE.getCode(),
+                        ERROR_CREATING_RESPONSE.getMessage());
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                if (valueToken == JsonToken.START_OBJECT || valueToken == JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                } else if (valueToken != JsonToken.VALUE_NULL) {
+                    fieldConsumer.accept(fieldName, parser.getText());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new OnfidoServerException(ERROR_CREATING_RESPONSE.getCode(), ERROR_CREATING_RESPONSE.getMessage(),
+                    e);
+        }
+    }
+
+    private static void requireField(String value) throws OnfidoServerException {
+
+        if (StringUtils.isEmpty(value)) {
+            throw new OnfidoServerException(ERROR_CREATING_RESPONSE.getCode(), ERROR_CREATING_RESPONSE.getMessage());
+        }
+    }
+}
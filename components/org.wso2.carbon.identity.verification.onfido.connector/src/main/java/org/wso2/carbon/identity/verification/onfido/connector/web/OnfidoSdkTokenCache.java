@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.json.JSONObject;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoClientException;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoSdkToken;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.APPLICANT_ID;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.BASE_URL;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.SDK_TOKEN_EXPIRY_MARGIN;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.TOKEN;
+
+/**
+ * Caches the Onfido SDK tokens of the applicants.
+ * <p>
+ * A user reopening a verification which is awaiting input, for example by refreshing the page or by reconnecting
+ * from a mobile client, needs an SDK token for the same applicant again. An SDK token is reused until the configured
+ * margin before the expiry stated in the token itself, so that the Onfido SDK has time to use it. Tokens whose expiry
+ * cannot be read are not cached. The cached tokens are kept in memory only, and never stored with the IdV claims.
+ */
+public class OnfidoSdkTokenCache {
+
+    private static final Log log = LogFactory.getLog(OnfidoSdkTokenCache.class);
+
+    static final int DEFAULT_SDK_TOKEN_EXPIRY_MARGIN = 600000;
+    static final int MAX_CACHED_SDK_TOKENS = 10000;
+
+    private static final OnfidoSdkTokenCache onfidoSdkTokenCacheInstance = new OnfidoSdkTokenCache();
+    private final Map<String, OnfidoSdkToken> cachedSdkTokens = Collections.synchronizedMap(
+            new LinkedHashMap<String, OnfidoSdkToken>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, OnfidoSdkToken> eldest) {
+
+                    return size() > MAX_CACHED_SDK_TOKENS;
+                }
+            });
+
+    private OnfidoSdkTokenCache() {
+
+    }
+
+    /**
+     * Gets the singleton instance of OnfidoSdkTokenCache.
+     *
+     * @return The singleton instance of OnfidoSdkTokenCache.
+     */
+    public static OnfidoSdkTokenCache getInstance() {
+
+        return onfidoSdkTokenCacheInstance;
+    }
+
+    /**
+     * Gets an SDK token for an applicant, reusing the cached SDK token of the applicant while it is still valid, or
+     * creating a new one otherwise.
+     *
+     * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
+     * @param applicantId          The ID of the applicant.
+     * @return A valid SDK token of the applicant.
+     * @throws OnfidoServerException If an error occurs while creating the SDK token.
+     * @throws OnfidoClientException If the SDK token cannot be created due to an invalid configuration.
+     */
+    public OnfidoSdkToken getSdkToken(Map<String, String> idVConfigPropertyMap, String applicantId)
+            throws OnfidoServerException, OnfidoClientException {
+
+        String key = getKey(idVConfigPropertyMap, applicantId);
+        OnfidoSdkToken sdkToken = cachedSdkTokens.get(key);
+        if (sdkToken != null) {
+            if (isValid(idVConfigPropertyMap, sdkToken)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Reusing the cached SDK token of the applicant: " + applicantId);
+                }
+                return sdkToken;
+            }
+            cachedSdkTokens.remove(key, sdkToken);
+        }
+
+        JSONObject sdkTokenRequestBody = new JSONObject().put(APPLICANT_ID, applicantId);
+        sdkToken = OnfidoAPIClient.createSDKToken(idVConfigPropertyMap, sdkTokenRequestBody);
+        put(idVConfigPropertyMap, applicantId, sdkToken);
+        return sdkToken;
+    }
+
+    /**
+     * Adds an SDK token created for an applicant to the cache, if it is valid long enough to be reused.
+     *
+     * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
+     * @param applicantId          The ID of the applicant.
+     * @param sdkToken             The SDK token created for the applicant.
+     */
+    public void put(Map<String, String> idVConfigPropertyMap, String applicantId, OnfidoSdkToken sdkToken) {
+
+        if (!isValid(idVConfigPropertyMap, sdkToken)) {
+            return;
+        }
+        synchronized (cachedSdkTokens) {
+            if (cachedSdkTokens.size() >= MAX_CACHED_SDK_TOKENS) {
+                // The expired tokens are evicted before the least recently used valid ones.
+                long currentTime = System.currentTimeMillis();
+                cachedSdkTokens.values().removeIf(cachedSdkToken -> cachedSdkToken.getExpiryTime() <= currentTime);
+            }
+            cachedSdkTokens.put(getKey(idVConfigPropertyMap, applicantId), sdkToken);
+        }
+    }
+
+    /**
+     * Removes all the cached SDK tokens.
+     */
+    void clear() {
+
+        cachedSdkTokens.clear();
+    }
+
+    private static boolean isValid(Map<String, String> idVConfigPropertyMap, OnfidoSdkToken sdkToken) {
+
+        int expiryMargin = HTTPClientConfig.getIntProperty(idVConfigPropertyMap, SDK_TOKEN_EXPIRY_MARGIN,
+                DEFAULT_SDK_TOKEN_EXPIRY_MARGIN, 0);
+        return sdkToken.getExpiryTime() - expiryMargin > System.currentTimeMillis();
+    }
+
+    private static String getKey(Map<String, String> idVConfigPropertyMap, String applicantId) {
+
+        // The API token is part of the key, so that an SDK token is only shared among the callers authorized to
+        // create it.
+        return idVConfigPropertyMap.get(BASE_URL) + " " + idVConfigPropertyMap.get(TOKEN) + " " + applicantId;
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_IDENTITY_VERIFICATION;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_TENANT_ONFIDO_CAPACITY_EXCEEDED;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.TENANT_BULKHEAD_MAX_WAIT;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.TENANT_BULKHEAD_SHARE;
+
+/**
+ * Bulkheads of the outbound Onfido calls, kept per tenant and HTTP connection pool.
+ * <p>
+ * The HTTP connection pool of an Onfido origin is shared by all the tenants calling it. A bulkhead limits the number
+ * of Onfido calls a tenant can have in progress on a pool at a time to the configured share of the pool's connections,
+ * so that a tenant sending a burst of verification requests cannot exhaust the pool for everyone else. A permission
+ * is held for the duration of a single call attempt, hence it matches a leased connection. It is taken once the call
+ * has its token from the {@link OnfidoRateLimiter}, so that it is never held while waiting for the rate limit, and
+ * before the permission of the {@link OnfidoCircuitBreaker}, so that a rejected call never holds a half-open probe
+ * of the circuit breaker. A call beyond the limit waits for a short, configurable time and is then rejected, rather
+ * than queueing up for a connection along with the calls of the other tenants.
+ * <p>
+ * When the pool size or the share of a tenant changes, the bulkhead is resized in place, so that the permissions of
+ * the calls in progress are still accounted for.
+ */
+public class OnfidoTenantBulkhead {
+
+    private static final Log log = LogFactory.getLog(OnfidoTenantBulkhead.class);
+
+    static final int DEFAULT_TENANT_SHARE = 50;
+    static final int DEFAULT_MAX_WAIT = 100;
+    private static final int MAX_TENANT_SHARE = 100;
+
+    private static final OnfidoTenantBulkhead onfidoTenantBulkheadInstance = new OnfidoTenantBulkhead();
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    private OnfidoTenantBulkhead() {
+
+    }
+
+    /**
+     * Gets the singleton instance of OnfidoTenantBulkhead.
+     *
+     * @return The singleton instance of OnfidoTenantBulkhead.
+     */
+    public static OnfidoTenantBulkhead getInstance() {
+
+        return onfidoTenantBulkheadInstance;
+    }
+
+    /**
+     * Gets the bulkhead of a tenant on the connection pool of the given configuration, sized by the configuration
+     * properties of the IdV provider making the call.
+     *
+     * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
+     * @param httpClientConfig     The configuration of the connection pool the calls are made through.
+     * @param tenantId             The ID of the tenant.
+     * @return The bulkhead of the tenant on the connection pool.
+     */
+    public Bulkhead getBulkhead(Map<String, String> idVConfigPropertyMap, HTTPClientConfig httpClientConfig,
+                                int tenantId) {
+
+        int tenantShare = Math.min(MAX_TENANT_SHARE, HTTPClientConfig.getIntProperty(idVConfigPropertyMap,
+                TENANT_BULKHEAD_SHARE, DEFAULT_TENANT_SHARE, 1));
+        int maxWait = HTTPClientConfig.getIntProperty(idVConfigPropertyMap, TENANT_BULKHEAD_MAX_WAIT, DEFAULT_MAX_WAIT,
+                0);
+        int maxConcurrentCalls = Math.max(1, httpClientConfig.getMaxConnections() * tenantShare / MAX_TENANT_SHARE);
+
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(tenantId + " " + httpClientConfig.getOrigin(),
+                key -> new Bulkhead(key, tenantId, maxConcurrentCalls, maxWait));
+        bulkhead.applySettings(maxConcurrentCalls, maxWait);
+        return bulkhead;
+    }
+
+    /**
+     * Gets the statistics of the bulkheads of all the tenants served so far.
+     *
+     * @return A map of the bulkhead names, made of the tenant ID and the origin of the connection pool, to the
+     * statistics of the bulkheads.
+     */
+    public Map<String, BulkheadStats> getStats() {
+
+        Map<String, BulkheadStats> stats = new HashMap<>();
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            stats.put(bulkhead.name, bulkhead.getStats());
+        }
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Removes the bulkheads of all the tenants.
+     */
+    void clear() {
+
+        bulkheads.clear();
+    }
+
+    /**
+     * The bulkhead of a tenant on a connection pool. Each permission acquired from it must be released once the
+     * call is done.
+     */
+    public static class Bulkhead {
+
+        private final String name;
+        private final int tenantId;
+        private final ResizableSemaphore permits;
+        private final AtomicLong rejectedCalls = new AtomicLong();
+        private volatile int maxConcurrentCalls;
+        private volatile int maxWait;
+
+        private Bulkhead(String name, int tenantId, int maxConcurrentCalls, int maxWait) {
+
+            this.name = name;
+            this.tenantId = tenantId;
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            this.maxWait = maxWait;
+            this.permits = new ResizableSemaphore(maxConcurrentCalls);
+        }
+
+        /**
+         * Applies the given settings to the bulkhead if they differ from its settings. When the bulkhead shrinks
+         * below the number of calls in progress, no further permission is granted until enough of them are released.
+         *
+         * @param maxConcurrentCalls The maximum number of calls in progress at a time.
+         * @param maxWait            The maximum time in milliseconds to wait for a permission.
+         */
+        private void applySettings(int maxConcurrentCalls, int maxWait) {
+
+            this.maxWait = maxWait;
+            if (this.maxConcurrentCalls == maxConcurrentCalls) {
+                return;
+            }
+            synchronized (this) {
+                int delta = maxConcurrentCalls - this.maxConcurrentCalls;
+                if (delta > 0) {
+                    permits.release(delta);
+                } else if (delta < 0) {
+                    permits.reducePermits(-delta);
+                }
+                this.maxConcurrentCalls = maxConcurrentCalls;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Resized the Onfido bulkhead: " + name + " to " + maxConcurrentCalls + " calls.");
+            }
+        }
+
+        /**
+         * Acquires a permission to call Onfido on behalf of the tenant, waiting up to the configured maximum wait.
+         *
+         * @throws OnfidoServerException If the tenant has reached its limit of concurrent calls, or if the thread is
+         *                               interrupted while waiting.
+         */
+        public void acquirePermission() throws OnfidoServerException {
+
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OnfidoServerException(ERROR_IDENTITY_VERIFICATION.getCode(),
+                        ERROR_IDENTITY_VERIFICATION.getMessage(), e);
+            }
+            if (!acquired) {
+                rejectedCalls.incrementAndGet();
+                if (log.isDebugEnabled()) {
+                    log.debug("Onfido capacity of the bulkhead: " + name + " is exhausted. Stats: " + getStats());
+                }
+                throw new OnfidoServerException(ERROR_TENANT_ONFIDO_CAPACITY_EXCEEDED.getCode(),
+                        String.format(ERROR_TENANT_ONFIDO_CAPACITY_EXCEEDED.getMessage(), tenantId));
+            }
+        }
+
+        /**
+         * Releases a permission acquired from the bulkhead.
+         */
+        public void releasePermission() {
+
+            permits.release();
+        }
+
+        private synchronized BulkheadStats getStats() {
+
+            return new BulkheadStats(maxConcurrentCalls, maxConcurrentCalls - permits.availablePermits(),
+                    rejectedCalls.get());
+        }
+    }
+
+    /**
+     * A semaphore whose number of permits can be reduced while permits are held.
+     */
+    private static class ResizableSemaphore extends Semaphore {
+
+        private static final long serialVersionUID = 1L;
+
+        private ResizableSemaphore(int permits) {
+
+            super(permits);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+
+            super.reducePermits(reduction);
+        }
+    }
+
+    /**
+     * A snapshot of the state of the bulkhead of a tenant on a connection pool.
+     */
+    public static class BulkheadStats {
+
+        private final int maxConcurrentCalls;
+        private final int activeCalls;
+        private final long rejectedCalls;
+
+        private BulkheadStats(int maxConcurrentCalls, int activeCalls, long rejectedCalls) {
+
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            this.activeCalls = activeCalls;
+            this.rejectedCalls = rejectedCalls;
+        }
+
+        public int getMaxConcurrentCalls() {
+
+            return maxConcurrentCalls;
+        }
+
+        public int getActiveCalls() {
+
+            return activeCalls;
+        }
+
+        public long getRejectedCalls() {
+
+            return rejectedCalls;
+        }
+
+        @Override
+        public String toString() {
+
+            return "[maxConcurrentCalls=" + maxConcurrentCalls + ", activeCalls=" + activeCalls +
+                    ", rejectedCalls=" + rejectedCalls + "]";
+        }
+    }
+}
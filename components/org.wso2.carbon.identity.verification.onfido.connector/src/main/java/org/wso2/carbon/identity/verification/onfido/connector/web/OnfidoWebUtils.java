@@ -18,26 +18,38 @@
 
 package org.wso2.carbon.identity.verification.onfido.connector.web;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
 import org.apache.http.HttpHeaders;
-import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.BufferedHttpEntity;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoClientException;
 import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
 
 import java.io.IOException;
 import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
 
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.APPLICATION_JSON;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_HTTP_CONNECTION_POOL_EXHAUSTED;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_IDENTITY_VERIFICATION;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_INVALID_BASE_URL;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_ONFIDO_RATE_LIMIT_EXCEEDED;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.IDEMPOTENCY_KEY_HEADER;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.TOKEN;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.TOKEN_HEADER;
 
 /**
@@ -45,104 +57,254 @@ import static org.wso2.carbon.identity.verification.onfido.connector.constants.O
  */
 public class OnfidoWebUtils {
 
+    private static final Log log = LogFactory.getLog(OnfidoWebUtils.class);
+
     private OnfidoWebUtils() {
 
     }
 
     /**
      * Send an HTTP POST request.
+     * An idempotency key is sent with the request, and kept the same on each retry of it. As a POST request creates a
+     * resource in Onfido, it is only retried when Onfido has certainly not processed it.
      *
-     * @param apiToken    API token provided by Onfido.
-     * @param requestURL  The URL to which the POST request should be sent.
-     * @param requestBody A hashmap that includes the parameters to be sent through the request.
-     * @return httpResponse         The response received from the HTTP call.
+     * @param idVConfigPropertyMap The configuration properties of the IdV provider, including the Onfido API token
+     *                             and the optional HTTP connection pool settings.
+     * @param requestURL           The URL to which the POST request should be sent.
+     * @param requestBody          A hashmap that includes the parameters to be sent through the request.
+     * @param responseHandler      The handler producing the result from the response.
+     * @param <T>                  The type of the result.
+     * @return The result produced by the response handler.
      * @throws OnfidoServerException Exception thrown when an error occurred with the
      *                               HTTP client connection.
      */
-    public static HttpResponse httpPost(String apiToken, String requestURL, String requestBody)
+    public static <T> T httpPost(Map<String, String> idVConfigPropertyMap, String requestURL, String requestBody,
+                                 OnfidoResponseHandler<T> responseHandler)
             throws OnfidoServerException, OnfidoClientException {
 
         HttpPost request = new HttpPost(requestURL);
-        request.addHeader(HttpHeaders.AUTHORIZATION, TOKEN_HEADER + apiToken);
+        request.addHeader(HttpHeaders.AUTHORIZATION, TOKEN_HEADER + idVConfigPropertyMap.get(TOKEN));
         request.addHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON);
+        request.addHeader(IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString());
         request.setEntity(new StringEntity(requestBody, ContentType.APPLICATION_JSON));
 
-        CloseableHttpClient client = HTTPClientManager.getInstance().getHttpClient();
-        try (CloseableHttpResponse response = client.execute(request)) {
-            return toHttpResponse(response);
-        } catch (UnknownHostException e) {
-            throw new OnfidoClientException(ERROR_INVALID_BASE_URL.getCode(),
-                    ERROR_INVALID_BASE_URL.getMessage(), e);
-        } catch (IOException e) {
-            throw new OnfidoServerException(ERROR_IDENTITY_VERIFICATION.getCode(),
-                    ERROR_IDENTITY_VERIFICATION.getMessage(), e);
-        }
+        return execute(idVConfigPropertyMap, request, responseHandler);
     }
 
     /**
      * Send an HTTP PUT request.
      *
-     * @param apiToken    API token provided by Onfido.
-     * @param requestURL  The URL to which the POST request should be sent.
-     * @param requestBody A hashmap that includes the parameters to be sent through the request.
-     * @return httpResponse         The response received from the HTTP call.
+     * @param idVConfigPropertyMap The configuration properties of the IdV provider, including the Onfido API token
+     *                             and the optional HTTP connection pool settings.
+     * @param requestURL           The URL to which the POST request should be sent.
+     * @param requestBody          A hashmap that includes the parameters to be sent through the request.
+     * @param responseHandler      The handler producing the result from the response.
+     * @param <T>                  The type of the result.
+     * @return The result produced by the response handler.
      * @throws OnfidoServerException Exception thrown when an error occurred with the HTTP
      *                               client connection.
      */
-    public static HttpResponse httpPut(String apiToken, String requestURL, String requestBody)
+    public static <T> T httpPut(Map<String, String> idVConfigPropertyMap, String requestURL, String requestBody,
+                                OnfidoResponseHandler<T> responseHandler)
             throws OnfidoServerException, OnfidoClientException {
 
         HttpPut request = new HttpPut(requestURL);
-        request.addHeader(HttpHeaders.AUTHORIZATION, TOKEN_HEADER + apiToken);
+        request.addHeader(HttpHeaders.AUTHORIZATION, TOKEN_HEADER + idVConfigPropertyMap.get(TOKEN));
         request.addHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON);
         request.setEntity(new StringEntity(requestBody, ContentType.APPLICATION_JSON));
 
-        CloseableHttpClient client = HTTPClientManager.getInstance().getHttpClient();
-        try (CloseableHttpResponse response = client.execute(request)) {
-            return toHttpResponse(response);
-        } catch (UnknownHostException e) {
-            throw new OnfidoClientException(ERROR_INVALID_BASE_URL.getCode(),
-                    ERROR_INVALID_BASE_URL.getMessage(), e);
-        } catch (IOException e) {
-            throw new OnfidoServerException(ERROR_IDENTITY_VERIFICATION.getCode(),
-                    ERROR_IDENTITY_VERIFICATION.getMessage(), e);
-        }
+        return execute(idVConfigPropertyMap, request, responseHandler);
     }
 
     /**
      * Send an HTTP PUT request.
      *
-     * @param apiToken   API token provided by Onfido.
-     * @param requestURL The URL to which the POST request should be sent.
-     * @return httpResponse         The response received from the HTTP call.
+     * @param idVConfigPropertyMap The configuration properties of the IdV provider, including the Onfido API token
+     *                             and the optional HTTP connection pool settings.
+     * @param requestURL           The URL to which the POST request should be sent.
+     * @param responseHandler      The handler producing the result from the response.
+     * @param <T>                  The type of the result.
+     * @return The result produced by the response handler.
+     * @throws OnfidoServerException Exception thrown when an error occurred with the HTTP
+     *                               client connection.
+     */
+    public static <T> T httpGet(Map<String, String> idVConfigPropertyMap, String requestURL,
+                                OnfidoResponseHandler<T> responseHandler)
+            throws OnfidoServerException, OnfidoClientException {
+
+        return httpGet(idVConfigPropertyMap, requestURL, Collections.emptyMap(), responseHandler);
+    }
+
+    /**
+     * Send an HTTP GET request with additional request headers, such as the headers of a conditional request.
+     *
+     * @param idVConfigPropertyMap The configuration properties of the IdV provider, including the Onfido API token
+     *                             and the optional HTTP connection pool settings.
+     * @param requestURL           The URL to which the GET request should be sent.
+     * @param requestHeaders       The additional headers to be sent with the request.
+     * @param responseHandler      The handler producing the result from the response.
+     * @param <T>                  The type of the result.
+     * @return The result produced by the response handler.
      * @throws OnfidoServerException Exception thrown when an error occurred with the HTTP
      *                               client connection.
      */
-    public static HttpResponse httpGet(String apiToken, String requestURL)
+    public static <T> T httpGet(Map<String, String> idVConfigPropertyMap, String requestURL,
+                                Map<String, String> requestHeaders, OnfidoResponseHandler<T> responseHandler)
             throws OnfidoServerException, OnfidoClientException {
 
         HttpGet request = new HttpGet(requestURL);
-        request.addHeader(HttpHeaders.AUTHORIZATION, TOKEN_HEADER + apiToken);
+        request.addHeader(HttpHeaders.AUTHORIZATION, TOKEN_HEADER + idVConfigPropertyMap.get(TOKEN));
         request.addHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON);
+        for (Map.Entry<String, String> requestHeader : requestHeaders.entrySet()) {
+            request.addHeader(requestHeader.getKey(), requestHeader.getValue());
+        }
 
-        CloseableHttpClient client = HTTPClientManager.getInstance().getHttpClient();
-        try (CloseableHttpResponse response = client.execute(request)) {
-            return toHttpResponse(response);
-        } catch (UnknownHostException e) {
-            throw new OnfidoClientException(ERROR_INVALID_BASE_URL.getCode(),
-                    ERROR_INVALID_BASE_URL.getMessage(), e);
-        } catch (IOException e) {
-            throw new OnfidoServerException(ERROR_IDENTITY_VERIFICATION.getCode(),
-                    ERROR_IDENTITY_VERIFICATION.getMessage(), e);
+        return execute(idVConfigPropertyMap, request, responseHandler);
+    }
+
+    /**
+     * Executes the request through the connection pool configured for the IdV provider, and hands the response over
+     * to the response handler while the connection is still open. Once the handler returns, any unread content is
+     * discarded and the connection is released back to the pool.
+     * <p>
+     * Transient failures are retried according to the {@link HTTPRetryPolicy} of the IdV provider before the
+     * response reaches the handler. When the retries are exhausted, the last response is handed to the handler,
+     * unless Onfido rejected it due to its rate limit. Each attempt is subject to the {@link OnfidoRateLimiter}, to
+     * the {@link OnfidoTenantBulkhead} of the tenant in the carbon context, and to the {@link OnfidoCircuitBreaker} of
+     * the endpoint, in that order. The token of the rate limiter is taken first, so that neither the permission of the
+     * bulkhead nor that of the circuit breaker is held while waiting for it. The permission of the bulkhead is held
+     * until the response of the attempt is consumed, and is not held while waiting to retry.
+     *
+     * @param idVConfigPropertyMap The configuration properties of the IdV provider.
+     * @param request              The request to be executed.
+     * @param responseHandler      The handler producing the result from the response.
+     * @param <T>                  The type of the result.
+     * @return The result produced by the response handler.
+     * @throws OnfidoServerException Exception thrown when an error occurred with the HTTP client connection, when
+     *                               the tenant's share of the connection pool or the rate limit of Onfido API calls
+     *                               was exceeded, or when the circuit of the endpoint is open.
+     * @throws OnfidoClientException Exception thrown when the Onfido base URL cannot be resolved.
+     */
+    private static <T> T execute(Map<String, String> idVConfigPropertyMap, HttpRequestBase request,
+                                 OnfidoResponseHandler<T> responseHandler)
+            throws OnfidoServerException, OnfidoClientException {
+
+        HTTPClientConfig httpClientConfig = HTTPClientConfig.fromConfigProperties(idVConfigPropertyMap);
+        HTTPRetryPolicy retryPolicy = HTTPRetryPolicy.fromConfigProperties(idVConfigPropertyMap);
+        HTTPClientManager httpClientManager = HTTPClientManager.getInstance();
+        CloseableHttpClient client = httpClientManager.getHttpClient(httpClientConfig);
+        request.setConfig(HTTPClientManager.getRequestConfig(httpClientConfig));
+        OnfidoCircuitBreaker.CircuitBreaker circuitBreaker = OnfidoCircuitBreaker.getInstance()
+                .getCircuitBreaker(idVConfigPropertyMap, httpClientConfig.getOrigin(), request.getURI());
+        OnfidoTenantBulkhead.Bulkhead bulkhead = OnfidoTenantBulkhead.getInstance().getBulkhead(idVConfigPropertyMap,
+                httpClientConfig, PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId());
+        for (int retryCount = 0; ; retryCount++) {
+            boolean canRetry = retryCount < retryPolicy.getMaxRetries();
+            long retryDelay = -1;
+            OnfidoRateLimiter.getInstance().acquire(idVConfigPropertyMap);
+            bulkhead.acquirePermission();
+            try (CloseableHttpResponse response = send(client, request, circuitBreaker)) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                if (canRetry && retryPolicy.isRetryable(request, statusCode)) {
+                    Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+                    retryDelay = retryPolicy.getRetryDelay(retryCount, retryAfter == null ? null :
+                            retryAfter.getValue());
+                }
+                if (retryDelay < 0) {
+                    try {
+                        if (statusCode == HttpStatus.SC_TOO_MANY_REQUESTS) {
+                            throw new OnfidoServerException(ERROR_ONFIDO_RATE_LIMIT_EXCEEDED.getCode(),
+                                    ERROR_ONFIDO_RATE_LIMIT_EXCEEDED.getMessage());
+                        }
+                        return responseHandler.handleResponse(response);
+                    } finally {
+                        // Fully consuming the entity allows the connection to be reused, instead of being closed.
+                        EntityUtils.consumeQuietly(response.getEntity());
+                    }
+                }
+                EntityUtils.consumeQuietly(response.getEntity());
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Onfido responded with status: %d for %s %s. Retrying in %d ms.",
+                            statusCode, request.getMethod(), request.getURI().getPath(), retryDelay));
+                }
+            } catch (UnknownHostException e) {
+                throw new OnfidoClientException(ERROR_INVALID_BASE_URL.getCode(),
+                        ERROR_INVALID_BASE_URL.getMessage(), e);
+            } catch (ConnectionPoolTimeoutException e) {
+                log.warn("Timed out waiting for an Onfido HTTP connection. Pool: " + httpClientConfig + ", stats: " +
+                        httpClientManager.getPoolStats(httpClientConfig));
+                throw new OnfidoServerException(ERROR_HTTP_CONNECTION_POOL_EXHAUSTED.getCode(),
+                        String.format(ERROR_HTTP_CONNECTION_POOL_EXHAUSTED.getMessage(),
+                                httpClientConfig.getOrigin()), e);
+            } catch (IOException e) {
+                if (canRetry && retryPolicy.isRetryable(request, e)) {
+                    retryDelay = retryPolicy.getRetryDelay(retryCount, null);
+                }
+                if (retryDelay < 0) {
+                    throw new OnfidoServerException(ERROR_IDENTITY_VERIFICATION.getCode(),
+                            ERROR_IDENTITY_VERIFICATION.getMessage(), e);
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Onfido request %s %s failed with: %s. Retrying in %d ms.",
+                            request.getMethod(), request.getURI().getPath(), e.getClass().getName(), retryDelay));
+                }
+            } finally {
+                bulkhead.releasePermission();
+            }
+            waitBeforeRetry(retryDelay);
         }
     }
 
-    private static HttpResponse toHttpResponse(CloseableHttpResponse response) throws IOException {
+    /**
+     * Sends the request through the circuit breaker of its endpoint, recording the outcome of the call in the circuit
+     * breaker.
+     *
+     * @param client         The HTTP client to send the request with.
+     * @param request        The request to be sent.
+     * @param circuitBreaker The circuit breaker of the endpoint, or null if circuit breaking is disabled.
+     * @return The response of the request.
+     * @throws IOException           If the request failed.
+     * @throws OnfidoServerException If the circuit of the endpoint is open.
+     */
+    private static CloseableHttpResponse send(CloseableHttpClient client, HttpRequestBase request,
+                                              OnfidoCircuitBreaker.CircuitBreaker circuitBreaker)
+            throws IOException, OnfidoServerException {
 
-        HttpResponse result = new BasicHttpResponse(response.getStatusLine());
-        if (response.getEntity() != null) {
-            result.setEntity(new BufferedHttpEntity(response.getEntity()));
+        if (circuitBreaker == null) {
+            return client.execute(request);
+        }
+        circuitBreaker.acquirePermission();
+        long startTime = System.nanoTime();
+        CloseableHttpResponse response;
+        try {
+            response = client.execute(request);
+        } catch (ConnectionPoolTimeoutException e) {
+            // The call never left the node, hence it says nothing about the health of Onfido.
+            circuitBreaker.releasePermission();
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.onResult(false, System.nanoTime() - startTime);
+            throw e;
+        }
+        circuitBreaker.onResult(response.getStatusLine().getStatusCode() < HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                System.nanoTime() - startTime);
+        return response;
+    }
+
+    /**
+     * Waits for the given delay before retrying an Onfido request.
+     *
+     * @param retryDelay The delay in milliseconds.
+     * @throws OnfidoServerException If the thread is interrupted while waiting.
+     */
+    private static void waitBeforeRetry(long retryDelay) throws OnfidoServerException {
+
+        try {
+            Thread.sleep(retryDelay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OnfidoServerException(ERROR_IDENTITY_VERIFICATION.getCode(),
+                    ERROR_IDENTITY_VERIFICATION.getMessage(), e);
         }
-        return result;
     }
 }
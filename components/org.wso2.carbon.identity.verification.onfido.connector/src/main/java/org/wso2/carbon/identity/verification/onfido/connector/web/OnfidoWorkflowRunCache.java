@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoClientException;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoWorkflowRun;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.BASE_URL;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.TOKEN;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.WORKFLOW_RUN_STATUS_FRESHNESS;
+
+/**
+ * Caches and coalesces the retrievals of Onfido workflow runs.
+ * <p>
+ * Only one call to Onfido is in flight for a workflow run at a time, and the concurrent callers asking for the same
+ * workflow run wait, for at most as long as the retrieval can take, for and share its result. A workflow run in a
+ * terminal status can no longer change, hence it is kept until it is evicted to make room for others. A workflow run
+ * in any other status is reused for the configured freshness window, and then revalidated with a conditional request
+ * if Onfido returned an entity tag along with it.
+ * Workflow run statuses received through the Onfido webhook are also added to the cache, so that the verification
+ * requests arriving after the webhook do not call Onfido at all.
+ */
+public class OnfidoWorkflowRunCache {
+
+    private static final Log log = LogFactory.getLog(OnfidoWorkflowRunCache.class);
+
+    static final int DEFAULT_WORKFLOW_RUN_STATUS_FRESHNESS = 2000;
+    static final int MAX_CACHED_WORKFLOW_RUNS = 10000;
+
+    private static final OnfidoWorkflowRunCache onfidoWorkflowRunCacheInstance =
+            new OnfidoWorkflowRunCache(System::nanoTime);
+    private final LongSupplier nanoClock;
+    private final Map<String, CompletableFuture<OnfidoWorkflowRun>> inFlightWorkflowRuns = new ConcurrentHashMap<>();
+    private final Map<String, CachedWorkflowRun> cachedWorkflowRuns = Collections.synchronizedMap(
+            new LinkedHashMap<String, CachedWorkflowRun>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedWorkflowRun> eldest) {
+
+                    return size() > MAX_CACHED_WORKFLOW_RUNS;
+                }
+            });
+
+    /**
+     * Creates a workflow run cache expiring its workflow runs by the given clock.
+     *
+     * @param nanoClock The source of the current time in nanoseconds.
+     */
+    OnfidoWorkflowRunCache(LongSupplier nanoClock) {
+
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Gets the singleton instance of OnfidoWorkflowRunCache.
+     *
+     * @return The singleton instance of OnfidoWorkflowRunCache.
+     */
+    public static OnfidoWorkflowRunCache getInstance() {
+
+        return onfidoWorkflowRunCacheInstance;
+    }
+
+    /**
+     * Retrieves a workflow run, including its status, reusing a cached workflow run or a retrieval which is already
+     * in flight when available.
+     *
+     * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
+     * @param workflowRunId        The ID of the workflow run to be retrieved.
+     * @return The workflow run, including its status, as returned by Onfido.
+     * @throws OnfidoServerException If an error occurs while retrieving the workflow run.
+     * @throws OnfidoClientException If the workflow run cannot be retrieved due to an invalid configuration.
+     */
+    public OnfidoWorkflowRun getWorkflowRun(Map<String, String> idVConfigPropertyMap, String workflowRunId)
+            throws OnfidoServerException, OnfidoClientException {
+
+        int freshness = getFreshness(idVConfigPropertyMap);
+        String key = getKey(idVConfigPropertyMap, workflowRunId);
+
+        CachedWorkflowRun cachedWorkflowRun = freshness > 0 ? cachedWorkflowRuns.get(key) : null;
+        if (cachedWorkflowRun != null && cachedWorkflowRun.isFresh(nanoClock.getAsLong())) {
+            if (log.isDebugEnabled()) {
+                log.debug("Reusing the cached status of the workflow run: " + workflowRunId);
+            }
+            return cachedWorkflowRun.workflowRun;
+        }
+
+        CompletableFuture<OnfidoWorkflowRun> workflowRunFuture = new CompletableFuture<>();
+        CompletableFuture<OnfidoWorkflowRun> inFlightWorkflowRun =
+                inFlightWorkflowRuns.putIfAbsent(key, workflowRunFuture);
+        if (inFlightWorkflowRun != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Waiting for the in flight retrieval of the workflow run: " + workflowRunId);
+            }
+            // The wait is bounded, in case the retrieval in flight is stuck beyond the timeouts it is sent with.
+            return OnfidoAsyncAPIClient.join(inFlightWorkflowRun, getMaxInFlightWait(idVConfigPropertyMap),
+                    TimeUnit.MILLISECONDS);
+        }
+
+        try {
+            OnfidoWorkflowRun workflowRun;
+            if (cachedWorkflowRun != null && cachedWorkflowRun.workflowRun.getETag() != null) {
+                // Onfido responds without the workflow run if it has not changed since it was cached.
+                workflowRun = OnfidoAPIClient.getWorkflowRunStatus(idVConfigPropertyMap, workflowRunId,
+                        cachedWorkflowRun.workflowRun);
+            } else {
+                workflowRun = OnfidoAPIClient.getWorkflowRunStatus(idVConfigPropertyMap, workflowRunId);
+            }
+            if (freshness > 0) {
+                cachedWorkflowRuns.put(key, new CachedWorkflowRun(workflowRun, nanoClock.getAsLong(), freshness));
+            }
+            workflowRunFuture.complete(workflowRun);
+            return workflowRun;
+        } catch (Throwable e) {
+            // Failures, including errors, are shared with the waiting callers, but not cached.
+            workflowRunFuture.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightWorkflowRuns.remove(key, workflowRunFuture);
+        }
+    }
+
+    /**
+     * Adds a workflow run, whose status was received from Onfido other than by retrieving it, such as through the
+     * Onfido webhook, to the cache.
+     *
+     * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
+     * @param workflowRun          The workflow run, including its status.
+     */
+    public void put(Map<String, String> idVConfigPropertyMap, OnfidoWorkflowRun workflowRun) {
+
+        int freshness = getFreshness(idVConfigPropertyMap);
+        if (freshness > 0) {
+            cachedWorkflowRuns.put(getKey(idVConfigPropertyMap, workflowRun.getId()),
+                    new CachedWorkflowRun(workflowRun, nanoClock.getAsLong(), freshness));
+        }
+    }
+
+    private static int getFreshness(Map<String, String> idVConfigPropertyMap) {
+
+        return HTTPClientConfig.getIntProperty(idVConfigPropertyMap, WORKFLOW_RUN_STATUS_FRESHNESS,
+                DEFAULT_WORKFLOW_RUN_STATUS_FRESHNESS, 0);
+    }
+
+    /**
+     * Gets the maximum time to wait for a retrieval in flight, which is the longest time the retrieval can take with
+     * the timeouts and the retries of the IdV provider.
+     *
+     * @param idVConfigPropertyMap The map containing the configuration properties of the IdV Provider.
+     * @return The maximum time to wait in milliseconds.
+     */
+    static long getMaxInFlightWait(Map<String, String> idVConfigPropertyMap) {
+
+        HTTPClientConfig httpClientConfig = HTTPClientConfig.fromConfigProperties(idVConfigPropertyMap);
+        HTTPRetryPolicy httpRetryPolicy = HTTPRetryPolicy.fromConfigProperties(idVConfigPropertyMap);
+        long attemptTime = (long) httpClientConfig.getConnectionRequestTimeout() +
+                httpClientConfig.getConnectionTimeout() + httpClientConfig.getReadTimeout() +
+                httpRetryPolicy.getMaxDelay();
+        return attemptTime * (httpRetryPolicy.getMaxRetries() + 1);
+    }
+
+    private static String getKey(Map<String, String> idVConfigPropertyMap, String workflowRunId) {
+
+        // The hash of the API token is part of the key, so that a workflow run is only shared among the callers
+        // authorized to retrieve it, without keeping the API token in the cache.
+        String apiToken = StringUtils.defaultString(idVConfigPropertyMap.get(TOKEN));
+        return idVConfigPropertyMap.get(BASE_URL) + " " + OnfidoRateLimiter.hashApiToken(apiToken) + " " +
+                workflowRunId;
+    }
+
+    /**
+     * A workflow run along with the time until which it can be reused without revalidating it.
+     */
+    private static class CachedWorkflowRun {
+
+        private final OnfidoWorkflowRun workflowRun;
+        private final boolean terminal;
+        private final long expiryTime;
+
+        private CachedWorkflowRun(OnfidoWorkflowRun workflowRun, long now, int freshness) {
+
+            this.workflowRun = workflowRun;
+            this.terminal = isTerminal(workflowRun);
+            this.expiryTime = now + TimeUnit.MILLISECONDS.toNanos(freshness);
+        }
+
+        private boolean isFresh(long now) {
+
+            return terminal || now - expiryTime < 0;
+        }
+
+        private static boolean isTerminal(OnfidoWorkflowRun workflowRun) {
+
+            try {
+                return OnfidoConstants.WorkflowRunStatus.fromString(workflowRun.getStatus()).isTerminalStatus();
+            } catch (OnfidoServerException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.extension.identity.verification.mgt.model.IdVClaim;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class OnfidoIdVClaimTrackerTest {
+
+    private static final String TEST_USER_ID = "test_user_id";
+    private static final String CLAIM_URI_FIRST_NAME = "http://wso2.org/claims/givenname";
+    private static final String CLAIM_URI_LAST_NAME = "http://wso2.org/claims/lastname";
+    private static final String ONFIDO_WORKFLOW_STATUS = "onfido_workflow_status";
+    private static final String TEST_STATUS_PROCESSING = "processing";
+    private static final String TEST_STATUS_APPROVED = "approved";
+
+    @Test
+    public void testOnlyChangedClaimsAreTracked() {
+
+        IdVClaim firstNameClaim = createIdVClaim(CLAIM_URI_FIRST_NAME);
+        IdVClaim lastNameClaim = createIdVClaim(CLAIM_URI_LAST_NAME);
+        OnfidoIdVClaimTracker.TrackedIdVClaims trackedIdVClaims =
+                OnfidoIdVClaimTracker.track(Arrays.asList(firstNameClaim, lastNameClaim, firstNameClaim));
+
+        // Setting the same metadata value again is not a change.
+        firstNameClaim.getMetadata().put(ONFIDO_WORKFLOW_STATUS, TEST_STATUS_PROCESSING);
+        assertTrue(trackedIdVClaims.getChangedIdVClaims().isEmpty(), "No claim should have changed.");
+
+        lastNameClaim.getMetadata().put(ONFIDO_WORKFLOW_STATUS, TEST_STATUS_APPROVED);
+        firstNameClaim.setIsVerified(true);
+        List<IdVClaim> changedIdVClaims = trackedIdVClaims.getChangedIdVClaims();
+        assertEquals(changedIdVClaims.size(), 2);
+        assertSame(changedIdVClaims.get(0), firstNameClaim);
+        assertSame(changedIdVClaims.get(1), lastNameClaim);
+    }
+
+    private IdVClaim createIdVClaim(String claimUri) {
+
+        IdVClaim idVClaim = new IdVClaim();
+        idVClaim.setClaimUri(claimUri);
+        idVClaim.setUserId(TEST_USER_ID);
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put(ONFIDO_WORKFLOW_STATUS, TEST_STATUS_PROCESSING);
+        idVClaim.setMetadata(metadata);
+        return idVClaim;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.extension.identity.verification.provider.model.IdVConfigProperty;
+import org.wso2.carbon.extension.identity.verification.provider.model.IdVProvider;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class OnfidoIdVProviderSnapshotCacheTest {
+
+    private static final int TEST_TENANT_ID = 1;
+    private static final int OTHER_TEST_TENANT_ID = 2;
+    private static final String TEST_IDV_PROVIDER_ID = "test_idv_provider_id";
+    private static final String TOKEN = "token";
+    private static final String BASE_URL = "base_url";
+    private static final String WEBHOOK_TOKEN = "webhook_token";
+    private static final String WORKFLOW_ID = "workflow_id";
+    private static final String TEST_TOKEN = "test-token";
+    private static final String TEST_BASE_URL = "https://api.onfido.com/v3.6";
+    private static final String TEST_WEBHOOK_TOKEN = "test-webhook-token";
+    private static final String TEST_WORKFLOW_ID = "test-workflow-id";
+    private static final String OTHER_TEST_WORKFLOW_ID = "other-test-workflow-id";
+    private static final String CLAIM_URI_LAST_NAME = "http://wso2.org/claims/lastname";
+    private static final String CLAIM_URI_DOB = "http://wso2.org/claims/dob";
+    private static final String ONFIDO_ATTR_LAST_NAME = "last_name";
+    private static final String ONFIDO_ATTR_DOB = "dob";
+    private static final String ONFIDO_ATTR_DATE_OF_BIRTH = "date_of_birth";
+
+    private final OnfidoIdVProviderSnapshotCache snapshotCache = OnfidoIdVProviderSnapshotCache.getInstance();
+    private IdVProvider idVProvider;
+    private Map<String, String> claimMappings;
+
+    @BeforeMethod
+    public void setUp() {
+
+        idVProvider = mock(IdVProvider.class);
+        when(idVProvider.getIdVProviderUuid()).thenReturn(TEST_IDV_PROVIDER_ID);
+        setConfigProperties(TEST_WORKFLOW_ID);
+        claimMappings = new HashMap<>();
+        claimMappings.put(CLAIM_URI_LAST_NAME, ONFIDO_ATTR_LAST_NAME);
+        claimMappings.put(CLAIM_URI_DOB, ONFIDO_ATTR_DOB);
+        when(idVProvider.getClaimMappings()).thenReturn(claimMappings);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        snapshotCache.clear();
+    }
+
+    @Test
+    public void testSnapshotIsCompiled() {
+
+        OnfidoIdVProviderSnapshot snapshot = snapshotCache.getSnapshot(idVProvider, TEST_TENANT_ID);
+
+        assertTrue(snapshot.hasValidConfigProperties());
+        assertEquals(snapshot.getConfigProperties().get(WORKFLOW_ID), TEST_WORKFLOW_ID);
+        assertEquals(snapshot.getWebhookKey().getAlgorithm(), "HmacSHA256");
+        assertNotNull(snapshot.getWebhookSignatureVerifier());
+        assertEquals(snapshot.getOnfidoClaimName(CLAIM_URI_LAST_NAME), ONFIDO_ATTR_LAST_NAME);
+        assertEquals(snapshot.getOnfidoClaimName(CLAIM_URI_DOB), ONFIDO_ATTR_DATE_OF_BIRTH);
+        assertNull(snapshot.getOnfidoClaimName("http://wso2.org/claims/country"));
+    }
+
+    @Test
+    public void testSnapshotIsRecompiledOnProviderUpdate() {
+
+        OnfidoIdVProviderSnapshot snapshot = snapshotCache.getSnapshot(idVProvider, TEST_TENANT_ID);
+        assertSame(snapshotCache.getSnapshot(idVProvider, TEST_TENANT_ID), snapshot);
+        assertNotSame(snapshotCache.getSnapshot(idVProvider, OTHER_TEST_TENANT_ID), snapshot,
+                "A snapshot should not be shared across tenants.");
+
+        setConfigProperties(OTHER_TEST_WORKFLOW_ID);
+        OnfidoIdVProviderSnapshot updatedSnapshot = snapshotCache.getSnapshot(idVProvider, TEST_TENANT_ID);
+        assertNotSame(updatedSnapshot, snapshot);
+        assertEquals(updatedSnapshot.getConfigProperties().get(WORKFLOW_ID), OTHER_TEST_WORKFLOW_ID);
+
+        claimMappings.remove(CLAIM_URI_DOB);
+        OnfidoIdVProviderSnapshot remappedSnapshot = snapshotCache.getSnapshot(idVProvider, TEST_TENANT_ID);
+        assertNotSame(remappedSnapshot, updatedSnapshot);
+        assertNull(remappedSnapshot.getOnfidoClaimName(CLAIM_URI_DOB));
+    }
+
+    @Test
+    public void testInvalidConfigPropertiesAreDetected() {
+
+        IdVConfigProperty[] configProperties = new IdVConfigProperty[]{
+                createIdVConfigProperty(TOKEN, TEST_TOKEN),
+                createIdVConfigProperty(BASE_URL, TEST_BASE_URL)
+        };
+        when(idVProvider.getIdVConfigProperties()).thenReturn(configProperties);
+
+        OnfidoIdVProviderSnapshot snapshot = snapshotCache.getSnapshot(idVProvider, TEST_TENANT_ID);
+        assertFalse(snapshot.hasValidConfigProperties());
+        assertNull(snapshot.getWebhookKey());
+        assertNull(snapshot.getWebhookSignatureVerifier());
+    }
+
+    private void setConfigProperties(String workflowId) {
+
+        IdVConfigProperty[] configProperties = new IdVConfigProperty[]{
+                createIdVConfigProperty(TOKEN, TEST_TOKEN),
+                createIdVConfigProperty(BASE_URL, TEST_BASE_URL),
+                createIdVConfigProperty(WEBHOOK_TOKEN, TEST_WEBHOOK_TOKEN),
+                createIdVConfigProperty(WORKFLOW_ID, workflowId)
+        };
+        when(idVProvider.getIdVConfigProperties()).thenReturn(configProperties);
+    }
+
+    private IdVConfigProperty createIdVConfigProperty(String name, String value) {
+
+        IdVConfigProperty property = new IdVConfigProperty();
+        property.setName(name);
+        property.setValue(value);
+        return property;
+    }
+}
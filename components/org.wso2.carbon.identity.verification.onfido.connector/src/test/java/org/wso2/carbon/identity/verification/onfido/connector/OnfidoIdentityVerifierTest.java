@@ -18,7 +18,6 @@
 
 package org.wso2.carbon.identity.verification.onfido.connector;
 
-import org.json.JSONObject;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
@@ -41,6 +40,9 @@ import org.wso2.carbon.extension.identity.verification.provider.model.IdVConfigP
 import org.wso2.carbon.extension.identity.verification.provider.model.IdVProvider;
 import org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants;
 import org.wso2.carbon.identity.verification.onfido.connector.internal.OnfidoIDVDataHolder;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoApplicant;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoSdkToken;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoWorkflowRun;
 import org.wso2.carbon.identity.verification.onfido.connector.web.OnfidoAPIClient;
 import org.wso2.carbon.user.core.UserRealm;
 import org.wso2.carbon.user.core.jdbc.UniqueIDJDBCUserStoreManager;
@@ -57,8 +59,10 @@ import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -123,15 +127,15 @@ public class OnfidoIdentityVerifierTest {
     private static final String WORKFLOW_ID = "workflow_id";
     private static final String BASE_URL = "base_url";
     private static final String WEBHOOK_TOKEN = "webhook_token";
-    private static final String ID = "id";
     private static final String TOKEN = "token";
-    private static final String APPLICANT_ID = "applicant_id";
+    private static final String WORKFLOW_RUN_STATUS_FRESHNESS = "workflow_run_status_freshness";
     private static final String STATUS = "status";
 
     @BeforeClass
     public void setUpClass() {
 
-        onfidoIdentityVerifier = new OnfidoIdentityVerifier();
+        // Run the concurrent steps on the test thread so that the static mocks apply to them.
+        onfidoIdentityVerifier = new OnfidoIdentityVerifier(Runnable::run);
         mockedIdVDataHolder = mockStatic(IdentityVerificationDataHolder.class);
         mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class);
         mockedOnfidoIDVDataHolder = mockStatic(OnfidoIDVDataHolder.class);
@@ -164,10 +168,11 @@ public class OnfidoIdentityVerifierTest {
         mockedOnfidoIDVDataHolder.when(OnfidoIDVDataHolder::getRealmService).thenReturn(mockRealmService);
         when(mockRealmService.getTenantUserRealm(anyInt())).thenReturn(mockUserRealm);
         when(mockUserRealm.getUserStoreManager()).thenReturn(mockUniqueIDUserStoreManager);
-        when(mockUniqueIDUserStoreManager.getUserClaimValueWithID(TEST_USER_ID, CLAIM_URI_FIRST_NAME, null))
-                .thenReturn(TEST_FIRST_NAME);
-        when(mockUniqueIDUserStoreManager.getUserClaimValueWithID(TEST_USER_ID, CLAIM_URI_LAST_NAME, null))
-                .thenReturn(TEST_LAST_NAME);
+        Map<String, String> userClaimValues = new HashMap<>();
+        userClaimValues.put(CLAIM_URI_FIRST_NAME, TEST_FIRST_NAME);
+        userClaimValues.put(CLAIM_URI_LAST_NAME, TEST_LAST_NAME);
+        when(mockUniqueIDUserStoreManager.getUserClaimValuesWithID(eq(TEST_USER_ID), any(String[].class), isNull()))
+                .thenReturn(userClaimValues);
     }
 
     private void setupMockIdVProvider() {
@@ -175,11 +180,13 @@ public class OnfidoIdentityVerifierTest {
         when(mockIdVProvider.getIdVProviderUuid()).thenReturn(TEST_IDV_PROVIDER_ID);
         when(mockIdVProvider.isEnabled()).thenReturn(true);
 
-        IdVConfigProperty[] configProperties = new IdVConfigProperty[4];
+        IdVConfigProperty[] configProperties = new IdVConfigProperty[5];
         configProperties[0] = createIdVConfigProperty(TOKEN, TEST_API_TOKEN, true);
         configProperties[1] = createIdVConfigProperty(BASE_URL, TEST_BASE_URL, false);
         configProperties[2] = createIdVConfigProperty(WEBHOOK_TOKEN, TEST_WEBHOOK_TOKEN, true);
         configProperties[3] = createIdVConfigProperty(WORKFLOW_ID, TEST_WORKFLOW_ID, false);
+        // Each test mocks its own workflow run status, hence the retrieved statuses are not reused across tests.
+        configProperties[4] = createIdVConfigProperty(WORKFLOW_RUN_STATUS_FRESHNESS, "0", false);
 
         when(mockIdVProvider.getIdVConfigProperties()).thenReturn(configProperties);
 
@@ -239,6 +246,8 @@ public class OnfidoIdentityVerifierTest {
             claim.setIsVerified(false);
             claim.setMetadata(createClaimMetadata(workflowRunStatus));
         }
+        // The workflow run status is kept by the first claim of the workflow run, and referenced by the others.
+        lastNameClaim.getMetadata().remove(ONFIDO_WORKFLOW_STATUS);
 
         return idVClaims;
     }
@@ -387,27 +396,29 @@ public class OnfidoIdentityVerifierTest {
         }
     }
 
-    private JSONObject createApplicantResponse() {
+    private OnfidoApplicant createApplicantResponse() {
 
-        return new JSONObject()
-                .put(ID, TEST_APPLICANT_ID)
-                .put(ONFIDO_ATTR_FIRSTNAME, TEST_FIRST_NAME)
-                .put(ONFIDO_ATTR_LASTNAME, TEST_LAST_NAME);
+        OnfidoApplicant applicant = new OnfidoApplicant();
+        applicant.setId(TEST_APPLICANT_ID);
+        applicant.setFirstName(TEST_FIRST_NAME);
+        applicant.setLastName(TEST_LAST_NAME);
+        return applicant;
     }
 
-    private JSONObject createWorkflowRunResponse(OnfidoConstants.WorkflowRunStatus workflowRunStatus) {
+    private OnfidoWorkflowRun createWorkflowRunResponse(OnfidoConstants.WorkflowRunStatus workflowRunStatus) {
 
-        return new JSONObject()
-                .put(ID, TEST_WORKFLOW_RUN_ID)
-                .put(STATUS, workflowRunStatus.getStatus())
-                .put(WORKFLOW_ID, TEST_WORKFLOW_ID);
+        OnfidoWorkflowRun workflowRun = new OnfidoWorkflowRun();
+        workflowRun.setId(TEST_WORKFLOW_RUN_ID);
+        workflowRun.setStatus(workflowRunStatus.getStatus());
+        workflowRun.setWorkflowId(TEST_WORKFLOW_ID);
+        return workflowRun;
     }
 
-    private JSONObject createSDKTokenResponse() {
+    private OnfidoSdkToken createSDKTokenResponse() {
 
-        return new JSONObject()
-                .put(TOKEN, TEST_SDK_TOKEN)
-                .put(APPLICANT_ID, TEST_APPLICANT_ID);
+        OnfidoSdkToken sdkToken = new OnfidoSdkToken();
+        sdkToken.setToken(TEST_SDK_TOKEN);
+        return sdkToken;
     }
 
     private void assertCommonClaimProperties(List<IdVClaim> claims, String expectedWorkflowStatus) {
@@ -438,7 +449,13 @@ public class OnfidoIdentityVerifierTest {
         when(mockIdentityVerificationManager.getIdVClaims(eq(TEST_USER_ID), eq(TEST_IDV_PROVIDER_ID), isNull(),
                 eq(TEST_TENANT_ID))).thenReturn(new IdVClaim[0]);
 
-        doReturn(null).when(onfidoIdentityVerifier).storeIdVClaims(anyString(), anyList(), anyInt());
+        List<Map<String, Object>> storedMetadata = new ArrayList<>();
+        doAnswer(invocation -> {
+            for (IdVClaim idVClaim : invocation.<List<IdVClaim>>getArgument(1)) {
+                storedMetadata.add(new HashMap<>(idVClaim.getMetadata()));
+            }
+            return null;
+        }).when(onfidoIdentityVerifier).storeIdVClaims(anyString(), anyList(), anyInt());
 
         IdentityVerifierData identityVerifierData = createMockIdentityVerifierData(
                 OnfidoConstants.VerificationFlowStatus.INITIATED.getStatus());
@@ -454,12 +471,24 @@ public class OnfidoIdentityVerifierTest {
         assertEquals(resultClaims.size(), 2, "Should have two claims");
         assertCommonClaimProperties(resultClaims, OnfidoConstants.WorkflowRunStatus.AWAITING_INPUT.getStatus());
 
+        // The workflow run status is only stored with the first claim, which the other claims reference.
+        assertEquals(storedMetadata.size(), 2, "Two claims should be stored");
+        assertEquals(storedMetadata.get(0), createClaimMetadata(OnfidoConstants.WorkflowRunStatus.AWAITING_INPUT));
+        assertEquals(storedMetadata.get(1).get(ONFIDO_WORKFLOW_RUN_ID), TEST_WORKFLOW_RUN_ID);
+        assertFalse(storedMetadata.get(1).containsKey(ONFIDO_WORKFLOW_STATUS),
+                "The workflow run status should not be stored with each claim");
+
         // Verify updateIdVClaim is not called at all and storeIdVClaims is called once
         verify(onfidoIdentityVerifier, times(0))
                 .updateIdVClaim(eq(TEST_USER_ID), any(IdVClaim.class), eq(TEST_TENANT_ID));
         verify(onfidoIdentityVerifier, times(1))
                 .storeIdVClaims(eq(TEST_USER_ID), anyList(), eq(TEST_TENANT_ID));
 
+        // The values of all the claims are retrieved from the user store at once.
+        verify(mockUniqueIDUserStoreManager, times(1)).getUserClaimValuesWithID(eq(TEST_USER_ID),
+                eq(new String[]{CLAIM_URI_FIRST_NAME, CLAIM_URI_LAST_NAME}), isNull());
+        verify(mockUniqueIDUserStoreManager, never()).getUserClaimValueWithID(anyString(), anyString(), any());
+
     }
 
     @Test
@@ -483,9 +512,6 @@ public class OnfidoIdentityVerifierTest {
         when(mockIdentityVerificationManager.getIdVClaims(eq(TEST_USER_ID), eq(TEST_IDV_PROVIDER_ID), isNull(),
                 eq(TEST_TENANT_ID)))
                 .thenReturn(new IdVClaim[]{firstNameClaim});
-        when(mockIdentityVerificationManager.getIdVClaim(eq(TEST_USER_ID), eq(CLAIM_URI_FIRST_NAME),
-                eq(TEST_IDV_PROVIDER_ID), eq(TEST_TENANT_ID)))
-                .thenReturn(firstNameClaim);
 
         doReturn(null).when(onfidoIdentityVerifier)
                 .updateIdVClaim(anyString(), any(IdVClaim.class), anyInt());
@@ -510,6 +536,10 @@ public class OnfidoIdentityVerifierTest {
                 .updateIdVClaim(eq(TEST_USER_ID), any(IdVClaim.class), eq(TEST_TENANT_ID));
         verify(onfidoIdentityVerifier, times(1))
                 .storeIdVClaims(eq(TEST_USER_ID), anyList(), eq(TEST_TENANT_ID));
+
+        // The existing IdV claims of the user are loaded once, and not queried again per claim.
+        verify(mockIdentityVerificationManager, times(1)).getIdVClaims(anyString(), anyString(), any(), anyInt());
+        verify(mockIdentityVerificationManager, never()).getIdVClaim(anyString(), anyString(), anyString(), anyInt());
     }
 
     @DataProvider(name = "workflowStatusDataProvider")
@@ -537,8 +567,6 @@ public class OnfidoIdentityVerifierTest {
         IdVClaim[] existingClaims = existingClaimsList.toArray(new IdVClaim[0]);
         when(mockIdentityVerificationManager.getIdVClaims(anyString(), anyString(), any(), anyInt())).thenReturn(
                 existingClaims);
-        when(mockIdentityVerificationManager.getIdVClaimsByMetadata(anyString(), anyString(), anyString(),
-                anyInt())).thenReturn(existingClaims);
 
         mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()))
                 .thenReturn(createWorkflowRunResponse(workflowRunStatus));
@@ -560,8 +588,39 @@ public class OnfidoIdentityVerifierTest {
                 OnfidoConstants.WorkflowRunStatus.PROCESSING.getStatus() :
                 workflowRunStatus.getStatus();
         assertCommonClaimProperties(resultClaims, expectedWorkflowStatus);
-        verify(onfidoIdentityVerifier, times(2))
+
+        // Only the claim keeping the workflow run status is written, and only if the status changed.
+        int expectedUpdates =
+                OnfidoConstants.WorkflowRunStatus.AWAITING_INPUT.getStatus().equals(expectedWorkflowStatus) ? 0 : 1;
+        verify(onfidoIdentityVerifier, times(expectedUpdates))
                 .updateIdVClaim(eq(TEST_USER_ID), any(IdVClaim.class), eq(TEST_TENANT_ID));
+
+        // The claims of the workflow run are read from the existing IdV claims of the user, loaded once.
+        verify(mockIdentityVerificationManager, times(1)).getIdVClaims(anyString(), anyString(), any(), anyInt());
+        verify(mockIdentityVerificationManager, never())
+                .getIdVClaimsByMetadata(anyString(), anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    public void testEndingStatusOfWebhookIsKeptOnCompletion() throws Exception {
+
+        IdentityVerifierData identityVerifierData = createMockIdentityVerifierData(
+                OnfidoConstants.VerificationFlowStatus.COMPLETED.getStatus());
+
+        // The webhook of the workflow run already set its ending status.
+        List<IdVClaim> existingClaimsList = createMockFinalIdVClaims(OnfidoConstants.WorkflowRunStatus.APPROVED);
+        when(mockIdentityVerificationManager.getIdVClaims(anyString(), anyString(), any(), anyInt())).thenReturn(
+                existingClaimsList.toArray(new IdVClaim[0]));
+
+        mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()))
+                .thenReturn(createWorkflowRunResponse(OnfidoConstants.WorkflowRunStatus.APPROVED));
+
+        IdentityVerifierData result =
+                onfidoIdentityVerifier.verifyIdentity(TEST_USER_ID, identityVerifierData, TEST_TENANT_ID);
+
+        assertCommonClaimProperties(result.getIdVClaims(), OnfidoConstants.WorkflowRunStatus.APPROVED.getStatus());
+        verify(onfidoIdentityVerifier, never())
+                .updateIdVClaim(anyString(), any(IdVClaim.class), anyInt());
     }
 
     @Test
@@ -576,11 +635,8 @@ public class OnfidoIdentityVerifierTest {
         when(mockIdentityVerificationManager.getIdVClaims(eq(TEST_USER_ID), eq(TEST_IDV_PROVIDER_ID), isNull(),
                 eq(TEST_TENANT_ID)))
                 .thenReturn(existingClaims);
-        when(mockIdentityVerificationManager.getIdVClaimsByMetadata(eq(ONFIDO_WORKFLOW_RUN_ID),
-                eq(TEST_WORKFLOW_RUN_ID), eq(TEST_IDV_PROVIDER_ID), eq(TEST_TENANT_ID)))
-                .thenReturn(existingClaims);
 
-        JSONObject sdkTokenResponse = createSDKTokenResponse();
+        OnfidoSdkToken sdkTokenResponse = createSDKTokenResponse();
         mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.createSDKToken(any(), any())).thenReturn(sdkTokenResponse);
 
         IdentityVerifierData result =
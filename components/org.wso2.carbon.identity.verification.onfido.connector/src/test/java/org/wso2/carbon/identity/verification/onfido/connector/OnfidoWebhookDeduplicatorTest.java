@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class OnfidoWebhookDeduplicatorTest {
+
+    private static final int TEST_TENANT_ID = 1;
+    private static final int OTHER_TEST_TENANT_ID = 2;
+    private static final String TEST_IDVP_ID = "test_idvp_id";
+    private static final String TEST_WORKFLOW_RUN_ID = "test_workflow_run_id";
+    private static final String TEST_STATUS_APPROVED = "approved";
+    private static final String TEST_STATUS_DECLINED = "declined";
+    private static final String TEST_COMPLETED_AT = "2023-05-01T12:00:00Z";
+    private static final String TEST_DELIVERY_KEY = "1:test_idvp_id:test_workflow_run_id:approved:2023-05-01T12:00:00Z";
+
+    private final OnfidoWebhookDeduplicator webhookDeduplicator = OnfidoWebhookDeduplicator.getInstance();
+
+    @AfterMethod
+    public void tearDown() {
+
+        webhookDeduplicator.setSharedDeliveryStore(null);
+        webhookDeduplicator.clear();
+    }
+
+    @Test
+    public void testProcessedDeliveryIsDetected() {
+
+        assertTrue(webhookDeduplicator.reserve(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID,
+                TEST_STATUS_APPROVED, TEST_COMPLETED_AT));
+        webhookDeduplicator.setProcessed(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID, TEST_STATUS_APPROVED,
+                TEST_COMPLETED_AT);
+
+        assertFalse(webhookDeduplicator.reserve(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID,
+                TEST_STATUS_APPROVED, TEST_COMPLETED_AT));
+        // A delivery of another status of the workflow run, or of another tenant, is not a duplicate.
+        assertTrue(webhookDeduplicator.reserve(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID,
+                TEST_STATUS_DECLINED, TEST_COMPLETED_AT));
+        assertTrue(webhookDeduplicator.reserve(OTHER_TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID,
+                TEST_STATUS_APPROVED, TEST_COMPLETED_AT));
+    }
+
+    @Test
+    public void testDeliveryBeingProcessedIsDetected() {
+
+        assertTrue(webhookDeduplicator.reserve(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID,
+                TEST_STATUS_APPROVED, TEST_COMPLETED_AT));
+        assertFalse(webhookDeduplicator.reserve(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID,
+                TEST_STATUS_APPROVED, TEST_COMPLETED_AT));
+
+        // A delivery which failed to be processed is processed again when it is redelivered.
+        webhookDeduplicator.release(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID, TEST_STATUS_APPROVED,
+                TEST_COMPLETED_AT);
+        assertTrue(webhookDeduplicator.reserve(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID,
+                TEST_STATUS_APPROVED, TEST_COMPLETED_AT));
+    }
+
+    @Test
+    public void testProcessedDeliveriesAreBounded() {
+
+        for (int i = 0; i <= OnfidoWebhookDeduplicator.MAX_PROCESSED_DELIVERIES; i++) {
+            webhookDeduplicator.setProcessed(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID + i,
+                    TEST_STATUS_APPROVED, TEST_COMPLETED_AT);
+        }
+
+        // The least recently used delivery is evicted.
+        assertTrue(webhookDeduplicator.reserve(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID + 0,
+                TEST_STATUS_APPROVED, TEST_COMPLETED_AT));
+        assertFalse(webhookDeduplicator.reserve(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID + 1,
+                TEST_STATUS_APPROVED, TEST_COMPLETED_AT));
+    }
+
+    @Test
+    public void testDeliveryProcessedByAnotherNodeIsDetected() {
+
+        OnfidoWebhookDeliveryStore deliveryStore = mock(OnfidoWebhookDeliveryStore.class);
+        when(deliveryStore.isProcessed(TEST_DELIVERY_KEY)).thenReturn(true);
+        webhookDeduplicator.setSharedDeliveryStore(deliveryStore);
+
+        assertFalse(webhookDeduplicator.reserve(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID,
+                TEST_STATUS_APPROVED, TEST_COMPLETED_AT));
+        // The delivery is kept in memory once it is found in the shared store.
+        assertFalse(webhookDeduplicator.reserve(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID,
+                TEST_STATUS_APPROVED, TEST_COMPLETED_AT));
+        verify(deliveryStore, times(1)).isProcessed(anyString());
+
+        webhookDeduplicator.setProcessed(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID, TEST_STATUS_DECLINED,
+                TEST_COMPLETED_AT);
+        verify(deliveryStore).setProcessed("1:test_idvp_id:test_workflow_run_id:declined:2023-05-01T12:00:00Z");
+    }
+
+    @Test
+    public void testSharedStoreErrorsAreIgnored() {
+
+        OnfidoWebhookDeliveryStore deliveryStore = mock(OnfidoWebhookDeliveryStore.class);
+        when(deliveryStore.isProcessed(anyString())).thenThrow(new IllegalStateException());
+        doThrow(new IllegalStateException()).when(deliveryStore).setProcessed(anyString());
+        webhookDeduplicator.setSharedDeliveryStore(deliveryStore);
+
+        // The delivery is processed when the shared store cannot be checked, and recorded in memory nonetheless.
+        assertTrue(webhookDeduplicator.reserve(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID,
+                TEST_STATUS_APPROVED, TEST_COMPLETED_AT));
+        webhookDeduplicator.setProcessed(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID, TEST_STATUS_APPROVED,
+                TEST_COMPLETED_AT);
+        assertFalse(webhookDeduplicator.reserve(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID,
+                TEST_STATUS_APPROVED, TEST_COMPLETED_AT));
+    }
+}
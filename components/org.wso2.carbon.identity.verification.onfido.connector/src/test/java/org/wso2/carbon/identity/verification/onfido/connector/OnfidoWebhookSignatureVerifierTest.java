@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.verification.onfido.connector;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class OnfidoWebhookSignatureVerifierTest {
+
+    private static final String HMAC_SHA256_ALGORITHM = "HmacSHA256";
+    private static final String TEST_WEBHOOK_TOKEN = "test-webhook-token";
+    private static final String OTHER_TEST_WEBHOOK_TOKEN = "other-test-webhook-token";
+    private static final String TEST_REQUEST_BODY = "{\"payload\":{\"resource_type\":\"workflow_run\"," +
+            "\"action\":\"workflow_run.completed\"}}";
+    private static final String TAMPERED_REQUEST_BODY = "{\"payload\":{\"resource_type\":\"workflow_run\"," +
+            "\"action\":\"workflow_run.started\"}}";
+
+    private OnfidoWebhookSignatureVerifier signatureVerifier;
+    private String signature;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        signatureVerifier = createSignatureVerifier(TEST_WEBHOOK_TOKEN);
+        signature = sign(TEST_REQUEST_BODY);
+    }
+
+    @Test
+    public void testValidSignatureIsVerified() throws Exception {
+
+        // The keyed Mac of the thread is reused for the subsequent requests.
+        assertTrue(signatureVerifier.verify(signature, toByteBuffer(TEST_REQUEST_BODY)));
+        assertTrue(signatureVerifier.verify(signature, toByteBuffer(TEST_REQUEST_BODY)));
+        assertTrue(signatureVerifier.verify(signature.toUpperCase(), toByteBuffer(TEST_REQUEST_BODY)));
+    }
+
+    @Test
+    public void testSignatureIsVerifiedOnOtherThreads() throws Exception {
+
+        assertTrue(signatureVerifier.verify(signature, toByteBuffer(TEST_REQUEST_BODY)));
+        CompletableFuture<Boolean> verified = CompletableFuture.supplyAsync(() -> {
+            try {
+                return signatureVerifier.verify(signature, toByteBuffer(TEST_REQUEST_BODY));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(verified.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSignaturesOfOtherWebhookKeysAreVerified() throws Exception {
+
+        // The verifiers of the webhook keys share the keyed Mac of the thread.
+        OnfidoWebhookSignatureVerifier otherSignatureVerifier = createSignatureVerifier(OTHER_TEST_WEBHOOK_TOKEN);
+        String otherSignature = sign(OTHER_TEST_WEBHOOK_TOKEN, TEST_REQUEST_BODY);
+        assertTrue(signatureVerifier.verify(signature, toByteBuffer(TEST_REQUEST_BODY)));
+        assertTrue(otherSignatureVerifier.verify(otherSignature, toByteBuffer(TEST_REQUEST_BODY)));
+        assertFalse(otherSignatureVerifier.verify(signature, toByteBuffer(TEST_REQUEST_BODY)));
+        assertFalse(signatureVerifier.verify(otherSignature, toByteBuffer(TEST_REQUEST_BODY)));
+        assertTrue(signatureVerifier.verify(signature, toByteBuffer(TEST_REQUEST_BODY)));
+
+        // A verifier rebuilt with the same webhook key verifies the same signatures.
+        assertTrue(createSignatureVerifier(TEST_WEBHOOK_TOKEN).verify(signature, toByteBuffer(TEST_REQUEST_BODY)));
+    }
+
+    @DataProvider(name = "invalidSignatureDataProvider")
+    public Object[][] invalidSignatureDataProvider() throws Exception {
+
+        String validSignature = sign(TEST_REQUEST_BODY);
+        return new Object[][]{
+                {sign(TAMPERED_REQUEST_BODY)},
+                {validSignature.substring(2)},
+                {validSignature + "00"},
+                {"zz" + validSignature.substring(2)},
+                {null}
+        };
+    }
+
+    @Test(dataProvider = "invalidSignatureDataProvider")
+    public void testInvalidSignatureIsRejected(String invalidSignature) throws Exception {
+
+        assertFalse(signatureVerifier.verify(invalidSignature, toByteBuffer(TEST_REQUEST_BODY)));
+
+        // A rejected signature does not affect the verification of the next request.
+        assertTrue(signatureVerifier.verify(signature, toByteBuffer(TEST_REQUEST_BODY)));
+    }
+
+    private OnfidoWebhookSignatureVerifier createSignatureVerifier(String webhookToken) {
+
+        return new OnfidoWebhookSignatureVerifier(
+                new SecretKeySpec(webhookToken.getBytes(StandardCharsets.UTF_8), HMAC_SHA256_ALGORITHM));
+    }
+
+    private String sign(String requestBody) throws Exception {
+
+        return sign(TEST_WEBHOOK_TOKEN, requestBody);
+    }
+
+    private String sign(String webhookToken, String requestBody) throws Exception {
+
+        Mac mac = Mac.getInstance(HMAC_SHA256_ALGORITHM);
+        mac.init(new SecretKeySpec(webhookToken.getBytes(StandardCharsets.UTF_8), HMAC_SHA256_ALGORITHM));
+        StringBuilder signatureBuilder = new StringBuilder();
+        for (byte b : mac.doFinal(requestBody.getBytes(StandardCharsets.UTF_8))) {
+            signatureBuilder.append(String.format("%02x", b));
+        }
+        return signatureBuilder.toString();
+    }
+
+    private ByteBuffer toByteBuffer(String requestBody) {
+
+        return ByteBuffer.wrap(requestBody.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class OnfidoWorkflowRunIndexTest {
+
+    private static final int TEST_TENANT_ID = 1;
+    private static final int OTHER_TEST_TENANT_ID = 2;
+    private static final String TEST_IDVP_ID = "test_idvp_id";
+    private static final String TEST_WORKFLOW_RUN_ID = "test_workflow_run_id";
+    private static final String TEST_USER_ID = "test_user_id";
+    private static final String OTHER_TEST_USER_ID = "other_test_user_id";
+
+    private final OnfidoWorkflowRunIndex workflowRunIndex = OnfidoWorkflowRunIndex.getInstance();
+
+    @AfterMethod
+    public void tearDown() {
+
+        workflowRunIndex.clear();
+    }
+
+    @Test
+    public void testWorkflowRunIsIndexedPerTenant() {
+
+        workflowRunIndex.put(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID, TEST_USER_ID);
+
+        assertEquals(workflowRunIndex.getUserId(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID), TEST_USER_ID);
+        assertNull(workflowRunIndex.getUserId(OTHER_TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID));
+
+        workflowRunIndex.remove(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID);
+        assertNull(workflowRunIndex.getUserId(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID));
+    }
+
+    @Test
+    public void testIndexedWorkflowRunIsNotReplacedIfAbsent() {
+
+        workflowRunIndex.putIfAbsent(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID, TEST_USER_ID);
+        workflowRunIndex.putIfAbsent(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID, OTHER_TEST_USER_ID);
+
+        assertEquals(workflowRunIndex.getUserId(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID), TEST_USER_ID);
+    }
+
+    @Test
+    public void testRemovedWorkflowRunIsIndexedAgain() {
+
+        workflowRunIndex.put(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID, TEST_USER_ID);
+        workflowRunIndex.remove(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID);
+        workflowRunIndex.putIfAbsent(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID, OTHER_TEST_USER_ID);
+        for (int i = 1; i < OnfidoWorkflowRunIndex.MAX_INDEXED_WORKFLOW_RUNS; i++) {
+            workflowRunIndex.put(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID + i, TEST_USER_ID);
+        }
+
+        // The removed workflow run does not take a place in the index, hence the index is not full yet.
+        assertEquals(workflowRunIndex.getUserId(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID),
+                OTHER_TEST_USER_ID);
+    }
+
+    @Test
+    public void testIndexIsBounded() {
+
+        for (int i = 0; i <= OnfidoWorkflowRunIndex.MAX_INDEXED_WORKFLOW_RUNS; i++) {
+            workflowRunIndex.put(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID + i, TEST_USER_ID);
+        }
+
+        // The earliest indexed workflow run is evicted.
+        assertNull(workflowRunIndex.getUserId(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID + 0));
+        assertEquals(workflowRunIndex.getUserId(TEST_TENANT_ID, TEST_IDVP_ID, TEST_WORKFLOW_RUN_ID + 1), TEST_USER_ID);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.extension.identity.verification.mgt.model.IdVClaim;
+import org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+public class OnfidoWorkflowRunRecordTest {
+
+    private static final String TEST_APPLICANT_ID = "test_applicant_id";
+    private static final String TEST_WORKFLOW_RUN_ID = "test_workflow_run_id";
+    private static final String TEST_COMPLETED_AT = "2026-01-01T00:00:00Z";
+    private static final String TEST_SDK_TOKEN = "test_sdk_token";
+    private static final String ONFIDO_APPLICANT_ID = "onfido_applicant_id";
+    private static final String ONFIDO_WORKFLOW_RUN_ID = "onfido_workflow_run_id";
+    private static final String ONFIDO_WORKFLOW_STATUS = "onfido_workflow_status";
+    private static final String ONFIDO_COMPLETED_AT = "onfido_completed_at";
+    private static final String SDK_TOKEN = "sdk_token";
+
+    @Test
+    public void testInitiatedWorkflowRunMetadata() {
+
+        Map<String, Object> metadata =
+                new OnfidoWorkflowRunRecord(TEST_APPLICANT_ID, TEST_WORKFLOW_RUN_ID).toMetadata();
+
+        assertEquals(metadata.get(ONFIDO_APPLICANT_ID), TEST_APPLICANT_ID);
+        assertEquals(metadata.get(ONFIDO_WORKFLOW_RUN_ID), TEST_WORKFLOW_RUN_ID);
+        assertEquals(metadata.get(ONFIDO_WORKFLOW_STATUS),
+                OnfidoConstants.WorkflowRunStatus.AWAITING_INPUT.getStatus());
+        assertFalse(metadata.containsKey(ONFIDO_COMPLETED_AT));
+    }
+
+    @Test
+    public void testReferenceMetadata() {
+
+        Map<String, Object> metadata =
+                new OnfidoWorkflowRunRecord(TEST_APPLICANT_ID, TEST_WORKFLOW_RUN_ID).toReferenceMetadata();
+
+        assertEquals(metadata.get(ONFIDO_APPLICANT_ID), TEST_APPLICANT_ID);
+        assertEquals(metadata.get(ONFIDO_WORKFLOW_RUN_ID), TEST_WORKFLOW_RUN_ID);
+        assertFalse(metadata.containsKey(ONFIDO_WORKFLOW_STATUS));
+        assertFalse(metadata.containsKey(ONFIDO_COMPLETED_AT));
+    }
+
+    @Test
+    public void testRecordIsAppliedToRecordClaim() {
+
+        IdVClaim firstNameClaim = createReferencingIdVClaim();
+        IdVClaim lastNameClaim = createIdVClaim();
+        lastNameClaim.getMetadata().put(SDK_TOKEN, TEST_SDK_TOKEN);
+
+        // The record is read from the claim holding the workflow run status.
+        OnfidoWorkflowRunRecord workflowRunRecord =
+                OnfidoWorkflowRunRecord.fromIdVClaims(Arrays.asList(firstNameClaim, lastNameClaim));
+        assertEquals(workflowRunRecord.getApplicantId(), TEST_APPLICANT_ID);
+        assertEquals(workflowRunRecord.getWorkflowRunId(), TEST_WORKFLOW_RUN_ID);
+        assertEquals(workflowRunRecord.getStatus(), OnfidoConstants.WorkflowRunStatus.AWAITING_INPUT.getStatus());
+        assertNull(workflowRunRecord.getCompletedAt());
+
+        workflowRunRecord.setStatus(OnfidoConstants.WorkflowRunStatus.APPROVED);
+        workflowRunRecord.setCompletedAt(TEST_COMPLETED_AT);
+        workflowRunRecord.applyTo(Arrays.asList(firstNameClaim, lastNameClaim));
+
+        assertEquals(lastNameClaim.getMetadata().get(ONFIDO_WORKFLOW_STATUS),
+                OnfidoConstants.WorkflowRunStatus.APPROVED.getStatus());
+        assertEquals(lastNameClaim.getMetadata().get(ONFIDO_COMPLETED_AT), TEST_COMPLETED_AT);
+        assertEquals(lastNameClaim.getMetadata().get(SDK_TOKEN), TEST_SDK_TOKEN,
+                "The rest of the metadata of a claim should be kept.");
+        assertEquals(firstNameClaim.getMetadata(),
+                new OnfidoWorkflowRunRecord(TEST_APPLICANT_ID, TEST_WORKFLOW_RUN_ID).toReferenceMetadata(),
+                "The claims referencing the record should not be updated.");
+    }
+
+    @Test
+    public void testCopiesOfRecordAreRemovedFromOtherClaims() {
+
+        // Each claim kept a copy of the workflow run status before the record was kept by a single claim.
+        IdVClaim firstNameClaim = createIdVClaim();
+        IdVClaim lastNameClaim = createIdVClaim();
+
+        OnfidoWorkflowRunRecord workflowRunRecord =
+                OnfidoWorkflowRunRecord.fromIdVClaims(Arrays.asList(firstNameClaim, lastNameClaim));
+        workflowRunRecord.setStatus(OnfidoConstants.WorkflowRunStatus.PROCESSING);
+        workflowRunRecord.applyTo(Arrays.asList(firstNameClaim, lastNameClaim));
+
+        assertEquals(firstNameClaim.getMetadata().get(ONFIDO_WORKFLOW_STATUS),
+                OnfidoConstants.WorkflowRunStatus.PROCESSING.getStatus());
+        assertFalse(lastNameClaim.getMetadata().containsKey(ONFIDO_WORKFLOW_STATUS));
+        assertEquals(lastNameClaim.getMetadata().get(ONFIDO_WORKFLOW_RUN_ID), TEST_WORKFLOW_RUN_ID);
+    }
+
+    @Test
+    public void testRecordIsTakenByFirstClaimWithoutRecordClaim() {
+
+        IdVClaim firstNameClaim = createReferencingIdVClaim();
+        IdVClaim lastNameClaim = createReferencingIdVClaim();
+
+        OnfidoWorkflowRunRecord workflowRunRecord =
+                OnfidoWorkflowRunRecord.fromIdVClaims(Arrays.asList(firstNameClaim, lastNameClaim));
+        assertEquals(workflowRunRecord.getWorkflowRunId(), TEST_WORKFLOW_RUN_ID);
+        assertNull(workflowRunRecord.getStatus());
+
+        workflowRunRecord.setStatus(OnfidoConstants.WorkflowRunStatus.PROCESSING);
+        workflowRunRecord.applyTo(Arrays.asList(firstNameClaim, lastNameClaim));
+
+        assertEquals(firstNameClaim.getMetadata().get(ONFIDO_WORKFLOW_STATUS),
+                OnfidoConstants.WorkflowRunStatus.PROCESSING.getStatus());
+        assertFalse(lastNameClaim.getMetadata().containsKey(ONFIDO_WORKFLOW_STATUS));
+    }
+
+    @Test
+    public void testRecordIsCopiedToReturnedClaim() {
+
+        IdVClaim idVClaim = createReferencingIdVClaim();
+        idVClaim.getMetadata().put(SDK_TOKEN, TEST_SDK_TOKEN);
+        OnfidoWorkflowRunRecord workflowRunRecord =
+                new OnfidoWorkflowRunRecord(TEST_APPLICANT_ID, TEST_WORKFLOW_RUN_ID);
+        workflowRunRecord.setCompletedAt(TEST_COMPLETED_AT);
+
+        workflowRunRecord.copyTo(idVClaim);
+
+        assertEquals(idVClaim.getMetadata().get(ONFIDO_WORKFLOW_STATUS),
+                OnfidoConstants.WorkflowRunStatus.AWAITING_INPUT.getStatus());
+        assertEquals(idVClaim.getMetadata().get(ONFIDO_COMPLETED_AT), TEST_COMPLETED_AT);
+        assertEquals(idVClaim.getMetadata().get(SDK_TOKEN), TEST_SDK_TOKEN);
+    }
+
+    @Test
+    public void testNoRecordWithoutMetadata() {
+
+        assertNull(OnfidoWorkflowRunRecord.fromIdVClaims(Arrays.asList(new IdVClaim(), new IdVClaim())));
+    }
+
+    private IdVClaim createIdVClaim() {
+
+        IdVClaim idVClaim = new IdVClaim();
+        idVClaim.setMetadata(new OnfidoWorkflowRunRecord(TEST_APPLICANT_ID, TEST_WORKFLOW_RUN_ID).toMetadata());
+        return idVClaim;
+    }
+
+    private IdVClaim createReferencingIdVClaim() {
+
+        IdVClaim idVClaim = new IdVClaim();
+        idVClaim.setMetadata(
+                new OnfidoWorkflowRunRecord(TEST_APPLICANT_ID, TEST_WORKFLOW_RUN_ID).toReferenceMetadata());
+        return idVClaim;
+    }
+}
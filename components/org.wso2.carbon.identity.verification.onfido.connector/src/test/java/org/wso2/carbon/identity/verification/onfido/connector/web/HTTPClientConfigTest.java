@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.apache.http.pool.PoolStats;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class HTTPClientConfigTest {
+
+    private static final String BASE_URL = "base_url";
+    private static final String EU_BASE_URL = "https://api.eu.onfido.com/v3.6";
+    private static final String US_BASE_URL = "https://api.us.onfido.com/v3.6";
+    private static final String HTTP_MAX_CONNECTIONS = "http_max_connections";
+    private static final String HTTP_MAX_CONNECTIONS_PER_ROUTE = "http_max_connections_per_route";
+    private static final String HTTP_READ_TIMEOUT = "http_read_timeout";
+
+    @AfterMethod
+    public void tearDown() {
+
+        HTTPClientManager.shutdown();
+    }
+
+    @Test
+    public void testDefaultsWhenNotConfigured() {
+
+        HTTPClientConfig config = HTTPClientConfig.fromConfigProperties(createConfigPropertyMap(EU_BASE_URL));
+
+        assertEquals(config.getOrigin(), "https://api.eu.onfido.com:443");
+        assertEquals(config.getMaxConnections(), HTTPClientConfig.DEFAULT_MAX_CONNECTIONS);
+        assertEquals(config.getMaxConnectionsPerRoute(), HTTPClientConfig.DEFAULT_MAX_CONNECTIONS);
+        assertEquals(config.getConnectionTimeout(), HTTPClientConfig.DEFAULT_CONNECTION_TIMEOUT);
+        assertEquals(config.getReadTimeout(), HTTPClientConfig.DEFAULT_READ_TIMEOUT);
+        assertEquals(config.getConnectionRequestTimeout(), HTTPClientConfig.DEFAULT_CONNECTION_REQUEST_TIMEOUT);
+    }
+
+    @Test
+    public void testConfiguredValues() {
+
+        Map<String, String> idVConfigPropertyMap = createConfigPropertyMap(EU_BASE_URL);
+        idVConfigPropertyMap.put(HTTP_MAX_CONNECTIONS, "50");
+        idVConfigPropertyMap.put(HTTP_MAX_CONNECTIONS_PER_ROUTE, "100");
+        idVConfigPropertyMap.put(HTTP_READ_TIMEOUT, "10000");
+
+        HTTPClientConfig config = HTTPClientConfig.fromConfigProperties(idVConfigPropertyMap);
+
+        assertEquals(config.getMaxConnections(), 50);
+        // The per route limit cannot exceed the pool size.
+        assertEquals(config.getMaxConnectionsPerRoute(), 50);
+        assertEquals(config.getReadTimeout(), 10000);
+    }
+
+    @Test
+    public void testInvalidValuesFallBackToDefaults() {
+
+        Map<String, String> idVConfigPropertyMap = createConfigPropertyMap(EU_BASE_URL);
+        idVConfigPropertyMap.put(HTTP_MAX_CONNECTIONS, "-5");
+        idVConfigPropertyMap.put(HTTP_READ_TIMEOUT, "ten");
+
+        HTTPClientConfig config = HTTPClientConfig.fromConfigProperties(idVConfigPropertyMap);
+
+        assertEquals(config.getMaxConnections(), HTTPClientConfig.DEFAULT_MAX_CONNECTIONS);
+        assertEquals(config.getReadTimeout(), HTTPClientConfig.DEFAULT_READ_TIMEOUT);
+    }
+
+    @Test
+    public void testSeparatePoolPerBaseUrl() throws Exception {
+
+        HTTPClientConfig euConfig = HTTPClientConfig.fromConfigProperties(createConfigPropertyMap(EU_BASE_URL));
+        HTTPClientConfig euConfigOtherVersion = HTTPClientConfig.fromConfigProperties(
+                createConfigPropertyMap("https://API.eu.onfido.com:443/v3.5"));
+        HTTPClientConfig usConfig = HTTPClientConfig.fromConfigProperties(createConfigPropertyMap(US_BASE_URL));
+        assertEquals(euConfig, euConfigOtherVersion);
+        assertNotEquals(euConfig, usConfig);
+
+        HTTPClientManager httpClientManager = HTTPClientManager.getInstance();
+        assertNull(httpClientManager.getPoolStats(euConfig));
+        assertSame(httpClientManager.getHttpClient(euConfig), httpClientManager.getHttpClient(euConfigOtherVersion));
+        assertNotSame(httpClientManager.getHttpClient(euConfig), httpClientManager.getHttpClient(usConfig));
+
+        PoolStats poolStats = httpClientManager.getPoolStats(euConfig);
+        assertNotNull(poolStats);
+        assertEquals(poolStats.getMax(), HTTPClientConfig.DEFAULT_MAX_CONNECTIONS);
+        assertEquals(poolStats.getLeased(), 0);
+        assertEquals(httpClientManager.getPoolStats().size(), 2);
+    }
+
+    @Test
+    public void testPoolIsResizedInPlace() throws Exception {
+
+        HTTPClientConfig euConfig = HTTPClientConfig.fromConfigProperties(createConfigPropertyMap(EU_BASE_URL));
+        Map<String, String> idVConfigPropertyMap = createConfigPropertyMap(EU_BASE_URL);
+        idVConfigPropertyMap.put(HTTP_MAX_CONNECTIONS, "50");
+        idVConfigPropertyMap.put(HTTP_READ_TIMEOUT, "10000");
+        HTTPClientConfig resizedEuConfig = HTTPClientConfig.fromConfigProperties(idVConfigPropertyMap);
+
+        // A provider of the same origin with other pool settings shares the pool, which takes its higher limits.
+        HTTPClientManager httpClientManager = HTTPClientManager.getInstance();
+        assertSame(httpClientManager.getHttpClient(euConfig), httpClientManager.getHttpClient(resizedEuConfig));
+        assertEquals(httpClientManager.getPoolStats(euConfig).getMax(), 50);
+        assertEquals(httpClientManager.getPoolStats().size(), 1);
+
+        // The pool keeps the highest limits of the providers sharing it, rather than those of the last provider.
+        httpClientManager.getHttpClient(euConfig);
+        assertEquals(httpClientManager.getPoolStats(euConfig).getMax(), 50);
+
+        // The timeouts of each provider are applied to its own requests.
+        assertEquals(HTTPClientManager.getRequestConfig(resizedEuConfig).getSocketTimeout(), 10000);
+        assertEquals(HTTPClientManager.getRequestConfig(euConfig).getSocketTimeout(),
+                HTTPClientConfig.DEFAULT_READ_TIMEOUT);
+    }
+
+    private Map<String, String> createConfigPropertyMap(String baseUrl) {
+
+        Map<String, String> idVConfigPropertyMap = new HashMap<>();
+        idVConfigPropertyMap.put(BASE_URL, baseUrl);
+        return idVConfigPropertyMap;
+    }
+}
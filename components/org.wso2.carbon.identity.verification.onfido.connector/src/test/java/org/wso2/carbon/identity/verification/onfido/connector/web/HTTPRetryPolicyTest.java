@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpStatus;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.utils.DateUtils;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class HTTPRetryPolicyTest {
+
+    private static final String TEST_URL = "https://api.onfido.com/v3.6/applicants";
+    private static final String HTTP_MAX_RETRIES = "http_max_retries";
+    private static final String HTTP_RETRY_BASE_DELAY = "http_retry_base_delay";
+    private static final String HTTP_RETRY_MAX_DELAY = "http_retry_max_delay";
+
+    private final HTTPRetryPolicy retryPolicy = HTTPRetryPolicy.getDefault();
+
+    @Test
+    public void testConfiguredValues() {
+
+        Map<String, String> idVConfigPropertyMap = new HashMap<>();
+        idVConfigPropertyMap.put(HTTP_MAX_RETRIES, "0");
+        idVConfigPropertyMap.put(HTTP_RETRY_BASE_DELAY, "500");
+        idVConfigPropertyMap.put(HTTP_RETRY_MAX_DELAY, "ten");
+
+        HTTPRetryPolicy configuredPolicy = HTTPRetryPolicy.fromConfigProperties(idVConfigPropertyMap);
+
+        assertEquals(configuredPolicy.getMaxRetries(), 0);
+        assertEquals(configuredPolicy.getBaseDelay(), 500);
+        assertEquals(configuredPolicy.getMaxDelay(), HTTPRetryPolicy.DEFAULT_RETRY_MAX_DELAY);
+    }
+
+    @DataProvider(name = "statusCodes")
+    public Object[][] statusCodes() {
+
+        return new Object[][]{
+                {new HttpGet(TEST_URL), HttpStatus.SC_INTERNAL_SERVER_ERROR, true},
+                {new HttpPut(TEST_URL), HttpStatus.SC_BAD_GATEWAY, true},
+                {new HttpGet(TEST_URL), HttpStatus.SC_TOO_MANY_REQUESTS, true},
+                {new HttpGet(TEST_URL), HttpStatus.SC_NOT_FOUND, false},
+                {new HttpPost(TEST_URL), HttpStatus.SC_TOO_MANY_REQUESTS, true},
+                {new HttpPost(TEST_URL), HttpStatus.SC_SERVICE_UNAVAILABLE, true},
+                // Onfido may have created the resource before failing, hence the POST must not be repeated.
+                {new HttpPost(TEST_URL), HttpStatus.SC_INTERNAL_SERVER_ERROR, false},
+                {new HttpPost(TEST_URL), HttpStatus.SC_GATEWAY_TIMEOUT, false},
+                {new HttpPost(TEST_URL), HttpStatus.SC_UNPROCESSABLE_ENTITY, false}
+        };
+    }
+
+    @Test(dataProvider = "statusCodes")
+    public void testIsRetryableStatus(HttpRequest request, int statusCode, boolean expected) {
+
+        assertEquals(retryPolicy.isRetryable(request, statusCode), expected);
+    }
+
+    @DataProvider(name = "ioExceptions")
+    public Object[][] ioExceptions() {
+
+        return new Object[][]{
+                {new HttpGet(TEST_URL), new SocketException("Connection reset"), true},
+                {new HttpGet(TEST_URL), new SocketTimeoutException(), true},
+                {new HttpPut(TEST_URL), new NoHttpResponseException("No response"), true},
+                {new HttpPost(TEST_URL), new ConnectException(), true},
+                {new HttpPost(TEST_URL), new SocketException("Connection reset"), false},
+                {new HttpPost(TEST_URL), new SocketTimeoutException(), false},
+                {new HttpGet(TEST_URL), new IOException(), false}
+        };
+    }
+
+    @Test(dataProvider = "ioExceptions")
+    public void testIsRetryableException(HttpRequest request, IOException exception, boolean expected) {
+
+        assertEquals(retryPolicy.isRetryable(request, exception), expected);
+    }
+
+    @Test
+    public void testBackoffIsBounded() {
+
+        for (int retryCount = 0; retryCount < 40; retryCount++) {
+            long retryDelay = retryPolicy.getRetryDelay(retryCount, null);
+            long maxBackoff = Math.min(HTTPRetryPolicy.DEFAULT_RETRY_MAX_DELAY,
+                    (long) HTTPRetryPolicy.DEFAULT_RETRY_BASE_DELAY << Math.min(retryCount, 20));
+            assertTrue(retryDelay >= 0 && retryDelay <= maxBackoff, "Unexpected retry delay: " + retryDelay);
+        }
+    }
+
+    @Test
+    public void testRetryAfterIsHonoured() {
+
+        assertTrue(retryPolicy.getRetryDelay(0, "1") >= 1000);
+        assertTrue(retryPolicy.getRetryDelay(0, "invalid") <= HTTPRetryPolicy.DEFAULT_RETRY_BASE_DELAY);
+        // Waits longer than the maximum delay are not made, and the call fails instead.
+        assertEquals(retryPolicy.getRetryDelay(0, "30"), -1);
+        assertEquals(retryPolicy.getRetryDelay(0,
+                DateUtils.formatDate(new Date(System.currentTimeMillis() + 60000))), -1);
+    }
+}
@@ -18,6 +18,7 @@
 
 package org.wso2.carbon.identity.verification.onfido.connector.web;
 
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.HttpVersion;
@@ -26,21 +27,28 @@ import org.apache.http.message.BasicHttpResponse;
 import org.apache.http.message.BasicStatusLine;
 import org.json.JSONObject;
 import org.mockito.MockedStatic;
+import org.mockito.stubbing.Answer;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoClientException;
 import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoException;
 import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoApplicant;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoSdkToken;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoWorkflowRun;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.function.Function;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mockStatic;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertThrows;
 import static org.testng.Assert.fail;
 import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage;
@@ -65,6 +73,8 @@ public class OnfidoAPIClientTest {
     private static final String TEST_SDK_TOKEN = "test_sdk_token";
     private static final String STATUS = "status";
     private static final String TEST_STATUS_APPROVED = "approved";
+    private static final String TEST_STATUS_AWAITING_INPUT = "awaiting_input";
+    private static final String TEST_ETAG = "W/\"test-etag\"";
 
     private Map<String, String> idVConfigPropertyMap;
 
@@ -114,10 +124,9 @@ public class OnfidoAPIClientTest {
         responseJson.put(LAST_NAME, TEST_LAST_NAME);
 
         try (MockedStatic<OnfidoWebUtils> mockedOnfidoWebUtils = mockStatic(OnfidoWebUtils.class)) {
-            HttpResponse response = createMockResponse(responseJson, HttpStatus.SC_CREATED);
-            mockedOnfidoWebUtils.when(() -> OnfidoWebUtils.httpPost(any(), any(), any())).thenReturn(response);
+            mockResponse(mockedOnfidoWebUtils, responseJson, HttpStatus.SC_CREATED);
 
-            JSONObject result = OnfidoAPIClient.createApplicant(idVConfigPropertyMap, idvClaimsWithValues);
+            OnfidoApplicant result = OnfidoAPIClient.createApplicant(idVConfigPropertyMap, idvClaimsWithValues);
             validateApplicantResponse(result, APPLICANT_ID, TEST_FIRST_NAME, TEST_LAST_NAME);
         }
     }
@@ -133,15 +142,15 @@ public class OnfidoAPIClientTest {
         responseJson.put(APPLICANT_ID, TEST_APPLICANT_ID);
 
         try (MockedStatic<OnfidoWebUtils> mockedOnfidoWebUtils = mockStatic(OnfidoWebUtils.class)) {
-            HttpResponse response = createMockResponse(responseJson, HttpStatus.SC_CREATED);
-            mockedOnfidoWebUtils.when(() -> OnfidoWebUtils.httpPost(any(), any(), any())).thenReturn(response);
+            mockResponse(mockedOnfidoWebUtils, responseJson, HttpStatus.SC_CREATED);
 
-            JSONObject result = OnfidoAPIClient.createWorkflowRun(idVConfigPropertyMap, workflowRunRequestBody);
+            OnfidoWorkflowRun result =
+                    OnfidoAPIClient.createWorkflowRun(idVConfigPropertyMap, workflowRunRequestBody);
 
-            assertNotNull(result, "Result JSON object should not be null");
-            assertEquals(result.getString(ID), TEST_WORKFLOW_RUN_ID, "ID mismatch");
-            assertEquals(result.getString(WORKFLOW_ID), TEST_WORKFLOW_ID, "Workflow ID mismatch");
-            assertEquals(result.getString(APPLICANT_ID), TEST_APPLICANT_ID, "Applicant ID mismatch");
+            assertNotNull(result, "Result workflow run should not be null");
+            assertEquals(result.getId(), TEST_WORKFLOW_RUN_ID, "ID mismatch");
+            assertEquals(result.getWorkflowId(), TEST_WORKFLOW_ID, "Workflow ID mismatch");
+            assertEquals(result.getApplicantId(), TEST_APPLICANT_ID, "Applicant ID mismatch");
         }
     }
 
@@ -154,13 +163,12 @@ public class OnfidoAPIClientTest {
         responseJson.put(TOKEN, TEST_SDK_TOKEN);
 
         try (MockedStatic<OnfidoWebUtils> mockedOnfidoWebUtils = mockStatic(OnfidoWebUtils.class)) {
-            HttpResponse response = createMockResponse(responseJson, HttpStatus.SC_OK);
-            mockedOnfidoWebUtils.when(() -> OnfidoWebUtils.httpPost(any(), any(), any())).thenReturn(response);
+            mockResponse(mockedOnfidoWebUtils, responseJson, HttpStatus.SC_OK);
 
-            JSONObject result = OnfidoAPIClient.createSDKToken(idVConfigPropertyMap, sdkTokenRequestBody);
+            OnfidoSdkToken result = OnfidoAPIClient.createSDKToken(idVConfigPropertyMap, sdkTokenRequestBody);
 
-            assertNotNull(result, "Result JSON object should not be null");
-            assertEquals(result.getString(TOKEN), TEST_SDK_TOKEN, "SDK token mismatch");
+            assertNotNull(result, "Result SDK token should not be null");
+            assertEquals(result.getToken(), TEST_SDK_TOKEN, "SDK token mismatch");
         }
     }
 
@@ -175,10 +183,9 @@ public class OnfidoAPIClientTest {
         responseJson.put(LAST_NAME, TEST_LAST_NAME);
 
         try (MockedStatic<OnfidoWebUtils> mockedOnfidoWebUtils = mockStatic(OnfidoWebUtils.class)) {
-            HttpResponse response = createMockResponse(responseJson, HttpStatus.SC_OK);
-            mockedOnfidoWebUtils.when(() -> OnfidoWebUtils.httpPut(any(), any(), any())).thenReturn(response);
+            mockResponse(mockedOnfidoWebUtils, responseJson, HttpStatus.SC_OK);
 
-            JSONObject result =
+            OnfidoApplicant result =
                     OnfidoAPIClient.updateApplicant(idVConfigPropertyMap, idvClaimsWithValues, TEST_APPLICANT_ID);
 
             validateApplicantResponse(result, TEST_APPLICANT_ID, TEST_FIRST_NAME, TEST_LAST_NAME);
@@ -195,16 +202,16 @@ public class OnfidoAPIClientTest {
         responseJson.put(STATUS, TEST_STATUS_APPROVED);
 
         try (MockedStatic<OnfidoWebUtils> mockedOnfidoWebUtils = mockStatic(OnfidoWebUtils.class)) {
-            HttpResponse response = createMockResponse(responseJson, HttpStatus.SC_OK);
-            mockedOnfidoWebUtils.when(() -> OnfidoWebUtils.httpGet(any(), any())).thenReturn(response);
+            mockResponse(mockedOnfidoWebUtils, responseJson, HttpStatus.SC_OK);
 
-            JSONObject result = OnfidoAPIClient.getWorkflowRunStatus(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID);
+            OnfidoWorkflowRun result =
+                    OnfidoAPIClient.getWorkflowRunStatus(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID);
 
-            assertNotNull(result, "Result JSON object should not be null");
-            assertEquals(result.getString(ID), TEST_WORKFLOW_RUN_ID, "Workflow run ID mismatch");
-            assertEquals(result.getString(APPLICANT_ID), TEST_APPLICANT_ID, "Applicant ID mismatch");
-            assertEquals(result.getString(WORKFLOW_ID), TEST_WORKFLOW_ID, "Workflow ID mismatch");
-            assertEquals(result.getString(STATUS), TEST_STATUS_APPROVED, "Status mismatch");
+            assertNotNull(result, "Result workflow run should not be null");
+            assertEquals(result.getId(), TEST_WORKFLOW_RUN_ID, "Workflow run ID mismatch");
+            assertEquals(result.getApplicantId(), TEST_APPLICANT_ID, "Applicant ID mismatch");
+            assertEquals(result.getWorkflowId(), TEST_WORKFLOW_ID, "Workflow ID mismatch");
+            assertEquals(result.getStatus(), TEST_STATUS_APPROVED, "Status mismatch");
         }
     }
 
@@ -262,6 +269,30 @@ public class OnfidoAPIClientTest {
                 }, null);
     }
 
+    @Test
+    public void testRevalidateWorkflowRunStatus() throws Exception {
+
+        JSONObject responseJson = new JSONObject();
+        responseJson.put(ID, TEST_WORKFLOW_RUN_ID);
+        responseJson.put(STATUS, TEST_STATUS_AWAITING_INPUT);
+
+        try (MockedStatic<OnfidoWebUtils> mockedOnfidoWebUtils = mockStatic(OnfidoWebUtils.class)) {
+            mockResponse(mockedOnfidoWebUtils, responseJson, HttpStatus.SC_OK, TEST_ETAG);
+            OnfidoWorkflowRun cachedWorkflowRun =
+                    OnfidoAPIClient.getWorkflowRunStatus(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID);
+            assertEquals(cachedWorkflowRun.getETag(), TEST_ETAG, "Entity tag mismatch");
+
+            // Onfido responds without the workflow run if it has not changed.
+            mockResponse(mockedOnfidoWebUtils, new JSONObject(), HttpStatus.SC_NOT_MODIFIED, TEST_ETAG);
+            OnfidoWorkflowRun result = OnfidoAPIClient.getWorkflowRunStatus(idVConfigPropertyMap,
+                    TEST_WORKFLOW_RUN_ID, cachedWorkflowRun);
+
+            assertSame(result, cachedWorkflowRun, "The cached workflow run should be returned if it is not modified");
+            mockedOnfidoWebUtils.verify(() -> OnfidoWebUtils.httpGet(any(), any(),
+                    eq(Collections.singletonMap(HttpHeaders.IF_NONE_MATCH, TEST_ETAG)), any()));
+        }
+    }
+
     @Test
     public void testGetWorkflowRunStatusWithErrorResponse() throws Exception {
 
@@ -274,15 +305,12 @@ public class OnfidoAPIClientTest {
                 }, null);
     }
 
-    private void testErrorResponse(Callable<JSONObject> apiCall, Function<Integer, ErrorMessage> serverErrorMapper,
+    private void testErrorResponse(Callable<?> apiCall, Function<Integer, ErrorMessage> serverErrorMapper,
                                    Function<Integer, ErrorMessage> clientErrorMapper) throws Exception {
 
         for (int statusCode : ERROR_STATUS_CODES) {
             try (MockedStatic<OnfidoWebUtils> mockedOnfidoWebUtils = mockStatic(OnfidoWebUtils.class)) {
-                HttpResponse response = createMockResponse(new JSONObject(), statusCode);
-                mockedOnfidoWebUtils.when(() -> OnfidoWebUtils.httpPost(any(), any(), any())).thenReturn(response);
-                mockedOnfidoWebUtils.when(() -> OnfidoWebUtils.httpPut(any(), any(), any())).thenReturn(response);
-                mockedOnfidoWebUtils.when(() -> OnfidoWebUtils.httpGet(any(), any())).thenReturn(response);
+                mockResponse(mockedOnfidoWebUtils, new JSONObject(), statusCode);
 
                 assertThrows(OnfidoException.class, apiCall::call);
 
@@ -313,18 +341,43 @@ public class OnfidoAPIClientTest {
         }
     }
 
-    private HttpResponse createMockResponse(JSONObject responseJson, int statusCode) throws Exception {
+    /**
+     * Makes the mocked HTTP calls pass the given response to the response handler of the API client.
+     */
+    private void mockResponse(MockedStatic<OnfidoWebUtils> mockedOnfidoWebUtils, JSONObject responseJson,
+                              int statusCode) {
 
-        HttpResponse response = new BasicHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, statusCode, null));
-        response.setEntity(new StringEntity(responseJson.toString()));
-        return response;
+        mockResponse(mockedOnfidoWebUtils, responseJson, statusCode, null);
+    }
+
+    /**
+     * Makes the mocked HTTP calls pass the given response, with the given entity tag if any, to the response handler
+     * of the API client.
+     */
+    private void mockResponse(MockedStatic<OnfidoWebUtils> mockedOnfidoWebUtils, JSONObject responseJson,
+                              int statusCode, String eTag) {
+
+        Answer<Object> answer = invocation -> {
+            OnfidoResponseHandler<?> responseHandler =
+                    invocation.getArgument(invocation.getArguments().length - 1);
+            HttpResponse response = new BasicHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, statusCode, null));
+            response.setEntity(new StringEntity(responseJson.toString()));
+            if (eTag != null) {
+                response.addHeader(HttpHeaders.ETAG, eTag);
+            }
+            return responseHandler.handleResponse(response);
+        };
+        mockedOnfidoWebUtils.when(() -> OnfidoWebUtils.httpPost(any(), any(), any(), any())).thenAnswer(answer);
+        mockedOnfidoWebUtils.when(() -> OnfidoWebUtils.httpPut(any(), any(), any(), any())).thenAnswer(answer);
+        mockedOnfidoWebUtils.when(() -> OnfidoWebUtils.httpGet(any(), any(), any())).thenAnswer(answer);
+        mockedOnfidoWebUtils.when(() -> OnfidoWebUtils.httpGet(any(), any(), any(), any())).thenAnswer(answer);
     }
 
-    private void validateApplicantResponse(JSONObject result, String id, String firstName, String lastName) {
+    private void validateApplicantResponse(OnfidoApplicant result, String id, String firstName, String lastName) {
 
-        assertNotNull(result, "Result JSON object should not be null");
-        assertEquals(result.getString(ID), id, "ID mismatch");
-        assertEquals(result.getString(FIRST_NAME), firstName, "First name mismatch");
-        assertEquals(result.getString(LAST_NAME), lastName, "Last name mismatch");
+        assertNotNull(result, "Result applicant should not be null");
+        assertEquals(result.getId(), id, "ID mismatch");
+        assertEquals(result.getFirstName(), firstName, "First name mismatch");
+        assertEquals(result.getLastName(), lastName, "Last name mismatch");
     }
 }
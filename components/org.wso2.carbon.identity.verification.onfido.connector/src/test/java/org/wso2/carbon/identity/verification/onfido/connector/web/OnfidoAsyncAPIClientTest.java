@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.json.JSONObject;
+import org.mockito.MockedStatic;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoClientException;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoSdkToken;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoWorkflowRun;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mockStatic;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_CREATING_WORKFLOW_RUN;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_INVALID_TOKEN;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_ONFIDO_REQUEST_REJECTED;
+
+public class OnfidoAsyncAPIClientTest {
+
+    private static final String TOKEN = "token";
+    private static final String TEST_TOKEN = "test-token";
+    private static final String BASE_URL = "base_url";
+    private static final String TEST_BASE_URL = "https://api.onfido.com/v3.6";
+    private static final String TEST_WORKFLOW_RUN_ID = "test_workflow_run_id";
+    private static final String TEST_SDK_TOKEN = "test_sdk_token";
+
+    private Map<String, String> idVConfigPropertyMap;
+    private OnfidoAsyncAPIClient asyncAPIClient;
+
+    @BeforeMethod
+    public void setUp() {
+
+        idVConfigPropertyMap = new HashMap<>();
+        idVConfigPropertyMap.put(TOKEN, TEST_TOKEN);
+        idVConfigPropertyMap.put(BASE_URL, TEST_BASE_URL);
+        // Run the calls on the test thread so that the static mocks apply to them.
+        asyncAPIClient = new OnfidoAsyncAPIClient(Runnable::run);
+    }
+
+    @Test
+    public void testCreateWorkflowRun() throws Exception {
+
+        OnfidoWorkflowRun workflowRun = new OnfidoWorkflowRun();
+        workflowRun.setId(TEST_WORKFLOW_RUN_ID);
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.createWorkflowRun(any(), any()))
+                    .thenReturn(workflowRun);
+
+            CompletableFuture<OnfidoWorkflowRun> future = asyncAPIClient.createWorkflowRun(idVConfigPropertyMap,
+                    new JSONObject());
+            assertEquals(OnfidoAsyncAPIClient.join(future).getId(), TEST_WORKFLOW_RUN_ID);
+        }
+    }
+
+    @Test
+    public void testCreateSDKToken() throws Exception {
+
+        OnfidoSdkToken sdkToken = new OnfidoSdkToken();
+        sdkToken.setToken(TEST_SDK_TOKEN);
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.createSDKToken(any(), any())).thenReturn(sdkToken);
+
+            OnfidoSdkToken result = OnfidoAsyncAPIClient.join(
+                    asyncAPIClient.createSDKToken(idVConfigPropertyMap, new JSONObject()));
+            assertEquals(result.getToken(), TEST_SDK_TOKEN);
+        }
+    }
+
+    @Test
+    public void testClientExceptionIsUnwrapped() {
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.createSDKToken(any(), any()))
+                    .thenThrow(new OnfidoClientException(ERROR_INVALID_TOKEN.getCode(),
+                            ERROR_INVALID_TOKEN.getMessage()));
+
+            CompletableFuture<?> future = asyncAPIClient.createSDKToken(idVConfigPropertyMap,
+                    new JSONObject());
+            assertTrue(future.isCompletedExceptionally());
+            OnfidoClientException exception = expectThrows(OnfidoClientException.class, future);
+            assertEquals(exception.getErrorCode(), ERROR_INVALID_TOKEN.getCode());
+        }
+    }
+
+    @Test
+    public void testServerExceptionIsUnwrapped() {
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.createWorkflowRun(any(), any()))
+                    .thenThrow(new OnfidoServerException(ERROR_CREATING_WORKFLOW_RUN.getCode(),
+                            ERROR_CREATING_WORKFLOW_RUN.getMessage()));
+
+            OnfidoServerException exception = expectThrows(OnfidoServerException.class,
+                    asyncAPIClient.createWorkflowRun(idVConfigPropertyMap, new JSONObject()));
+            assertEquals(exception.getErrorCode(), ERROR_CREATING_WORKFLOW_RUN.getCode());
+        }
+    }
+
+    @Test
+    public void testErrorCompletesFuture() {
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.createWorkflowRun(any(), any()))
+                    .thenThrow(new StackOverflowError());
+
+            // A waiting caller gets the error back rather than waiting for a future that never completes.
+            expectThrows(StackOverflowError.class,
+                    asyncAPIClient.createWorkflowRun(idVConfigPropertyMap, new JSONObject()));
+        }
+    }
+
+    @Test
+    public void testRejectedCall() {
+
+        OnfidoAsyncAPIClient saturatedClient = new OnfidoAsyncAPIClient(runnable -> {
+            throw new RejectedExecutionException();
+        });
+        OnfidoServerException exception = expectThrows(OnfidoServerException.class,
+                saturatedClient.createWorkflowRun(idVConfigPropertyMap, new JSONObject()));
+        assertEquals(exception.getErrorCode(), ERROR_ONFIDO_REQUEST_REJECTED.getCode());
+    }
+
+    private <T extends Throwable> T expectThrows(Class<T> exceptionClass, CompletableFuture<?> future) {
+
+        return Assert.expectThrows(exceptionClass, () -> OnfidoAsyncAPIClient.join(future));
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.expectThrows;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_ONFIDO_CIRCUIT_OPEN;
+
+public class OnfidoCircuitBreakerTest {
+
+    private static final String ORIGIN = "https://api.eu.onfido.com:443";
+    private static final URI APPLICANTS_URI = URI.create("https://api.eu.onfido.com/v3.6/applicants/applicant_id");
+    private static final URI WORKFLOW_RUNS_URI = URI.create("https://api.eu.onfido.com/v3.6/workflow_runs");
+    private static final String CIRCUIT_BREAKER_WINDOW_SIZE = "circuit_breaker_window_size";
+    private static final String CIRCUIT_BREAKER_MINIMUM_CALLS = "circuit_breaker_minimum_calls";
+    private static final String CIRCUIT_BREAKER_OPEN_DURATION = "circuit_breaker_open_duration";
+    private static final String CIRCUIT_BREAKER_HALF_OPEN_PROBES = "circuit_breaker_half_open_probes";
+    private static final String CIRCUIT_BREAKER_SLOW_CALL_DURATION = "circuit_breaker_slow_call_duration";
+    private static final long FAST_CALL = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AtomicLong nanoClock = new AtomicLong();
+    private OnfidoCircuitBreaker onfidoCircuitBreaker;
+    private Map<String, String> idVConfigPropertyMap;
+
+    @BeforeMethod
+    public void setUp() {
+
+        onfidoCircuitBreaker = new OnfidoCircuitBreaker(nanoClock::get);
+        idVConfigPropertyMap = new HashMap<>();
+        idVConfigPropertyMap.put(CIRCUIT_BREAKER_WINDOW_SIZE, "4");
+        idVConfigPropertyMap.put(CIRCUIT_BREAKER_MINIMUM_CALLS, "4");
+        idVConfigPropertyMap.put(CIRCUIT_BREAKER_OPEN_DURATION, "50");
+        idVConfigPropertyMap.put(CIRCUIT_BREAKER_HALF_OPEN_PROBES, "1");
+        idVConfigPropertyMap.put(CIRCUIT_BREAKER_SLOW_CALL_DURATION, "1000");
+    }
+
+    @Test
+    public void testCircuitBreakerPerEndpoint() {
+
+        OnfidoCircuitBreaker.CircuitBreaker applicantsCircuitBreaker =
+                onfidoCircuitBreaker.getCircuitBreaker(idVConfigPropertyMap, ORIGIN, APPLICANTS_URI);
+        assertSame(onfidoCircuitBreaker.getCircuitBreaker(idVConfigPropertyMap, ORIGIN,
+                URI.create("https://api.eu.onfido.com/v3.6/applicants")), applicantsCircuitBreaker);
+        assertNotSame(onfidoCircuitBreaker.getCircuitBreaker(idVConfigPropertyMap, ORIGIN, WORKFLOW_RUNS_URI),
+                applicantsCircuitBreaker);
+        assertEquals(onfidoCircuitBreaker.getStates().size(), 2);
+
+        idVConfigPropertyMap.put(CIRCUIT_BREAKER_WINDOW_SIZE, "0");
+        assertNull(onfidoCircuitBreaker.getCircuitBreaker(idVConfigPropertyMap, ORIGIN, APPLICANTS_URI));
+    }
+
+    @Test
+    public void testOpensOnFailureRateAndClosesAfterProbe() throws Exception {
+
+        OnfidoCircuitBreaker.CircuitBreaker circuitBreaker =
+                onfidoCircuitBreaker.getCircuitBreaker(idVConfigPropertyMap, ORIGIN, APPLICANTS_URI);
+        recordCall(circuitBreaker, true, FAST_CALL);
+        recordCall(circuitBreaker, true, FAST_CALL);
+        recordCall(circuitBreaker, false, FAST_CALL);
+        assertEquals(circuitBreaker.getState(), OnfidoCircuitBreaker.State.CLOSED);
+        // Two out of four calls failed, which reaches the default failure rate threshold of 50%.
+        recordCall(circuitBreaker, false, FAST_CALL);
+        assertEquals(circuitBreaker.getState(), OnfidoCircuitBreaker.State.OPEN);
+
+        OnfidoServerException exception = expectThrows(OnfidoServerException.class,
+                circuitBreaker::acquirePermission);
+        assertEquals(exception.getErrorCode(), ERROR_ONFIDO_CIRCUIT_OPEN.getCode());
+
+        nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        circuitBreaker.acquirePermission();
+        assertEquals(circuitBreaker.getState(), OnfidoCircuitBreaker.State.HALF_OPEN);
+        // Only the configured number of probes is let through while half open.
+        expectThrows(OnfidoServerException.class, circuitBreaker::acquirePermission);
+        circuitBreaker.onResult(true, FAST_CALL);
+        assertEquals(circuitBreaker.getState(), OnfidoCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testOpensOnSlowCallsAndReopensOnFailedProbe() throws Exception {
+
+        OnfidoCircuitBreaker.CircuitBreaker circuitBreaker =
+                onfidoCircuitBreaker.getCircuitBreaker(idVConfigPropertyMap, ORIGIN, WORKFLOW_RUNS_URI);
+        for (int i = 0; i < 4; i++) {
+            recordCall(circuitBreaker, true, TimeUnit.SECONDS.toNanos(2));
+        }
+        assertEquals(circuitBreaker.getState(), OnfidoCircuitBreaker.State.OPEN);
+
+        nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        circuitBreaker.acquirePermission();
+        circuitBreaker.onResult(false, FAST_CALL);
+        assertEquals(circuitBreaker.getState(), OnfidoCircuitBreaker.State.OPEN);
+        expectThrows(OnfidoServerException.class, circuitBreaker::acquirePermission);
+    }
+
+    @Test
+    public void testReleasedProbe() throws Exception {
+
+        OnfidoCircuitBreaker.CircuitBreaker circuitBreaker =
+                onfidoCircuitBreaker.getCircuitBreaker(idVConfigPropertyMap, ORIGIN, APPLICANTS_URI);
+        for (int i = 0; i < 4; i++) {
+            recordCall(circuitBreaker, false, FAST_CALL);
+        }
+        nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        circuitBreaker.acquirePermission();
+        circuitBreaker.releasePermission();
+        // The released probe can be taken by another call.
+        circuitBreaker.acquirePermission();
+        assertEquals(circuitBreaker.getState(), OnfidoCircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    public void testSettingsAreUpdatedInPlace() throws Exception {
+
+        // Another IdV provider of the same origin with other settings shares the circuit breaker, which keeps
+        // counting the calls of both providers.
+        Map<String, String> otherIdVConfigPropertyMap = new HashMap<>(idVConfigPropertyMap);
+        otherIdVConfigPropertyMap.put(CIRCUIT_BREAKER_OPEN_DURATION, "100");
+        OnfidoCircuitBreaker.CircuitBreaker circuitBreaker =
+                onfidoCircuitBreaker.getCircuitBreaker(idVConfigPropertyMap, ORIGIN, APPLICANTS_URI);
+        for (int i = 0; i < 4; i++) {
+            Map<String, String> callingIdVConfigPropertyMap = i % 2 == 0 ? idVConfigPropertyMap :
+                    otherIdVConfigPropertyMap;
+            assertSame(onfidoCircuitBreaker.getCircuitBreaker(callingIdVConfigPropertyMap, ORIGIN, APPLICANTS_URI),
+                    circuitBreaker);
+            recordCall(circuitBreaker, i < 2, FAST_CALL);
+        }
+        assertEquals(circuitBreaker.getState(), OnfidoCircuitBreaker.State.OPEN);
+
+        // The circuit stays open for the open duration last applied.
+        nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        expectThrows(OnfidoServerException.class, circuitBreaker::acquirePermission);
+        nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        circuitBreaker.acquirePermission();
+        assertEquals(circuitBreaker.getState(), OnfidoCircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    public void testWindowIsKeptOnResize() throws Exception {
+
+        OnfidoCircuitBreaker.CircuitBreaker circuitBreaker =
+                onfidoCircuitBreaker.getCircuitBreaker(idVConfigPropertyMap, ORIGIN, APPLICANTS_URI);
+        for (int i = 0; i < 3; i++) {
+            recordCall(circuitBreaker, false, FAST_CALL);
+        }
+        assertEquals(circuitBreaker.getState(), OnfidoCircuitBreaker.State.CLOSED);
+
+        // The failed calls recorded before the window grows still count towards opening the circuit.
+        idVConfigPropertyMap.put(CIRCUIT_BREAKER_WINDOW_SIZE, "8");
+        assertSame(onfidoCircuitBreaker.getCircuitBreaker(idVConfigPropertyMap, ORIGIN, APPLICANTS_URI),
+                circuitBreaker);
+        recordCall(circuitBreaker, false, FAST_CALL);
+        assertEquals(circuitBreaker.getState(), OnfidoCircuitBreaker.State.OPEN);
+    }
+
+    private void recordCall(OnfidoCircuitBreaker.CircuitBreaker circuitBreaker, boolean successful,
+                            long durationNanos) throws OnfidoServerException {
+
+        circuitBreaker.acquirePermission();
+        circuitBreaker.onResult(successful, durationNanos);
+    }
+}
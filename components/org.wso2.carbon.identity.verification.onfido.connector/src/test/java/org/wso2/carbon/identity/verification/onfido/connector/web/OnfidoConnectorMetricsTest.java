@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class OnfidoConnectorMetricsTest {
+
+    private static final String TOKEN = "token";
+    private static final String TEST_TOKEN = "test-token";
+    private static final String RATE_LIMIT_REQUESTS_PER_MINUTE = "rate_limit_requests_per_minute";
+    private static final String TEST_ORIGIN = "https://api.eu.onfido.com:443";
+    private static final String BASE_URL = "base_url";
+    private static final String TEST_BASE_URL = "https://api.eu.onfido.com/v3.6";
+    private static final int TEST_TENANT_ID = 1;
+
+    private MBeanServer mBeanServer;
+    private OnfidoRateLimiter rateLimiter;
+    private OnfidoCircuitBreaker circuitBreaker;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        mBeanServer = MBeanServerFactory.newMBeanServer();
+        rateLimiter = new OnfidoRateLimiter(System::nanoTime);
+        circuitBreaker = new OnfidoCircuitBreaker(System::nanoTime);
+        OnfidoConnectorMetrics.register(mBeanServer, new OnfidoConnectorMetrics(rateLimiter, circuitBreaker,
+                OnfidoTenantBulkhead.getInstance(), HTTPClientManager.getInstance()));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        OnfidoTenantBulkhead.getInstance().clear();
+        HTTPClientManager.shutdown();
+    }
+
+    @Test
+    public void testRateLimitersAreExposed() throws Exception {
+
+        Map<String, String> idVConfigPropertyMap = new HashMap<>();
+        idVConfigPropertyMap.put(TOKEN, TEST_TOKEN);
+        idVConfigPropertyMap.put(RATE_LIMIT_REQUESTS_PER_MINUTE, "60");
+        rateLimiter.acquire(idVConfigPropertyMap);
+
+        String[] rateLimiters = (String[]) getAttribute("RateLimiters");
+        assertEquals(rateLimiters.length, 1);
+        assertTrue(rateLimiters[0].contains("acquiredRequests=1"));
+        assertFalse(rateLimiters[0].contains(TEST_TOKEN), "The API token should not be exposed through JMX.");
+    }
+
+    @Test
+    public void testCircuitBreakersAreExposed() throws Exception {
+
+        circuitBreaker.getCircuitBreaker(new HashMap<>(), TEST_ORIGIN,
+                URI.create(TEST_ORIGIN + "/v3.6/workflow_runs/test-workflow-run-id"));
+
+        String[] circuitBreakers = (String[]) getAttribute("CircuitBreakers");
+        assertEquals(circuitBreakers, new String[]{TEST_ORIGIN + " workflow_runs CLOSED"});
+    }
+
+    @Test
+    public void testTenantBulkheadsAreExposed() throws Exception {
+
+        Map<String, String> idVConfigPropertyMap = new HashMap<>();
+        idVConfigPropertyMap.put(BASE_URL, TEST_BASE_URL);
+        OnfidoTenantBulkhead.getInstance().getBulkhead(idVConfigPropertyMap,
+                HTTPClientConfig.fromConfigProperties(idVConfigPropertyMap), TEST_TENANT_ID).acquirePermission();
+
+        String[] tenantBulkheads = (String[]) getAttribute("TenantBulkheads");
+        assertEquals(tenantBulkheads.length, 1);
+        assertTrue(tenantBulkheads[0].startsWith(TEST_TENANT_ID + " " + TEST_ORIGIN));
+        assertTrue(tenantBulkheads[0].contains("activeCalls=1"));
+    }
+
+    @Test
+    public void testHttpConnectionPoolsAreExposed() throws Exception {
+
+        Map<String, String> idVConfigPropertyMap = new HashMap<>();
+        idVConfigPropertyMap.put(BASE_URL, TEST_BASE_URL);
+        HTTPClientManager.getInstance().getHttpClient(HTTPClientConfig.fromConfigProperties(idVConfigPropertyMap));
+
+        String[] httpConnectionPools = (String[]) getAttribute("HttpConnectionPools");
+        assertEquals(httpConnectionPools.length, 1);
+        assertTrue(httpConnectionPools[0].startsWith(TEST_ORIGIN + " "));
+        assertTrue(httpConnectionPools[0].contains("leased: 0"));
+        assertTrue(httpConnectionPools[0].contains("max: " + HTTPClientConfig.DEFAULT_MAX_CONNECTIONS));
+    }
+
+    @Test
+    public void testMetricsAreUnregistered() throws Exception {
+
+        OnfidoConnectorMetrics.unregister(mBeanServer);
+        assertFalse(mBeanServer.isRegistered(new ObjectName(OnfidoConnectorMetrics.OBJECT_NAME)));
+    }
+
+    private Object getAttribute(String attribute) throws Exception {
+
+        return mBeanServer.getAttribute(new ObjectName(OnfidoConnectorMetrics.OBJECT_NAME), attribute);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_ONFIDO_RATE_LIMIT_EXCEEDED;
+
+public class OnfidoRateLimiterTest {
+
+    private static final String TOKEN = "token";
+    private static final String TEST_TOKEN = "test-token";
+    private static final String OTHER_TEST_TOKEN = "other-test-token";
+    private static final String RATE_LIMIT_REQUESTS_PER_MINUTE = "rate_limit_requests_per_minute";
+    private static final String RATE_LIMIT_BURST = "rate_limit_burst";
+    private static final String RATE_LIMIT_MAX_WAITING_REQUESTS = "rate_limit_max_waiting_requests";
+    private static final String RATE_LIMIT_MAX_WAIT = "rate_limit_max_wait";
+
+    private final AtomicLong nanoClock = new AtomicLong();
+    private OnfidoRateLimiter rateLimiter;
+
+    @BeforeMethod
+    public void setUp() {
+
+        rateLimiter = new OnfidoRateLimiter(nanoClock::get);
+    }
+
+    @Test
+    public void testFailFastWhenBurstIsUsed() throws Exception {
+
+        // One request per minute, without waiting, allows only the burst of two requests.
+        Map<String, String> idVConfigPropertyMap = createConfigPropertyMap(TEST_TOKEN, "1", "2", "0");
+
+        rateLimiter.acquire(idVConfigPropertyMap);
+        rateLimiter.acquire(idVConfigPropertyMap);
+        OnfidoServerException exception = expectThrows(OnfidoServerException.class,
+                () -> rateLimiter.acquire(idVConfigPropertyMap));
+        assertEquals(exception.getErrorCode(), ERROR_ONFIDO_RATE_LIMIT_EXCEEDED.getCode());
+
+        // Another API token has its own limit.
+        rateLimiter.acquire(createConfigPropertyMap(OTHER_TEST_TOKEN, "1", "2", "0"));
+
+        Map<String, OnfidoRateLimiter.RateLimiterStats> stats = rateLimiter.getStats();
+        assertEquals(stats.size(), 2);
+        assertFalse(stats.containsKey(TEST_TOKEN), "The API token should not be exposed through the stats.");
+        long rejectedRequests = stats.values().stream()
+                .mapToLong(OnfidoRateLimiter.RateLimiterStats::getRejectedRequests).sum();
+        assertEquals(rejectedRequests, 1);
+    }
+
+    @Test
+    public void testWaitForPermit() throws Exception {
+
+        // 6000 requests per minute refills a permit every 10 milliseconds.
+        Map<String, String> idVConfigPropertyMap = createConfigPropertyMap(TEST_TOKEN, "6000", "1", "5");
+
+        // Requests beyond the burst wait for their turn.
+        for (int i = 0; i < 4; i++) {
+            assertEquals(TimeUnit.NANOSECONDS.toMillis(rateLimiter.reserve(idVConfigPropertyMap)), i * 10);
+        }
+        assertEquals(getStats().getWaitingRequests(), 3);
+
+        // Once the reserved permits are refilled, a request does not wait.
+        nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(rateLimiter.reserve(idVConfigPropertyMap), 0);
+    }
+
+    @Test
+    public void testSettingsAreUpdatedInPlace() throws Exception {
+
+        Map<String, String> idVConfigPropertyMap = createConfigPropertyMap(TEST_TOKEN, "1", "2", "0");
+        rateLimiter.acquire(idVConfigPropertyMap);
+        rateLimiter.acquire(idVConfigPropertyMap);
+
+        // Another IdV provider using the same API token with a larger burst shares the bucket, which is not refilled
+        // by the change of the settings.
+        Map<String, String> otherIdVConfigPropertyMap = createConfigPropertyMap(TEST_TOKEN, "1", "5", "0");
+        expectThrows(OnfidoServerException.class, () -> rateLimiter.acquire(otherIdVConfigPropertyMap));
+        expectThrows(OnfidoServerException.class, () -> rateLimiter.acquire(idVConfigPropertyMap));
+        assertEquals(rateLimiter.getStats().size(), 1);
+        assertEquals(getStats().getAcquiredRequests(), 2);
+
+        // The bucket is refilled at the rate of the settings last applied.
+        otherIdVConfigPropertyMap.put(RATE_LIMIT_REQUESTS_PER_MINUTE, "60");
+        expectThrows(OnfidoServerException.class, () -> rateLimiter.acquire(otherIdVConfigPropertyMap));
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        rateLimiter.acquire(otherIdVConfigPropertyMap);
+    }
+
+    @Test
+    public void testFailFastWhenWaitExceedsLimit() throws Exception {
+
+        // A permit is refilled every second, which is longer than the allowed wait.
+        Map<String, String> idVConfigPropertyMap = createConfigPropertyMap(TEST_TOKEN, "60", "1", "5");
+        idVConfigPropertyMap.put(RATE_LIMIT_MAX_WAIT, "100");
+
+        rateLimiter.acquire(idVConfigPropertyMap);
+        expectThrows(OnfidoServerException.class, () -> rateLimiter.acquire(idVConfigPropertyMap));
+    }
+
+    @Test
+    public void testDisabledRateLimit() throws Exception {
+
+        Map<String, String> idVConfigPropertyMap = createConfigPropertyMap(TEST_TOKEN, "0", "1", "0");
+
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.acquire(idVConfigPropertyMap);
+        }
+        assertTrue(rateLimiter.getStats().isEmpty());
+    }
+
+    private OnfidoRateLimiter.RateLimiterStats getStats() {
+
+        return rateLimiter.getStats().values().iterator().next();
+    }
+
+    private Map<String, String> createConfigPropertyMap(String apiToken, String requestsPerMinute, String burst,
+                                                        String maxWaitingRequests) {
+
+        Map<String, String> idVConfigPropertyMap = new HashMap<>();
+        idVConfigPropertyMap.put(TOKEN, apiToken);
+        idVConfigPropertyMap.put(RATE_LIMIT_REQUESTS_PER_MINUTE, requestsPerMinute);
+        idVConfigPropertyMap.put(RATE_LIMIT_BURST, burst);
+        idVConfigPropertyMap.put(RATE_LIMIT_MAX_WAITING_REQUESTS, maxWaitingRequests);
+        return idVConfigPropertyMap;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.apache.http.entity.StringEntity;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoApplicant;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoSdkToken;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoWorkflowRun;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.expectThrows;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_CREATING_RESPONSE;
+
+public class OnfidoResponseParserTest {
+
+    private static final String TEST_WORKFLOW_RUN_ID = "test_workflow_run_id";
+    private static final String TEST_APPLICANT_ID = "test_applicant_id";
+    private static final String TEST_WORKFLOW_ID = "test_workflow_id";
+    private static final String TEST_STATUS_APPROVED = "approved";
+
+    @Test
+    public void testParseWorkflowRunSkipsNestedFields() throws Exception {
+
+        // The nested output and link fields carry the same field names as the top level, but must not be read.
+        String response = "{\"id\":\"" + TEST_WORKFLOW_RUN_ID + "\"," +
+                "\"output\":{\"id\":\"nested_id\",\"breakdown\":[{\"status\":\"clear\"},[1,2]]}," +
+                "\"applicant_id\":\"" + TEST_APPLICANT_ID + "\",\"tags\":[\"status\"]," +
+                "\"workflow_id\":\"" + TEST_WORKFLOW_ID + "\",\"error\":null," +
+                "\"status\":\"" + TEST_STATUS_APPROVED + "\",\"link\":{\"url\":\"https://example.com\"}}";
+
+        OnfidoWorkflowRun workflowRun = OnfidoResponseParser.parseWorkflowRun(new StringEntity(response));
+
+        assertEquals(workflowRun.getId(), TEST_WORKFLOW_RUN_ID);
+        assertEquals(workflowRun.getApplicantId(), TEST_APPLICANT_ID);
+        assertEquals(workflowRun.getWorkflowId(), TEST_WORKFLOW_ID);
+        assertEquals(workflowRun.getStatus(), TEST_STATUS_APPROVED);
+    }
+
+    @Test
+    public void testParseApplicantWithoutOptionalFields() throws Exception {
+
+        OnfidoApplicant applicant = OnfidoResponseParser.parseApplicant(
+                new StringEntity("{\"id\":\"" + TEST_APPLICANT_ID + "\",\"address\":{\"country\":\"GBR\"}}"));
+
+        assertEquals(applicant.getId(), TEST_APPLICANT_ID);
+        assertNull(applicant.getFirstName());
+        assertNull(applicant.getLastName());
+    }
+
+    @Test
+    public void testParseSdkToken() throws Exception {
+
+        OnfidoSdkToken sdkToken =
+                OnfidoResponseParser.parseSdkToken(new StringEntity("{\"token\":\"test_sdk_token\"}"));
+
+        assertEquals(sdkToken.getToken(), "test_sdk_token");
+        assertEquals(sdkToken.getExpiryTime(), 0, "The expiry time of a token which is not a JWT should be unknown.");
+    }
+
+    @Test
+    public void testParseSdkTokenExpiryTime() throws Exception {
+
+        String claims = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"app\":\"test_applicant_id\",\"exp\":1767225600}".getBytes(StandardCharsets.UTF_8));
+        String token = "eyJhbGciOiJIUzI1NiJ9." + claims + ".signature";
+
+        OnfidoSdkToken sdkToken =
+                OnfidoResponseParser.parseSdkToken(new StringEntity("{\"token\":\"" + token + "\"}"));
+
+        assertEquals(sdkToken.getToken(), token);
+        assertEquals(sdkToken.getExpiryTime(), 1767225600000L);
+    }
+
+    @DataProvider(name = "invalidResponses")
+    public Object[][] invalidResponses() {
+
+        return new Object[][]{
+                {"{\"first_name\":\"John\"}"},
+                {"{\"id\":null}"},
+                {"[{\"id\":\"" + TEST_APPLICANT_ID + "\"}]"},
+                {"{\"id\":\"" + TEST_APPLICANT_ID + "\""},
+                {"not json"},
+                {""}
+        };
+    }
+
+    @Test(dataProvider = "invalidResponses")
+    public void testParseInvalidResponse(String response) {
+
+        OnfidoServerException exception = expectThrows(OnfidoServerException.class,
+                () -> OnfidoResponseParser.parseApplicant(new StringEntity(response)));
+        assertEquals(exception.getErrorCode(), ERROR_CREATING_RESPONSE.getCode());
+    }
+
+    @Test
+    public void testParseMissingEntity() {
+
+        OnfidoServerException exception = expectThrows(OnfidoServerException.class,
+                () -> OnfidoResponseParser.parseApplicant(null));
+        assertEquals(exception.getErrorCode(), ERROR_CREATING_RESPONSE.getCode());
+    }
+}
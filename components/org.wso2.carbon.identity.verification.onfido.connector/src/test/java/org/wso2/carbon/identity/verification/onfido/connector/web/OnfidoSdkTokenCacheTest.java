@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoSdkToken;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+public class OnfidoSdkTokenCacheTest {
+
+    private static final String TOKEN = "token";
+    private static final String TEST_TOKEN = "test-token";
+    private static final String OTHER_TEST_TOKEN = "other-test-token";
+    private static final String BASE_URL = "base_url";
+    private static final String TEST_BASE_URL = "https://api.onfido.com/v3.6";
+    private static final String TEST_APPLICANT_ID = "test_applicant_id";
+    private static final String OTHER_TEST_APPLICANT_ID = "other_test_applicant_id";
+    private static final String SDK_TOKEN_EXPIRY_MARGIN = "sdk_token_expiry_margin";
+
+    private final OnfidoSdkTokenCache sdkTokenCache = OnfidoSdkTokenCache.getInstance();
+    private Map<String, String> idVConfigPropertyMap;
+
+    @BeforeMethod
+    public void setUp() {
+
+        idVConfigPropertyMap = new HashMap<>();
+        idVConfigPropertyMap.put(TOKEN, TEST_TOKEN);
+        idVConfigPropertyMap.put(BASE_URL, TEST_BASE_URL);
+        idVConfigPropertyMap.put(SDK_TOKEN_EXPIRY_MARGIN, String.valueOf(TimeUnit.MINUTES.toMillis(10)));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        sdkTokenCache.clear();
+    }
+
+    @Test
+    public void testValidSdkTokenIsReused() throws Exception {
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.createSDKToken(any(), any()))
+                    .thenAnswer(invocation -> createSdkToken(TimeUnit.MINUTES.toMillis(90)));
+
+            OnfidoSdkToken sdkToken = sdkTokenCache.getSdkToken(idVConfigPropertyMap, TEST_APPLICANT_ID);
+            assertSame(sdkTokenCache.getSdkToken(idVConfigPropertyMap, TEST_APPLICANT_ID), sdkToken);
+            mockedOnfidoAPIClient.verify(() -> OnfidoAPIClient.createSDKToken(any(), any()), times(1));
+
+            // The SDK tokens of other applicants, or created with another API token, are not shared.
+            sdkTokenCache.getSdkToken(idVConfigPropertyMap, OTHER_TEST_APPLICANT_ID);
+            Map<String, String> otherIdVConfigPropertyMap = new HashMap<>(idVConfigPropertyMap);
+            otherIdVConfigPropertyMap.put(TOKEN, OTHER_TEST_TOKEN);
+            sdkTokenCache.getSdkToken(otherIdVConfigPropertyMap, TEST_APPLICANT_ID);
+            mockedOnfidoAPIClient.verify(() -> OnfidoAPIClient.createSDKToken(any(), any()), times(3));
+        }
+    }
+
+    @Test
+    public void testSdkTokenIsNotReusedWithinExpiryMargin() throws Exception {
+
+        OnfidoSdkToken sdkToken = createSdkToken(TimeUnit.MINUTES.toMillis(90));
+        sdkTokenCache.put(idVConfigPropertyMap, TEST_APPLICANT_ID, sdkToken);
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.createSDKToken(any(), any()))
+                    .thenAnswer(invocation -> createSdkToken(TimeUnit.MINUTES.toMillis(90)));
+
+            assertSame(sdkTokenCache.getSdkToken(idVConfigPropertyMap, TEST_APPLICANT_ID), sdkToken);
+
+            // The cached SDK token expires within the margin, hence a new one is created.
+            idVConfigPropertyMap.put(SDK_TOKEN_EXPIRY_MARGIN, String.valueOf(TimeUnit.MINUTES.toMillis(100)));
+            assertNotSame(sdkTokenCache.getSdkToken(idVConfigPropertyMap, TEST_APPLICANT_ID), sdkToken);
+            mockedOnfidoAPIClient.verify(() -> OnfidoAPIClient.createSDKToken(any(), any()), times(1));
+        }
+    }
+
+    @Test
+    public void testSdkTokenWithUnknownExpiryIsNotCached() throws Exception {
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.createSDKToken(any(), any()))
+                    .thenAnswer(invocation -> new OnfidoSdkToken());
+
+            sdkTokenCache.getSdkToken(idVConfigPropertyMap, TEST_APPLICANT_ID);
+            sdkTokenCache.getSdkToken(idVConfigPropertyMap, TEST_APPLICANT_ID);
+            mockedOnfidoAPIClient.verify(() -> OnfidoAPIClient.createSDKToken(any(), any()), times(2));
+        }
+    }
+
+    private OnfidoSdkToken createSdkToken(long lifetime) {
+
+        OnfidoSdkToken sdkToken = new OnfidoSdkToken();
+        sdkToken.setToken("test_sdk_token");
+        sdkToken.setExpiryTime(System.currentTimeMillis() + lifetime);
+        return sdkToken;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.expectThrows;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_TENANT_ONFIDO_CAPACITY_EXCEEDED;
+
+public class OnfidoTenantBulkheadTest {
+
+    private static final int TEST_TENANT_ID = 1;
+    private static final int OTHER_TEST_TENANT_ID = 2;
+    private static final String BASE_URL = "base_url";
+    private static final String EU_BASE_URL = "https://api.eu.onfido.com/v3.6";
+    private static final String US_BASE_URL = "https://api.us.onfido.com/v3.6";
+    private static final String HTTP_MAX_CONNECTIONS = "http_max_connections";
+    private static final String TENANT_BULKHEAD_SHARE = "tenant_bulkhead_share";
+    private static final String TENANT_BULKHEAD_MAX_WAIT = "tenant_bulkhead_max_wait";
+
+    private final OnfidoTenantBulkhead tenantBulkhead = OnfidoTenantBulkhead.getInstance();
+    private Map<String, String> idVConfigPropertyMap;
+
+    @BeforeMethod
+    public void setUp() {
+
+        idVConfigPropertyMap = new HashMap<>();
+        idVConfigPropertyMap.put(BASE_URL, EU_BASE_URL);
+        idVConfigPropertyMap.put(HTTP_MAX_CONNECTIONS, "4");
+        idVConfigPropertyMap.put(TENANT_BULKHEAD_SHARE, "50");
+        idVConfigPropertyMap.put(TENANT_BULKHEAD_MAX_WAIT, "0");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        tenantBulkhead.clear();
+    }
+
+    @Test
+    public void testTenantIsLimitedToItsShare() throws Exception {
+
+        // Half of the four connections are available to each tenant.
+        OnfidoTenantBulkhead.Bulkhead bulkhead = getBulkhead(idVConfigPropertyMap, TEST_TENANT_ID);
+        bulkhead.acquirePermission();
+        bulkhead.acquirePermission();
+        OnfidoServerException exception = expectThrows(OnfidoServerException.class, bulkhead::acquirePermission);
+        assertEquals(exception.getErrorCode(), ERROR_TENANT_ONFIDO_CAPACITY_EXCEEDED.getCode());
+
+        // The other tenants are not affected by the overloaded tenant.
+        OnfidoTenantBulkhead.Bulkhead otherBulkhead = getBulkhead(idVConfigPropertyMap, OTHER_TEST_TENANT_ID);
+        otherBulkhead.acquirePermission();
+
+        // A released permission can be acquired again.
+        bulkhead.releasePermission();
+        bulkhead.acquirePermission();
+
+        OnfidoTenantBulkhead.BulkheadStats stats =
+                tenantBulkhead.getStats().get(TEST_TENANT_ID + " https://api.eu.onfido.com:443");
+        assertEquals(stats.getMaxConcurrentCalls(), 2);
+        assertEquals(stats.getActiveCalls(), 2);
+        assertEquals(stats.getRejectedCalls(), 1);
+    }
+
+    @Test
+    public void testSeparateBulkheadPerPool() throws Exception {
+
+        Map<String, String> usIdVConfigPropertyMap = new HashMap<>(idVConfigPropertyMap);
+        usIdVConfigPropertyMap.put(BASE_URL, US_BASE_URL);
+
+        // The calls of a tenant to another Onfido region do not use the share of the tenant in the first region.
+        OnfidoTenantBulkhead.Bulkhead bulkhead = getBulkhead(idVConfigPropertyMap, TEST_TENANT_ID);
+        OnfidoTenantBulkhead.Bulkhead usBulkhead = getBulkhead(usIdVConfigPropertyMap, TEST_TENANT_ID);
+        assertNotSame(usBulkhead, bulkhead);
+        bulkhead.acquirePermission();
+        bulkhead.acquirePermission();
+        usBulkhead.acquirePermission();
+        assertEquals(tenantBulkhead.getStats().size(), 2);
+    }
+
+    @Test
+    public void testBulkheadIsResizedInPlace() throws Exception {
+
+        OnfidoTenantBulkhead.Bulkhead bulkhead = getBulkhead(idVConfigPropertyMap, TEST_TENANT_ID);
+        bulkhead.acquirePermission();
+        bulkhead.acquirePermission();
+
+        // Another IdV provider of the tenant with a larger share gets the same bulkhead, which grows to its share
+        // while still accounting for the permissions already held.
+        Map<String, String> otherIdVConfigPropertyMap = new HashMap<>(idVConfigPropertyMap);
+        otherIdVConfigPropertyMap.put(TENANT_BULKHEAD_SHARE, "100");
+        assertSame(getBulkhead(otherIdVConfigPropertyMap, TEST_TENANT_ID), bulkhead);
+        bulkhead.acquirePermission();
+        bulkhead.acquirePermission();
+        expectThrows(OnfidoServerException.class, bulkhead::acquirePermission);
+
+        // When the bulkhead shrinks below the permissions held, none is granted until enough of them are released.
+        assertSame(getBulkhead(idVConfigPropertyMap, TEST_TENANT_ID), bulkhead);
+        bulkhead.releasePermission();
+        bulkhead.releasePermission();
+        expectThrows(OnfidoServerException.class, bulkhead::acquirePermission);
+        bulkhead.releasePermission();
+        bulkhead.acquirePermission();
+        expectThrows(OnfidoServerException.class, bulkhead::acquirePermission);
+
+        // A tenant always gets at least one permission, however small its share is.
+        idVConfigPropertyMap.put(TENANT_BULKHEAD_SHARE, "1");
+        assertSame(getBulkhead(idVConfigPropertyMap, TEST_TENANT_ID), bulkhead);
+        bulkhead.releasePermission();
+        bulkhead.releasePermission();
+        bulkhead.acquirePermission();
+        expectThrows(OnfidoServerException.class, bulkhead::acquirePermission);
+    }
+
+    private OnfidoTenantBulkhead.Bulkhead getBulkhead(Map<String, String> idVConfigPropertyMap, int tenantId) {
+
+        return tenantBulkhead.getBulkhead(idVConfigPropertyMap,
+                HTTPClientConfig.fromConfigProperties(idVConfigPropertyMap), tenantId);
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.verification.onfido.connector.web;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.verification.onfido.connector.exception.OnfidoServerException;
+import org.wso2.carbon.identity.verification.onfido.connector.model.OnfidoWorkflowRun;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.ErrorMessage.ERROR_GETTING_ONFIDO_WORKFLOW_STATUS;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.HTTP_CONNECTION_REQUEST_TIMEOUT;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.HTTP_CONNECTION_TIMEOUT;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.HTTP_MAX_RETRIES;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.HTTP_READ_TIMEOUT;
+import static org.wso2.carbon.identity.verification.onfido.connector.constants.OnfidoConstants.HTTP_RETRY_MAX_DELAY;
+
+public class OnfidoWorkflowRunCacheTest {
+
+    private static final String TOKEN = "token";
+    private static final String TEST_TOKEN = "test-token";
+    private static final String OTHER_TEST_TOKEN = "other-test-token";
+    private static final String BASE_URL = "base_url";
+    private static final String TEST_BASE_URL = "https://api.onfido.com/v3.6";
+    private static final String TEST_WORKFLOW_RUN_ID = "test_workflow_run_id";
+    private static final String TEST_STATUS_APPROVED = "approved";
+    private static final String TEST_STATUS_AWAITING_INPUT = "awaiting_input";
+    private static final String TEST_ETAG = "W/\"test-etag\"";
+    private static final String WORKFLOW_RUN_STATUS_FRESHNESS = "workflow_run_status_freshness";
+
+    private final AtomicLong nanoClock = new AtomicLong();
+    private OnfidoWorkflowRunCache workflowRunCache;
+    private Map<String, String> idVConfigPropertyMap;
+
+    @BeforeMethod
+    public void setUp() {
+
+        workflowRunCache = new OnfidoWorkflowRunCache(nanoClock::get);
+        idVConfigPropertyMap = new HashMap<>();
+        idVConfigPropertyMap.put(TOKEN, TEST_TOKEN);
+        idVConfigPropertyMap.put(BASE_URL, TEST_BASE_URL);
+    }
+
+    @Test
+    public void testConcurrentCallersShareInFlightCall() throws Exception {
+
+        idVConfigPropertyMap.put(WORKFLOW_RUN_STATUS_FRESHNESS, "0");
+        OnfidoWorkflowRun workflowRun = createWorkflowRun();
+        CompletableFuture<OnfidoWorkflowRun> concurrentCall = new CompletableFuture<>();
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()))
+                    .thenAnswer(invocation -> {
+                        // The static mock only applies to this thread, hence the concurrent caller would fail if it
+                        // called Onfido instead of waiting for this call.
+                        awaitWaiting(startConcurrentCall(concurrentCall));
+                        return workflowRun;
+                    });
+
+            assertSame(workflowRunCache.getWorkflowRun(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID), workflowRun);
+            assertSame(concurrentCall.get(5, TimeUnit.SECONDS), workflowRun);
+            mockedOnfidoAPIClient.verify(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()), times(1));
+        }
+    }
+
+    @Test
+    public void testConcurrentCallersShareInFlightError() throws Exception {
+
+        idVConfigPropertyMap.put(WORKFLOW_RUN_STATUS_FRESHNESS, "0");
+        OutOfMemoryError error = new OutOfMemoryError();
+        CompletableFuture<OnfidoWorkflowRun> concurrentCall = new CompletableFuture<>();
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()))
+                    .thenAnswer(invocation -> {
+                        awaitWaiting(startConcurrentCall(concurrentCall));
+                        throw error;
+                    });
+
+            assertSame(expectThrows(OutOfMemoryError.class,
+                    () -> workflowRunCache.getWorkflowRun(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID)), error);
+            ExecutionException exception = expectThrows(ExecutionException.class,
+                    () -> concurrentCall.get(5, TimeUnit.SECONDS));
+            assertSame(exception.getCause(), error);
+            mockedOnfidoAPIClient.verify(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()), times(1));
+        }
+    }
+
+    @Test
+    public void testFreshWorkflowRunIsReused() throws Exception {
+
+        idVConfigPropertyMap.put(WORKFLOW_RUN_STATUS_FRESHNESS, "50");
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()))
+                    .thenAnswer(invocation -> createWorkflowRun(TEST_STATUS_AWAITING_INPUT));
+
+            OnfidoWorkflowRun workflowRun = workflowRunCache.getWorkflowRun(idVConfigPropertyMap,
+                    TEST_WORKFLOW_RUN_ID);
+            assertSame(workflowRunCache.getWorkflowRun(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID), workflowRun);
+            mockedOnfidoAPIClient.verify(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()), times(1));
+
+            // A workflow run retrieved with another API token is not shared.
+            Map<String, String> otherIdVConfigPropertyMap = new HashMap<>(idVConfigPropertyMap);
+            otherIdVConfigPropertyMap.put(TOKEN, OTHER_TEST_TOKEN);
+            workflowRunCache.getWorkflowRun(otherIdVConfigPropertyMap, TEST_WORKFLOW_RUN_ID);
+            mockedOnfidoAPIClient.verify(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()), times(2));
+
+            nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+            OnfidoWorkflowRun refreshedWorkflowRun = workflowRunCache.getWorkflowRun(idVConfigPropertyMap,
+                    TEST_WORKFLOW_RUN_ID);
+            assertNotSame(refreshedWorkflowRun, workflowRun, "An expired workflow run should be retrieved again.");
+            mockedOnfidoAPIClient.verify(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()), times(3));
+        }
+    }
+
+    @Test
+    public void testTerminalWorkflowRunIsKept() throws Exception {
+
+        idVConfigPropertyMap.put(WORKFLOW_RUN_STATUS_FRESHNESS, "1");
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()))
+                    .thenAnswer(invocation -> createWorkflowRun());
+
+            OnfidoWorkflowRun workflowRun = workflowRunCache.getWorkflowRun(idVConfigPropertyMap,
+                    TEST_WORKFLOW_RUN_ID);
+            nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+            assertSame(workflowRunCache.getWorkflowRun(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID), workflowRun,
+                    "A workflow run in a terminal status should be kept beyond the freshness window.");
+            mockedOnfidoAPIClient.verify(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()), times(1));
+        }
+    }
+
+    @Test
+    public void testStaleWorkflowRunIsRevalidated() throws Exception {
+
+        idVConfigPropertyMap.put(WORKFLOW_RUN_STATUS_FRESHNESS, "1");
+        OnfidoWorkflowRun workflowRun = createWorkflowRun(TEST_STATUS_AWAITING_INPUT);
+        workflowRun.setETag(TEST_ETAG);
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()))
+                    .thenReturn(workflowRun);
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any(), any()))
+                    .thenAnswer(invocation -> invocation.getArgument(2));
+
+            workflowRunCache.getWorkflowRun(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID);
+            nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+            assertSame(workflowRunCache.getWorkflowRun(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID), workflowRun);
+            mockedOnfidoAPIClient.verify(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()), times(1));
+            mockedOnfidoAPIClient.verify(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any(), eq(workflowRun)),
+                    times(1));
+        }
+    }
+
+    @Test
+    public void testWorkflowRunFromWebhookIsReused() throws Exception {
+
+        OnfidoWorkflowRun workflowRun = createWorkflowRun();
+        workflowRunCache.put(idVConfigPropertyMap, workflowRun);
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            assertSame(workflowRunCache.getWorkflowRun(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID), workflowRun);
+            mockedOnfidoAPIClient.verifyNoInteractions();
+        }
+    }
+
+    @Test
+    public void testFailureIsNotCached() throws Exception {
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()))
+                    .thenThrow(new OnfidoServerException(ERROR_GETTING_ONFIDO_WORKFLOW_STATUS.getCode(),
+                            ERROR_GETTING_ONFIDO_WORKFLOW_STATUS.getMessage()))
+                    .thenReturn(createWorkflowRun());
+
+            OnfidoServerException exception = expectThrows(OnfidoServerException.class,
+                    () -> workflowRunCache.getWorkflowRun(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID));
+            assertEquals(exception.getErrorCode(), ERROR_GETTING_ONFIDO_WORKFLOW_STATUS.getCode());
+
+            assertEquals(workflowRunCache.getWorkflowRun(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID).getStatus(),
+                    TEST_STATUS_APPROVED);
+            mockedOnfidoAPIClient.verify(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()), times(2));
+        }
+    }
+
+    @Test
+    public void testErrorIsNotCached() throws Exception {
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()))
+                    .thenThrow(new OutOfMemoryError())
+                    .thenReturn(createWorkflowRun());
+
+            expectThrows(OutOfMemoryError.class,
+                    () -> workflowRunCache.getWorkflowRun(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID));
+
+            // The failed retrieval is no longer in flight, hence the next caller retrieves the workflow run again.
+            assertEquals(workflowRunCache.getWorkflowRun(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID).getStatus(),
+                    TEST_STATUS_APPROVED);
+            mockedOnfidoAPIClient.verify(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()), times(2));
+        }
+    }
+
+    @Test
+    public void testWaitForInFlightCallIsBounded() throws Exception {
+
+        idVConfigPropertyMap.put(HTTP_CONNECTION_TIMEOUT, "1");
+        idVConfigPropertyMap.put(HTTP_READ_TIMEOUT, "1");
+        idVConfigPropertyMap.put(HTTP_CONNECTION_REQUEST_TIMEOUT, "1");
+        idVConfigPropertyMap.put(HTTP_RETRY_MAX_DELAY, "1");
+        idVConfigPropertyMap.put(HTTP_MAX_RETRIES, "0");
+        assertEquals(OnfidoWorkflowRunCache.getMaxInFlightWait(idVConfigPropertyMap), 4);
+        OnfidoWorkflowRun workflowRun = createWorkflowRun();
+        CompletableFuture<OnfidoWorkflowRun> concurrentCall = new CompletableFuture<>();
+
+        try (MockedStatic<OnfidoAPIClient> mockedOnfidoAPIClient = mockStatic(OnfidoAPIClient.class)) {
+            mockedOnfidoAPIClient.when(() -> OnfidoAPIClient.getWorkflowRunStatus(any(), any()))
+                    .thenAnswer(invocation -> {
+                        // This call stays in flight until the concurrent caller has stopped waiting for it.
+                        startConcurrentCall(concurrentCall);
+                        expectThrows(ExecutionException.class, () -> concurrentCall.get(5, TimeUnit.SECONDS));
+                        return workflowRun;
+                    });
+
+            assertSame(workflowRunCache.getWorkflowRun(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID), workflowRun);
+            ExecutionException exception = expectThrows(ExecutionException.class, concurrentCall::get);
+            assertTrue(exception.getCause() instanceof OnfidoServerException);
+            assertTrue(exception.getCause().getCause() instanceof TimeoutException);
+        }
+    }
+
+    /**
+     * Starts a caller retrieving the workflow run on another thread, once the thread has started.
+     *
+     * @param concurrentCall The future to complete with the result of the caller.
+     * @return The thread of the caller.
+     * @throws InterruptedException If interrupted while waiting for the thread to start.
+     */
+    private Thread startConcurrentCall(CompletableFuture<OnfidoWorkflowRun> concurrentCall)
+            throws InterruptedException {
+
+        CountDownLatch concurrentCallStarted = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            concurrentCallStarted.countDown();
+            try {
+                concurrentCall.complete(workflowRunCache.getWorkflowRun(idVConfigPropertyMap, TEST_WORKFLOW_RUN_ID));
+            } catch (Throwable e) {
+                concurrentCall.completeExceptionally(e);
+            }
+        });
+        thread.start();
+        assertTrue(concurrentCallStarted.await(5, TimeUnit.SECONDS));
+        return thread;
+    }
+
+    /**
+     * Waits for a caller to wait for the retrieval in flight, which is the only wait of the caller.
+     *
+     * @param thread The thread of the caller.
+     */
+    private void awaitWaiting(Thread thread) {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.TIMED_WAITING) {
+            assertTrue(thread.isAlive() && System.nanoTime() - deadline < 0,
+                    "The concurrent caller did not wait for the retrieval in flight.");
+            Thread.yield();
+        }
+    }
+
+    private OnfidoWorkflowRun createWorkflowRun() {
+
+        return createWorkflowRun(TEST_STATUS_APPROVED);
+    }
+
+    private OnfidoWorkflowRun createWorkflowRun(String status) {
+
+        OnfidoWorkflowRun workflowRun = new OnfidoWorkflowRun();
+        workflowRun.setId(TEST_WORKFLOW_RUN_ID);
+        workflowRun.setStatus(status);
+        return workflowRun;
+    }
+}
@@ -88,20 +88,24 @@ export const isClaimVerified = async (claimToVerify: string, config: ConfigInter
         .then((response: HttpResponse<IdVClaim[]>) => {
             const claims = response.data as IdVClaim[];
             const claim = claims.find((claim) => claim.uri === claimToVerify);
-            return getClaimVerificationStatus(claim);
+            return getClaimVerificationStatus(claim, claims);
         })
         .catch((error) => {
             throw error;
         });
 }
 
-export const getClaimVerificationStatus = (claim: IdVClaim): ClaimVerificationStatus => {
+export const getClaimVerificationStatus = (claim: IdVClaim, claims: IdVClaim[] = []): ClaimVerificationStatus => {
     // If the claim is undefined, it means no verification has been initiated for this claim with Onfido
     if (!claim) {
         return { isVerified: undefined, workflowStatus: undefined };
     }
+    // The workflow status is only stored with one claim of the workflow run, which the other claims reference
+    const workflowRunClaim = claim.claimMetadata.onfido_workflow_status ? claim : claims.find(
+        (otherClaim) => otherClaim.claimMetadata?.onfido_workflow_run_id === claim.claimMetadata.onfido_workflow_run_id
+            && otherClaim.claimMetadata.onfido_workflow_status);
     return {
         isVerified: claim.isVerified,
-        workflowStatus: claim.claimMetadata.onfido_workflow_status
+        workflowStatus: workflowRunClaim?.claimMetadata.onfido_workflow_status
     };
 }
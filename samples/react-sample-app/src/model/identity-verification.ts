@@ -34,7 +34,7 @@ export interface IdVClaim {
 export interface ClaimMetadata {
     onfido_applicant_id: string;
     onfido_workflow_run_id: string;
-    onfido_workflow_status: WorkflowStatus;
+    onfido_workflow_status?: WorkflowStatus;
     sdk_token?: string;
 }
 